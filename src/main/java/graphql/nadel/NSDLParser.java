@@ -1,15 +1,21 @@
 package graphql.nadel;
 
 import graphql.Internal;
+import graphql.language.Node;
+import graphql.nadel.dsl.CommonDefinition;
+import graphql.nadel.dsl.ServiceDefinition;
 import graphql.nadel.dsl.StitchingDsl;
 import graphql.nadel.parser.antlr.StitchingDSLLexer;
 import graphql.nadel.parser.antlr.StitchingDSLParser;
 import graphql.parser.ExtendedBailStrategy;
 import graphql.parser.MultiSourceReader;
+import org.antlr.v4.runtime.BailErrorStrategy;
 import org.antlr.v4.runtime.BaseErrorListener;
 import org.antlr.v4.runtime.CharStreams;
 import org.antlr.v4.runtime.CodePointCharStream;
 import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.ListTokenSource;
+import org.antlr.v4.runtime.ParserRuleContext;
 import org.antlr.v4.runtime.RecognitionException;
 import org.antlr.v4.runtime.Recognizer;
 import org.antlr.v4.runtime.Token;
@@ -20,11 +26,40 @@ import java.io.IOException;
 import java.io.Reader;
 import java.io.StringReader;
 import java.io.UncheckedIOException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
 
+/**
+ * Parses NSDL into a {@link StitchingDsl}.
+ *
+ * Parsing first uses the fast SLL prediction mode and only if that fails parses again with the full LL mode, which
+ * also reports any syntax errors.  If an executor is given the document is split into its common and service blocks
+ * which are then parsed in parallel.  If anything about the blocks fails to parse the whole document is parsed again
+ * in one go, so syntax errors are reported exactly as they would be without an executor.
+ */
 @Internal
 public class NSDLParser {
 
+    private static final String SERVICE = "service";
+    private static final String COMMON = "common";
+
+    private final Executor executor;
+
+    public NSDLParser() {
+        this(null);
+    }
+
+    /**
+     * @param executor the executor to parse service blocks on in parallel or null to parse in one pass
+     */
+    public NSDLParser(Executor executor) {
+        this.executor = executor;
+    }
+
     public StitchingDsl parseDSL(String input) {
         return parseDSL(new StringReader(input));
     }
@@ -46,17 +81,28 @@ public class NSDLParser {
         }
 
         StitchingDSLLexer lexer = new StitchingDSLLexer(charStream);
-        CommonTokenStream tokens = new CommonTokenStream(lexer);
-        StitchingDSLParser parser = new StitchingDSLParser(tokens);
-        parser.removeErrorListeners();
-        parser.addErrorListener(ThrowingErrorListener.INSTANCE);
-        parser.getInterpreter().setPredictionMode(PredictionMode.SLL);
-
+        if (executor == null) {
+            return parseDocument(new CommonTokenStream(lexer), multiSourceReader);
+        }
 
-        ExtendedBailStrategy bailStrategy = new ExtendedBailStrategy(multiSourceReader);
-        parser.setErrorHandler(bailStrategy);
+        List<Token> allTokens = new ArrayList<>(lexer.getAllTokens());
+        StitchingDsl stitchingDsl = parseBlocks(allTokens, multiSourceReader);
+        if (stitchingDsl != null) {
+            return stitchingDsl;
+        }
+        return parseDocument(new CommonTokenStream(new ListTokenSource(allTokens)), multiSourceReader);
+    }
 
-        StitchingDSLParser.StitchingDSLContext stitchingDSL = parser.stitchingDSL();
+    private StitchingDsl parseDocument(CommonTokenStream tokens, MultiSourceReader multiSourceReader) {
+        StitchingDSLParser parser = new StitchingDSLParser(tokens);
+        StitchingDSLParser.StitchingDSLContext stitchingDSL;
+        try {
+            stitchingDSL = parseWithSll(parser, StitchingDSLParser::stitchingDSL);
+        } catch (ParseCancellationException e) {
+            tokens.seek(0);
+            parser.reset();
+            stitchingDSL = parseWithLl(parser, multiSourceReader, StitchingDSLParser::stitchingDSL);
+        }
 
         NadelAntlrToLanguage antlrToLanguage = new NadelAntlrToLanguage(tokens, multiSourceReader);
         StitchingDsl stitchingDsl = antlrToLanguage.createStitchingDsl(stitchingDSL);
@@ -79,6 +125,141 @@ public class NSDLParser {
         return stitchingDsl;
     }
 
+    /**
+     * Splits the tokens at the top level 'common' and 'service' keywords and parses the blocks in parallel.
+     *
+     * @return the parsed document or null if the blocks could not be parsed
+     */
+    private StitchingDsl parseBlocks(List<Token> allTokens, MultiSourceReader multiSourceReader) {
+        List<List<Token>> blocks = splitBlocks(allTokens);
+        if (blocks == null) {
+            return null;
+        }
+
+        List<CompletableFuture<Node<?>>> blockFutures = new ArrayList<>();
+        for (int i = 0; i < blocks.size(); i++) {
+            List<Token> block = blocks.get(i);
+            boolean common = i == 0 && COMMON.equals(firstDefaultToken(block).getText());
+            blockFutures.add(CompletableFuture.supplyAsync(() -> parseBlock(block, common, multiSourceReader), executor));
+        }
+
+        try {
+            // the blocks share their tokens with the whole document, so every block parse must have finished before
+            // the whole document is parsed again to report an error
+            CompletableFuture.allOf(blockFutures.toArray(new CompletableFuture<?>[0])).join();
+        } catch (CompletionException e) {
+            return null;
+        }
+
+        StitchingDsl.Builder stitchingDsl = StitchingDsl.newStitchingDSL();
+        List<ServiceDefinition> serviceDefinitions = new ArrayList<>();
+        for (CompletableFuture<Node<?>> blockFuture : blockFutures) {
+            Node<?> definition = blockFuture.join();
+            if (definition instanceof CommonDefinition) {
+                stitchingDsl.commonDefinition((CommonDefinition) definition);
+            } else {
+                serviceDefinitions.add((ServiceDefinition) definition);
+            }
+        }
+        return stitchingDsl.serviceDefinitions(serviceDefinitions).build();
+    }
+
+    private Node<?> parseBlock(List<Token> block, boolean common, MultiSourceReader multiSourceReader) {
+        CommonTokenStream tokens = new CommonTokenStream(new ListTokenSource(block));
+        StitchingDSLParser parser = new StitchingDSLParser(tokens);
+        Function<StitchingDSLParser, ParserRuleContext> rule = common ? StitchingDSLParser::commonDefinition : StitchingDSLParser::serviceDefinition;
+        ParserRuleContext context;
+        try {
+            context = parseWithSll(parser, rule);
+        } catch (ParseCancellationException e) {
+            tokens.seek(0);
+            parser.reset();
+            context = parseWithLl(parser, multiSourceReader, rule);
+        }
+        if (parser.getCurrentToken().getType() != Token.EOF) {
+            throw new ParseCancellationException("There are more tokens in the block that have not been consumed");
+        }
+
+        NadelAntlrToLanguage antlrToLanguage = new NadelAntlrToLanguage(tokens, multiSourceReader);
+        if (common) {
+            return antlrToLanguage.createCommonDefinition((StitchingDSLParser.CommonDefinitionContext) context);
+        }
+        return antlrToLanguage.createServiceDefinition((StitchingDSLParser.ServiceDefinitionContext) context);
+    }
+
+    /**
+     * @return the tokens of each top level block or null if the document does not have the expected shape
+     */
+    private static List<List<Token>> splitBlocks(List<Token> allTokens) {
+        List<Integer> blockStarts = new ArrayList<>();
+        int depth = 0;
+        boolean inBlockHeader = false;
+        for (int i = 0; i < allTokens.size(); i++) {
+            Token token = allTokens.get(i);
+            if (token.getChannel() != Token.DEFAULT_CHANNEL) {
+                continue;
+            }
+            String text = token.getText();
+            if (depth == 0 && !inBlockHeader) {
+                boolean blockKeyword = SERVICE.equals(text) || (COMMON.equals(text) && blockStarts.isEmpty());
+                if (!blockKeyword) {
+                    return null;
+                }
+                blockStarts.add(i);
+                inBlockHeader = true;
+            } else if ("{".equals(text)) {
+                depth++;
+                inBlockHeader = false;
+            } else if ("}".equals(text)) {
+                depth--;
+                if (depth < 0) {
+                    return null;
+                }
+            }
+        }
+        if (depth != 0 || inBlockHeader || blockStarts.isEmpty()) {
+            return null;
+        }
+        // a document needs at least one service, which only the whole document parse reports
+        boolean hasService = blockStarts.size() > 1 || SERVICE.equals(allTokens.get(blockStarts.get(0)).getText());
+        if (!hasService) {
+            return null;
+        }
+
+        List<List<Token>> blocks = new ArrayList<>();
+        for (int i = 0; i < blockStarts.size(); i++) {
+            // hidden tokens before the first block belong to it
+            int from = i == 0 ? 0 : blockStarts.get(i);
+            int to = i == blockStarts.size() - 1 ? allTokens.size() : blockStarts.get(i + 1);
+            blocks.add(allTokens.subList(from, to));
+        }
+        return blocks;
+    }
+
+    private static Token firstDefaultToken(List<Token> tokens) {
+        for (Token token : tokens) {
+            if (token.getChannel() == Token.DEFAULT_CHANNEL) {
+                return token;
+            }
+        }
+        return null;
+    }
+
+    private static <T extends ParserRuleContext> T parseWithSll(StitchingDSLParser parser, Function<StitchingDSLParser, T> rule) {
+        parser.removeErrorListeners();
+        parser.getInterpreter().setPredictionMode(PredictionMode.SLL);
+        parser.setErrorHandler(new BailErrorStrategy());
+        return rule.apply(parser);
+    }
+
+    private static <T extends ParserRuleContext> T parseWithLl(StitchingDSLParser parser, MultiSourceReader multiSourceReader, Function<StitchingDSLParser, T> rule) {
+        parser.removeErrorListeners();
+        parser.addErrorListener(ThrowingErrorListener.INSTANCE);
+        parser.getInterpreter().setPredictionMode(PredictionMode.LL);
+        parser.setErrorHandler(new ExtendedBailStrategy(multiSourceReader));
+        return rule.apply(parser);
+    }
+
     private static class ThrowingErrorListener extends BaseErrorListener {
         private static ThrowingErrorListener INSTANCE = new ThrowingErrorListener();
 
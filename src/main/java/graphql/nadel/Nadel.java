@@ -3,6 +3,7 @@ package graphql.nadel;
 import graphql.ExecutionInput;
 import graphql.ExecutionResult;
 import graphql.ExecutionResultImpl;
+import graphql.GraphQLError;
 import graphql.ParseResult;
 import graphql.PublicApi;
 import graphql.execution.AbortExecutionException;
@@ -11,27 +12,40 @@ import graphql.execution.ExecutionIdProvider;
 import graphql.execution.instrumentation.DocumentAndVariables;
 import graphql.execution.instrumentation.InstrumentationContext;
 import graphql.execution.instrumentation.InstrumentationState;
-import graphql.execution.preparsed.NoOpPreparsedDocumentProvider;
 import graphql.execution.preparsed.PreparsedDocumentEntry;
 import graphql.execution.preparsed.PreparsedDocumentProvider;
 import graphql.language.Document;
+import graphql.nadel.cost.QueryCostCalculator;
+import graphql.nadel.cost.QueryCostLimits;
 import graphql.nadel.dsl.CommonDefinition;
 import graphql.nadel.dsl.ServiceDefinition;
 import graphql.nadel.dsl.StitchingDsl;
 import graphql.nadel.engine.Execution;
+import graphql.nadel.engine.TransformationIndex;
+import graphql.nadel.hooks.ServiceContextCache;
 import graphql.nadel.hooks.ServiceExecutionHooks;
 import graphql.nadel.instrumentation.NadelInstrumentation;
 import graphql.nadel.instrumentation.parameters.NadelInstrumentationCreateStateParameters;
+import graphql.nadel.instrumentation.parameters.NadelInstrumentationPreparsedDocumentParameters;
 import graphql.nadel.instrumentation.parameters.NadelInstrumentationQueryExecutionParameters;
 import graphql.nadel.instrumentation.parameters.NadelNadelInstrumentationQueryValidationParameters;
 import graphql.nadel.introspection.DefaultIntrospectionRunner;
 import graphql.nadel.introspection.IntrospectionRunner;
+import graphql.nadel.preparsed.CachingPreparsedDocumentProvider;
+import graphql.nadel.preparsed.DocumentCacheStatistics;
+import graphql.nadel.preparsed.InMemoryPersistedQueryCache;
+import graphql.nadel.preparsed.PersistedQueryCache;
+import graphql.nadel.preparsed.PersistedQuerySupport;
+import graphql.nadel.preparsed.SchemaAwarePreparsedDocumentProvider;
 import graphql.nadel.schema.NeverWiringFactory;
 import graphql.nadel.schema.OverallSchemaGenerator;
+import graphql.nadel.schema.SchemaFingerprint;
+import graphql.nadel.schema.SchemaSnapshot;
 import graphql.nadel.schema.SchemaTransformationHook;
 import graphql.nadel.schema.UnderlyingSchemaGenerator;
 import graphql.nadel.util.LogKit;
 import graphql.parser.InvalidSyntaxException;
+import graphql.parser.MultiSourceReader;
 import graphql.parser.Parser;
 import graphql.schema.GraphQLSchema;
 import graphql.schema.idl.ScalarInfo;
@@ -42,13 +56,21 @@ import graphql.validation.Validator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
 import java.io.Reader;
 import java.io.StringReader;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.function.UnaryOperator;
 
 import static graphql.execution.instrumentation.DocumentAndVariables.newDocumentAndVariables;
@@ -63,45 +85,118 @@ public class Nadel {
     private static final Logger log = LoggerFactory.getLogger(Nadel.class);
 
     private final StitchingDsl stitchingDsl;
+    private final String nsdlText;
     private final ServiceExecutionFactory serviceExecutionFactory;
-    private final NSDLParser NSDLParser = new NSDLParser();
+    private final NSDLParser NSDLParser;
     private final List<Service> services;
     private final GraphQLSchema overallSchema;
+    private final TransformationIndex transformationIndex;
+    private final String schemaFingerprint;
+    private final boolean schemaSnapshotMismatch;
+    private final Map<String, String> underlyingFingerprints = new ConcurrentHashMap<>();
     private final NadelInstrumentation instrumentation;
     private final ServiceExecutionHooks serviceExecutionHooks;
+    private final ServiceContextCache serviceContextCache;
     private final PreparsedDocumentProvider preparsedDocumentProvider;
+    private final PersistedQueryCache persistedQueryCache;
+    private final PersistedQuerySupport persistedQuerySupport;
     private final ExecutionIdProvider executionIdProvider;
     private final IntrospectionRunner introspectionRunner;
     private final DefinitionRegistry commonTypes;
     private final WiringFactory overallWiringFactory;
     private final WiringFactory underlyingWiringFactory;
     private final SchemaTransformationHook schemaTransformationHook;
+    private final Executor schemaBuildExecutor;
+    private final boolean lazyUnderlyingSchemas;
+    private final QueryCostCalculator queryCostCalculator;
     private final OverallSchemaGenerator overallSchemaGenerator = new OverallSchemaGenerator();
 
     private Nadel(Reader nsdl,
                   ServiceExecutionFactory serviceExecutionFactory,
                   NadelInstrumentation instrumentation,
                   PreparsedDocumentProvider preparsedDocumentProvider,
+                  PersistedQueryCache persistedQueryCache,
                   ExecutionIdProvider executionIdProvider,
                   IntrospectionRunner introspectionRunner,
                   ServiceExecutionHooks serviceExecutionHooks,
+                  ServiceContextCache serviceContextCache,
                   WiringFactory overallWiringFactory,
                   WiringFactory underlyingWiringFactory,
-                  SchemaTransformationHook schemaTransformationHook) {
+                  SchemaTransformationHook schemaTransformationHook,
+                  Executor schemaBuildExecutor,
+                  boolean lazyUnderlyingSchemas,
+                  QueryCostLimits queryCostLimits,
+                  SchemaSnapshot schemaSnapshot,
+                  Nadel previous) {
         this.serviceExecutionFactory = serviceExecutionFactory;
         this.instrumentation = instrumentation;
         this.serviceExecutionHooks = serviceExecutionHooks;
+        this.serviceContextCache = serviceContextCache;
         this.preparsedDocumentProvider = preparsedDocumentProvider;
+        this.persistedQueryCache = persistedQueryCache;
         this.executionIdProvider = executionIdProvider;
         this.schemaTransformationHook = schemaTransformationHook;
-
-        this.stitchingDsl = this.NSDLParser.parseDSL(nsdl);
+        this.schemaBuildExecutor = schemaBuildExecutor;
+        this.lazyUnderlyingSchemas = lazyUnderlyingSchemas;
+        this.NSDLParser = new NSDLParser(schemaBuildExecutor);
+
+        Reader nsdlSource = nsdl;
+        String givenNsdlText = null;
+        if (nsdl != null && (schemaSnapshot != null || previous != null)) {
+            // the text is needed up front to compare it with the snapshot and the previous NSDL
+            givenNsdlText = readNsdl(nsdl);
+            nsdlSource = new StringReader(givenNsdlText);
+        }
+        if (schemaSnapshot != null && givenNsdlText != null && !givenNsdlText.equals(schemaSnapshot.getNsdl())) {
+            // the snapshot is only used if it was taken from the same NSDL
+            log.warn("Not using schema snapshot {} since it was taken from a different NSDL", schemaSnapshot.getSchemaFingerprint());
+            schemaSnapshot = null;
+        }
+        if (previous != null && previous.nsdlText.equals(schemaSnapshot != null ? schemaSnapshot.getNsdl() : givenNsdlText)) {
+            // the same NSDL gives the same definitions so we keep the previous ones which the previous services refer to,
+            // and do not parse it again
+            this.stitchingDsl = previous.stitchingDsl;
+            this.nsdlText = previous.nsdlText;
+        } else if (schemaSnapshot != null) {
+            this.stitchingDsl = schemaSnapshot.getStitchingDsl();
+            this.nsdlText = schemaSnapshot.getNsdl();
+        } else {
+            MultiSourceReader nsdlReader = toMultiSourceReader(requireNonNull(nsdlSource, "You must provide a NSDL or a schema snapshot"));
+            this.stitchingDsl = this.NSDLParser.parseDSL(nsdlReader);
+            this.nsdlText = String.join("\n", nsdlReader.getData());
+        }
+        boolean nsdlUnchanged = previous != null && previous.nsdlText.equals(this.nsdlText);
         this.introspectionRunner = introspectionRunner;
         this.overallWiringFactory = overallWiringFactory;
         this.underlyingWiringFactory = underlyingWiringFactory;
-        this.services = createServices();
+        this.services = createServices(nsdlUnchanged ? previous : null, canReuseUnderlyingSchemas(previous) ? previous : null, schemaSnapshot);
         this.commonTypes = createCommonTypes();
         this.overallSchema = createOverallSchema();
+        this.transformationIndex = new TransformationIndex(overallSchema);
+        this.queryCostCalculator = queryCostLimits == null ? null : new QueryCostCalculator(services, overallSchema, transformationIndex, queryCostLimits);
+        this.schemaFingerprint = SchemaFingerprint.fingerprint(nsdlText, underlyingFingerprints, overallSchema);
+        this.schemaSnapshotMismatch = schemaSnapshot != null && !schemaFingerprint.equals(schemaSnapshot.getSchemaFingerprint());
+        this.persistedQuerySupport = new PersistedQuerySupport(persistedQueryCache, schemaFingerprint);
+    }
+
+    private static String readNsdl(Reader nsdl) {
+        MultiSourceReader nsdlReader = toMultiSourceReader(nsdl);
+        char[] buffer = new char[8192];
+        try {
+            while (nsdlReader.read(buffer, 0, buffer.length) != -1) {
+                // the reader keeps track of what was read
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return String.join("\n", nsdlReader.getData());
+    }
+
+    private static MultiSourceReader toMultiSourceReader(Reader nsdl) {
+        if (nsdl instanceof MultiSourceReader) {
+            return (MultiSourceReader) nsdl;
+        }
+        return MultiSourceReader.newMultiSourceReader().reader(nsdl, null).build();
     }
 
     private DefinitionRegistry createCommonTypes() {
@@ -109,27 +204,116 @@ public class Nadel {
         return buildServiceRegistry(commonDefinition);
     }
 
-    private List<Service> createServices() {
-        List<ServiceDefinition> serviceDefinitions = stitchingDsl.getServiceDefinitions();
+    private boolean canReuseUnderlyingSchemas(Nadel previous) {
+        if (previous == null) {
+            return false;
+        }
+        // underlying schemas are wired with the underlying wiring factory, the default one holds no state
+        return previous.underlyingWiringFactory == underlyingWiringFactory
+                || (previous.underlyingWiringFactory.getClass() == NeverWiringFactory.class && underlyingWiringFactory.getClass() == NeverWiringFactory.class);
+    }
 
-        UnderlyingSchemaGenerator underlyingSchemaGenerator = new UnderlyingSchemaGenerator();
+    /**
+     * Creates the services, reusing what is unchanged from a previous Nadel.  Building underlying schemas is the
+     * expensive part so they are reused whenever the underlying type definitions have the same fingerprint.
+     *
+     * If a schema build executor is set the services are created on it in parallel.  Problems are reported in service
+     * declaration order no matter which service fails first: the first problem is thrown and any further ones are
+     * added to it as suppressed exceptions.
+     *
+     * @param previousWithSameNsdl   a previous Nadel built from the same NSDL or null
+     * @param previousWithSameWiring a previous Nadel built with the same underlying wiring or null
+     * @param schemaSnapshot         a snapshot to take underlying type definitions from or null
+     *
+     * @return the services of this Nadel
+     */
+    private List<Service> createServices(Nadel previousWithSameNsdl, Nadel previousWithSameWiring, SchemaSnapshot schemaSnapshot) {
+        List<ServiceDefinition> serviceDefinitions = stitchingDsl.getServiceDefinitions();
 
         List<Service> serviceList = new ArrayList<>();
-        for (ServiceDefinition serviceDefinition : serviceDefinitions) {
-            String serviceName = serviceDefinition.getName();
-            ServiceExecution serviceExecution = this.serviceExecutionFactory.getServiceExecution(serviceName);
-            TypeDefinitionRegistry underlyingTypeDefinitions = this.serviceExecutionFactory.getUnderlyingTypeDefinitions(serviceName);
+        if (schemaBuildExecutor == null) {
+            for (ServiceDefinition serviceDefinition : serviceDefinitions) {
+                serviceList.add(createService(serviceDefinition, previousWithSameNsdl, previousWithSameWiring, schemaSnapshot));
+            }
+            return serviceList;
+        }
+
+        List<CompletableFuture<Service>> serviceFutures = serviceDefinitions.stream()
+                .map(serviceDefinition -> CompletableFuture.supplyAsync(
+                        () -> createService(serviceDefinition, previousWithSameNsdl, previousWithSameWiring, schemaSnapshot), schemaBuildExecutor))
+                .collect(toList());
 
-            GraphQLSchema underlyingSchema = underlyingSchemaGenerator
-                    .buildUnderlyingSchema(serviceName, underlyingTypeDefinitions, underlyingWiringFactory);
-            DefinitionRegistry definitionRegistry = buildServiceRegistry(serviceDefinition);
+        RuntimeException problem = null;
+        for (CompletableFuture<Service> serviceFuture : serviceFutures) {
+            try {
+                serviceList.add(serviceFuture.join());
+            } catch (CompletionException e) {
+                RuntimeException cause = e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+                if (problem == null) {
+                    problem = cause;
+                } else {
+                    problem.addSuppressed(cause);
+                }
+            }
+        }
+        if (problem != null) {
+            throw problem;
+        }
+        return serviceList;
+    }
 
-            Service service = new Service(serviceName, underlyingSchema, serviceExecution, serviceDefinition, definitionRegistry);
-            serviceList.add(service);
+    private Service createService(ServiceDefinition serviceDefinition, Nadel previousWithSameNsdl, Nadel previousWithSameWiring, SchemaSnapshot schemaSnapshot) {
+        String serviceName = serviceDefinition.getName();
+        ServiceExecution serviceExecution = this.serviceExecutionFactory.getServiceExecution(serviceName);
+        TypeDefinitionRegistry underlyingTypeDefinitions;
+        if (schemaSnapshot != null && schemaSnapshot.getUnderlyingTypeDefinitions().containsKey(serviceName)) {
+            underlyingTypeDefinitions = schemaSnapshot.getUnderlyingTypeDefinitions().get(serviceName);
+        } else {
+            underlyingTypeDefinitions = this.serviceExecutionFactory.getUnderlyingTypeDefinitions(serviceName);
+        }
+        // the fingerprint is recomputed rather than taken from the snapshot so that the schema fingerprint check covers it
+        String underlyingFingerprint = SchemaFingerprint.fingerprint(underlyingTypeDefinitions);
+        underlyingFingerprints.put(serviceName, underlyingFingerprint);
+
+        Service previousService = previousWithSameWiring == null ? null : previousWithSameWiring.getService(serviceName);
+        Service.UnderlyingSchemaHolder underlyingSchema;
+        if (previousService != null && underlyingFingerprint.equals(previousWithSameWiring.underlyingFingerprints.get(serviceName))) {
+            log.debug("Reusing the underlying schema of service '{}'", serviceName);
+            underlyingSchema = previousService.getUnderlyingSchemaHolder();
+        } else if (lazyUnderlyingSchemas) {
+            // the holder may be handed on to later Nadel instances so it must not reference this one
+            WiringFactory wiringFactory = this.underlyingWiringFactory;
+            underlyingSchema = new Service.UnderlyingSchemaHolder(() -> {
+                log.debug("Building the underlying schema of service '{}' on first use", serviceName);
+                return new UnderlyingSchemaGenerator().buildUnderlyingSchema(serviceName, underlyingTypeDefinitions, wiringFactory);
+            });
+        } else {
+            underlyingSchema = new Service.UnderlyingSchemaHolder(new UnderlyingSchemaGenerator()
+                    .buildUnderlyingSchema(serviceName, underlyingTypeDefinitions, underlyingWiringFactory));
         }
 
-        return serviceList;
+        DefinitionRegistry definitionRegistry;
+        if (previousWithSameNsdl != null) {
+            // the service definition is then the same object the previous service was built from
+            Service sameDefinitionService = previousWithSameNsdl.getService(serviceName);
+            if (sameDefinitionService.getUnderlyingSchemaHolder() == underlyingSchema && sameDefinitionService.getServiceExecution() == serviceExecution) {
+                return sameDefinitionService;
+            }
+            definitionRegistry = sameDefinitionService.getDefinitionRegistry();
+        } else {
+            definitionRegistry = buildServiceRegistry(serviceDefinition);
+        }
+
+        return new Service(serviceName, underlyingSchema, serviceExecution, serviceDefinition, definitionRegistry);
+    }
 
+    private Service getService(String serviceName) {
+        for (Service service : services) {
+            if (service.getName().equals(serviceName)) {
+                return service;
+            }
+        }
+        return null;
     }
 
     private GraphQLSchema createOverallSchema() {
@@ -154,6 +338,51 @@ public class Nadel {
         return overallSchema;
     }
 
+    /**
+     * The fingerprint is computed from the NSDL, the underlying type definitions of every service and the overall schema.  Nadel instances
+     * built from the same inputs have the same fingerprint, even in different JVMs, and it is used to key the documents
+     * handed to {@link SchemaAwarePreparsedDocumentProvider}s and {@link PersistedQueryCache}s.
+     *
+     * @return a stable fingerprint of the schema of this Nadel instance
+     */
+    public String getSchemaFingerprint() {
+        return schemaFingerprint;
+    }
+
+    /**
+     * Creates a snapshot of the parsed NSDL and underlying type definitions of this Nadel, which can be written out and
+     * used to build Nadel again without parsing, see {@link Builder#schemaSnapshot(SchemaSnapshot)}
+     *
+     * Nadel does not keep the underlying type definitions once it is built, so they are asked for again from the
+     * {@link ServiceExecutionFactory} and must still be the ones this Nadel was built from.
+     *
+     * @return a snapshot of the schema of this Nadel
+     *
+     * @throws IllegalStateException if the underlying type definitions of a service changed since this Nadel was built
+     */
+    public SchemaSnapshot createSchemaSnapshot() {
+        Map<String, TypeDefinitionRegistry> underlyingTypeDefinitionsByService = new LinkedHashMap<>();
+        Map<String, String> underlyingFingerprintsByService = new LinkedHashMap<>();
+        for (Service service : services) {
+            TypeDefinitionRegistry typeDefinitions = serviceExecutionFactory.getUnderlyingTypeDefinitions(service.getName());
+            String underlyingFingerprint = underlyingFingerprints.get(service.getName());
+            if (!underlyingFingerprint.equals(SchemaFingerprint.fingerprint(typeDefinitions))) {
+                throw new IllegalStateException(String.format("The underlying type definitions of service '%s' changed since this Nadel was built", service.getName()));
+            }
+            underlyingTypeDefinitionsByService.put(service.getName(), typeDefinitions);
+            underlyingFingerprintsByService.put(service.getName(), underlyingFingerprint);
+        }
+        return new SchemaSnapshot(schemaFingerprint, nsdlText, stitchingDsl, underlyingTypeDefinitionsByService, underlyingFingerprintsByService);
+    }
+
+    PreparsedDocumentProvider getPreparsedDocumentProvider() {
+        return preparsedDocumentProvider;
+    }
+
+    PersistedQueryCache getPersistedQueryCache() {
+        return persistedQueryCache;
+    }
+
     public CompletableFuture<ExecutionResult> execute(NadelExecutionInput.Builder nadelExecutionInput) {
         return execute(nadelExecutionInput.build());
     }
@@ -184,7 +413,7 @@ public class Nadel {
 
             InstrumentationContext<ExecutionResult> executionInstrumentation = instrumentation.beginQueryExecution(instrumentationParameters);
 
-            CompletableFuture<ExecutionResult> executionResult = parseValidateAndExecute(executionInput, overallSchema, instrumentationState, nadelExecutionParams);
+            CompletableFuture<ExecutionResult> executionResult = parseValidateAndExecute(executionInput, nadelExecutionInput.getPersistedQueryHash(), overallSchema, instrumentationState, nadelExecutionParams);
             //
             // finish up instrumentation
             executionResult = executionResult.whenComplete(executionInstrumentation::onCompleted);
@@ -201,6 +430,7 @@ public class Nadel {
     }
 
     private CompletableFuture<ExecutionResult> parseValidateAndExecute(ExecutionInput executionInput,
+                                                                       String persistedQueryHash,
                                                                        GraphQLSchema graphQLSchema,
                                                                        InstrumentationState instrumentationState,
                                                                        NadelExecutionParams nadelExecutionParams) {
@@ -210,13 +440,44 @@ public class Nadel {
             executionInputRef.set(transformedInput);
             return parseAndValidate(executionInputRef, graphQLSchema, instrumentationState);
         };
-        PreparsedDocumentEntry preparsedDoc = preparsedDocumentProvider.getDocument(executionInput, computeFunction);
+        PreparsedDocumentEntry preparsedDoc;
+        if (persistedQueryHash != null) {
+            // registered queries are only kept in the persisted query cache, not in the preparsed document provider as well
+            preparsedDoc = persistedQuerySupport.getDocument(executionInputRef, persistedQueryHash, computeFunction);
+        } else {
+            preparsedDoc = getPreparsedDocument(executionInput, graphQLSchema, instrumentationState, computeFunction);
+        }
         if (preparsedDoc.hasErrors()) {
             return CompletableFuture.completedFuture(new ExecutionResultImpl(preparsedDoc.getErrors()));
         }
         return executeImpl(executionInputRef.get(), preparsedDoc.getDocument(), instrumentationState, nadelExecutionParams);
     }
 
+    private PreparsedDocumentEntry getPreparsedDocument(ExecutionInput executionInput,
+                                                        GraphQLSchema graphQLSchema,
+                                                        InstrumentationState instrumentationState,
+                                                        Function<ExecutionInput, PreparsedDocumentEntry> computeFunction) {
+        NadelInstrumentationPreparsedDocumentParameters parameters = new NadelInstrumentationPreparsedDocumentParameters(executionInput, graphQLSchema, instrumentationState, documentCacheStatistics());
+        InstrumentationContext<PreparsedDocumentEntry> preparsedDocumentCtx = instrumentation.beginPreparsedDocument(parameters);
+
+        PreparsedDocumentEntry preparsedDoc;
+        if (preparsedDocumentProvider instanceof SchemaAwarePreparsedDocumentProvider) {
+            preparsedDoc = ((SchemaAwarePreparsedDocumentProvider) preparsedDocumentProvider).getDocument(schemaFingerprint, executionInput, computeFunction);
+        } else {
+            preparsedDoc = preparsedDocumentProvider.getDocument(executionInput, computeFunction);
+        }
+
+        preparsedDocumentCtx.onCompleted(preparsedDoc, null);
+        return preparsedDoc;
+    }
+
+    private Supplier<DocumentCacheStatistics> documentCacheStatistics() {
+        if (preparsedDocumentProvider instanceof CachingPreparsedDocumentProvider) {
+            return ((CachingPreparsedDocumentProvider) preparsedDocumentProvider)::getStatistics;
+        }
+        return () -> null;
+    }
+
     private PreparsedDocumentEntry parseAndValidate(AtomicReference<ExecutionInput> executionInputRef, GraphQLSchema graphQLSchema, InstrumentationState instrumentationState) {
 
         ExecutionInput executionInput = executionInputRef.get();
@@ -240,6 +501,14 @@ public class Nadel {
                 return new PreparsedDocumentEntry(errors);
             }
 
+            if (queryCostCalculator != null) {
+                List<GraphQLError> costErrors = queryCostCalculator.checkLimits(document);
+                if (!costErrors.isEmpty()) {
+                    logNotSafe.warn("Query rejected because of its cost : '{}' because of {} ", query, costErrors);
+                    return new PreparsedDocumentEntry(costErrors);
+                }
+            }
+
             return new PreparsedDocumentEntry(document);
         }
     }
@@ -289,7 +558,7 @@ public class Nadel {
             executionId = executionIdProvider.provide(query, operationName, context);
         }
 
-        Execution execution = new Execution(getServices(), overallSchema, instrumentation, introspectionRunner, serviceExecutionHooks);
+        Execution execution = new Execution(getServices(), overallSchema, transformationIndex, instrumentation, introspectionRunner, serviceExecutionHooks, serviceContextCache);
 
         return execution.execute(executionInput, document, executionId, instrumentationState, nadelExecutionParams);
     }
@@ -308,12 +577,19 @@ public class Nadel {
         };
         private ServiceExecutionHooks serviceExecutionHooks = new ServiceExecutionHooks() {
         };
-        private PreparsedDocumentProvider preparsedDocumentProvider = NoOpPreparsedDocumentProvider.INSTANCE;
+        private ServiceContextCache serviceContextCache = ServiceContextCache.NONE;
+        private PreparsedDocumentProvider preparsedDocumentProvider = new CachingPreparsedDocumentProvider();
+        private PersistedQueryCache persistedQueryCache = new InMemoryPersistedQueryCache();
         private ExecutionIdProvider executionIdProvider = ExecutionIdProvider.DEFAULT_EXECUTION_ID_PROVIDER;
         private IntrospectionRunner introspectionRunner = new DefaultIntrospectionRunner();
         private WiringFactory overallWiringFactory = new NeverWiringFactory();
         private WiringFactory underlyingWiringFactory = new NeverWiringFactory();
         private SchemaTransformationHook schemaTransformationHook = SchemaTransformationHook.IDENTITY;
+        private Executor schemaBuildExecutor;
+        private boolean lazyUnderlyingSchemas;
+        private QueryCostLimits queryCostLimits;
+        private SchemaSnapshot schemaSnapshot;
+        private Nadel previous;
 
 
         public Builder dsl(Reader nsdl) {
@@ -340,6 +616,11 @@ public class Nadel {
             return this;
         }
 
+        public Builder persistedQueryCache(PersistedQueryCache persistedQueryCache) {
+            this.persistedQueryCache = requireNonNull(persistedQueryCache);
+            return this;
+        }
+
         public Builder executionIdProvider(ExecutionIdProvider executionIdProvider) {
             this.executionIdProvider = requireNonNull(executionIdProvider);
             return this;
@@ -355,6 +636,19 @@ public class Nadel {
             return this;
         }
 
+        /**
+         * Keeps service contexts across requests, see {@link ServiceExecutionHooks#getServiceContextCacheKey}.  By default
+         * service contexts are only shared by the top level fields of one request.
+         *
+         * @param serviceContextCache the cache to keep service contexts in, for example an {@link graphql.nadel.hooks.InMemoryServiceContextCache}
+         *
+         * @return this builder
+         */
+        public Builder serviceContextCache(ServiceContextCache serviceContextCache) {
+            this.serviceContextCache = requireNonNull(serviceContextCache);
+            return this;
+        }
+
         public Builder overallWiringFactory(WiringFactory wiringFactory) {
             this.overallWiringFactory = requireNonNull(wiringFactory);
             return this;
@@ -370,18 +664,113 @@ public class Nadel {
             return this;
         }
 
+        /**
+         * Parses the NSDL service blocks and builds the underlying schemas of the services in parallel on the given
+         * executor, which cuts the start up time of large federations.  By default everything is done one after the
+         * other on the calling thread.  The {@link ServiceExecutionFactory} is then called from the executor threads
+         * and must be thread safe.
+         *
+         * @param schemaBuildExecutor the executor to parse and build underlying schemas on
+         *
+         * @return this builder
+         */
+        public Builder schemaBuildExecutor(Executor schemaBuildExecutor) {
+            this.schemaBuildExecutor = requireNonNull(schemaBuildExecutor);
+            return this;
+        }
+
+        /**
+         * Builds the underlying schema of a service the first time a query needs it instead of at start up, which
+         * saves start up time and memory when many services are rarely used.  Only the overall schema is validated
+         * at start up, so a problem in an underlying schema is then only reported by the first query to that service.
+         * By default all underlying schemas are built at start up.
+         *
+         * The underlying type definitions are still asked for and fingerprinted at start up, since the fingerprints
+         * decide which schemas an incremental build can reuse.  The type definitions of a service are only kept until
+         * its underlying schema is built.
+         *
+         * @param lazyUnderlyingSchemas true to build underlying schemas on first use
+         *
+         * @return this builder
+         */
+        public Builder lazyUnderlyingSchemas(boolean lazyUnderlyingSchemas) {
+            this.lazyUnderlyingSchemas = lazyUnderlyingSchemas;
+            return this;
+        }
+
+        /**
+         * Rejects queries whose estimated number of service calls is above the given limits before any service is
+         * called, see {@link graphql.nadel.cost.QueryCost}.  The cost is calculated once per document after it has
+         * been validated and the outcome is cached with the document.  By default the cost of queries is not limited.
+         *
+         * @param queryCostLimits the limits queries have to stay within
+         *
+         * @return this builder
+         */
+        public Builder queryCostLimits(QueryCostLimits queryCostLimits) {
+            this.queryCostLimits = requireNonNull(queryCostLimits);
+            return this;
+        }
+
+        /**
+         * Builds Nadel from a snapshot taken with {@link Nadel#createSchemaSnapshot()}, which skips parsing the NSDL and
+         * does not ask the {@link ServiceExecutionFactory} for underlying type definitions.  If a NSDL is given as well
+         * the snapshot is only used if it was taken from the same NSDL, otherwise it is ignored and Nadel is built from
+         * the NSDL as usual.  If the schema built from the snapshot does not have the fingerprint of the snapshot,
+         * Nadel is built again from the NSDL of the snapshot and the type definitions of the {@link ServiceExecutionFactory}.
+         *
+         * @param schemaSnapshot the snapshot to build from
+         *
+         * @return this builder
+         */
+        public Builder schemaSnapshot(SchemaSnapshot schemaSnapshot) {
+            this.schemaSnapshot = requireNonNull(schemaSnapshot);
+            return this;
+        }
+
+        /**
+         * Builds the new Nadel incrementally from a previous one.  The underlying schema of a service is only rebuilt
+         * if its underlying type definitions changed, and the service definitions are reused if the NSDL did not change.
+         * The overall schema is always rebuilt.
+         *
+         * @param previous the Nadel to reuse unchanged parts of
+         *
+         * @return this builder
+         */
+        public Builder previous(Nadel previous) {
+            this.previous = previous;
+            return this;
+        }
+
         public Nadel build() {
+            Nadel nadel = build(nsdl, schemaSnapshot);
+            if (nadel.schemaSnapshotMismatch) {
+                // the snapshot holds the NSDL it was taken from so it is built from that rather than the given reader, which was read already
+                log.warn("The schema fingerprint {} does not match schema snapshot {}, building from source instead", nadel.schemaFingerprint, schemaSnapshot.getSchemaFingerprint());
+                nadel = build(new StringReader(nadel.nsdlText), null);
+            }
+            return nadel;
+        }
+
+        private Nadel build(Reader nsdl, SchemaSnapshot schemaSnapshot) {
             return new Nadel(
                     nsdl,
                     serviceExecutionFactory,
                     instrumentation,
                     preparsedDocumentProvider,
+                    persistedQueryCache,
                     executionIdProvider,
                     introspectionRunner,
                     serviceExecutionHooks,
+                    serviceContextCache,
                     overallWiringFactory,
                     underlyingWiringFactory,
-                    schemaTransformationHook);
+                    schemaTransformationHook,
+                    schemaBuildExecutor,
+                    lazyUnderlyingSchemas,
+                    queryCostLimits,
+                    schemaSnapshot,
+                    previous);
         }
     }
 }
@@ -61,7 +61,7 @@ public class NadelAntlrToLanguage extends GraphqlAntlrToLanguage {
         return stitchingDsl.build();
     }
 
-    private CommonDefinition createCommonDefinition(StitchingDSLParser.CommonDefinitionContext commonDefinitionContext) {
+    public CommonDefinition createCommonDefinition(StitchingDSLParser.CommonDefinitionContext commonDefinitionContext) {
         CommonDefinition.Builder builder = CommonDefinition.newCommonDefinition();
         builder.sourceLocation(getSourceLocation(commonDefinitionContext));
         builder.comments(getComments(commonDefinitionContext));
@@ -72,7 +72,7 @@ public class NadelAntlrToLanguage extends GraphqlAntlrToLanguage {
         return builder.build();
     }
 
-    private ServiceDefinition createServiceDefinition(StitchingDSLParser.ServiceDefinitionContext serviceDefinitionContext) {
+    public ServiceDefinition createServiceDefinition(StitchingDSLParser.ServiceDefinitionContext serviceDefinitionContext) {
         ServiceDefinition.Builder builder = ServiceDefinition.newServiceDefinition();
         builder.name(serviceDefinitionContext.name().getText());
         List<SDLDefinition> definitions = createTypeSystemDefinitions(serviceDefinitionContext.typeSystemDefinition());
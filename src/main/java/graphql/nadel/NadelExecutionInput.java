@@ -20,20 +20,24 @@ public class NadelExecutionInput {
     private final String artificialFieldsUUID;
     private final ExecutionId executionId;
     private final ForkJoinPool forkJoinPool;
+    private final String persistedQueryHash;
 
     private NadelExecutionInput(String query,
                                 String operationName,
                                 Object context, Map<String, Object> variables,
                                 String artificialFieldsUUID,
                                 ExecutionId executionId,
-                                ForkJoinPool forkJoinPool) {
-        this.query = requireNonNull(query);
+                                ForkJoinPool forkJoinPool,
+                                String persistedQueryHash) {
+        // a persisted query may be sent as a hash only in which case the query text is empty
+        this.query = persistedQueryHash == null ? requireNonNull(query) : (query == null ? "" : query);
         this.operationName = operationName;
         this.context = context;
         this.variables = requireNonNull(variables);
         this.artificialFieldsUUID = artificialFieldsUUID;
         this.executionId = executionId;
         this.forkJoinPool = forkJoinPool;
+        this.persistedQueryHash = persistedQueryHash;
     }
 
     public static Builder newNadelExecutionInput() {
@@ -71,6 +75,13 @@ public class NadelExecutionInput {
         return executionId;
     }
 
+    /**
+     * @return the SHA-256 hex hash of the query if this is an automatic persisted query, otherwise null
+     */
+    public String getPersistedQueryHash() {
+        return persistedQueryHash;
+    }
+
     public static class Builder {
         private String query;
         private String operationName;
@@ -79,6 +90,7 @@ public class NadelExecutionInput {
         private String artificialFieldsUUID;
         private ExecutionId executionId;
         private ForkJoinPool forkJoinPool = ForkJoinPool.commonPool();
+        private String persistedQueryHash;
 
         private Builder() {
         }
@@ -118,8 +130,21 @@ public class NadelExecutionInput {
             return this;
         }
 
+        /**
+         * Marks this as an automatic persisted query.  The query text may then be left out if the hash has been
+         * registered before.
+         *
+         * @param persistedQueryHash the SHA-256 hex hash of the query text
+         *
+         * @return this builder
+         */
+        public Builder persistedQueryHash(String persistedQueryHash) {
+            this.persistedQueryHash = persistedQueryHash;
+            return this;
+        }
+
         public NadelExecutionInput build() {
-            return new NadelExecutionInput(query, operationName, context, variables, artificialFieldsUUID, executionId, forkJoinPool);
+            return new NadelExecutionInput(query, operationName, context, variables, artificialFieldsUUID, executionId, forkJoinPool, persistedQueryHash);
         }
 
     }
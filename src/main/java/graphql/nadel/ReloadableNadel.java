@@ -0,0 +1,103 @@
+package graphql.nadel;
+
+import graphql.ExecutionResult;
+import graphql.PublicApi;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.UnaryOperator;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A handle to a {@link Nadel} instance that can be replaced while it is serving requests.
+ *
+ * A reload builds the new Nadel in the background on the supplied executor and then atomically swaps it in.  Requests
+ * that started before the swap finish on the Nadel they started on and new requests go to the new one.  If the build
+ * fails the current Nadel stays in place.
+ *
+ * The new Nadel is built incrementally from the current one (see {@link Nadel.Builder#previous(Nadel)}), so only the
+ * underlying schemas of changed services are rebuilt.  It is also given the
+ * {@link graphql.execution.preparsed.PreparsedDocumentProvider} and {@link graphql.nadel.preparsed.PersistedQueryCache}
+ * of the initial Nadel, so documents stay cached across reloads for as long as the schema fingerprint does not change.
+ */
+@PublicApi
+public class ReloadableNadel {
+
+    private static final Logger log = LoggerFactory.getLogger(ReloadableNadel.class);
+
+    private final Executor executor;
+    private final AtomicLong reloadCount = new AtomicLong();
+    private volatile Nadel nadel;
+    private long installedReload;
+
+    public ReloadableNadel(Nadel nadel) {
+        this(nadel, ForkJoinPool.commonPool());
+    }
+
+    public ReloadableNadel(Nadel nadel, Executor executor) {
+        this.nadel = requireNonNull(nadel);
+        this.executor = requireNonNull(executor);
+    }
+
+    /**
+     * @return the Nadel instance new requests are executed on
+     */
+    public Nadel getNadel() {
+        return nadel;
+    }
+
+    public CompletableFuture<ExecutionResult> execute(NadelExecutionInput.Builder nadelExecutionInput) {
+        return nadel.execute(nadelExecutionInput);
+    }
+
+    public CompletableFuture<ExecutionResult> execute(UnaryOperator<NadelExecutionInput.Builder> builderFunction) {
+        return nadel.execute(builderFunction);
+    }
+
+    public CompletableFuture<ExecutionResult> execute(NadelExecutionInput nadelExecutionInput) {
+        return nadel.execute(nadelExecutionInput);
+    }
+
+    /**
+     * Builds a new Nadel from the builder in the background and swaps it in once it is built.  If several reloads
+     * overlap, the most recently started one wins even if an older one finishes after it.
+     *
+     * @param nadelBuilder the builder of the new Nadel.  Its document provider and persisted query cache are replaced
+     *                     with those of the current Nadel, which it is also built incrementally from
+     *
+     * @return a promise to the new Nadel, completed exceptionally if it could not be built
+     */
+    public CompletableFuture<Nadel> reload(Nadel.Builder nadelBuilder) {
+        requireNonNull(nadelBuilder);
+        long reload = reloadCount.incrementAndGet();
+        Nadel current = this.nadel;
+        nadelBuilder
+                .preparsedDocumentProvider(current.getPreparsedDocumentProvider())
+                .persistedQueryCache(current.getPersistedQueryCache())
+                .previous(current);
+
+        return CompletableFuture.supplyAsync(() -> {
+            long startTime = System.currentTimeMillis();
+            Nadel newNadel = nadelBuilder.build();
+            swap(reload, newNadel);
+            log.debug("Reloaded Nadel in {} ms, schema fingerprint: {}", System.currentTimeMillis() - startTime, newNadel.getSchemaFingerprint());
+            return newNadel;
+        }, executor).whenComplete((newNadel, throwable) -> {
+            if (throwable != null) {
+                log.warn("Nadel reload failed, continuing with the current schema", throwable);
+            }
+        });
+    }
+
+    private synchronized void swap(long reload, Nadel newNadel) {
+        if (reload > installedReload) {
+            installedReload = reload;
+            this.nadel = newNadel;
+        }
+    }
+}
@@ -4,11 +4,13 @@ import graphql.PublicApi;
 import graphql.nadel.dsl.ServiceDefinition;
 import graphql.schema.GraphQLSchema;
 
+import java.util.function.Supplier;
+
 @PublicApi
 public class Service {
 
     private final String name;
-    private final GraphQLSchema underlyingSchema;
+    private final UnderlyingSchemaHolder underlyingSchema;
     // this is not enough in the future as we need to allow for dynamic delegationExecution
     private final ServiceExecution serviceExecution;
     private final ServiceDefinition serviceDefinition;
@@ -20,6 +22,14 @@ public class Service {
                    ServiceExecution serviceExecution,
                    ServiceDefinition serviceDefinition,
                    DefinitionRegistry definitionRegistry) {
+        this(name, new UnderlyingSchemaHolder(underlyingSchema), serviceExecution, serviceDefinition, definitionRegistry);
+    }
+
+    Service(String name,
+            UnderlyingSchemaHolder underlyingSchema,
+            ServiceExecution serviceExecution,
+            ServiceDefinition serviceDefinition,
+            DefinitionRegistry definitionRegistry) {
         this.name = name;
         this.underlyingSchema = underlyingSchema;
         this.serviceExecution = serviceExecution;
@@ -32,6 +42,17 @@ public class Service {
     }
 
     public GraphQLSchema getUnderlyingSchema() {
+        return underlyingSchema.get();
+    }
+
+    /**
+     * @return false if the underlying schema is built lazily and has not been asked for yet
+     */
+    public boolean isUnderlyingSchemaBuilt() {
+        return underlyingSchema.isBuilt();
+    }
+
+    UnderlyingSchemaHolder getUnderlyingSchemaHolder() {
         return underlyingSchema;
     }
 
@@ -46,4 +67,47 @@ public class Service {
     public DefinitionRegistry getDefinitionRegistry() {
         return definitionRegistry;
     }
+
+    /**
+     * Holds an underlying schema that is either given up front or built once on first use.  Services of successive
+     * Nadel instances share a holder when the underlying schema did not change, so a schema that was never used is
+     * not built just because the Nadel was rebuilt.
+     */
+    static class UnderlyingSchemaHolder {
+
+        private volatile GraphQLSchema schema;
+        private Supplier<GraphQLSchema> supplier;
+
+        UnderlyingSchemaHolder(GraphQLSchema schema) {
+            this.schema = schema;
+        }
+
+        /**
+         * The supplier is called at most once even if several threads ask for the schema at the same time, unless
+         * it fails, in which case the next caller tries again.
+         */
+        UnderlyingSchemaHolder(Supplier<GraphQLSchema> supplier) {
+            this.supplier = supplier;
+        }
+
+        GraphQLSchema get() {
+            GraphQLSchema result = schema;
+            if (result == null) {
+                synchronized (this) {
+                    result = schema;
+                    if (result == null && supplier != null) {
+                        result = supplier.get();
+                        schema = result;
+                        // the supplier usually holds on to the type definitions and wiring, let them go
+                        supplier = null;
+                    }
+                }
+            }
+            return result;
+        }
+
+        boolean isBuilt() {
+            return schema != null;
+        }
+    }
 }
@@ -6,6 +6,7 @@ import graphql.execution.ExecutionId;
 import graphql.language.Document;
 import graphql.language.FragmentDefinition;
 import graphql.language.OperationDefinition;
+import graphql.nadel.instrumentation.spans.TraceContext;
 
 import java.util.LinkedHashMap;
 import java.util.Map;
@@ -25,6 +26,8 @@ public class ServiceExecutionParameters {
     private final CacheControl cacheControl;
     private final Object serviceContext;
     private final boolean hydrationCall;
+    private final int hydrationLevel;
+    private final TraceContext traceContext;
 
     private ServiceExecutionParameters(Builder builder) {
         this.query = assertNotNull(builder.query);
@@ -36,6 +39,8 @@ public class ServiceExecutionParameters {
         this.cacheControl = builder.cacheControl;
         this.serviceContext = builder.serviceContext;
         this.hydrationCall = builder.hydrationCall;
+        this.hydrationLevel = builder.hydrationLevel;
+        this.traceContext = builder.traceContext;
     }
 
     public Document getQuery() {
@@ -78,6 +83,22 @@ public class ServiceExecutionParameters {
         return hydrationCall;
     }
 
+    /**
+     * @return the level of hydration this call resolves, as in {@link graphql.nadel.instrumentation.parameters.NadelInstrumentationHydrationParameters#getLevel()},
+     * or 0 if this is not a hydration call
+     */
+    public int getHydrationLevel() {
+        return hydrationLevel;
+    }
+
+    /**
+     * @return the trace context of the span of this service call, which should be propagated to the service, or null
+     * if the call is not traced
+     */
+    public TraceContext getTraceContext() {
+        return traceContext;
+    }
+
     public static Builder newServiceExecutionParameters() {
         return new Builder();
     }
@@ -92,10 +113,27 @@ public class ServiceExecutionParameters {
         private CacheControl cacheControl;
         private Object serviceContext;
         private boolean hydrationCall;
+        private int hydrationLevel;
+        private TraceContext traceContext;
 
         private Builder() {
         }
 
+        public Builder from(ServiceExecutionParameters other) {
+            this.query = other.query;
+            this.context = other.context;
+            this.variables = new LinkedHashMap<>(other.variables);
+            this.fragments = new LinkedHashMap<>(other.fragments);
+            this.operationDefinition = other.operationDefinition;
+            this.executionId = other.executionId;
+            this.cacheControl = other.cacheControl;
+            this.serviceContext = other.serviceContext;
+            this.hydrationCall = other.hydrationCall;
+            this.hydrationLevel = other.hydrationLevel;
+            this.traceContext = other.traceContext;
+            return this;
+        }
+
         public Builder query(Document query) {
             this.query = query;
             return this;
@@ -141,6 +179,16 @@ public class ServiceExecutionParameters {
             return this;
         }
 
+        public Builder hydrationLevel(int hydrationLevel) {
+            this.hydrationLevel = hydrationLevel;
+            return this;
+        }
+
+        public Builder traceContext(TraceContext traceContext) {
+            this.traceContext = traceContext;
+            return this;
+        }
+
         public ServiceExecutionParameters build() {
             return new ServiceExecutionParameters(this);
         }
@@ -0,0 +1,55 @@
+package graphql.nadel.cost;
+
+import graphql.PublicApi;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The estimated cost of one operation: the number of calls it will make to every service, counting the call of
+ * every top level field and the calls made to hydrate fields.
+ */
+@PublicApi
+public class QueryCost {
+
+    private final Map<String, Long> serviceCalls;
+    private final long totalServiceCalls;
+
+    public QueryCost(Map<String, Long> serviceCalls) {
+        this.serviceCalls = Collections.unmodifiableMap(new LinkedHashMap<>(serviceCalls));
+        long total = 0;
+        for (long calls : serviceCalls.values()) {
+            total = QueryCostCalculator.saturatedAdd(total, calls);
+        }
+        this.totalServiceCalls = total;
+    }
+
+    /**
+     * @return the estimated number of calls by service name
+     */
+    public Map<String, Long> getServiceCalls() {
+        return serviceCalls;
+    }
+
+    /**
+     * @param serviceName the name of a service
+     *
+     * @return the estimated number of calls to the service
+     */
+    public long getServiceCalls(String serviceName) {
+        return serviceCalls.getOrDefault(serviceName, 0L);
+    }
+
+    public long getTotalServiceCalls() {
+        return totalServiceCalls;
+    }
+
+    @Override
+    public String toString() {
+        return "QueryCost{" +
+                "serviceCalls=" + serviceCalls +
+                ", totalServiceCalls=" + totalServiceCalls +
+                '}';
+    }
+}
@@ -0,0 +1,321 @@
+package graphql.nadel.cost;
+
+import graphql.GraphQLError;
+import graphql.Internal;
+import graphql.language.Argument;
+import graphql.language.Document;
+import graphql.language.Field;
+import graphql.language.FieldDefinition;
+import graphql.language.FragmentDefinition;
+import graphql.language.FragmentSpread;
+import graphql.language.InlineFragment;
+import graphql.language.IntValue;
+import graphql.language.ObjectTypeDefinition;
+import graphql.language.OperationDefinition;
+import graphql.language.Selection;
+import graphql.language.SelectionSet;
+import graphql.nadel.Service;
+import graphql.nadel.dsl.ExtendedFieldDefinition;
+import graphql.nadel.dsl.UnderlyingServiceHydration;
+import graphql.nadel.engine.TransformationIndex;
+import graphql.schema.GraphQLFieldDefinition;
+import graphql.schema.GraphQLFieldsContainer;
+import graphql.schema.GraphQLObjectType;
+import graphql.schema.GraphQLSchema;
+import graphql.schema.GraphQLType;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static graphql.schema.GraphQLTypeUtil.isList;
+import static graphql.schema.GraphQLTypeUtil.unwrapAll;
+import static graphql.schema.GraphQLTypeUtil.unwrapNonNull;
+import static java.lang.String.format;
+
+/**
+ * Estimates how many calls a query makes to every service before it is executed, see {@link QueryCost}.
+ *
+ * Every top level field is one call to its service.  A hydrated field is resolved for every element of the lists
+ * above it, and its service is called once per element or, if the hydration is batched, once per batch.  Lists are
+ * assumed to have the size of their list size argument or the default list size of the {@link QueryCostLimits}.
+ */
+@Internal
+public class QueryCostCalculator {
+
+    private final GraphQLSchema overallSchema;
+    private final TransformationIndex transformationIndex;
+    private final QueryCostLimits limits;
+    private final Map<GraphQLFieldDefinition, Service> topLevelFieldServices = new LinkedHashMap<>();
+    private final Map<String, Service> servicesByName = new LinkedHashMap<>();
+    // whether a hydration is batched depends on the underlying schema which may only be built on first use
+    private final Map<UnderlyingServiceHydration, Boolean> batchedHydrations = new ConcurrentHashMap<>();
+
+    public QueryCostCalculator(List<Service> services, GraphQLSchema overallSchema, TransformationIndex transformationIndex, QueryCostLimits limits) {
+        this.overallSchema = overallSchema;
+        this.transformationIndex = transformationIndex;
+        this.limits = limits;
+        for (Service service : services) {
+            servicesByName.put(service.getName(), service);
+            addTopLevelFields(service, service.getDefinitionRegistry().getQueryType(), overallSchema.getQueryType());
+            addTopLevelFields(service, service.getDefinitionRegistry().getMutationType(), overallSchema.getMutationType());
+        }
+    }
+
+    private void addTopLevelFields(Service service, List<ObjectTypeDefinition> typeDefinitions, GraphQLObjectType overallType) {
+        if (typeDefinitions == null || overallType == null) {
+            return;
+        }
+        for (ObjectTypeDefinition typeDefinition : typeDefinitions) {
+            for (FieldDefinition fieldDefinition : typeDefinition.getFieldDefinitions()) {
+                GraphQLFieldDefinition overallFieldDefinition = overallType.getFieldDefinition(fieldDefinition.getName());
+                if (overallFieldDefinition != null) {
+                    topLevelFieldServices.put(overallFieldDefinition, service);
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks every operation of the document, since a validated document is cached regardless of the operation
+     * that is executed from it.
+     *
+     * @param document a validated document
+     *
+     * @return the errors of the operations above the limits or an empty list
+     */
+    public List<GraphQLError> checkLimits(Document document) {
+        for (OperationDefinition operationDefinition : document.getDefinitionsOfType(OperationDefinition.class)) {
+            QueryCost queryCost = calculate(document, operationDefinition);
+            if (queryCost.getTotalServiceCalls() > limits.getMaxServiceCalls()) {
+                String message = format("The query would make an estimated %d service calls which is more than the maximum of %d",
+                        queryCost.getTotalServiceCalls(), limits.getMaxServiceCalls());
+                return Collections.singletonList(QueryCostError.TooManyServiceCalls.toGraphQLError(message, queryCost));
+            }
+            for (Map.Entry<String, Long> serviceCalls : queryCost.getServiceCalls().entrySet()) {
+                if (serviceCalls.getValue() > limits.getMaxCallsPerService()) {
+                    String message = format("The query would make an estimated %d calls to service '%s' which is more than the maximum of %d",
+                            serviceCalls.getValue(), serviceCalls.getKey(), limits.getMaxCallsPerService());
+                    return Collections.singletonList(QueryCostError.TooManyCallsToService.toGraphQLError(message, queryCost));
+                }
+            }
+        }
+        return Collections.emptyList();
+    }
+
+    /**
+     * @param document            a validated document
+     * @param operationDefinition an operation of the document
+     *
+     * @return the estimated cost of the operation
+     */
+    public QueryCost calculate(Document document, OperationDefinition operationDefinition) {
+        DocumentFragments fragments = new DocumentFragments(document);
+        GraphQLObjectType rootType = operationDefinition.getOperation() == OperationDefinition.Operation.MUTATION
+                ? overallSchema.getMutationType() : overallSchema.getQueryType();
+        Map<String, Long> serviceCalls = new LinkedHashMap<>();
+        if (rootType != null) {
+            addTopLevelFieldCalls(operationDefinition.getSelectionSet(), rootType, fragments, serviceCalls);
+        }
+        return new QueryCost(serviceCalls);
+    }
+
+    private void addTopLevelFieldCalls(SelectionSet selectionSet, GraphQLObjectType rootType, DocumentFragments fragments, Map<String, Long> serviceCalls) {
+        for (Selection<?> selection : selectionSet.getSelections()) {
+            if (selection instanceof Field) {
+                Field field = (Field) selection;
+                GraphQLFieldDefinition fieldDefinition = rootType.getFieldDefinition(field.getName());
+                Service service = fieldDefinition == null ? null : topLevelFieldServices.get(fieldDefinition);
+                if (service == null) {
+                    // introspection fields are not resolved by services
+                    continue;
+                }
+                addCalls(serviceCalls, service.getName(), 1);
+                addSelectionSetCalls(field.getSelectionSet(), unwrapAll(fieldDefinition.getType()), listMultiplier(1, field, fieldDefinition), fragments, serviceCalls);
+            } else if (selection instanceof InlineFragment) {
+                addTopLevelFieldCalls(((InlineFragment) selection).getSelectionSet(), rootType, fragments, serviceCalls);
+            } else if (selection instanceof FragmentSpread) {
+                String fragmentName = ((FragmentSpread) selection).getName();
+                Map<String, Long> fragmentCalls = fragments.topLevelCalls.get(fragmentName);
+                if (fragmentCalls == null) {
+                    fragmentCalls = new LinkedHashMap<>();
+                    FragmentDefinition fragmentDefinition = fragments.definitions.get(fragmentName);
+                    // fragment cycles are only rejected by validation, so a fragment spread inside itself costs nothing
+                    fragments.topLevelCalls.put(fragmentName, Collections.emptyMap());
+                    if (fragmentDefinition != null) {
+                        addTopLevelFieldCalls(fragmentDefinition.getSelectionSet(), rootType, fragments, fragmentCalls);
+                    }
+                    fragments.topLevelCalls.put(fragmentName, fragmentCalls);
+                }
+                fragmentCalls.forEach((serviceName, calls) -> addCalls(serviceCalls, serviceName, calls));
+            }
+        }
+    }
+
+    /**
+     * @param multiplier the estimated number of objects the selection set is selected on
+     */
+    private void addSelectionSetCalls(SelectionSet selectionSet, GraphQLType parentType, long multiplier, DocumentFragments fragments, Map<String, Long> serviceCalls) {
+        if (selectionSet == null) {
+            return;
+        }
+        for (Selection<?> selection : selectionSet.getSelections()) {
+            if (selection instanceof Field) {
+                addFieldCalls((Field) selection, parentType, multiplier, fragments, serviceCalls);
+            } else if (selection instanceof InlineFragment) {
+                InlineFragment inlineFragment = (InlineFragment) selection;
+                GraphQLType type = inlineFragment.getTypeCondition() == null ? parentType : overallSchema.getType(inlineFragment.getTypeCondition().getName());
+                addSelectionSetCalls(inlineFragment.getSelectionSet(), type, multiplier, fragments, serviceCalls);
+            } else if (selection instanceof FragmentSpread) {
+                fragmentCalls(((FragmentSpread) selection).getName(), multiplier, fragments)
+                        .forEach((serviceName, calls) -> addCalls(serviceCalls, serviceName, calls));
+            }
+        }
+    }
+
+    /**
+     * The calls of a fragment only depend on the number of objects it is selected on, so they are calculated once per
+     * multiplier no matter how often the fragment is spread.  Batched hydrations round up per batch, which is why the
+     * calls are not simply scaled from one multiplier to another.
+     */
+    private Map<String, Long> fragmentCalls(String fragmentName, long multiplier, DocumentFragments fragments) {
+        FragmentCallsKey key = new FragmentCallsKey(fragmentName, multiplier);
+        Map<String, Long> fragmentCalls = fragments.calls.get(key);
+        if (fragmentCalls != null) {
+            return fragmentCalls;
+        }
+        fragmentCalls = new LinkedHashMap<>();
+        FragmentDefinition fragmentDefinition = fragments.definitions.get(fragmentName);
+        // fragment cycles are only rejected by validation, so a fragment spread inside itself costs nothing
+        fragments.calls.put(key, Collections.emptyMap());
+        if (fragmentDefinition != null) {
+            GraphQLType type = overallSchema.getType(fragmentDefinition.getTypeCondition().getName());
+            addSelectionSetCalls(fragmentDefinition.getSelectionSet(), type, multiplier, fragments, fragmentCalls);
+        }
+        fragments.calls.put(key, fragmentCalls);
+        return fragmentCalls;
+    }
+
+    private void addFieldCalls(Field field, GraphQLType parentType, long multiplier, DocumentFragments fragments, Map<String, Long> serviceCalls) {
+        if (!(parentType instanceof GraphQLFieldsContainer)) {
+            return;
+        }
+        GraphQLFieldDefinition fieldDefinition = ((GraphQLFieldsContainer) parentType).getFieldDefinition(field.getName());
+        if (fieldDefinition == null) {
+            return;
+        }
+        long fieldMultiplier = listMultiplier(multiplier, field, fieldDefinition);
+        UnderlyingServiceHydration hydration = transformationIndex.getUnderlyingServiceHydration(fieldDefinition);
+        if (hydration != null) {
+            long calls = fieldMultiplier;
+            if (isBatched(hydration)) {
+                Integer batchSize = getBatchSize(hydration);
+                calls = batchSize == null || batchSize <= 0 ? 1 : (fieldMultiplier + batchSize - 1) / batchSize;
+            }
+            addCalls(serviceCalls, hydration.getServiceName(), calls);
+        }
+        addSelectionSetCalls(field.getSelectionSet(), unwrapAll(fieldDefinition.getType()), fieldMultiplier, fragments, serviceCalls);
+    }
+
+    private long listMultiplier(long multiplier, Field field, GraphQLFieldDefinition fieldDefinition) {
+        if (!isList(unwrapNonNull(fieldDefinition.getType()))) {
+            return multiplier;
+        }
+        return saturatedMultiply(multiplier, listSize(field));
+    }
+
+    private long listSize(Field field) {
+        for (Argument argument : field.getArguments()) {
+            if (limits.getListSizeArguments().contains(argument.getName()) && argument.getValue() instanceof IntValue) {
+                return Math.max(0, ((IntValue) argument.getValue()).getValue().longValue());
+            }
+        }
+        return limits.getDefaultListSize();
+    }
+
+    private boolean isBatched(UnderlyingServiceHydration hydration) {
+        return batchedHydrations.computeIfAbsent(hydration, h -> {
+            Service service = servicesByName.get(h.getServiceName());
+            if (service == null) {
+                return false;
+            }
+            GraphQLFieldDefinition topLevelFieldDefinition = service.getUnderlyingSchema().getQueryType().getFieldDefinition(h.getTopLevelField());
+            return topLevelFieldDefinition != null && isList(unwrapNonNull(topLevelFieldDefinition.getType()));
+        });
+    }
+
+    private Integer getBatchSize(UnderlyingServiceHydration hydration) {
+        if (hydration.getBatchSize() != null) {
+            return hydration.getBatchSize();
+        }
+        // the field we use to hydrate doesn't need to be exposed, therefore can be null
+        GraphQLFieldDefinition fieldDefinition = overallSchema.getQueryType().getFieldDefinition(hydration.getTopLevelField());
+        if (fieldDefinition == null || !(fieldDefinition.getDefinition() instanceof ExtendedFieldDefinition)) {
+            return null;
+        }
+        return ((ExtendedFieldDefinition) fieldDefinition.getDefinition()).getDefaultBatchSize();
+    }
+
+    private static void addCalls(Map<String, Long> serviceCalls, String serviceName, long calls) {
+        serviceCalls.merge(serviceName, calls, QueryCostCalculator::saturatedAdd);
+    }
+
+    static long saturatedAdd(long a, long b) {
+        long sum = a + b;
+        return sum < 0 ? Long.MAX_VALUE : sum;
+    }
+
+    static long saturatedMultiply(long a, long b) {
+        try {
+            return Math.multiplyExact(a, b);
+        } catch (ArithmeticException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+
+    /**
+     * The fragment definitions of a document and the calls calculated for them so far
+     */
+    private static class DocumentFragments {
+        final Map<String, FragmentDefinition> definitions = new HashMap<>();
+        final Map<FragmentCallsKey, Map<String, Long>> calls = new HashMap<>();
+        final Map<String, Map<String, Long>> topLevelCalls = new HashMap<>();
+
+        DocumentFragments(Document document) {
+            for (FragmentDefinition fragmentDefinition : document.getDefinitionsOfType(FragmentDefinition.class)) {
+                definitions.put(fragmentDefinition.getName(), fragmentDefinition);
+            }
+        }
+    }
+
+    private static class FragmentCallsKey {
+        private final String fragmentName;
+        private final long multiplier;
+
+        FragmentCallsKey(String fragmentName, long multiplier) {
+            this.fragmentName = fragmentName;
+            this.multiplier = multiplier;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof FragmentCallsKey)) {
+                return false;
+            }
+            FragmentCallsKey key = (FragmentCallsKey) o;
+            return multiplier == key.multiplier && fragmentName.equals(key.fragmentName);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(fragmentName, multiplier);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package graphql.nadel.cost;
+
+import graphql.ErrorClassification;
+import graphql.GraphQLError;
+import graphql.GraphqlErrorBuilder;
+import graphql.PublicApi;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The errors returned for queries whose estimated cost is above the {@link QueryCostLimits}
+ */
+@PublicApi
+public enum QueryCostError implements ErrorClassification {
+    /**
+     * The query would make more service calls than {@link QueryCostLimits#getMaxServiceCalls()}
+     */
+    TooManyServiceCalls,
+    /**
+     * The query would make more calls to one service than {@link QueryCostLimits#getMaxCallsPerService()}
+     */
+    TooManyCallsToService;
+
+    public GraphQLError toGraphQLError(String message, QueryCost queryCost) {
+        Map<String, Object> extensions = new LinkedHashMap<>();
+        extensions.put("classification", name());
+        extensions.put("estimatedServiceCalls", new LinkedHashMap<>(queryCost.getServiceCalls()));
+        return GraphqlErrorBuilder.newError()
+                .message(message)
+                .errorType(this)
+                .extensions(extensions)
+                .build();
+    }
+}
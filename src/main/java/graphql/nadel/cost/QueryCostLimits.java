@@ -0,0 +1,98 @@
+package graphql.nadel.cost;
+
+import graphql.PublicApi;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import static graphql.Assert.assertTrue;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * The limits a query has to stay within to be executed, and how the number of elements of list fields is estimated
+ * when the cost of a query is calculated.
+ *
+ * The size of a list field is taken from the first of its list size arguments (by default "first", "last" and
+ * "limit") that has a literal value, and is the default list size otherwise.  Arguments given as variables are not
+ * looked at since validated documents are cached independently of their variables.
+ */
+@PublicApi
+public class QueryCostLimits {
+
+    private final long maxServiceCalls;
+    private final long maxCallsPerService;
+    private final int defaultListSize;
+    private final Set<String> listSizeArguments;
+
+    private QueryCostLimits(Builder builder) {
+        this.maxServiceCalls = builder.maxServiceCalls;
+        this.maxCallsPerService = builder.maxCallsPerService;
+        this.defaultListSize = builder.defaultListSize;
+        this.listSizeArguments = Collections.unmodifiableSet(new LinkedHashSet<>(builder.listSizeArguments));
+    }
+
+    /**
+     * @return the maximum number of service calls of one operation, counted over all services
+     */
+    public long getMaxServiceCalls() {
+        return maxServiceCalls;
+    }
+
+    /**
+     * @return the maximum number of calls one operation may make to any one service
+     */
+    public long getMaxCallsPerService() {
+        return maxCallsPerService;
+    }
+
+    public int getDefaultListSize() {
+        return defaultListSize;
+    }
+
+    public Set<String> getListSizeArguments() {
+        return listSizeArguments;
+    }
+
+    public static Builder newQueryCostLimits() {
+        return new Builder();
+    }
+
+    public static class Builder {
+        private long maxServiceCalls = Long.MAX_VALUE;
+        private long maxCallsPerService = Long.MAX_VALUE;
+        private int defaultListSize = 10;
+        private Set<String> listSizeArguments = new LinkedHashSet<>(Arrays.asList("first", "last", "limit"));
+
+        private Builder() {
+        }
+
+        public Builder maxServiceCalls(long maxServiceCalls) {
+            assertTrue(maxServiceCalls > 0, "maxServiceCalls must be greater than zero");
+            this.maxServiceCalls = maxServiceCalls;
+            return this;
+        }
+
+        public Builder maxCallsPerService(long maxCallsPerService) {
+            assertTrue(maxCallsPerService > 0, "maxCallsPerService must be greater than zero");
+            this.maxCallsPerService = maxCallsPerService;
+            return this;
+        }
+
+        public Builder defaultListSize(int defaultListSize) {
+            assertTrue(defaultListSize >= 0, "defaultListSize must not be negative");
+            this.defaultListSize = defaultListSize;
+            return this;
+        }
+
+        public Builder listSizeArguments(Set<String> listSizeArguments) {
+            this.listSizeArguments = new LinkedHashSet<>(requireNonNull(listSizeArguments));
+            return this;
+        }
+
+        public QueryCostLimits build() {
+            return new QueryCostLimits(this);
+        }
+    }
+}
@@ -20,6 +20,7 @@ import graphql.nadel.FieldInfo;
 import graphql.nadel.FieldInfos;
 import graphql.nadel.NadelExecutionParams;
 import graphql.nadel.Service;
+import graphql.nadel.hooks.ServiceContextCache;
 import graphql.nadel.hooks.ServiceExecutionHooks;
 import graphql.nadel.instrumentation.NadelInstrumentation;
 import graphql.nadel.instrumentation.parameters.NadelInstrumentationExecuteOperationParameters;
@@ -46,11 +47,15 @@ public class Execution {
     private final NadelExecutionStrategy nadelExecutionStrategy;
 
     public Execution(List<Service> services, GraphQLSchema overallSchema, NadelInstrumentation instrumentation, IntrospectionRunner introspectionRunner, ServiceExecutionHooks serviceExecutionHooks) {
+        this(services, overallSchema, new TransformationIndex(overallSchema), instrumentation, introspectionRunner, serviceExecutionHooks, ServiceContextCache.NONE);
+    }
+
+    public Execution(List<Service> services, GraphQLSchema overallSchema, TransformationIndex transformationIndex, NadelInstrumentation instrumentation, IntrospectionRunner introspectionRunner, ServiceExecutionHooks serviceExecutionHooks, ServiceContextCache serviceContextCache) {
         this.services = services;
         this.overallSchema = overallSchema;
         this.instrumentation = instrumentation;
         this.introspectionRunner = introspectionRunner;
-        this.nadelExecutionStrategy = new NadelExecutionStrategy(services, createFieldsInfos(), overallSchema, instrumentation, serviceExecutionHooks);
+        this.nadelExecutionStrategy = new NadelExecutionStrategy(services, createFieldsInfos(), overallSchema, transformationIndex, instrumentation, serviceExecutionHooks, serviceContextCache);
     }
 
     public CompletableFuture<ExecutionResult> execute(ExecutionInput executionInput,
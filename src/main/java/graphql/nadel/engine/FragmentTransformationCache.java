@@ -0,0 +1,100 @@
+package graphql.nadel.engine;
+
+import graphql.Internal;
+import graphql.language.FragmentDefinition;
+import graphql.language.VariableDefinition;
+import graphql.nadel.Service;
+import graphql.nadel.engine.transformation.FieldTransformation;
+import graphql.nadel.hooks.ArgumentValue;
+import graphql.schema.GraphQLSchema;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The fragment definitions of one request transformed for the services they were sent to.  A query with many top
+ * level fields or hydrations that spread the same fragments then transforms every fragment once per service instead
+ * of once per top level field.
+ *
+ * Hooks see the service context while a fragment is transformed, so a fragment is only reused for top level fields
+ * with the same service context.
+ */
+@Internal
+public class FragmentTransformationCache {
+
+    private final Map<Key, TransformedFragment> transformedFragments = new ConcurrentHashMap<>();
+
+    TransformedFragment get(Service service, GraphQLSchema underlyingSchema, Object serviceContext, String fragmentName) {
+        return transformedFragments.get(new Key(service, underlyingSchema, serviceContext, fragmentName));
+    }
+
+    void put(Service service, GraphQLSchema underlyingSchema, Object serviceContext, String fragmentName, TransformedFragment transformedFragment) {
+        transformedFragments.putIfAbsent(new Key(service, underlyingSchema, serviceContext, fragmentName), transformedFragment);
+    }
+
+    /**
+     * A transformed fragment definition together with everything its transformation recorded, so that it can be
+     * added to another query transformation without transforming the fragment again
+     */
+    static class TransformedFragment {
+        final FragmentDefinition fragmentDefinition;
+        final Map<String, FieldTransformation> transformationByResultField;
+        final Map<String, String> typeRenameMappings;
+        final Set<String> referencedFragmentNames;
+        final Map<String, VariableDefinition> referencedVariables;
+        final Map<String, Object> newVariableValues;
+        final Map<String, ArgumentValue> argumentValues;
+
+        TransformedFragment(FragmentDefinition fragmentDefinition,
+                            Map<String, FieldTransformation> transformationByResultField,
+                            Map<String, String> typeRenameMappings,
+                            Set<String> referencedFragmentNames,
+                            Map<String, VariableDefinition> referencedVariables,
+                            Map<String, Object> newVariableValues,
+                            Map<String, ArgumentValue> argumentValues) {
+            this.fragmentDefinition = fragmentDefinition;
+            this.transformationByResultField = transformationByResultField;
+            this.typeRenameMappings = typeRenameMappings;
+            this.referencedFragmentNames = referencedFragmentNames;
+            this.referencedVariables = referencedVariables;
+            this.newVariableValues = newVariableValues;
+            this.argumentValues = argumentValues;
+        }
+    }
+
+    private static class Key {
+        private final Service service;
+        private final GraphQLSchema underlyingSchema;
+        private final Object serviceContext;
+        private final String fragmentName;
+
+        Key(Service service, GraphQLSchema underlyingSchema, Object serviceContext, String fragmentName) {
+            this.service = service;
+            this.underlyingSchema = underlyingSchema;
+            this.serviceContext = serviceContext;
+            this.fragmentName = fragmentName;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return service == key.service
+                    && underlyingSchema == key.underlyingSchema
+                    && serviceContext == key.serviceContext
+                    && fragmentName.equals(key.fragmentName);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(System.identityHashCode(service), System.identityHashCode(underlyingSchema), System.identityHashCode(serviceContext), fragmentName);
+        }
+    }
+}
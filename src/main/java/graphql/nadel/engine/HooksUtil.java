@@ -0,0 +1,44 @@
+package graphql.nadel.engine;
+
+import graphql.Internal;
+import graphql.nadel.hooks.ResolveArgumentValuesParams;
+import graphql.nadel.hooks.ServiceExecutionHooks;
+
+import static graphql.nadel.util.OverrideUtil.overridesDefault;
+
+@Internal
+public class HooksUtil {
+
+    /**
+     * Argument values only need to be visited if the hooks implement
+     * {@link ServiceExecutionHooks#visitArgumentValueInQuery(HooksVisitArgumentValueEnvironment)}, otherwise the
+     * query transformer can skip the arguments and values of a query altogether.
+     *
+     * @param serviceExecutionHooks the hooks in use
+     *
+     * @return true if the hooks have their own implementation of visitArgumentValueInQuery
+     */
+    public static boolean visitsArgumentValues(ServiceExecutionHooks serviceExecutionHooks) {
+        return serviceExecutionHooks != null && overridesDefault(ServiceExecutionHooks.class, serviceExecutionHooks.getClass(), "visitArgumentValueInQuery", HooksVisitArgumentValueEnvironment.class);
+    }
+
+    /**
+     * @param serviceExecutionHooks the hooks in use
+     *
+     * @return true if the hooks have their own implementation of
+     * {@link ServiceExecutionHooks#resolveArgumentValuesInQuery(ResolveArgumentValuesParams)}
+     */
+    public static boolean resolvesArgumentValues(ServiceExecutionHooks serviceExecutionHooks) {
+        return serviceExecutionHooks != null && overridesDefault(ServiceExecutionHooks.class, serviceExecutionHooks.getClass(), "resolveArgumentValuesInQuery", ResolveArgumentValuesParams.class);
+    }
+
+    /**
+     * @param serviceExecutionHooks the hooks in use
+     *
+     * @return true if the argument values of a query have to be visited for either of the argument hooks
+     */
+    public static boolean needsArgumentValues(ServiceExecutionHooks serviceExecutionHooks) {
+        return visitsArgumentValues(serviceExecutionHooks) || resolvesArgumentValues(serviceExecutionHooks);
+    }
+
+}
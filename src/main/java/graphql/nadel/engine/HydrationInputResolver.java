@@ -5,6 +5,7 @@ import graphql.execution.ExecutionContext;
 import graphql.execution.ExecutionId;
 import graphql.execution.ExecutionPath;
 import graphql.execution.ExecutionStepInfo;
+import graphql.execution.instrumentation.InstrumentationContext;
 import graphql.execution.nextgen.result.ExecutionResultNode;
 import graphql.execution.nextgen.result.LeafExecutionResultNode;
 import graphql.execution.nextgen.result.ListExecutionResultNode;
@@ -27,6 +28,10 @@ import graphql.nadel.engine.tracking.FieldTracking;
 import graphql.nadel.engine.transformation.FieldTransformation;
 import graphql.nadel.engine.transformation.HydrationTransformation;
 import graphql.nadel.hooks.ServiceExecutionHooks;
+import graphql.nadel.instrumentation.NadelInstrumentation;
+import graphql.nadel.instrumentation.parameters.NadelInstrumentationHydrationParameters;
+import graphql.nadel.instrumentation.parameters.NadelInstrumentationQueryTransformParameters;
+import graphql.nadel.instrumentation.parameters.NadelInstrumentationResultConversionParameters;
 import graphql.nadel.util.ExecutionPathUtils;
 import graphql.schema.GraphQLCompositeType;
 import graphql.schema.GraphQLFieldDefinition;
@@ -36,6 +41,7 @@ import graphql.util.NodeMultiZipper;
 import graphql.util.NodeZipper;
 
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -46,7 +52,7 @@ import static graphql.Assert.assertNotNull;
 import static graphql.Assert.assertTrue;
 import static graphql.language.Field.newField;
 import static graphql.nadel.engine.ArtificialFieldUtils.addObjectIdentifier;
-import static graphql.nadel.engine.ArtificialFieldUtils.removeArtificialFields;
+import static graphql.nadel.engine.InstrumentationUtil.runInstrumented;
 import static graphql.nadel.engine.FixListNamesAdapter.FIX_NAMES_ADAPTER;
 import static graphql.nadel.engine.StrategyUtil.changeEsiInResultNode;
 import static graphql.nadel.engine.StrategyUtil.changeFieldInResultNode;
@@ -64,7 +70,7 @@ import static java.util.Collections.singletonList;
 
 public class HydrationInputResolver {
 
-    private final OverallQueryTransformer queryTransformer = new OverallQueryTransformer();
+    private final OverallQueryTransformer queryTransformer;
 
     private final ServiceResultNodesToOverallResult serviceResultNodesToOverallResult = new ServiceResultNodesToOverallResult();
 
@@ -73,15 +79,26 @@ public class HydrationInputResolver {
     private final GraphQLSchema overallSchema;
     private final ServiceExecutor serviceExecutor;
     private final ServiceExecutionHooks serviceExecutionHooks;
+    private final NadelInstrumentation instrumentation;
 
     public HydrationInputResolver(List<Service> services,
                                   GraphQLSchema overallSchema,
                                   ServiceExecutor serviceExecutor,
                                   ServiceExecutionHooks serviceExecutionHooks) {
+        this(services, overallSchema, new OverallQueryTransformer(), serviceExecutor, serviceExecutionHooks);
+    }
+
+    public HydrationInputResolver(List<Service> services,
+                                  GraphQLSchema overallSchema,
+                                  OverallQueryTransformer queryTransformer,
+                                  ServiceExecutor serviceExecutor,
+                                  ServiceExecutionHooks serviceExecutionHooks) {
         this.services = services;
         this.overallSchema = overallSchema;
+        this.queryTransformer = queryTransformer;
         this.serviceExecutor = serviceExecutor;
         this.serviceExecutionHooks = serviceExecutionHooks;
+        this.instrumentation = serviceExecutor.getInstrumentation();
     }
 
 
@@ -89,41 +106,59 @@ public class HydrationInputResolver {
                                                                             FieldTracking fieldTracking,
                                                                             ExecutionResultNode node,
                                                                             Map<Service, Object> serviceContexts) {
+        return resolveAllHydrationInputs(context, fieldTracking, node, serviceContexts, 1);
+    }
+
+    private CompletableFuture<ExecutionResultNode> resolveAllHydrationInputs(ExecutionContext context,
+                                                                             FieldTracking fieldTracking,
+                                                                             ExecutionResultNode node,
+                                                                             Map<Service, Object> serviceContexts,
+                                                                             int level) {
         NadelContext nadelContext = (NadelContext) context.getContext();
         Set<NodeZipper<ExecutionResultNode>> hydrationInputZippers = getHydrationInputNodes(nadelContext.getForkJoinPool(), node);
         if (hydrationInputZippers.size() == 0) {
             return CompletableFuture.completedFuture(node);
         }
 
+        Set<String> serviceNames = new LinkedHashSet<>();
+        for (NodeZipper<ExecutionResultNode> zipper : hydrationInputZippers) {
+            HydrationInputNode hydrationInputNode = (HydrationInputNode) zipper.getCurNode();
+            serviceNames.add(hydrationInputNode.getHydrationTransformation().getUnderlyingServiceHydration().getServiceName());
+        }
+        NadelInstrumentationHydrationParameters hydrationParams = new NadelInstrumentationHydrationParameters(context, level, hydrationInputZippers.size(), serviceNames, context.getInstrumentationState());
+        InstrumentationContext<ExecutionResultNode> hydrationCtx = instrumentation.beginHydration(hydrationParams);
+
         List<NodeMultiZipper<ExecutionResultNode>> hydrationInputBatches = groupNodesIntoBatchesByField(hydrationInputZippers, node);
 
         List<CompletableFuture<List<NodeZipper<ExecutionResultNode>>>> resolvedNodeCFs = new ArrayList<>();
 
         for (NodeMultiZipper<ExecutionResultNode> batch : hydrationInputBatches) {
             if (isBatchHydrationField((HydrationInputNode) batch.getZippers().get(0).getCurNode())) {
-                resolveInputNodesAsBatch(context, fieldTracking, resolvedNodeCFs, batch, serviceContexts);
+                resolveInputNodesAsBatch(context, fieldTracking, resolvedNodeCFs, batch, serviceContexts, level);
             } else {
-                resolveInputNodes(context, fieldTracking, resolvedNodeCFs, batch, serviceContexts);
+                resolveInputNodes(context, fieldTracking, resolvedNodeCFs, batch, serviceContexts, level);
             }
 
         }
         return Async
                 .each(resolvedNodeCFs)
-                .thenCompose(resolvedNodes -> {
+                .thenApply(resolvedNodes -> {
                     NodeMultiZipper<ExecutionResultNode> multiZipper = new NodeMultiZipper<>(node, flatList(resolvedNodes), FIX_NAMES_ADAPTER);
-                    ExecutionResultNode newRoot = multiZipper.toRootNode();
-                    return resolveAllHydrationInputs(context, fieldTracking, newRoot, serviceContexts);
+                    return multiZipper.toRootNode();
                 })
+                .whenComplete(hydrationCtx::onCompleted)
+                .thenCompose(newRoot -> resolveAllHydrationInputs(context, fieldTracking, newRoot, serviceContexts, level + 1))
                 .whenComplete(this::possiblyLogException);
     }
 
     private void resolveInputNodes(ExecutionContext context,
                                    FieldTracking fieldTracking,
                                    List<CompletableFuture<List<NodeZipper<ExecutionResultNode>>>> resolvedNodeCFs,
-                                   NodeMultiZipper<ExecutionResultNode> batch, Map<Service, Object> serviceContexts) {
+                                   NodeMultiZipper<ExecutionResultNode> batch, Map<Service, Object> serviceContexts,
+                                   int level) {
         for (NodeZipper<ExecutionResultNode> hydrationInputNodeZipper : batch.getZippers()) {
             HydrationInputNode hydrationInputNode = (HydrationInputNode) hydrationInputNodeZipper.getCurNode();
-            CompletableFuture<ExecutionResultNode> executionResultNodeCompletableFuture = resolveSingleHydrationInput(context, fieldTracking, hydrationInputNode, serviceContexts);
+            CompletableFuture<ExecutionResultNode> executionResultNodeCompletableFuture = resolveSingleHydrationInput(context, fieldTracking, hydrationInputNode, serviceContexts, level);
             resolvedNodeCFs.add(executionResultNodeCompletableFuture.thenApply(newNode -> singletonList(hydrationInputNodeZipper.withNewNode(newNode))));
         }
     }
@@ -132,11 +167,12 @@ public class HydrationInputResolver {
                                           FieldTracking fieldTracking,
                                           List<CompletableFuture<List<NodeZipper<ExecutionResultNode>>>> resolvedNodeCFs,
                                           NodeMultiZipper<ExecutionResultNode> batch,
-                                          Map<Service, Object> serviceContexts) {
+                                          Map<Service, Object> serviceContexts,
+                                          int level) {
         List<NodeMultiZipper<ExecutionResultNode>> batchesWithCorrectSize = groupIntoCorrectBatchSizes(batch);
         for (NodeMultiZipper<ExecutionResultNode> oneBatch : batchesWithCorrectSize) {
             List<HydrationInputNode> batchedNodes = map(oneBatch.getZippers(), zipper -> (HydrationInputNode) zipper.getCurNode());
-            CompletableFuture<List<ExecutionResultNode>> executionResultNodeCompletableFuture = resolveHydrationInputBatch(context, fieldTracking, batchedNodes, serviceContexts);
+            CompletableFuture<List<ExecutionResultNode>> executionResultNodeCompletableFuture = resolveHydrationInputBatch(context, fieldTracking, batchedNodes, serviceContexts, level);
             resolvedNodeCFs.add(replaceNodesInZipper(oneBatch, executionResultNodeCompletableFuture));
         }
     }
@@ -209,7 +245,8 @@ public class HydrationInputResolver {
     private CompletableFuture<ExecutionResultNode> resolveSingleHydrationInput(ExecutionContext executionContext,
                                                                                FieldTracking fieldTracking,
                                                                                HydrationInputNode hydrationInputNode,
-                                                                               Map<Service, Object> serviceContexts) {
+                                                                               Map<Service, Object> serviceContexts,
+                                                                               int level) {
         HydrationTransformation hydrationTransformation = hydrationInputNode.getHydrationTransformation();
         ExecutionStepInfo hydratedFieldStepInfo = hydrationInputNode.getExecutionStepInfo();
 
@@ -225,8 +262,9 @@ public class HydrationInputResolver {
         String operationName = buildOperationName(service, executionContext);
         GraphQLCompositeType topLevelFieldType = (GraphQLCompositeType) unwrapAll(hydrationTransformation.getOriginalFieldType());
 
-        QueryTransformationResult queryTransformationResult = queryTransformer
-                .transformHydratedTopLevelField(
+        NadelInstrumentationQueryTransformParameters transformParams = new NadelInstrumentationQueryTransformParameters(executionContext, service, true, executionContext.getInstrumentationState());
+        QueryTransformationResult queryTransformationResult = runInstrumented(instrumentation.beginQueryTransform(transformParams),
+                () -> queryTransformer.transformHydratedTopLevelField(
                         executionContext,
                         service.getUnderlyingSchema(),
                         operationName,
@@ -235,25 +273,40 @@ public class HydrationInputResolver {
                         topLevelFieldType,
                         serviceExecutionHooks,
                         service,
-                        serviceContexts.get(service));
-
+                        serviceContexts.get(service)),
+                QueryTransformationResult::getDocument);
 
-        fieldTracking.fieldsDispatched(singletonList(hydratedFieldStepInfo));
-
-        CompletableFuture<RootExecutionResultNode> serviceResult = serviceExecutor
-                .execute(executionContext, queryTransformationResult, service, operation,
-                        serviceContexts.get(service), true);
 
         ForkJoinPool forkJoinPool = getNadelContext(executionContext).getForkJoinPool();
-        return serviceResult
-                .thenApply(resultNode -> removeArtificialFieldsFromRoot(executionContext, resultNode))
-                .thenApply(resultNode -> convertSingleHydrationResultIntoOverallResult(executionContext.getExecutionId(), forkJoinPool, fieldTracking, hydratedFieldStepInfo, hydrationTransformation, resultNode, queryTransformationResult))
+        return queryTransformer
+                .resolveArgumentValues(executionContext, queryTransformationResult, serviceExecutionHooks, service, serviceContexts.get(service))
+                .thenCompose(resolvedQueryTransformationResult -> {
+                    fieldTracking.fieldsDispatched(singletonList(hydratedFieldStepInfo));
+                    return serviceExecutor
+                            .execute(withResolvedVariables(executionContext, queryTransformationResult, resolvedQueryTransformationResult),
+                                    resolvedQueryTransformationResult, service, operation, serviceContexts.get(service), level);
+                })
+                .thenApply(resultNode -> removeArtificialFieldsFromRoot(executionContext, service, resultNode))
+                .thenApply(resultNode -> runInstrumented(instrumentation.beginOverallResultConversion(conversionParameters(executionContext, service, resultNode)),
+                        () -> convertSingleHydrationResultIntoOverallResult(executionContext.getExecutionId(), forkJoinPool, fieldTracking, hydratedFieldStepInfo, hydrationTransformation, resultNode, queryTransformationResult)))
                 .whenComplete(fieldTracking::fieldsCompleted)
                 .whenComplete(this::possiblyLogException);
 
     }
 
 
+    /**
+     * Hydration calls are executed with the variables of the overall query, unless the argument value hook set new ones
+     */
+    private ExecutionContext withResolvedVariables(ExecutionContext executionContext,
+                                                   QueryTransformationResult queryTransformationResult,
+                                                   QueryTransformationResult resolvedQueryTransformationResult) {
+        if (resolvedQueryTransformationResult == queryTransformationResult) {
+            return executionContext;
+        }
+        return executionContext.transform(builder -> builder.variables(resolvedQueryTransformationResult.getVariableValues()));
+    }
+
     private Field createSingleHydrationTopLevelField(HydrationInputNode hydrationInputNode, Field originalField, UnderlyingServiceHydration underlyingServiceHydration, String topLevelFieldName) {
         RemoteArgumentDefinition remoteArgumentDefinition = underlyingServiceHydration.getArguments().get(0);
         Object value = hydrationInputNode.getResolvedValue().getCompletedValue();
@@ -291,7 +344,8 @@ public class HydrationInputResolver {
     private CompletableFuture<List<ExecutionResultNode>> resolveHydrationInputBatch(ExecutionContext executionContext,
                                                                                     FieldTracking fieldTracking,
                                                                                     List<HydrationInputNode> hydrationInputs,
-                                                                                    Map<Service, Object> serviceContexts) {
+                                                                                    Map<Service, Object> serviceContexts,
+                                                                                    int level) {
 
         List<HydrationTransformation> hydrationTransformations = map(hydrationInputs, HydrationInputNode::getHydrationTransformation);
 
@@ -307,16 +361,26 @@ public class HydrationInputResolver {
         String operationName = buildOperationName(service, executionContext);
 
         GraphQLCompositeType topLevelFieldType = (GraphQLCompositeType) unwrapAll(hydrationTransformation.getOriginalFieldType());
-        QueryTransformationResult queryTransformationResult = queryTransformer
-                .transformHydratedTopLevelField(executionContext, service.getUnderlyingSchema(), operationName, operation, topLevelField, topLevelFieldType, serviceExecutionHooks, service, serviceContexts.get(service));
+        NadelInstrumentationQueryTransformParameters transformParams = new NadelInstrumentationQueryTransformParameters(executionContext, service, true, executionContext.getInstrumentationState());
+        QueryTransformationResult queryTransformationResult = runInstrumented(instrumentation.beginQueryTransform(transformParams),
+                () -> queryTransformer.transformHydratedTopLevelField(executionContext, service.getUnderlyingSchema(), operationName, operation, topLevelField, topLevelFieldType, serviceExecutionHooks, service, serviceContexts.get(service)),
+                QueryTransformationResult::getDocument);
 
 
         List<ExecutionStepInfo> hydratedFieldStepInfos = map(hydrationInputs, ExecutionResultNode::getExecutionStepInfo);
-        fieldTracking.fieldsDispatched(hydratedFieldStepInfos);
-        return serviceExecutor
-                .execute(executionContext, queryTransformationResult, service, operation, serviceContexts.get(service), true)
-                .thenApply(resultNode -> convertHydrationBatchResultIntoOverallResult(executionContext, fieldTracking, hydrationInputs, resultNode, queryTransformationResult))
-                .thenApply(resultNode -> ArtificialFieldUtils.removeArtificialFields(getNadelContext(executionContext), resultNode))
+        return queryTransformer
+                .resolveArgumentValues(executionContext, queryTransformationResult, serviceExecutionHooks, service, serviceContexts.get(service))
+                .thenCompose(resolvedQueryTransformationResult -> {
+                    fieldTracking.fieldsDispatched(hydratedFieldStepInfos);
+                    return serviceExecutor
+                            .execute(withResolvedVariables(executionContext, queryTransformationResult, resolvedQueryTransformationResult),
+                                    resolvedQueryTransformationResult, service, operation, serviceContexts.get(service), level);
+                })
+                .thenApply(resultNode -> runInstrumented(instrumentation.beginOverallResultConversion(conversionParameters(executionContext, service, resultNode)),
+                        () -> convertHydrationBatchResultIntoOverallResult(executionContext, fieldTracking, hydrationInputs, resultNode, queryTransformationResult),
+                        // a batch converts into one node per hydrated field rather than into one tree
+                        resultNodes -> null))
+                .thenApply(resultNodes -> removeArtificialFieldsFromNodes(executionContext, service, resultNodes))
                 .whenComplete(fieldTracking::fieldsCompleted)
                 .whenComplete(this::possiblyLogException);
 
@@ -439,8 +503,20 @@ public class HydrationInputResolver {
         return null;
     }
 
-    private RootExecutionResultNode removeArtificialFieldsFromRoot(ExecutionContext executionContext, RootExecutionResultNode root) {
-        return (RootExecutionResultNode) removeArtificialFields(getNadelContext(executionContext), root);
+    private NadelInstrumentationResultConversionParameters conversionParameters(ExecutionContext executionContext, Service service, ExecutionResultNode resultNode) {
+        return new NadelInstrumentationResultConversionParameters(executionContext, service, resultNode, true, executionContext.getInstrumentationState());
+    }
+
+    private List<ExecutionResultNode> removeArtificialFieldsFromNodes(ExecutionContext executionContext, Service service, List<ExecutionResultNode> resultNodes) {
+        // the nodes of a batch are one step, so they are instrumented once rather than once per node
+        return runInstrumented(instrumentation.beginArtificialFieldRemoval(conversionParameters(executionContext, service, null)),
+                () -> map(resultNodes, resultNode -> ArtificialFieldUtils.removeArtificialFields(getNadelContext(executionContext), resultNode)),
+                resultNodesAfterRemoval -> null);
+    }
+
+    private RootExecutionResultNode removeArtificialFieldsFromRoot(ExecutionContext executionContext, Service service, RootExecutionResultNode root) {
+        return runInstrumented(instrumentation.beginArtificialFieldRemoval(conversionParameters(executionContext, service, root)),
+                () -> (RootExecutionResultNode) ArtificialFieldUtils.removeArtificialFields(getNadelContext(executionContext), root));
     }
 
     private LeafExecutionResultNode getFieldByResultKey(ObjectExecutionResultNode node, String resultKey) {
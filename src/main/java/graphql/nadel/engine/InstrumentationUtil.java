@@ -0,0 +1,84 @@
+package graphql.nadel.engine;
+
+import graphql.Internal;
+import graphql.execution.instrumentation.InstrumentationContext;
+import graphql.execution.instrumentation.InstrumentationState;
+import graphql.nadel.instrumentation.ChainedNadelInstrumentation;
+import graphql.nadel.instrumentation.NadelInstrumentation;
+import graphql.nadel.instrumentation.parameters.NadelInstrumentationFetchFieldParameters;
+
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static graphql.nadel.util.OverrideUtil.overridesDefault;
+
+@Internal
+public class InstrumentationUtil {
+
+    /**
+     * Field fetches only need to be tracked if the instrumentation implements
+     * {@link NadelInstrumentation#beginFieldFetch(NadelInstrumentationFetchFieldParameters)}, otherwise the result
+     * nodes never have to be walked for it.
+     *
+     * @param instrumentation the instrumentation in use
+     *
+     * @return true if the instrumentation, or one of the instrumentations it chains, has its own implementation of beginFieldFetch
+     */
+    public static boolean instrumentsFieldFetches(NadelInstrumentation instrumentation) {
+        if (instrumentation == null) {
+            return false;
+        }
+        if (instrumentation instanceof ChainedNadelInstrumentation) {
+            return ((ChainedNadelInstrumentation) instrumentation).hasFieldFetchInstrumentations();
+        }
+        return overridesDefault(NadelInstrumentation.class, instrumentation.getClass(), "beginFieldFetch", NadelInstrumentationFetchFieldParameters.class);
+    }
+
+    /**
+     * @param instrumentation      the instrumentation in use
+     * @param instrumentationState the state the instrumentation created for the request
+     *
+     * @return true if the fields of the request have to be tracked for the instrumentation
+     *
+     * @see NadelInstrumentation#isFieldFetchInstrumented(InstrumentationState)
+     */
+    public static boolean instrumentsFieldFetches(NadelInstrumentation instrumentation, InstrumentationState instrumentationState) {
+        return instrumentsFieldFetches(instrumentation) && instrumentation.isFieldFetchInstrumented(instrumentationState);
+    }
+
+    /**
+     * Runs a synchronous step and completes its instrumentation context with the result of the step or the exception it threw
+     *
+     * @param instrumentationCtx the context returned by the begin method of the step
+     * @param step               the step to run
+     * @param <T>                the type of the result of the step
+     *
+     * @return the result of the step
+     */
+    public static <T> T runInstrumented(InstrumentationContext<? super T> instrumentationCtx, Supplier<T> step) {
+        return runInstrumented(instrumentationCtx, step, result -> result);
+    }
+
+    /**
+     * Runs a synchronous step and completes its instrumentation context with a part of the result of the step or the exception it threw
+     *
+     * @param instrumentationCtx the context returned by the begin method of the step
+     * @param step               the step to run
+     * @param instrumentedResult gets the part of the result the instrumentation context is completed with
+     * @param <T>                the type of the result of the step
+     * @param <U>                the type the instrumentation context is completed with
+     *
+     * @return the result of the step
+     */
+    public static <T, U> T runInstrumented(InstrumentationContext<U> instrumentationCtx, Supplier<T> step, Function<T, U> instrumentedResult) {
+        T result;
+        try {
+            result = step.get();
+        } catch (RuntimeException e) {
+            instrumentationCtx.onCompleted(null, e);
+            throw e;
+        }
+        instrumentationCtx.onCompleted(instrumentedResult.apply(result), null);
+        return result;
+    }
+}
@@ -20,6 +20,7 @@ public class NadelContext {
     private final String originalOperationName;
     private final String objectIdentifierAlias;
     private final ForkJoinPool forkJoinPool;
+    private final FragmentTransformationCache fragmentTransformationCache = new FragmentTransformationCache();
 
 
     private NadelContext(Object userSuppliedContext,
@@ -54,6 +55,10 @@ public class NadelContext {
         return forkJoinPool;
     }
 
+    public FragmentTransformationCache getFragmentTransformationCache() {
+        return fragmentTransformationCache;
+    }
+
     public static Builder newContext() {
         return new Builder();
     }
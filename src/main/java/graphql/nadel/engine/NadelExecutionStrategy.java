@@ -18,14 +18,19 @@ import graphql.nadel.engine.tracking.FieldTracking;
 import graphql.nadel.engine.transformation.FieldTransformation;
 import graphql.nadel.hooks.CreateServiceContextParams;
 import graphql.nadel.hooks.ResultRewriteParams;
+import graphql.nadel.hooks.ServiceContextCache;
 import graphql.nadel.hooks.ServiceExecutionHooks;
 import graphql.nadel.instrumentation.NadelInstrumentation;
+import graphql.nadel.instrumentation.parameters.NadelInstrumentationQueryTransformParameters;
+import graphql.nadel.instrumentation.parameters.NadelInstrumentationResultConversionParameters;
 import graphql.schema.GraphQLFieldDefinition;
 import graphql.schema.GraphQLSchema;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -34,6 +39,7 @@ import java.util.concurrent.CompletableFuture;
 import static graphql.Assert.assertNotEmpty;
 import static graphql.Assert.assertNotNull;
 import static graphql.nadel.engine.ArtificialFieldUtils.removeArtificialFields;
+import static graphql.nadel.engine.InstrumentationUtil.runInstrumented;
 import static graphql.util.FpKit.map;
 import static java.lang.String.format;
 import static java.util.Collections.singletonList;
@@ -43,7 +49,7 @@ public class NadelExecutionStrategy {
 
     private final ExecutionStepInfoFactory executionStepInfoFactory = new ExecutionStepInfoFactory();
     private final ServiceResultNodesToOverallResult serviceResultNodesToOverallResult = new ServiceResultNodesToOverallResult();
-    private final OverallQueryTransformer queryTransformer = new OverallQueryTransformer();
+    private final OverallQueryTransformer queryTransformer;
 
     private final FieldInfos fieldInfos;
     private final GraphQLSchema overallSchema;
@@ -51,6 +57,7 @@ public class NadelExecutionStrategy {
     private final ServiceExecutor serviceExecutor;
     private final HydrationInputResolver hydrationInputResolver;
     private final ServiceExecutionHooks serviceExecutionHooks;
+    private final ServiceContextCache serviceContextCache;
 
     private static final Logger log = LoggerFactory.getLogger(NadelExecutionStrategy.class);
 
@@ -59,13 +66,25 @@ public class NadelExecutionStrategy {
                                   GraphQLSchema overallSchema,
                                   NadelInstrumentation instrumentation,
                                   ServiceExecutionHooks serviceExecutionHooks) {
+        this(services, fieldInfos, overallSchema, new TransformationIndex(overallSchema), instrumentation, serviceExecutionHooks, ServiceContextCache.NONE);
+    }
+
+    public NadelExecutionStrategy(List<Service> services,
+                                  FieldInfos fieldInfos,
+                                  GraphQLSchema overallSchema,
+                                  TransformationIndex transformationIndex,
+                                  NadelInstrumentation instrumentation,
+                                  ServiceExecutionHooks serviceExecutionHooks,
+                                  ServiceContextCache serviceContextCache) {
         this.overallSchema = overallSchema;
+        this.queryTransformer = new OverallQueryTransformer(transformationIndex);
         this.instrumentation = instrumentation;
         assertNotEmpty(services);
         this.fieldInfos = fieldInfos;
         this.serviceExecutionHooks = serviceExecutionHooks;
+        this.serviceContextCache = serviceContextCache;
         this.serviceExecutor = new ServiceExecutor(instrumentation);
-        this.hydrationInputResolver = new HydrationInputResolver(services, overallSchema, serviceExecutor, serviceExecutionHooks);
+        this.hydrationInputResolver = new HydrationInputResolver(services, overallSchema, queryTransformer, serviceExecutor, serviceExecutionHooks);
     }
 
     public CompletableFuture<RootExecutionResultNode> execute(ExecutionContext executionContext, FieldSubSelection fieldSubSelection) {
@@ -85,14 +104,14 @@ public class NadelExecutionStrategy {
 
             CompletableFuture<RootExecutionResultNode> rootResult = mergeTrees(resultNodes);
             return rootResult
-                    .thenApply(resultNode -> removeArtificialFieldsFromRoot(resultNode, nadelContext))
+                    .thenApply(resultNode -> removeArtificialFieldsFromRoot(executionContext, resultNode))
                     .thenCompose(
                             //
                             // all the nodes that are hydrated need to make new service calls to get their eventual value
                             //
                             rootExecutionResultNode -> hydrationInputResolver.resolveAllHydrationInputs(executionContext, fieldTracking, rootExecutionResultNode, serviceContextsByService)
                                     //
-                                    .thenApply(resultNode -> removeArtificialFieldsFromRoot(resultNode, nadelContext)))
+                                    .thenApply(resultNode -> removeArtificialFieldsFromRoot(executionContext, resultNode)))
                     .whenComplete((resultNode, throwable) -> {
                         possiblyLogException(resultNode, throwable);
                         long elapsedTime = System.currentTimeMillis() - startTime;
@@ -113,6 +132,7 @@ public class NadelExecutionStrategy {
 
     private CompletableFuture<List<OneServiceExecution>> prepareServiceExecution(ExecutionContext executionCtx, FieldSubSelection fieldSubSelection, ExecutionStepInfo rootExecutionStepInfo) {
         List<CompletableFuture<OneServiceExecution>> result = new ArrayList<>();
+        Map<Object, CompletableFuture<Object>> sharedServiceContexts = new HashMap<>();
         for (MergedField mergedField : fieldSubSelection.getMergedSelectionSet().getSubFieldsList()) {
             ExecutionStepInfo fieldExecutionStepInfo = executionStepInfoFactory.newExecutionStepInfoForSubField(executionCtx, mergedField, rootExecutionStepInfo);
             Service service = getServiceForFieldDefinition(fieldExecutionStepInfo.getFieldDefinition());
@@ -123,7 +143,16 @@ public class NadelExecutionStrategy {
                     .executionStepInfo(fieldExecutionStepInfo)
                     .build();
 
-            CompletableFuture<Object> serviceContextCF = serviceExecutionHooks.createServiceContext(parameters);
+            CompletableFuture<Object> serviceContextCF;
+            Object cacheKey = serviceExecutionHooks.getServiceContextCacheKey(parameters);
+            if (cacheKey == null) {
+                serviceContextCF = serviceExecutionHooks.createServiceContext(parameters);
+            } else {
+                // the service context is shared by the top level fields of this request and possibly by other requests
+                Object serviceContextKey = Arrays.asList(service.getName(), cacheKey);
+                serviceContextCF = sharedServiceContexts.computeIfAbsent(serviceContextKey,
+                        key -> serviceContextCache.computeIfAbsent(key, k -> serviceExecutionHooks.createServiceContext(parameters)));
+            }
             CompletableFuture<OneServiceExecution> serviceCF = serviceContextCF.thenApply(serviceContext -> new OneServiceExecution(service, serviceContext, fieldExecutionStepInfo));
             result.add(serviceCF);
         }
@@ -146,28 +175,38 @@ public class NadelExecutionStrategy {
             // take the original query and transform it into the underlying query needed for that top level field
             //
             GraphQLSchema underlyingSchema = service.getUnderlyingSchema();
-            QueryTransformationResult queryTransform = queryTransformer
-                    .transformMergedFields(executionContext, underlyingSchema, operationName, operation, singletonList(mergedField), serviceExecutionHooks, service, serviceContext);
+            NadelInstrumentationQueryTransformParameters transformParams = new NadelInstrumentationQueryTransformParameters(executionContext, service, false, executionContext.getInstrumentationState());
+            QueryTransformationResult queryTransform = runInstrumented(instrumentation.beginQueryTransform(transformParams),
+                    () -> queryTransformer.transformMergedFields(executionContext, underlyingSchema, operationName, operation, singletonList(mergedField), serviceExecutionHooks, service, serviceContext),
+                    QueryTransformationResult::getDocument);
 
 
             Map<String, FieldTransformation> transformationByResultField = queryTransform.getTransformationByResultField();
             Map<String, String> typeRenameMappings = queryTransform.getTypeRenameMappings();
 
-            ExecutionContext newExecutionContext = buildServiceVariableOverrides(executionContext, queryTransform.getVariableValues());
-
-            fieldTracking.fieldsDispatched(singletonList(esi));
-            CompletableFuture<RootExecutionResultNode> serviceCallResult = serviceExecutor
-                    .execute(newExecutionContext, queryTransform, service, operation, serviceContext, false);
-
-            CompletableFuture<RootExecutionResultNode> convertedResult = serviceCallResult
-                    .thenApply(resultNode -> (RootExecutionResultNode) serviceResultNodesToOverallResult
-                            .convert(newExecutionContext.getExecutionId(),
-                                    nadelContext.getForkJoinPool(),
-                                    resultNode,
-                                    overallSchema,
-                                    rootExecutionStepInfo,
-                                    transformationByResultField,
-                                    typeRenameMappings));
+            CompletableFuture<RootExecutionResultNode> convertedResult = queryTransformer
+                    .resolveArgumentValues(executionContext, queryTransform, serviceExecutionHooks, service, serviceContext)
+                    .thenCompose(resolvedQueryTransform -> {
+                        ExecutionContext newExecutionContext = buildServiceVariableOverrides(executionContext, resolvedQueryTransform.getVariableValues());
+
+                        fieldTracking.fieldsDispatched(singletonList(esi));
+                        CompletableFuture<RootExecutionResultNode> serviceCallResult = serviceExecutor
+                                .execute(newExecutionContext, resolvedQueryTransform, service, operation, serviceContext, 0);
+
+                        return serviceCallResult
+                                .thenApply(resultNode -> {
+                                    NadelInstrumentationResultConversionParameters conversionParams = new NadelInstrumentationResultConversionParameters(executionContext, service, resultNode, false, executionContext.getInstrumentationState());
+                                    return runInstrumented(instrumentation.beginOverallResultConversion(conversionParams),
+                                            () -> (RootExecutionResultNode) serviceResultNodesToOverallResult
+                                                    .convert(newExecutionContext.getExecutionId(),
+                                                            nadelContext.getForkJoinPool(),
+                                                            resultNode,
+                                                            overallSchema,
+                                                            rootExecutionStepInfo,
+                                                            transformationByResultField,
+                                                            typeRenameMappings));
+                                });
+                    });
 
             //
             // and then they are done call back on field tracking that they have completed (modulo hydrated ones).  This is per service call
@@ -191,8 +230,10 @@ public class NadelExecutionStrategy {
         return resultNodes;
     }
 
-    private RootExecutionResultNode removeArtificialFieldsFromRoot(ExecutionResultNode resultNode, NadelContext nadelContext) {
-        return (RootExecutionResultNode) removeArtificialFields(nadelContext, resultNode);
+    private RootExecutionResultNode removeArtificialFieldsFromRoot(ExecutionContext executionContext, ExecutionResultNode resultNode) {
+        NadelInstrumentationResultConversionParameters instrumentationParams = new NadelInstrumentationResultConversionParameters(executionContext, null, resultNode, false, executionContext.getInstrumentationState());
+        return runInstrumented(instrumentation.beginArtificialFieldRemoval(instrumentationParams),
+                () -> (RootExecutionResultNode) removeArtificialFields(getNadelContext(executionContext), resultNode));
     }
 
     @SuppressWarnings("unused")
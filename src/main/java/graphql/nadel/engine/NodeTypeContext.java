@@ -10,6 +10,7 @@ import graphql.schema.GraphQLOutputType;
 
 import java.util.Map;
 import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 @Internal
 public class NodeTypeContext {
@@ -20,9 +21,10 @@ public class NodeTypeContext {
     private final Field field;
     private final GraphQLFieldDefinition fieldDefinitionUnderlying;
     private final GraphQLFieldsContainer fieldsContainerUnderlying;
-    private final Map<String, Object> fieldArgumentValues;
+    // coerced lazily since they are rarely needed
+    private final Supplier<Map<String, Object>> fieldArgumentValues;
 
-    private final Object argumentValue;
+    private final Supplier<Object> argumentValue;
     private final GraphQLArgument argumentDefinitionUnderlying;
     private final GraphQLInputValueDefinition inputValueDefinitionUnderlying;
 
@@ -39,7 +41,7 @@ public class NodeTypeContext {
     }
 
     public Map<String, Object> getFieldArgumentValues() {
-        return fieldArgumentValues;
+        return fieldArgumentValues == null ? null : fieldArgumentValues.get();
     }
 
     public GraphQLOutputType getOutputTypeUnderlying() {
@@ -63,7 +65,7 @@ public class NodeTypeContext {
     }
 
     public Object getArgumentValue() {
-        return argumentValue;
+        return argumentValue == null ? null : argumentValue.get();
     }
 
     public GraphQLArgument getArgumentDefinitionUnderlying() {
@@ -86,8 +88,8 @@ public class NodeTypeContext {
         Field field;
         GraphQLFieldDefinition fieldDefinitionUnderlying;
         GraphQLFieldsContainer fieldsContainerUnderlying;
-        Map<String, Object> fieldArgumentValues;
-        Object argumentValue;
+        Supplier<Map<String, Object>> fieldArgumentValues;
+        Supplier<Object> argumentValue;
         GraphQLArgument argumentDefinitionUnderlying;
         GraphQLInputValueDefinition inputValueDefinitionUnderlying;
 
@@ -106,6 +108,11 @@ public class NodeTypeContext {
         }
 
         public Builder fieldArgumentValues(Map<String, Object> fieldArgumentValues) {
+            this.fieldArgumentValues = () -> fieldArgumentValues;
+            return this;
+        }
+
+        public Builder fieldArgumentValues(Supplier<Map<String, Object>> fieldArgumentValues) {
             this.fieldArgumentValues = fieldArgumentValues;
             return this;
         }
@@ -132,6 +139,11 @@ public class NodeTypeContext {
         }
 
         public Builder argumentValue(Object argumentValue) {
+            this.argumentValue = () -> argumentValue;
+            return this;
+        }
+
+        public Builder argumentValue(Supplier<Object> argumentValue) {
             this.argumentValue = argumentValue;
             return this;
         }
@@ -6,9 +6,9 @@ import graphql.execution.ValuesResolver;
 import graphql.introspection.Introspection;
 import graphql.language.Argument;
 import graphql.language.AstNodeAdapter;
+import graphql.language.Definition;
 import graphql.language.Document;
 import graphql.language.Field;
-import graphql.language.FieldDefinition;
 import graphql.language.FragmentDefinition;
 import graphql.language.FragmentSpread;
 import graphql.language.InlineFragment;
@@ -16,6 +16,7 @@ import graphql.language.Node;
 import graphql.language.NodeVisitorStub;
 import graphql.language.ObjectField;
 import graphql.language.OperationDefinition;
+import graphql.language.Selection;
 import graphql.language.SelectionSet;
 import graphql.language.TypeName;
 import graphql.language.Value;
@@ -23,17 +24,19 @@ import graphql.language.VariableDefinition;
 import graphql.language.VariableReference;
 import graphql.nadel.Operation;
 import graphql.nadel.Service;
-import graphql.nadel.dsl.ExtendedFieldDefinition;
 import graphql.nadel.dsl.TypeMappingDefinition;
+import graphql.nadel.engine.FragmentTransformationCache.TransformedFragment;
 import graphql.nadel.engine.transformation.ApplyEnvironment;
 import graphql.nadel.engine.transformation.ApplyResult;
 import graphql.nadel.engine.transformation.FieldRenameTransformation;
 import graphql.nadel.engine.transformation.FieldTransformation;
-import graphql.nadel.engine.transformation.HydrationTransformation;
 import graphql.nadel.engine.transformation.OverallTypeInfo;
 import graphql.nadel.engine.transformation.OverallTypeInformation;
 import graphql.nadel.engine.transformation.RecordOverallTypeInformation;
+import graphql.nadel.hooks.ArgumentValue;
+import graphql.nadel.hooks.ArgumentValuesResult;
 import graphql.nadel.hooks.NewVariableValue;
+import graphql.nadel.hooks.ResolveArgumentValuesParams;
 import graphql.nadel.hooks.ServiceExecutionHooks;
 import graphql.nadel.util.FpKit;
 import graphql.schema.GraphQLArgument;
@@ -43,14 +46,12 @@ import graphql.schema.GraphQLFieldsContainer;
 import graphql.schema.GraphQLInputObjectField;
 import graphql.schema.GraphQLInputObjectType;
 import graphql.schema.GraphQLInputValueDefinition;
-import graphql.schema.GraphQLInterfaceType;
 import graphql.schema.GraphQLNamedOutputType;
 import graphql.schema.GraphQLObjectType;
 import graphql.schema.GraphQLOutputType;
 import graphql.schema.GraphQLSchema;
 import graphql.schema.GraphQLType;
 import graphql.schema.GraphQLTypeUtil;
-import graphql.schema.GraphQLUnionType;
 import graphql.schema.GraphQLUnmodifiedType;
 import graphql.schema.idl.TypeInfo;
 import graphql.util.TraversalControl;
@@ -67,16 +68,21 @@ import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 
-import static graphql.Assert.assertShouldNeverHappen;
 import static graphql.Assert.assertTrue;
 import static graphql.introspection.Introspection.TypeNameMetaFieldDef;
 import static graphql.language.OperationDefinition.newOperationDefinition;
 import static graphql.language.SelectionSet.newSelectionSet;
 import static graphql.language.TypeName.newTypeName;
+import static graphql.nadel.engine.HooksUtil.needsArgumentValues;
+import static graphql.nadel.engine.HooksUtil.resolvesArgumentValues;
+import static graphql.nadel.engine.HooksUtil.visitsArgumentValues;
 import static graphql.nadel.engine.NodeTypeContext.newNodeTypeContext;
-import static graphql.nadel.util.Util.getTypeMappingDefinitionFor;
+import static graphql.nadel.util.FpKit.intraThreadMemoize;
 import static graphql.schema.GraphQLTypeUtil.unwrapAll;
 import static graphql.util.FpKit.groupingByUniqueKey;
 import static graphql.util.FpKit.map;
@@ -88,6 +94,14 @@ public class OverallQueryTransformer {
 
     private final ValuesResolver valuesResolver = new ValuesResolver();
     private final RecordOverallTypeInformation recordOverallTypeInformation = new RecordOverallTypeInformation();
+    private volatile TransformationIndex transformationIndex;
+
+    public OverallQueryTransformer() {
+    }
+
+    public OverallQueryTransformer(TransformationIndex transformationIndex) {
+        this.transformationIndex = transformationIndex;
+    }
 
     QueryTransformationResult transformHydratedTopLevelField(
             ExecutionContext executionContext,
@@ -105,6 +119,7 @@ public class OverallQueryTransformer {
         Map<String, FieldTransformation> transformationByResultField = new LinkedHashMap<>();
         Map<String, String> typeRenameMappings = new LinkedHashMap<>();
         Map<String, VariableDefinition> referencedVariables = new LinkedHashMap<>();
+        Map<String, ArgumentValue> argumentValues = new LinkedHashMap<>();
         Map<String, Object> variableValues = new LinkedHashMap<>(executionContext.getVariables());
 
         NadelContext nadelContext = (NadelContext) executionContext.getContext();
@@ -118,6 +133,7 @@ public class OverallQueryTransformer {
                 typeRenameMappings,
                 referencedFragmentNames,
                 referencedVariables,
+                argumentValues,
                 nadelContext,
                 serviceExecutionHooks,
                 variableValues,
@@ -138,6 +154,7 @@ public class OverallQueryTransformer {
                 typeRenameMappings,
                 referencedFragmentNames,
                 referencedVariables,
+                argumentValues,
                 serviceExecutionHooks,
                 variableValues,
                 service,
@@ -164,7 +181,8 @@ public class OverallQueryTransformer {
                 referencedVariableNames,
                 transformationByResultField,
                 transformedFragments,
-                variableValues);
+                variableValues,
+                argumentValues);
 
     }
 
@@ -183,6 +201,7 @@ public class OverallQueryTransformer {
         Map<String, FieldTransformation> transformationByResultField = new LinkedHashMap<>();
         Map<String, String> typeRenameMappings = new LinkedHashMap<>();
         Map<String, VariableDefinition> referencedVariables = new LinkedHashMap<>();
+        Map<String, ArgumentValue> argumentValues = new LinkedHashMap<>();
         Map<String, Object> variableValues = new LinkedHashMap<>(executionContext.getVariables());
 
         List<MergedField> transformedMergedFields = new ArrayList<>();
@@ -202,6 +221,7 @@ public class OverallQueryTransformer {
                         typeRenameMappings,
                         fragmentsDirectlyReferenced,
                         referencedVariables,
+                        argumentValues,
                         nadelContext,
                         serviceExecutionHooks,
                         variableValues,
@@ -238,6 +258,7 @@ public class OverallQueryTransformer {
                 typeRenameMappings,
                 fragmentsDirectlyReferenced,
                 referencedVariables,
+                argumentValues,
                 serviceExecutionHooks,
                 variableValues,
                 service,
@@ -254,7 +275,116 @@ public class OverallQueryTransformer {
                 typeRenameMappings, referencedVariableNames,
                 transformationByResultField,
                 transformedFragments,
-                variableValues);
+                variableValues,
+                argumentValues);
+    }
+
+    /**
+     * Offers the argument values of a transformed query to {@link ServiceExecutionHooks#resolveArgumentValuesInQuery(ResolveArgumentValuesParams)}
+     * and applies the replacements it returns.  The query is not touched if the hook is not implemented.
+     */
+    CompletableFuture<QueryTransformationResult> resolveArgumentValues(ExecutionContext executionContext,
+                                                                       QueryTransformationResult queryTransformationResult,
+                                                                       ServiceExecutionHooks serviceExecutionHooks,
+                                                                       Service service,
+                                                                       Object serviceContext) {
+        if (!resolvesArgumentValues(serviceExecutionHooks) || queryTransformationResult.getArgumentValues().isEmpty()) {
+            return CompletableFuture.completedFuture(queryTransformationResult);
+        }
+        ResolveArgumentValuesParams params = ResolveArgumentValuesParams.newParameters()
+                .from(executionContext)
+                .service(service)
+                .serviceContext(serviceContext)
+                .argumentValues(Collections.unmodifiableList(new ArrayList<>(queryTransformationResult.getArgumentValues().values())))
+                .variables(Collections.unmodifiableMap(queryTransformationResult.getVariableValues()))
+                .build();
+        return serviceExecutionHooks.resolveArgumentValuesInQuery(params)
+                .thenApply(argumentValuesResult -> applyArgumentValues(queryTransformationResult, argumentValuesResult));
+    }
+
+    private QueryTransformationResult applyArgumentValues(QueryTransformationResult queryTransformationResult, ArgumentValuesResult argumentValuesResult) {
+        if (argumentValuesResult == null || !argumentValuesResult.hasChanges()) {
+            return queryTransformationResult;
+        }
+        Map<String, Value> newValuesById = new LinkedHashMap<>();
+        queryTransformationResult.getArgumentValues().forEach((id, argumentValue) -> {
+            Value newValue = argumentValuesResult.getReplacedValues().get(argumentValue);
+            if (newValue != null) {
+                newValuesById.put(id, newValue);
+            }
+        });
+
+        Map<String, Object> variableValues = new LinkedHashMap<>(queryTransformationResult.getVariableValues());
+        for (Map.Entry<String, Object> entry : argumentValuesResult.getVariableValues().entrySet()) {
+            assertTrue(queryTransformationResult.getReferencedVariables().contains(entry.getKey()),
+                    "The variable '%s' is not declared in the query sent to the service", entry.getKey());
+            variableValues.put(entry.getKey(), entry.getValue());
+        }
+        if (newValuesById.isEmpty()) {
+            return new QueryTransformationResult(
+                    queryTransformationResult.getDocument(),
+                    queryTransformationResult.getOperationDefinition(),
+                    queryTransformationResult.getTransformedMergedFields(),
+                    queryTransformationResult.getTypeRenameMappings(),
+                    queryTransformationResult.getReferencedVariables(),
+                    queryTransformationResult.getTransformationByResultField(),
+                    queryTransformationResult.getTransformedFragments(),
+                    variableValues,
+                    queryTransformationResult.getArgumentValues());
+        }
+
+        TreeTransformer<Node> treeTransformer = new TreeTransformer<>(AstNodeAdapter.AST_NODE_ADAPTER);
+        Document newDocument = (Document) treeTransformer.transform(queryTransformationResult.getDocument(), new TraverserVisitorStub<Node>() {
+            @Override
+            public TraversalControl enter(TraverserContext<Node> context) {
+                Node node = context.thisNode();
+                if (node instanceof Value && context.getParentNode() instanceof Argument) {
+                    Value newValue = newValuesById.get(FieldMetadataUtil.getOverallTypeInfoId(node));
+                    if (newValue != null) {
+                        return changeNode(context, newValue);
+                    }
+                }
+                return TraversalControl.CONTINUE;
+            }
+        });
+
+        OperationDefinition operationDefinition = null;
+        Map<String, FragmentDefinition> transformedFragments = new LinkedHashMap<>();
+        for (Definition definition : newDocument.getDefinitions()) {
+            if (definition instanceof OperationDefinition) {
+                operationDefinition = (OperationDefinition) definition;
+            } else if (definition instanceof FragmentDefinition) {
+                transformedFragments.put(((FragmentDefinition) definition).getName(), (FragmentDefinition) definition);
+            }
+        }
+
+        // the transformations build the selection set of the operation from the fields of the merged fields in order,
+        // and never put fragments at the top level, so the changed fields are picked up by position
+        List<Selection> topLevelSelections = operationDefinition.getSelectionSet().getSelections();
+        int fieldCount = queryTransformationResult.getTransformedMergedFields().stream().mapToInt(mergedField -> mergedField.getFields().size()).sum();
+        assertTrue(topLevelSelections.size() == fieldCount, "The operation has %d top level selections but there are %d transformed fields", topLevelSelections.size(), fieldCount);
+        List<MergedField> transformedMergedFields = new ArrayList<>();
+        int index = 0;
+        for (MergedField mergedField : queryTransformationResult.getTransformedMergedFields()) {
+            List<Field> fields = new ArrayList<>();
+            for (int i = 0; i < mergedField.getFields().size(); i++) {
+                Selection selection = topLevelSelections.get(index++);
+                assertTrue(selection instanceof Field, "Expected a field at the top level of the operation but got %s", selection);
+                fields.add((Field) selection);
+            }
+            transformedMergedFields.add(MergedField.newMergedField(fields).build());
+        }
+
+        return new QueryTransformationResult(
+                newDocument,
+                operationDefinition,
+                transformedMergedFields,
+                queryTransformationResult.getTypeRenameMappings(),
+                queryTransformationResult.getReferencedVariables(),
+                queryTransformationResult.getTransformationByResultField(),
+                transformedFragments,
+                variableValues,
+                queryTransformationResult.getArgumentValues());
     }
 
     private Document newDocument(OperationDefinition operationDefinition, Map<String, FragmentDefinition> transformedFragments) {
@@ -274,35 +404,88 @@ public class OverallQueryTransformer {
                                                                Map<String, String> typeRenameMappings,
                                                                Set<String> referencedFragmentNames,
                                                                Map<String, VariableDefinition> referencedVariables,
+                                                               Map<String, ArgumentValue> argumentValues,
                                                                ServiceExecutionHooks serviceExecutionHooks,
                                                                Map<String, Object> variableValues,
                                                                Service service,
                                                                Object serviceContext) {
 
+        FragmentTransformationCache fragmentTransformationCache = ((NadelContext) executionContext.getContext()).getFragmentTransformationCache();
         Set<String> fragmentsToTransform = new LinkedHashSet<>(referencedFragmentNames);
         List<FragmentDefinition> transformedFragments = new ArrayList<>();
         while (!fragmentsToTransform.isEmpty()) {
             String fragmentName = fragmentsToTransform.iterator().next();
-            Set<String> newReferencedFragments = new LinkedHashSet<>();
-            FragmentDefinition transformedFragment = transformFragmentDefinition(
-                    executionContext,
-                    underlyingSchema,
-                    fragments.get(fragmentName),
-                    transformationByResultField,
-                    typeRenameMappings,
-                    newReferencedFragments,
-                    referencedVariables,
-                    serviceExecutionHooks,
-                    variableValues,
-                    service,
-                    serviceContext);
-            transformedFragments.add(transformedFragment);
-            fragmentsToTransform.addAll(newReferencedFragments);
+            TransformedFragment transformedFragment = fragmentTransformationCache.get(service, underlyingSchema, serviceContext, fragmentName);
+            if (transformedFragment == null) {
+                transformedFragment = transformFragment(
+                        executionContext,
+                        underlyingSchema,
+                        fragments.get(fragmentName),
+                        serviceExecutionHooks,
+                        variableValues,
+                        service,
+                        serviceContext);
+                fragmentTransformationCache.put(service, underlyingSchema, serviceContext, fragmentName, transformedFragment);
+            }
+            transformationByResultField.putAll(transformedFragment.transformationByResultField);
+            typeRenameMappings.putAll(transformedFragment.typeRenameMappings);
+            referencedVariables.putAll(transformedFragment.referencedVariables);
+            argumentValues.putAll(transformedFragment.argumentValues);
+            variableValues.putAll(transformedFragment.newVariableValues);
+            transformedFragments.add(transformedFragment.fragmentDefinition);
+            fragmentsToTransform.addAll(transformedFragment.referencedFragmentNames);
             fragmentsToTransform.remove(fragmentName);
         }
         return groupingByUniqueKey(transformedFragments, FragmentDefinition::getName);
     }
 
+    /**
+     * Transforms a fragment definition into fresh collections so that everything the transformation recorded can be
+     * replayed when the fragment is spread again in the same request
+     */
+    private TransformedFragment transformFragment(ExecutionContext executionContext,
+                                                  GraphQLSchema underlyingSchema,
+                                                  FragmentDefinition fragmentDefinition,
+                                                  ServiceExecutionHooks serviceExecutionHooks,
+                                                  Map<String, Object> variableValues,
+                                                  Service service,
+                                                  Object serviceContext) {
+        Map<String, FieldTransformation> transformationByResultField = new LinkedHashMap<>();
+        Map<String, String> typeRenameMappings = new LinkedHashMap<>();
+        Set<String> referencedFragmentNames = new LinkedHashSet<>();
+        Map<String, VariableDefinition> referencedVariables = new LinkedHashMap<>();
+        Map<String, ArgumentValue> argumentValues = new LinkedHashMap<>();
+        Map<String, Object> fragmentVariableValues = new LinkedHashMap<>(variableValues);
+
+        FragmentDefinition transformedFragment = transformFragmentDefinition(
+                executionContext,
+                underlyingSchema,
+                fragmentDefinition,
+                transformationByResultField,
+                typeRenameMappings,
+                referencedFragmentNames,
+                referencedVariables,
+                argumentValues,
+                serviceExecutionHooks,
+                fragmentVariableValues,
+                service,
+                serviceContext);
+
+        Map<String, Object> newVariableValues = new LinkedHashMap<>();
+        fragmentVariableValues.forEach((name, value) -> {
+            if (!variableValues.containsKey(name) || !Objects.equals(variableValues.get(name), value)) {
+                newVariableValues.put(name, value);
+            }
+        });
+        return new TransformedFragment(transformedFragment,
+                transformationByResultField,
+                typeRenameMappings,
+                referencedFragmentNames,
+                referencedVariables,
+                newVariableValues,
+                argumentValues);
+    }
+
     private FragmentDefinition transformFragmentDefinition(ExecutionContext executionContext,
                                                            GraphQLSchema underlyingSchema,
                                                            FragmentDefinition fragmentDefinitionWithoutTypeInfo,
@@ -310,6 +493,7 @@ public class OverallQueryTransformer {
                                                            Map<String, String> typeRenameMappings,
                                                            Set<String> referencedFragmentNames,
                                                            Map<String, VariableDefinition> referencedVariables,
+                                                           Map<String, ArgumentValue> argumentValues,
                                                            ServiceExecutionHooks serviceExecutionHooks,
                                                            Map<String, Object> variableValues,
                                                            Service service,
@@ -319,7 +503,8 @@ public class OverallQueryTransformer {
         OverallTypeInformation<FragmentDefinition> overallTypeInformation = recordOverallTypeInformation.recordOverallTypes(
                 fragmentDefinitionWithoutTypeInfo,
                 executionContext.getGraphQLSchema(),
-                null);
+                null,
+                needsArgumentValues(serviceExecutionHooks));
 
 
         Transformer transformer = new Transformer(
@@ -329,6 +514,7 @@ public class OverallQueryTransformer {
                 typeRenameMappings,
                 referencedFragmentNames,
                 referencedVariables,
+                argumentValues,
                 nadelContext,
                 serviceExecutionHooks,
                 overallTypeInformation,
@@ -357,8 +543,7 @@ public class OverallQueryTransformer {
         for (VariableDefinition vd : referencedVariables.values()) {
             TypeInfo typeInfo = TypeInfo.typeInfo(vd.getType());
 
-            GraphQLType type = graphQLSchema.getType(typeInfo.getName());
-            TypeMappingDefinition mappingDefinition = getTypeMappingDefinitionFor(type);
+            TypeMappingDefinition mappingDefinition = transformationIndex(graphQLSchema).getTypeMappingDefinition(typeInfo.getName());
             if (mappingDefinition != null) {
                 typeRenameMappings.put(mappingDefinition.getUnderlyingName(), mappingDefinition.getOverallName());
                 String newName = mappingDefinition.getUnderlyingName();
@@ -378,6 +563,7 @@ public class OverallQueryTransformer {
                                              Map<String, String> typeRenameMappings,
                                              Set<String> referencedFragmentNames,
                                              Map<String, VariableDefinition> referencedVariables,
+                                             Map<String, ArgumentValue> argumentValues,
                                              NadelContext nadelContext,
                                              ServiceExecutionHooks serviceExecutionHooks,
                                              Map<String, Object> variableValues,
@@ -386,7 +572,8 @@ public class OverallQueryTransformer {
         OverallTypeInformation<T> overallTypeInformation = recordOverallTypeInformation.recordOverallTypes
                 (nodeWithoutTypeInfo,
                         executionContext.getGraphQLSchema(),
-                        parentTypeOverall);
+                        parentTypeOverall,
+                        needsArgumentValues(serviceExecutionHooks));
 
 
         Transformer transformer = new Transformer(executionContext,
@@ -395,6 +582,7 @@ public class OverallQueryTransformer {
                 typeRenameMappings,
                 referencedFragmentNames,
                 referencedVariables,
+                argumentValues,
                 nadelContext,
                 serviceExecutionHooks,
                 overallTypeInformation,
@@ -402,7 +590,7 @@ public class OverallQueryTransformer {
                 service,
                 serviceContext);
         Map<Class<?>, Object> rootVars = new LinkedHashMap<>();
-        String underlyingParentName = getUnderlyingTypeNameAndRecordMapping(parentTypeOverall, typeRenameMappings);
+        String underlyingParentName = getUnderlyingTypeNameAndRecordMapping(executionContext.getGraphQLSchema(), parentTypeOverall, typeRenameMappings);
         GraphQLOutputType underlyingSchemaParent = (GraphQLOutputType) underlyingSchema.getType(underlyingParentName);
         rootVars.put(NodeTypeContext.class, newNodeTypeContext()
                 .outputTypeUnderlying(underlyingSchemaParent)
@@ -421,8 +609,8 @@ public class OverallQueryTransformer {
         return (T) newNode;
     }
 
-    private String getUnderlyingTypeNameAndRecordMapping(GraphQLCompositeType typeOverall, Map<String, String> typeRenameMappings) {
-        TypeMappingDefinition mappingDefinition = getTypeMappingDefinitionFor(typeOverall);
+    private String getUnderlyingTypeNameAndRecordMapping(GraphQLSchema overallSchema, GraphQLCompositeType typeOverall, Map<String, String> typeRenameMappings) {
+        TypeMappingDefinition mappingDefinition = transformationIndex(overallSchema).getTypeMappingDefinition(typeOverall.getName());
         if (mappingDefinition == null) {
             return typeOverall.getName();
         }
@@ -438,9 +626,14 @@ public class OverallQueryTransformer {
         final Map<String, String> typeRenameMappings;
         final Set<String> referencedFragmentNames;
         final Map<String, VariableDefinition> referencedVariables;
+        final Map<String, ArgumentValue> argumentValues;
         final NadelContext nadelContext;
         private final Map<String, VariableDefinition> variableDefinitions;
         final ServiceExecutionHooks serviceExecutionHooks;
+        final boolean visitArgumentValues;
+        final boolean callVisitArgumentValueHook;
+        final boolean collectArgumentValues;
+        final TransformationIndex transformationIndex;
         private OverallTypeInformation<?> overallTypeInformation;
         private Service service;
         private Object serviceContext;
@@ -452,6 +645,7 @@ public class OverallQueryTransformer {
                     Map<String, String> typeRenameMappings,
                     Set<String> referencedFragmentNames,
                     Map<String, VariableDefinition> referencedVariables,
+                    Map<String, ArgumentValue> argumentValues,
                     NadelContext nadelContext,
                     ServiceExecutionHooks serviceExecutionHooks,
                     OverallTypeInformation overallTypeInformation,
@@ -464,8 +658,13 @@ public class OverallQueryTransformer {
             this.typeRenameMappings = typeRenameMappings;
             this.referencedFragmentNames = referencedFragmentNames;
             this.referencedVariables = referencedVariables;
+            this.argumentValues = argumentValues;
             this.nadelContext = nadelContext;
             this.serviceExecutionHooks = serviceExecutionHooks;
+            this.callVisitArgumentValueHook = visitsArgumentValues(serviceExecutionHooks);
+            this.collectArgumentValues = resolvesArgumentValues(serviceExecutionHooks);
+            this.visitArgumentValues = callVisitArgumentValueHook || collectArgumentValues;
+            this.transformationIndex = transformationIndex(executionContext.getGraphQLSchema());
             this.overallTypeInformation = overallTypeInformation;
             OperationDefinition operationDefinition = executionContext.getOperationDefinition();
             this.variableDefinitions = FpKit.getByName(operationDefinition.getVariableDefinitions(), VariableDefinition::getName);
@@ -483,6 +682,9 @@ public class OverallQueryTransformer {
 
         @Override
         public TraversalControl visitObjectField(ObjectField node, TraverserContext<Node> context) {
+            if (!visitArgumentValues) {
+                return TraversalControl.CONTINUE;
+            }
 
             NodeTypeContext nodeTypeContext = context.getVarFromParents(NodeTypeContext.class);
             GraphQLUnmodifiedType unmodifiedType = unwrapAll(nodeTypeContext.getInputValueDefinitionUnderlying().getType());
@@ -499,13 +701,17 @@ public class OverallQueryTransformer {
 
         @Override
         public TraversalControl visitArgument(Argument argument, TraverserContext<Node> context) {
+            if (!visitArgumentValues) {
+                // the argument is still traversed since its variable references have to be recorded
+                return TraversalControl.CONTINUE;
+            }
 
             NodeTypeContext nodeTypeContext = context.getVarFromParents(NodeTypeContext.class);
 
             GraphQLFieldDefinition fieldDefinition = nodeTypeContext.getFieldDefinitionUnderlying();
             GraphQLArgument graphQLArgument = fieldDefinition.getArgument(argument.getName());
             String argumentName = graphQLArgument.getName();
-            Object argumentValue = nodeTypeContext.getFieldArgumentValues().getOrDefault(argumentName, null);
+            Supplier<Object> argumentValue = () -> nodeTypeContext.getFieldArgumentValues().getOrDefault(argumentName, null);
 
             NodeTypeContext newContext = nodeTypeContext.transform(builder -> builder
                     .argumentValue(argumentValue)
@@ -517,25 +723,39 @@ public class OverallQueryTransformer {
 
         @Override
         protected TraversalControl visitValue(Value<?> value, TraverserContext<Node> context) {
+            if (!visitArgumentValues) {
+                return TraversalControl.CONTINUE;
+            }
             NodeTypeContext typeContext = context.getVarFromParents(NodeTypeContext.class);
             GraphQLInputValueDefinition inputValueDefinition = typeContext.getInputValueDefinitionUnderlying();
 
             OverallTypeInfo overallTypeInfo = getOverallTypeInfo(value);
 
-            HooksVisitArgumentValueEnvironmentImpl hooksVisitArgumentValueEnvironment = new HooksVisitArgumentValueEnvironmentImpl(
-                    inputValueDefinition,
-                    overallTypeInfo.getGraphQLInputValueDefinition(),
-                    typeContext.getArgumentDefinitionUnderlying(),
-                    overallTypeInfo.getGraphQLArgument(),
-                    context,
-                    value,
-                    variableValues,
-                    service,
-                    serviceContext);
+            if (callVisitArgumentValueHook) {
+                HooksVisitArgumentValueEnvironmentImpl hooksVisitArgumentValueEnvironment = new HooksVisitArgumentValueEnvironmentImpl(
+                        inputValueDefinition,
+                        overallTypeInfo.getGraphQLInputValueDefinition(),
+                        typeContext.getArgumentDefinitionUnderlying(),
+                        overallTypeInfo.getGraphQLArgument(),
+                        context,
+                        value,
+                        variableValues,
+                        service,
+                        serviceContext);
 
-            NewVariableValue newVariableValue = serviceExecutionHooks.visitArgumentValueInQuery(hooksVisitArgumentValueEnvironment);
-            if (newVariableValue != null) {
-                variableValues.put(newVariableValue.getName(), newVariableValue.getValue());
+                NewVariableValue newVariableValue = serviceExecutionHooks.visitArgumentValueInQuery(hooksVisitArgumentValueEnvironment);
+                if (newVariableValue != null) {
+                    variableValues.put(newVariableValue.getName(), newVariableValue.getValue());
+                }
+            }
+            if (collectArgumentValues && context.getParentNode() instanceof Argument) {
+                String id = FieldMetadataUtil.getOverallTypeInfoId(value);
+                if (id != null) {
+                    argumentValues.put(id, new ArgumentValue(value,
+                            typeContext.getFieldDefinitionUnderlying(),
+                            typeContext.getArgumentDefinitionUnderlying(),
+                            overallTypeInfo.getGraphQLArgument()));
+                }
             }
 
             return TraversalControl.CONTINUE;
@@ -556,7 +776,7 @@ public class OverallQueryTransformer {
                 GraphQLNamedOutputType fieldTypeOverall = (GraphQLNamedOutputType) GraphQLTypeUtil.unwrapAll(fieldDefinitionOverall.getType());
 
                 extractAndRecordTypeMappingDefinition(fieldTypeOverall.getName());
-                FieldTransformation transformation = createTransformation(fieldDefinitionOverall);
+                FieldTransformation transformation = transformationIndex.createTransformation(fieldDefinitionOverall);
                 if (transformation != null) {
                     //
                     // major side effect alert - we are relying on transformation to call TreeTransformerUtil.changeNode
@@ -596,11 +816,13 @@ public class OverallQueryTransformer {
         private void updateTypeContext(TraverserContext<Node> context, GraphQLOutputType currentOutputTypeUnderlying) {
             Field newField = (Field) context.thisNode();
             GraphQLFieldsContainer fieldsContainerUnderlying = (GraphQLFieldsContainer) unwrapAll(currentOutputTypeUnderlying);
-            GraphQLFieldDefinition fieldDefinitionUnderlying = Introspection.getFieldDef(underlyingSchema, fieldsContainerUnderlying, newField.getName());
+            GraphQLFieldDefinition fieldDefinitionUnderlying = getFieldDefinitionUnderlying(fieldsContainerUnderlying, newField.getName());
             GraphQLOutputType newOutputTypeUnderlying = fieldDefinitionUnderlying.getType();
 
-
-            Map<String, Object> argumentValues = valuesResolver.getArgumentValues(underlyingSchema.getCodeRegistry(), fieldDefinitionUnderlying.getArguments(), newField.getArguments(), executionContext.getVariables());
+            // nothing in the transformation itself needs the coerced values so they are only coerced on demand
+            Supplier<Map<String, Object>> argumentValues = newField.getArguments().isEmpty() && fieldDefinitionUnderlying.getArguments().isEmpty()
+                    ? Collections::emptyMap
+                    : intraThreadMemoize(() -> valuesResolver.getArgumentValues(underlyingSchema.getCodeRegistry(), fieldDefinitionUnderlying.getArguments(), newField.getArguments(), executionContext.getVariables()));
             NodeTypeContext.Builder newTypeContext = newNodeTypeContext()
                     .field(newField)
                     .outputTypeUnderlying(newOutputTypeUnderlying)
@@ -611,6 +833,15 @@ public class OverallQueryTransformer {
 
         }
 
+        private GraphQLFieldDefinition getFieldDefinitionUnderlying(GraphQLFieldsContainer fieldsContainerUnderlying, String fieldName) {
+            // the fields containers of the underlying schema are already indexed by field name, only meta fields need introspection
+            GraphQLFieldDefinition fieldDefinition = fieldsContainerUnderlying.getFieldDefinition(fieldName);
+            if (fieldDefinition == null) {
+                fieldDefinition = Introspection.getFieldDef(underlyingSchema, fieldsContainerUnderlying, fieldName);
+            }
+            return fieldDefinition;
+        }
+
         ApplyEnvironment createApplyEnvironment(Field field, TraverserContext<Node> context, OverallTypeInfo overallTypeInfo) {
             return new ApplyEnvironment(field, overallTypeInfo.getFieldDefinition(), overallTypeInfo.getFieldsContainer(), context);
         }
@@ -702,60 +933,24 @@ public class OverallQueryTransformer {
         private TypeMappingDefinition typeTransformationForFragment(ExecutionContext executionContext, TypeName typeNameOverall) {
             GraphQLType type = executionContext.getGraphQLSchema().getType(typeNameOverall.getName());
             assertTrue(type instanceof GraphQLFieldsContainer, "Expected type '%s' to be an field container type", typeNameOverall);
-            return extractAndRecordTypeMappingDefinition(executionContext.getGraphQLSchema(), type);
+            return extractAndRecordTypeMappingDefinition(typeNameOverall.getName());
         }
 
-
-        @SuppressWarnings("ConstantConditions")
         private TypeMappingDefinition extractAndRecordTypeMappingDefinition(String typeNameOverall) {
-            GraphQLType type = executionContext.getGraphQLSchema().getType(typeNameOverall);
-            return extractAndRecordTypeMappingDefinition(executionContext.getGraphQLSchema(), type);
-        }
-
-        @SuppressWarnings("UnnecessaryLocalVariable")
-        private TypeMappingDefinition extractAndRecordTypeMappingDefinition(GraphQLSchema graphQLSchema, GraphQLType type) {
-
-            TypeMappingDefinition typeMappingDefinition = getTypeMappingDefinitionFor(type);
-            recordTypeRename(typeMappingDefinition);
-
-            if (type instanceof GraphQLInterfaceType) {
-                GraphQLInterfaceType interfaceType = (GraphQLInterfaceType) type;
-
-                graphQLSchema.getImplementations(interfaceType).forEach(objectType -> {
-                    extractAndRecordTypeMappingDefinition(graphQLSchema, objectType);
-                });
-            }
-            if (type instanceof GraphQLUnionType) {
-                GraphQLUnionType unionType = (GraphQLUnionType) type;
-                unionType.getTypes().forEach(typeMember -> {
-                    extractAndRecordTypeMappingDefinition(graphQLSchema, typeMember);
-                });
+            for (TypeMappingDefinition typeMappingDefinition : transformationIndex.getPossibleTypeMappingDefinitions(typeNameOverall)) {
+                recordTypeRename(typeMappingDefinition);
             }
-            return typeMappingDefinition;
+            return transformationIndex.getTypeMappingDefinition(typeNameOverall);
         }
     }
 
-
-    private graphql.nadel.dsl.FieldTransformation transformationDefinitionForField(FieldDefinition definition) {
-        if (definition instanceof ExtendedFieldDefinition) {
-            return ((ExtendedFieldDefinition) definition).getFieldTransformation();
-        }
-        return null;
-    }
-
-    private FieldTransformation createTransformation(GraphQLFieldDefinition fieldDefinitionOverallSchema) {
-        graphql.nadel.dsl.FieldTransformation definition = transformationDefinitionForField(fieldDefinitionOverallSchema.getDefinition());
-
-        if (definition == null) {
-            return null;
-        }
-        if (definition.getFieldMappingDefinition() != null) {
-            return new FieldRenameTransformation(definition.getFieldMappingDefinition());
-        } else if (definition.getUnderlyingServiceHydration() != null) {
-            return new HydrationTransformation(definition.getUnderlyingServiceHydration());
-        } else {
-            return assertShouldNeverHappen();
+    private TransformationIndex transformationIndex(GraphQLSchema overallSchema) {
+        TransformationIndex index = this.transformationIndex;
+        if (index == null || index.getOverallSchema() != overallSchema) {
+            index = new TransformationIndex(overallSchema);
+            this.transformationIndex = index;
         }
+        return index;
     }
 
 }
@@ -5,6 +5,7 @@ import graphql.language.Document;
 import graphql.language.FragmentDefinition;
 import graphql.language.OperationDefinition;
 import graphql.nadel.engine.transformation.FieldTransformation;
+import graphql.nadel.hooks.ArgumentValue;
 
 import java.util.List;
 import java.util.Map;
@@ -29,6 +30,9 @@ public class QueryTransformationResult {
 
     private final Map<String, Object> variableValues;
 
+    // the argument values offered to the ServiceExecutionHooks by the id of their overall type information
+    private final Map<String, ArgumentValue> argumentValues;
+
     public QueryTransformationResult(Document document,
                                      OperationDefinition operationDefinition,
                                      List<MergedField> transformedMergedFields,
@@ -36,7 +40,8 @@ public class QueryTransformationResult {
                                      List<String> referencedVariables,
                                      Map<String, FieldTransformation> transformationByResultField,
                                      Map<String, FragmentDefinition> transformedFragments,
-                                     Map<String, Object> variableValues) {
+                                     Map<String, Object> variableValues,
+                                     Map<String, ArgumentValue> argumentValues) {
         this.document = document;
         this.operationDefinition = operationDefinition;
         this.transformedMergedFields = transformedMergedFields;
@@ -45,6 +50,7 @@ public class QueryTransformationResult {
         this.transformedFragments = transformedFragments;
         this.typeRenameMappings = typeRenameMappings;
         this.variableValues = variableValues;
+        this.argumentValues = argumentValues;
     }
 
     public Document getDocument() {
@@ -78,5 +84,9 @@ public class QueryTransformationResult {
     public Map<String, Object> getVariableValues() {
         return variableValues;
     }
+
+    public Map<String, ArgumentValue> getArgumentValues() {
+        return argumentValues;
+    }
 }
 
@@ -15,6 +15,7 @@ import graphql.nadel.ServiceExecution;
 import graphql.nadel.ServiceExecutionParameters;
 import graphql.nadel.ServiceExecutionResult;
 import graphql.nadel.instrumentation.NadelInstrumentation;
+import graphql.nadel.instrumentation.parameters.NadelInstrumentationResultConversionParameters;
 import graphql.nadel.instrumentation.parameters.NadelInstrumentationServiceExecutionParameters;
 import graphql.nadel.util.LogKit;
 import graphql.schema.GraphQLSchema;
@@ -28,6 +29,7 @@ import java.util.concurrent.CompletableFuture;
 import java.util.function.BiFunction;
 
 import static graphql.nadel.ServiceExecutionParameters.newServiceExecutionParameters;
+import static graphql.nadel.engine.InstrumentationUtil.runInstrumented;
 import static graphql.nadel.engine.StrategyUtil.createRootExecutionStepInfo;
 import static java.lang.String.format;
 import static java.util.Collections.singletonList;
@@ -51,21 +53,22 @@ public class ServiceExecutor {
                                                               Service service,
                                                               Operation operation,
                                                               Object serviceContext,
-                                                              boolean isHydrationCall) {
+                                                              int hydrationLevel) {
+        boolean isHydrationCall = hydrationLevel > 0;
 
         List<MergedField> transformedMergedFields = queryTransformerResult.getTransformedMergedFields();
 
         ServiceExecution serviceExecution = service.getServiceExecution();
         GraphQLSchema underlyingSchema = service.getUnderlyingSchema();
 
-        ServiceExecutionParameters serviceExecutionParameters = buildServiceExecutionParameters(executionContext, queryTransformerResult, serviceContext, isHydrationCall);
+        ServiceExecutionParameters serviceExecutionParameters = buildServiceExecutionParameters(executionContext, queryTransformerResult, serviceContext, hydrationLevel);
         ExecutionContext executionContextForService = buildServiceExecutionContext(executionContext, underlyingSchema, serviceExecutionParameters);
 
         ExecutionStepInfo underlyingRootStepInfo = createRootExecutionStepInfo(service.getUnderlyingSchema(), operation);
 
         CompletableFuture<ServiceExecutionResult> result = executeImpl(service, serviceExecution, serviceExecutionParameters, underlyingRootStepInfo, executionContext);
         return result
-                .thenApply(executionResult -> serviceExecutionResultToResultNode(executionContextForService, underlyingRootStepInfo, transformedMergedFields, executionResult));
+                .thenApply(executionResult -> serviceExecutionResultToResultNode(executionContext, executionContextForService, service, isHydrationCall, underlyingRootStepInfo, transformedMergedFields, executionResult));
     }
 
 
@@ -122,7 +125,7 @@ public class ServiceExecutor {
     }
 
 
-    private ServiceExecutionParameters buildServiceExecutionParameters(ExecutionContext executionContext, QueryTransformationResult queryTransformerResult, Object serviceContext, boolean isHydrationCall) {
+    private ServiceExecutionParameters buildServiceExecutionParameters(ExecutionContext executionContext, QueryTransformationResult queryTransformerResult, Object serviceContext, int hydrationLevel) {
 
         // only pass down variables that are referenced in the transformed query
         Map<String, Object> variables = buildReferencedVariables(executionContext, queryTransformerResult);
@@ -142,7 +145,8 @@ public class ServiceExecutor {
                 .executionId(executionContext.getExecutionId())
                 .cacheControl(executionContext.getCacheControl())
                 .serviceContext(serviceContext)
-                .hydrationCall(isHydrationCall)
+                .hydrationCall(hydrationLevel > 0)
+                .hydrationLevel(hydrationLevel)
                 .build();
     }
 
@@ -165,8 +169,20 @@ public class ServiceExecutor {
         );
     }
 
-    private RootExecutionResultNode serviceExecutionResultToResultNode(ExecutionContext executionContextForService, ExecutionStepInfo underlyingRootStepInfo, List<MergedField> transformedMergedFields, ServiceExecutionResult executionResult) {
-        return resultToResultNode.resultToResultNode(executionContextForService, underlyingRootStepInfo, transformedMergedFields, executionResult);
+    private RootExecutionResultNode serviceExecutionResultToResultNode(ExecutionContext executionContext,
+                                                                       ExecutionContext executionContextForService,
+                                                                       Service service,
+                                                                       boolean isHydrationCall,
+                                                                       ExecutionStepInfo underlyingRootStepInfo,
+                                                                       List<MergedField> transformedMergedFields,
+                                                                       ServiceExecutionResult executionResult) {
+        NadelInstrumentationResultConversionParameters instrumentationParams = new NadelInstrumentationResultConversionParameters(executionContext, service, null, isHydrationCall, executionContext.getInstrumentationState());
+        return runInstrumented(instrumentation.beginServiceResultConversion(instrumentationParams),
+                () -> resultToResultNode.resultToResultNode(executionContextForService, underlyingRootStepInfo, transformedMergedFields, executionResult));
+    }
+
+    NadelInstrumentation getInstrumentation() {
+        return instrumentation;
     }
 
 }
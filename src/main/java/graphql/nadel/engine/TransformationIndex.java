@@ -0,0 +1,135 @@
+package graphql.nadel.engine;
+
+import graphql.Internal;
+import graphql.language.FieldDefinition;
+import graphql.nadel.dsl.ExtendedFieldDefinition;
+import graphql.nadel.dsl.TypeMappingDefinition;
+import graphql.nadel.dsl.UnderlyingServiceHydration;
+import graphql.nadel.engine.transformation.FieldRenameTransformation;
+import graphql.nadel.engine.transformation.FieldTransformation;
+import graphql.nadel.engine.transformation.HydrationTransformation;
+import graphql.schema.GraphQLFieldDefinition;
+import graphql.schema.GraphQLFieldsContainer;
+import graphql.schema.GraphQLInterfaceType;
+import graphql.schema.GraphQLNamedType;
+import graphql.schema.GraphQLSchema;
+import graphql.schema.GraphQLUnionType;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static graphql.Assert.assertShouldNeverHappen;
+import static graphql.nadel.util.Util.getTypeMappingDefinitionFor;
+
+/**
+ * The field and type transformations of an overall schema, resolved once when the schema is built so that the
+ * query transformer only has to look them up per request.
+ */
+@Internal
+public class TransformationIndex {
+
+    private final GraphQLSchema overallSchema;
+    private final Map<GraphQLFieldDefinition, graphql.nadel.dsl.FieldTransformation> fieldTransformations = new HashMap<>();
+    private final Map<String, TypeMappingDefinition> typeMappings = new HashMap<>();
+    private final Map<String, List<TypeMappingDefinition>> possibleTypeMappings = new HashMap<>();
+
+    public TransformationIndex(GraphQLSchema overallSchema) {
+        this.overallSchema = overallSchema;
+        for (GraphQLNamedType type : overallSchema.getAllTypesAsList()) {
+            TypeMappingDefinition typeMappingDefinition = getTypeMappingDefinitionFor(type);
+            if (typeMappingDefinition != null) {
+                typeMappings.put(type.getName(), typeMappingDefinition);
+            }
+            if (type instanceof GraphQLFieldsContainer) {
+                for (GraphQLFieldDefinition fieldDefinition : ((GraphQLFieldsContainer) type).getFieldDefinitions()) {
+                    graphql.nadel.dsl.FieldTransformation definition = transformationDefinitionForField(fieldDefinition.getDefinition());
+                    if (definition != null) {
+                        fieldTransformations.put(fieldDefinition, definition);
+                    }
+                }
+            }
+        }
+        for (GraphQLNamedType type : overallSchema.getAllTypesAsList()) {
+            List<GraphQLNamedType> possibleTypes = new ArrayList<>();
+            possibleTypes.add(type);
+            if (type instanceof GraphQLInterfaceType) {
+                possibleTypes.addAll(overallSchema.getImplementations((GraphQLInterfaceType) type));
+            }
+            if (type instanceof GraphQLUnionType) {
+                possibleTypes.addAll(((GraphQLUnionType) type).getTypes());
+            }
+            List<TypeMappingDefinition> mappings = new ArrayList<>();
+            for (GraphQLNamedType possibleType : possibleTypes) {
+                TypeMappingDefinition typeMappingDefinition = typeMappings.get(possibleType.getName());
+                if (typeMappingDefinition != null) {
+                    mappings.add(typeMappingDefinition);
+                }
+            }
+            if (!mappings.isEmpty()) {
+                possibleTypeMappings.put(type.getName(), Collections.unmodifiableList(mappings));
+            }
+        }
+    }
+
+    public GraphQLSchema getOverallSchema() {
+        return overallSchema;
+    }
+
+    /**
+     * @param fieldDefinitionOverall a field definition of the overall schema
+     *
+     * @return a new transformation for one occurrence of the field in a query or null if the field is not transformed
+     */
+    public FieldTransformation createTransformation(GraphQLFieldDefinition fieldDefinitionOverall) {
+        graphql.nadel.dsl.FieldTransformation definition = fieldTransformations.get(fieldDefinitionOverall);
+        if (definition == null) {
+            return null;
+        }
+        // transformations hold state about the field occurrence they were applied to so they can not be shared
+        if (definition.getFieldMappingDefinition() != null) {
+            return new FieldRenameTransformation(definition.getFieldMappingDefinition());
+        } else if (definition.getUnderlyingServiceHydration() != null) {
+            return new HydrationTransformation(definition.getUnderlyingServiceHydration());
+        } else {
+            return assertShouldNeverHappen();
+        }
+    }
+
+    /**
+     * @param fieldDefinitionOverall a field definition of the overall schema
+     *
+     * @return the hydration definition of the field or null if the field is not hydrated
+     */
+    public UnderlyingServiceHydration getUnderlyingServiceHydration(GraphQLFieldDefinition fieldDefinitionOverall) {
+        graphql.nadel.dsl.FieldTransformation definition = fieldTransformations.get(fieldDefinitionOverall);
+        return definition == null ? null : definition.getUnderlyingServiceHydration();
+    }
+
+    /**
+     * @param typeNameOverall the name of a type in the overall schema
+     *
+     * @return the rename of the type or null if it is not renamed
+     */
+    public TypeMappingDefinition getTypeMappingDefinition(String typeNameOverall) {
+        return typeMappings.get(typeNameOverall);
+    }
+
+    /**
+     * @param typeNameOverall the name of a type in the overall schema
+     *
+     * @return the renames of the type and of all object types it can be at runtime
+     */
+    public List<TypeMappingDefinition> getPossibleTypeMappingDefinitions(String typeNameOverall) {
+        return possibleTypeMappings.getOrDefault(typeNameOverall, Collections.emptyList());
+    }
+
+    private static graphql.nadel.dsl.FieldTransformation transformationDefinitionForField(FieldDefinition definition) {
+        if (definition instanceof ExtendedFieldDefinition) {
+            return ((ExtendedFieldDefinition) definition).getFieldTransformation();
+        }
+        return null;
+    }
+}
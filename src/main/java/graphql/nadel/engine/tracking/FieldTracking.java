@@ -7,131 +7,132 @@ import graphql.execution.instrumentation.InstrumentationContext;
 import graphql.execution.instrumentation.InstrumentationState;
 import graphql.execution.nextgen.result.ExecutionResultNode;
 import graphql.execution.nextgen.result.ListExecutionResultNode;
+import graphql.execution.nextgen.result.RootExecutionResultNode;
 import graphql.nadel.engine.HydrationInputNode;
 import graphql.nadel.engine.NadelContext;
 import graphql.nadel.instrumentation.NadelInstrumentation;
 import graphql.nadel.instrumentation.parameters.NadelInstrumentationFetchFieldParameters;
 import graphql.nadel.util.ExecutionPathUtils;
 
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import static graphql.nadel.engine.ArtificialFieldUtils.isArtificialField;
-
+import static graphql.nadel.engine.InstrumentationUtil.instrumentsFieldFetches;
+
+/**
+ * Calls {@link NadelInstrumentation#beginFieldFetch(NadelInstrumentationFetchFieldParameters)} once for every field
+ * of the overall result.  Nadel fetches whole service results rather than single fields, so fields are dispatched
+ * when the service call of their top level field or hydration is made and completed when its result has been converted.
+ *
+ * Every path is tracked by one entry of a concurrent map, so service calls completing on different threads do not
+ * contend on a single lock.  If the instrumentation does not implement beginFieldFetch, or does not want it called for
+ * the request, then nothing is tracked and result nodes are never walked.
+ */
 public class FieldTracking {
     private final NadelInstrumentation instrumentation;
     private final ExecutionContext executionContext;
     private final InstrumentationState instrumentationState;
-
-    private final Map<ExecutionPath, ExecutionStepInfo> dispatchedFields = new HashMap<>();
-    private final Map<ExecutionPath, ExecutionStepInfo> completedFields = new HashMap<>();
-    private final Map<ExecutionPath, InstrumentationContext<ExecutionResultNode>> pendingFieldFetchContexts = new HashMap<>();
     private final NadelContext nadelContext;
+    private final boolean enabled;
+
+    private final ConcurrentMap<ExecutionPath, TrackedField> trackedFields = new ConcurrentHashMap<>();
 
     public FieldTracking(NadelInstrumentation instrumentation, ExecutionContext executionContext) {
         this.instrumentation = instrumentation;
         this.executionContext = executionContext;
         this.instrumentationState = executionContext.getInstrumentationState();
         this.nadelContext = (NadelContext) executionContext.getContext();
+        this.enabled = instrumentsFieldFetches(instrumentation, instrumentationState);
     }
 
-
     public void fieldsDispatched(List<ExecutionStepInfo> stepInfos) {
-//        for (ExecutionStepInfo stepInfo : stepInfos) {
-//            dispatchIfNeeded(stepInfo);
-//        }
-    }
-
-    private synchronized void dispatchIfNeeded(ExecutionStepInfo stepInfo) {
-        if (skipField(stepInfo)) {
-            // don't do things twice
+        if (!enabled) {
             return;
         }
-        ExecutionPath path = stepInfo.getPath();
-        if (!dispatchedFields.containsKey(path)) {
-            ExecutionStepInfo newStepInfo = stepInfo.transform(builder -> builder.path(path));
-            NadelInstrumentationFetchFieldParameters parameters = new NadelInstrumentationFetchFieldParameters(executionContext, newStepInfo, instrumentationState);
-            InstrumentationContext<ExecutionResultNode> ctx = instrumentation.beginFieldFetch(parameters);
-            pendingFieldFetchContexts.put(path, ctx);
-            dispatchedFields.put(path, stepInfo);
-            //noinspection unchecked
-            ctx.onDispatched(null);
+        for (ExecutionStepInfo stepInfo : stepInfos) {
+            dispatchIfNeeded(stepInfo);
         }
     }
 
-
-    @SuppressWarnings("RedundantIfStatement")
-    private boolean skipField(ExecutionStepInfo stepInfo) {
-        ExecutionPath path = stepInfo.getPath();
-        if (isArtificialField(nadelContext, stepInfo.getField())) {
-            return true;
-        }
-        if (ExecutionPathUtils.isListEndingPath(path)) {
-            return true;
+    public void fieldCompleted(ExecutionStepInfo stepInfo) {
+        if (!enabled) {
+            return;
         }
-        if (completedFields.containsKey(path)) {
-            return true;
+        TrackedField trackedField = dispatchIfNeeded(stepInfo);
+        if (trackedField != null) {
+            trackedField.complete(null, null);
         }
-        return false;
-    }
-
-    public void fieldCompleted(ExecutionStepInfo stepInfo) {
-//        dispatchIfNeeded(stepInfo);
-//        completeNode(stepInfo, null, null);
     }
 
     public void fieldsCompleted(List<ExecutionResultNode> resultNodes, Throwable throwable) {
-//        for (ExecutionResultNode resultNode : resultNodes) {
-//            fieldsCompleted(resultNode, throwable);
-//        }
+        if (!enabled || resultNodes == null) {
+            return;
+        }
+        for (ExecutionResultNode resultNode : resultNodes) {
+            fieldsCompleted(resultNode, throwable);
+        }
     }
 
     public void fieldsCompleted(ExecutionResultNode resultNode, Throwable throwable) {
-//        if (resultNode instanceof RootExecutionResultNode) {
-//            completeNodes(resultNode.getChildren(), throwable);
-//        } else {
-//            completeNodes(singletonList(resultNode), throwable);
-//        }
+        if (!enabled || resultNode == null) {
+            return;
+        }
+        if (resultNode instanceof RootExecutionResultNode) {
+            completeNodes(resultNode.getChildren(), throwable);
+        } else {
+            completeNode(resultNode, throwable);
+        }
     }
 
-    private synchronized void completeNodes(List<ExecutionResultNode> resultNodes, Throwable throwable) {
+    private void completeNodes(List<ExecutionResultNode> resultNodes, Throwable throwable) {
         for (ExecutionResultNode resultNode : resultNodes) {
+            completeNode(resultNode, throwable);
+        }
+    }
 
-            ExecutionStepInfo stepInfo = resultNode.getExecutionStepInfo();
-
-            // the reason we dispatch during completion is because sub fields are not visited
-            // during the initial service call and hence they are never seen until we complete
-            // the parent top level field
-            dispatchIfNeeded(stepInfo);
-
-            //
-            // hydrated fields are the exception - they have started to execute but they still need to be completed
-            // we have another call back path for them
-            if (isHydration(resultNode)) {
-                continue;
-            }
-            completeNode(stepInfo, resultNode, throwable);
+    private void completeNode(ExecutionResultNode resultNode, Throwable throwable) {
+        // the reason we dispatch during completion is because sub fields are not visited
+        // during the initial service call and hence they are never seen until we complete
+        // the parent top level field
+        TrackedField trackedField = dispatchIfNeeded(resultNode.getExecutionStepInfo());
 
-            // and go down and complete the children
-            List<ExecutionResultNode> children = resultNode.getChildren();
-            completeNodes(children, throwable);
+        //
+        // hydrated fields are the exception - they have started to execute but they still need to be completed
+        // we have another call back path for them
+        if (isHydration(resultNode)) {
+            return;
         }
+        if (trackedField != null) {
+            trackedField.complete(resultNode, throwable);
+        }
+
+        // and go down and complete the children
+        completeNodes(resultNode.getChildren(), throwable);
     }
 
-    private synchronized void completeNode(ExecutionStepInfo stepInfo, ExecutionResultNode resultNode, Throwable throwable) {
-        // we are re-entrant and quite stateful and hence we don't want to do things twice
-        boolean skipField = skipField(stepInfo);
+    /**
+     * @return the tracked field of the step info or null if the field is not tracked
+     */
+    private TrackedField dispatchIfNeeded(ExecutionStepInfo stepInfo) {
         ExecutionPath path = stepInfo.getPath();
-        if (!skipField) {
-            if (pendingFieldFetchContexts.containsKey(path)) {
-                InstrumentationContext<ExecutionResultNode> ctx = pendingFieldFetchContexts.get(path);
-                ctx.onCompleted(resultNode, throwable);
-
-                pendingFieldFetchContexts.remove(path);
-                completedFields.put(path, stepInfo);
+        if (ExecutionPathUtils.isListEndingPath(path) || isArtificialField(nadelContext, stepInfo.getField())) {
+            return null;
+        }
+        TrackedField trackedField = trackedFields.get(path);
+        if (trackedField == null) {
+            TrackedField newTrackedField = new TrackedField();
+            //noinspection SynchronizationOnLocalVariableOrMethodParameter
+            synchronized (newTrackedField) {
+                trackedField = trackedFields.putIfAbsent(path, newTrackedField);
+                if (trackedField == null) {
+                    trackedField = newTrackedField;
+                    trackedField.dispatch(stepInfo);
+                }
             }
         }
+        return trackedField;
     }
 
     private boolean isHydration(ExecutionResultNode resultNode) {
@@ -141,4 +142,26 @@ public class FieldTracking {
         return hydrationNode || directChildrenAreHydrated;
     }
 
+    /**
+     * The instrumentation context of one field.  It is dispatched while its monitor is held by the thread that started
+     * tracking the field, so a completion on another thread waits for the dispatch.
+     */
+    private class TrackedField {
+        private InstrumentationContext<ExecutionResultNode> ctx;
+        private boolean completed;
+
+        synchronized void dispatch(ExecutionStepInfo stepInfo) {
+            NadelInstrumentationFetchFieldParameters parameters = new NadelInstrumentationFetchFieldParameters(executionContext, stepInfo, instrumentationState);
+            ctx = instrumentation.beginFieldFetch(parameters);
+            ctx.onDispatched(null);
+        }
+
+        synchronized void complete(ExecutionResultNode resultNode, Throwable throwable) {
+            // we are re-entrant and so only the first completion counts
+            if (!completed && ctx != null) {
+                completed = true;
+                ctx.onCompleted(resultNode, throwable);
+            }
+        }
+    }
 }
@@ -41,6 +41,14 @@ public class RecordOverallTypeInformation {
 
 
     public <T extends Node> OverallTypeInformation<T> recordOverallTypes(T node, GraphQLSchema graphQLSchema, GraphQLOutputType rootOutputType) {
+        return recordOverallTypes(node, graphQLSchema, rootOutputType, true);
+    }
+
+    /**
+     * @param recordArgumentTypes whether the types of arguments and their values are recorded as well, they are only
+     *                            needed when argument values are visited by the hooks
+     */
+    public <T extends Node> OverallTypeInformation<T> recordOverallTypes(T node, GraphQLSchema graphQLSchema, GraphQLOutputType rootOutputType, boolean recordArgumentTypes) {
 
         Map<String, OverallTypeInfo> overallTypeInfoMap = new LinkedHashMap<>();
 
@@ -48,6 +56,10 @@ public class RecordOverallTypeInformation {
 
             @Override
             public TraversalControl visitArgument(Argument argument, TraverserContext<Node> context) {
+                if (!recordArgumentTypes) {
+                    // the children of the argument are not visited
+                    return TraversalControl.ABORT;
+                }
                 GraphQLFieldDefinition fieldDefinition = context.getVarFromParents(GraphQLFieldDefinition.class);
                 GraphQLArgument graphQLArgument = fieldDefinition.getArgument(argument.getName());
                 context.setVar(GraphQLArgument.class, graphQLArgument);
@@ -0,0 +1,57 @@
+package graphql.nadel.hooks;
+
+import graphql.PublicApi;
+import graphql.language.Value;
+import graphql.schema.GraphQLArgument;
+import graphql.schema.GraphQLFieldDefinition;
+
+/**
+ * The value of one argument in a query that is about to be sent to a service, see
+ * {@link ServiceExecutionHooks#resolveArgumentValuesInQuery(ResolveArgumentValuesParams)}
+ */
+@PublicApi
+public class ArgumentValue {
+
+    private final Value value;
+    private final GraphQLFieldDefinition underlyingFieldDefinition;
+    private final GraphQLArgument underlyingArgument;
+    private final GraphQLArgument overallArgument;
+
+    public ArgumentValue(Value value,
+                         GraphQLFieldDefinition underlyingFieldDefinition,
+                         GraphQLArgument underlyingArgument,
+                         GraphQLArgument overallArgument) {
+        this.value = value;
+        this.underlyingFieldDefinition = underlyingFieldDefinition;
+        this.underlyingArgument = underlyingArgument;
+        this.overallArgument = overallArgument;
+    }
+
+    /**
+     * @return the value as it will be sent to the service, never null
+     */
+    public Value getValue() {
+        return value;
+    }
+
+    /**
+     * @return the field in the underlying schema the argument belongs to, never null
+     */
+    public GraphQLFieldDefinition getUnderlyingFieldDefinition() {
+        return underlyingFieldDefinition;
+    }
+
+    /**
+     * @return the argument in the underlying schema, never null
+     */
+    public GraphQLArgument getUnderlyingArgument() {
+        return underlyingArgument;
+    }
+
+    /**
+     * @return the argument in the overall schema, this can be null if there is no corresponding overall argument
+     */
+    public GraphQLArgument getOverallArgument() {
+        return overallArgument;
+    }
+}
@@ -0,0 +1,77 @@
+package graphql.nadel.hooks;
+
+import graphql.PublicApi;
+import graphql.language.Value;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * The replacements for argument values returned by
+ * {@link ServiceExecutionHooks#resolveArgumentValuesInQuery(ResolveArgumentValuesParams)}
+ */
+@PublicApi
+public class ArgumentValuesResult {
+
+    private static final ArgumentValuesResult NO_CHANGES = newResult().build();
+
+    private final Map<ArgumentValue, Value> replacedValues;
+    private final Map<String, Object> variableValues;
+
+    private ArgumentValuesResult(Builder builder) {
+        this.replacedValues = Collections.unmodifiableMap(new IdentityHashMap<>(builder.replacedValues));
+        this.variableValues = Collections.unmodifiableMap(new LinkedHashMap<>(builder.variableValues));
+    }
+
+    public static ArgumentValuesResult noChanges() {
+        return NO_CHANGES;
+    }
+
+    /**
+     * @return the new values by the argument values they replace
+     */
+    public Map<ArgumentValue, Value> getReplacedValues() {
+        return replacedValues;
+    }
+
+    /**
+     * @return the variable values to set or override for the service call
+     */
+    public Map<String, Object> getVariableValues() {
+        return variableValues;
+    }
+
+    public boolean hasChanges() {
+        return !replacedValues.isEmpty() || !variableValues.isEmpty();
+    }
+
+    public static Builder newResult() {
+        return new Builder();
+    }
+
+    public static class Builder {
+        private final Map<ArgumentValue, Value> replacedValues = new IdentityHashMap<>();
+        private final Map<String, Object> variableValues = new LinkedHashMap<>();
+
+        public Builder replaceValue(ArgumentValue argumentValue, Value newValue) {
+            this.replacedValues.put(requireNonNull(argumentValue), requireNonNull(newValue));
+            return this;
+        }
+
+        /**
+         * Sets the value of a variable for the service call.  Only variables the query already declares can be set.
+         */
+        public Builder variableValue(String name, Object value) {
+            this.variableValues.put(requireNonNull(name), value);
+            return this;
+        }
+
+        public ArgumentValuesResult build() {
+            return new ArgumentValuesResult(this);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package graphql.nadel.hooks;
+
+import graphql.PublicApi;
+import graphql.nadel.util.BoundedConcurrentCache;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+import static graphql.Assert.assertTrue;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A {@link ServiceContextCache} that keeps a bounded number of service contexts in memory for a fixed time after they
+ * were created.
+ *
+ * A pending promise is cached before the context is created, so requests asking for a context that is still being
+ * created wait for that one instead of creating it again.  Contexts that fail to be created are not kept.
+ */
+@PublicApi
+public class InMemoryServiceContextCache implements ServiceContextCache {
+
+    public static final int DEFAULT_MAX_SIZE = 1000;
+
+    private final BoundedConcurrentCache<Object, Entry> cache;
+    private final long timeToLiveNanos;
+    private final LongSupplier nanoTime;
+
+    public InMemoryServiceContextCache(Duration timeToLive) {
+        this(timeToLive, DEFAULT_MAX_SIZE);
+    }
+
+    public InMemoryServiceContextCache(Duration timeToLive, int maxSize) {
+        this(timeToLive, maxSize, System::nanoTime);
+    }
+
+    InMemoryServiceContextCache(Duration timeToLive, int maxSize, LongSupplier nanoTime) {
+        assertTrue(!timeToLive.isNegative() && !timeToLive.isZero(), "timeToLive must be positive");
+        this.cache = new BoundedConcurrentCache<>(maxSize);
+        this.timeToLiveNanos = timeToLive.toNanos();
+        this.nanoTime = requireNonNull(nanoTime);
+    }
+
+    @Override
+    public CompletableFuture<Object> computeIfAbsent(Object key, Function<Object, CompletableFuture<Object>> createFunction) {
+        Entry entry = cache.get(key);
+        if (entry != null && nanoTime.getAsLong() - entry.createdAt > timeToLiveNanos) {
+            cache.remove(key, entry);
+        }
+        // a pending entry is put in first and only the request that put it creates the context, so requests that
+        // overlap while it is being created wait for that one instead of creating it again
+        Entry pendingEntry = new Entry(new CompletableFuture<>(), nanoTime.getAsLong());
+        Entry cachedEntry = cache.computeIfAbsent(key, k -> pendingEntry);
+        if (cachedEntry == pendingEntry) {
+            create(key, createFunction, pendingEntry.serviceContext);
+        }
+        return cachedEntry.serviceContext.whenComplete((serviceContext, throwable) -> {
+            if (throwable != null) {
+                cache.remove(key, cachedEntry);
+            }
+        });
+    }
+
+    private static void create(Object key, Function<Object, CompletableFuture<Object>> createFunction, CompletableFuture<Object> serviceContext) {
+        CompletableFuture<Object> created;
+        try {
+            created = createFunction.apply(key);
+        } catch (RuntimeException e) {
+            serviceContext.completeExceptionally(e);
+            return;
+        }
+        created.whenComplete((result, throwable) -> {
+            if (throwable != null) {
+                serviceContext.completeExceptionally(throwable);
+            } else {
+                serviceContext.complete(result);
+            }
+        });
+    }
+
+    public int size() {
+        return cache.size();
+    }
+
+    public void clear() {
+        cache.clear();
+    }
+
+    private static class Entry {
+        private final CompletableFuture<Object> serviceContext;
+        private final long createdAt;
+
+        private Entry(CompletableFuture<Object> serviceContext, long createdAt) {
+            this.serviceContext = serviceContext;
+            this.createdAt = createdAt;
+        }
+    }
+}
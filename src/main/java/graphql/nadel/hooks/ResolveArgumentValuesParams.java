@@ -0,0 +1,110 @@
+package graphql.nadel.hooks;
+
+import graphql.Internal;
+import graphql.PublicApi;
+import graphql.execution.ExecutionContext;
+import graphql.execution.ExecutionId;
+import graphql.nadel.Service;
+import graphql.nadel.engine.NadelContext;
+import graphql.schema.GraphQLSchema;
+
+import java.util.List;
+import java.util.Map;
+
+@PublicApi
+public class ResolveArgumentValuesParams {
+    private final Service service;
+    private final Object serviceContext;
+    private final List<ArgumentValue> argumentValues;
+    private final Map<String, Object> variables;
+    private final ExecutionId executionId;
+    private final GraphQLSchema schema;
+    private final NadelContext context;
+
+    private ResolveArgumentValuesParams(Builder builder) {
+        this.service = builder.service;
+        this.serviceContext = builder.serviceContext;
+        this.argumentValues = builder.argumentValues;
+        this.variables = builder.variables;
+        this.executionId = builder.executionId;
+        this.schema = builder.schema;
+        this.context = builder.context;
+    }
+
+    public Service getService() {
+        return service;
+    }
+
+    public Object getServiceContext() {
+        return serviceContext;
+    }
+
+    /**
+     * @return the values of all arguments in the query sent to the service, in query order
+     */
+    public List<ArgumentValue> getArgumentValues() {
+        return argumentValues;
+    }
+
+    public Map<String, Object> getVariables() {
+        return variables;
+    }
+
+    public ExecutionId getExecutionId() {
+        return executionId;
+    }
+
+    public GraphQLSchema getSchema() {
+        return schema;
+    }
+
+    public NadelContext getContext() {
+        return context;
+    }
+
+    public static Builder newParameters() {
+        return new Builder();
+    }
+
+    public static class Builder {
+        private Service service;
+        private Object serviceContext;
+        private List<ArgumentValue> argumentValues;
+        private Map<String, Object> variables;
+        private ExecutionId executionId;
+        private GraphQLSchema schema;
+        private NadelContext context;
+
+        public Builder service(Service service) {
+            this.service = service;
+            return this;
+        }
+
+        public Builder serviceContext(Object serviceContext) {
+            this.serviceContext = serviceContext;
+            return this;
+        }
+
+        public Builder argumentValues(List<ArgumentValue> argumentValues) {
+            this.argumentValues = argumentValues;
+            return this;
+        }
+
+        public Builder variables(Map<String, Object> variables) {
+            this.variables = variables;
+            return this;
+        }
+
+        @Internal
+        public Builder from(ExecutionContext executionContext) {
+            this.executionId = executionContext.getExecutionId();
+            this.schema = executionContext.getGraphQLSchema();
+            this.context = (NadelContext) executionContext.getContext();
+            return this;
+        }
+
+        public ResolveArgumentValuesParams build() {
+            return new ResolveArgumentValuesParams(this);
+        }
+    }
+}
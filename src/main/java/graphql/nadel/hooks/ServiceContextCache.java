@@ -0,0 +1,33 @@
+package graphql.nadel.hooks;
+
+import graphql.PublicSpi;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * A store of service contexts shared by requests.  Contexts are only cached if
+ * {@link ServiceExecutionHooks#getServiceContextCacheKey(CreateServiceContextParams)} returns a key for them, and the
+ * key passed in is made of the service name and that key.
+ *
+ * Implementations must be thread safe and should hand out the same pending promise to requests that ask for the same
+ * key while the context is still being created.
+ */
+@PublicSpi
+public interface ServiceContextCache {
+
+    /**
+     * A cache that never keeps anything, so every request creates its own service contexts
+     */
+    ServiceContextCache NONE = (key, createFunction) -> createFunction.apply(key);
+
+    /**
+     * Called to get the service context for a key, creating it if it is not present
+     *
+     * @param key            the service name and the key returned by the hooks
+     * @param createFunction called to create the service context if it is not cached
+     *
+     * @return a promise to the cached or newly created service context
+     */
+    CompletableFuture<Object> computeIfAbsent(Object key, Function<Object, CompletableFuture<Object>> createFunction);
+}
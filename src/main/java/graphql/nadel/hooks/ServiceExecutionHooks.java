@@ -24,10 +24,38 @@ public interface ServiceExecutionHooks {
         return CompletableFuture.completedFuture(null);
     }
 
+    /**
+     * Called before {@link #createServiceContext(CreateServiceContextParams)} to decide whether a service context can be
+     * shared.  Top level fields of one request that get an equal key for the same service share one service context, and
+     * across requests the context is kept in the {@link ServiceContextCache} given to Nadel.  The key must capture
+     * everything the context depends on, for example the tenant of the request.
+     *
+     * @param params the parameters to this call
+     *
+     * @return the key to share the service context by or null to always create a new one
+     */
+    default Object getServiceContextCacheKey(CreateServiceContextParams params) {
+        return null;
+    }
+
     default NewVariableValue visitArgumentValueInQuery(HooksVisitArgumentValueEnvironment env) {
         return null;
     }
 
+    /**
+     * Called once per service call with the values of all arguments in the query for that service.  This is the
+     * asynchronous and batched form of {@link #visitArgumentValueInQuery(HooksVisitArgumentValueEnvironment)} for
+     * hooks that need I/O to decide on new values, for example to translate ids.  Nadel does not block on the returned
+     * promise, so the lookups of different service calls overlap, and the service is called once it completes.
+     *
+     * @param params the parameters to this call
+     *
+     * @return an async result with the argument values to replace
+     */
+    default CompletableFuture<ArgumentValuesResult> resolveArgumentValuesInQuery(ResolveArgumentValuesParams params) {
+        return CompletableFuture.completedFuture(ArgumentValuesResult.noChanges());
+    }
+
 
     /**
      * Called to allow a service to post process the service result in some fashion.
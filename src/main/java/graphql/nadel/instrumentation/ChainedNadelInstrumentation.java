@@ -2,30 +2,36 @@ package graphql.nadel.instrumentation;
 
 import graphql.ExecutionInput;
 import graphql.ExecutionResult;
-import graphql.execution.Async;
 import graphql.execution.instrumentation.DocumentAndVariables;
 import graphql.execution.instrumentation.InstrumentationContext;
 import graphql.execution.instrumentation.InstrumentationState;
+import graphql.execution.preparsed.PreparsedDocumentEntry;
 import graphql.execution.nextgen.result.ExecutionResultNode;
 import graphql.language.Document;
 import graphql.nadel.ServiceExecution;
 import graphql.nadel.instrumentation.parameters.NadelInstrumentationCreateStateParameters;
 import graphql.nadel.instrumentation.parameters.NadelInstrumentationExecuteOperationParameters;
 import graphql.nadel.instrumentation.parameters.NadelInstrumentationFetchFieldParameters;
+import graphql.nadel.instrumentation.parameters.NadelInstrumentationHydrationParameters;
+import graphql.nadel.instrumentation.parameters.NadelInstrumentationPreparsedDocumentParameters;
 import graphql.nadel.instrumentation.parameters.NadelInstrumentationQueryExecutionParameters;
+import graphql.nadel.instrumentation.parameters.NadelInstrumentationQueryTransformParameters;
+import graphql.nadel.instrumentation.parameters.NadelInstrumentationResultConversionParameters;
 import graphql.nadel.instrumentation.parameters.NadelInstrumentationServiceExecutionParameters;
 import graphql.nadel.instrumentation.parameters.NadelNadelInstrumentationQueryValidationParameters;
 import graphql.validation.ValidationError;
 
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.LinkedHashMap;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.BiFunction;
+import java.util.function.Predicate;
 
 import static graphql.Assert.assertNotNull;
-import static java.util.stream.Collectors.toList;
+import static graphql.execution.instrumentation.SimpleInstrumentationContext.noOp;
+import static graphql.nadel.engine.InstrumentationUtil.instrumentsFieldFetches;
+import static graphql.nadel.util.OverrideUtil.overridesDefault;
 
 /**
  * This allows you to chain together a number of {@link graphql.nadel.instrumentation.NadelInstrumentation} implementations
@@ -33,148 +39,264 @@ import static java.util.stream.Collectors.toList;
  * the {@link graphql.execution.instrumentation.InstrumentationState} objects they create will be passed back to the originating
  * implementation.
  *
+ * Which instrumentations override which methods is worked out once when the chain is created, and each method only
+ * calls the instrumentations that override it.  A step that no instrumentation overrides costs nothing more than it
+ * would without the chain, and a step that one instrumentation overrides gets that instrumentation's context directly.
+ *
  * @see graphql.nadel.instrumentation.NadelInstrumentation
  */
 public class ChainedNadelInstrumentation implements NadelInstrumentation {
 
+    private static final InstrumentationContext<Object> NO_OP = noOp();
+
     private final List<NadelInstrumentation> instrumentations;
 
+    private final int[] createState;
+    private final int[] beginQueryExecution;
+    private final int[] beginPreparsedDocument;
+    private final int[] beginParse;
+    private final int[] beginValidation;
+    private final int[] beginExecute;
+    private final int[] beginFieldFetch;
+    private final int[] beginQueryTransform;
+    private final int[] beginServiceResultConversion;
+    private final int[] beginOverallResultConversion;
+    private final int[] beginArtificialFieldRemoval;
+    private final int[] beginHydration;
+    private final int[] instrumentExecutionInput;
+    private final int[] instrumentDocumentAndVariables;
+    private final int[] instrumentExecutionResult;
+    private final int[] instrumentServiceExecution;
+
     public ChainedNadelInstrumentation(List<NadelInstrumentation> instrumentations) {
-        this.instrumentations = assertNotNull(instrumentations);
+        this.instrumentations = new ArrayList<>(assertNotNull(instrumentations));
+        this.createState = overriding("createState", NadelInstrumentationCreateStateParameters.class);
+        this.beginQueryExecution = overriding("beginQueryExecution", NadelInstrumentationQueryExecutionParameters.class);
+        this.beginPreparsedDocument = overriding("beginPreparsedDocument", NadelInstrumentationPreparsedDocumentParameters.class);
+        this.beginParse = overriding("beginParse", NadelInstrumentationQueryExecutionParameters.class);
+        this.beginValidation = overriding("beginValidation", NadelNadelInstrumentationQueryValidationParameters.class);
+        this.beginExecute = overriding("beginExecute", NadelInstrumentationExecuteOperationParameters.class);
+        // a chain always overrides beginFieldFetch, so chained chains are asked whether they have field fetch instrumentations
+        this.beginFieldFetch = overriding(instrumentation -> instrumentsFieldFetches(instrumentation));
+        this.beginQueryTransform = overriding("beginQueryTransform", NadelInstrumentationQueryTransformParameters.class);
+        this.beginServiceResultConversion = overriding("beginServiceResultConversion", NadelInstrumentationResultConversionParameters.class);
+        this.beginOverallResultConversion = overriding("beginOverallResultConversion", NadelInstrumentationResultConversionParameters.class);
+        this.beginArtificialFieldRemoval = overriding("beginArtificialFieldRemoval", NadelInstrumentationResultConversionParameters.class);
+        this.beginHydration = overriding("beginHydration", NadelInstrumentationHydrationParameters.class);
+        this.instrumentExecutionInput = overriding("instrumentExecutionInput", ExecutionInput.class, NadelInstrumentationQueryExecutionParameters.class);
+        this.instrumentDocumentAndVariables = overriding("instrumentDocumentAndVariables", DocumentAndVariables.class, NadelInstrumentationQueryExecutionParameters.class);
+        this.instrumentExecutionResult = overriding("instrumentExecutionResult", ExecutionResult.class, NadelInstrumentationQueryExecutionParameters.class);
+        this.instrumentServiceExecution = overriding("instrumentServiceExecution", ServiceExecution.class, NadelInstrumentationServiceExecutionParameters.class);
     }
 
     public List<NadelInstrumentation> getInstrumentations() {
         return new ArrayList<>(instrumentations);
     }
 
-    private InstrumentationState getStateFor(NadelInstrumentation instrumentation, InstrumentationState parametersInstrumentationState) {
+    /**
+     * @return the indexes of the instrumentations that have their own implementation of the method
+     */
+    private int[] overriding(String methodName, Class<?>... parameterTypes) {
+        return overriding(instrumentation -> overridesDefault(NadelInstrumentation.class, instrumentation.getClass(), methodName, parameterTypes));
+    }
+
+    private int[] overriding(Predicate<NadelInstrumentation> overrides) {
+        int[] indexes = new int[instrumentations.size()];
+        int count = 0;
+        for (int i = 0; i < instrumentations.size(); i++) {
+            if (overrides.test(instrumentations.get(i))) {
+                indexes[count++] = i;
+            }
+        }
+        return Arrays.copyOf(indexes, count);
+    }
+
+    /**
+     * @return true if any of the chained instrumentations has its own implementation of beginFieldFetch
+     */
+    public boolean hasFieldFetchInstrumentations() {
+        return beginFieldFetch.length > 0;
+    }
+
+    private static InstrumentationState getStateFor(int index, InstrumentationState parametersInstrumentationState) {
         ChainedInstrumentationState chainedInstrumentationState = (ChainedInstrumentationState) parametersInstrumentationState;
-        return chainedInstrumentationState.getState(instrumentation);
+        return chainedInstrumentationState == null ? null : chainedInstrumentationState.states[index];
+    }
+
+    private <P, T> InstrumentationContext<T> begin(int[] indexes,
+                                                   P parameters,
+                                                   InstrumentationState chainedState,
+                                                   BiFunction<P, InstrumentationState, P> withNewState,
+                                                   BiFunction<NadelInstrumentation, P, InstrumentationContext<T>> beginStep) {
+        if (indexes.length == 0) {
+            //noinspection unchecked
+            return (InstrumentationContext<T>) NO_OP;
+        }
+        if (indexes.length == 1) {
+            int index = indexes[0];
+            return beginStep.apply(instrumentations.get(index), withNewState.apply(parameters, getStateFor(index, chainedState)));
+        }
+        @SuppressWarnings("unchecked")
+        InstrumentationContext<T>[] contexts = new InstrumentationContext[indexes.length];
+        for (int i = 0; i < indexes.length; i++) {
+            int index = indexes[i];
+            contexts[i] = beginStep.apply(instrumentations.get(index), withNewState.apply(parameters, getStateFor(index, chainedState)));
+        }
+        return new ChainedInstrumentationContext<>(contexts);
     }
 
     @Override
     public InstrumentationState createState(NadelInstrumentationCreateStateParameters parameters) {
-        return new ChainedInstrumentationState(instrumentations, parameters);
+        InstrumentationState[] states = new InstrumentationState[instrumentations.size()];
+        for (int index : createState) {
+            states[index] = instrumentations.get(index).createState(parameters);
+        }
+        return new ChainedInstrumentationState(states);
     }
 
     @Override
     public InstrumentationContext<ExecutionResult> beginQueryExecution(NadelInstrumentationQueryExecutionParameters parameters) {
-        return new ChainedInstrumentationContext<>(instrumentations.stream()
-                .map(instrumentation -> {
-                    InstrumentationState state = getStateFor(instrumentation, parameters.getInstrumentationState());
-                    return instrumentation.beginQueryExecution(parameters.withNewState(state));
-                })
-                .collect(toList()));
+        return begin(beginQueryExecution, parameters, parameters.getInstrumentationState(),
+                NadelInstrumentationQueryExecutionParameters::withNewState, NadelInstrumentation::beginQueryExecution);
+    }
+
+    @Override
+    public InstrumentationContext<PreparsedDocumentEntry> beginPreparsedDocument(NadelInstrumentationPreparsedDocumentParameters parameters) {
+        return begin(beginPreparsedDocument, parameters, parameters.getInstrumentationState(),
+                NadelInstrumentationPreparsedDocumentParameters::withNewState, NadelInstrumentation::beginPreparsedDocument);
     }
 
     @Override
     public InstrumentationContext<Document> beginParse(NadelInstrumentationQueryExecutionParameters parameters) {
-        return new ChainedInstrumentationContext<>(instrumentations.stream()
-                .map(instrumentation -> {
-                    InstrumentationState state = getStateFor(instrumentation, parameters.getInstrumentationState());
-                    return instrumentation.beginParse(parameters.withNewState(state));
-                })
-                .collect(toList()));
+        return begin(beginParse, parameters, parameters.getInstrumentationState(),
+                NadelInstrumentationQueryExecutionParameters::withNewState, NadelInstrumentation::beginParse);
     }
 
     @Override
     public InstrumentationContext<List<ValidationError>> beginValidation(NadelNadelInstrumentationQueryValidationParameters parameters) {
-        return new ChainedInstrumentationContext<>(instrumentations.stream()
-                .map(instrumentation -> {
-                    InstrumentationState state = getStateFor(instrumentation, parameters.getInstrumentationState());
-                    return instrumentation.beginValidation(parameters.withNewState(state));
-                })
-                .collect(toList()));
+        return begin(beginValidation, parameters, parameters.getInstrumentationState(),
+                NadelNadelInstrumentationQueryValidationParameters::withNewState, NadelInstrumentation::beginValidation);
     }
 
     @Override
     public InstrumentationContext<ExecutionResult> beginExecute(NadelInstrumentationExecuteOperationParameters parameters) {
-        return new ChainedInstrumentationContext<>(instrumentations.stream()
-                .map(instrumentation -> {
-                    InstrumentationState state = getStateFor(instrumentation, parameters.getInstrumentationState());
-                    return instrumentation.beginExecute(parameters.withNewState(state));
-                })
-                .collect(toList()));
+        return begin(beginExecute, parameters, parameters.getInstrumentationState(),
+                NadelInstrumentationExecuteOperationParameters::withNewState, NadelInstrumentation::beginExecute);
     }
 
-
     @Override
     public InstrumentationContext<ExecutionResultNode> beginFieldFetch(NadelInstrumentationFetchFieldParameters parameters) {
-        return new ChainedInstrumentationContext<>(instrumentations.stream()
-                .map(instrumentation -> {
-                    InstrumentationState state = getStateFor(instrumentation, parameters.getInstrumentationState());
-                    return instrumentation.beginFieldFetch(parameters.withNewState(state));
-                })
-                .collect(toList()));
+        return begin(beginFieldFetch, parameters, parameters.getInstrumentationState(),
+                NadelInstrumentationFetchFieldParameters::withNewState, NadelInstrumentation::beginFieldFetch);
+    }
+
+    @Override
+    public boolean isFieldFetchInstrumented(InstrumentationState instrumentationState) {
+        for (int index : beginFieldFetch) {
+            if (instrumentsFieldFetches(instrumentations.get(index), getStateFor(index, instrumentationState))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public InstrumentationContext<Document> beginQueryTransform(NadelInstrumentationQueryTransformParameters parameters) {
+        return begin(beginQueryTransform, parameters, parameters.getInstrumentationState(),
+                NadelInstrumentationQueryTransformParameters::withNewState, NadelInstrumentation::beginQueryTransform);
+    }
+
+    @Override
+    public InstrumentationContext<ExecutionResultNode> beginServiceResultConversion(NadelInstrumentationResultConversionParameters parameters) {
+        return begin(beginServiceResultConversion, parameters, parameters.getInstrumentationState(),
+                NadelInstrumentationResultConversionParameters::withNewState, NadelInstrumentation::beginServiceResultConversion);
+    }
+
+    @Override
+    public InstrumentationContext<ExecutionResultNode> beginOverallResultConversion(NadelInstrumentationResultConversionParameters parameters) {
+        return begin(beginOverallResultConversion, parameters, parameters.getInstrumentationState(),
+                NadelInstrumentationResultConversionParameters::withNewState, NadelInstrumentation::beginOverallResultConversion);
+    }
+
+    @Override
+    public InstrumentationContext<ExecutionResultNode> beginArtificialFieldRemoval(NadelInstrumentationResultConversionParameters parameters) {
+        return begin(beginArtificialFieldRemoval, parameters, parameters.getInstrumentationState(),
+                NadelInstrumentationResultConversionParameters::withNewState, NadelInstrumentation::beginArtificialFieldRemoval);
+    }
+
+    @Override
+    public InstrumentationContext<ExecutionResultNode> beginHydration(NadelInstrumentationHydrationParameters parameters) {
+        return begin(beginHydration, parameters, parameters.getInstrumentationState(),
+                NadelInstrumentationHydrationParameters::withNewState, NadelInstrumentation::beginHydration);
     }
 
     @Override
     public ExecutionInput instrumentExecutionInput(ExecutionInput executionInput, NadelInstrumentationQueryExecutionParameters parameters) {
-        for (NadelInstrumentation instrumentation : instrumentations) {
-            InstrumentationState state = getStateFor(instrumentation, parameters.getInstrumentationState());
-            executionInput = instrumentation.instrumentExecutionInput(executionInput, parameters.withNewState(state));
+        for (int index : instrumentExecutionInput) {
+            InstrumentationState state = getStateFor(index, parameters.getInstrumentationState());
+            executionInput = instrumentations.get(index).instrumentExecutionInput(executionInput, parameters.withNewState(state));
         }
         return executionInput;
     }
 
     @Override
     public DocumentAndVariables instrumentDocumentAndVariables(DocumentAndVariables documentAndVariables, NadelInstrumentationQueryExecutionParameters parameters) {
-        for (NadelInstrumentation instrumentation : instrumentations) {
-            InstrumentationState state = getStateFor(instrumentation, parameters.getInstrumentationState());
-            documentAndVariables = instrumentation.instrumentDocumentAndVariables(documentAndVariables, parameters.withNewState(state));
+        for (int index : instrumentDocumentAndVariables) {
+            InstrumentationState state = getStateFor(index, parameters.getInstrumentationState());
+            documentAndVariables = instrumentations.get(index).instrumentDocumentAndVariables(documentAndVariables, parameters.withNewState(state));
         }
         return documentAndVariables;
     }
 
     @Override
     public CompletableFuture<ExecutionResult> instrumentExecutionResult(ExecutionResult executionResult, NadelInstrumentationQueryExecutionParameters parameters) {
-        CompletableFuture<List<ExecutionResult>> resultsFuture = Async.eachSequentially(instrumentations, (instrumentation, index, prevResults) -> {
-            InstrumentationState state = getStateFor(instrumentation, parameters.getInstrumentationState());
-            ExecutionResult lastResult = prevResults.size() > 0 ? prevResults.get(prevResults.size() - 1) : executionResult;
-            return instrumentation.instrumentExecutionResult(lastResult, parameters.withNewState(state));
-        });
-        return resultsFuture.thenApply((results) -> results.isEmpty() ? executionResult : results.get(results.size() - 1));
+        CompletableFuture<ExecutionResult> result = CompletableFuture.completedFuture(executionResult);
+        for (int index : instrumentExecutionResult) {
+            NadelInstrumentation instrumentation = instrumentations.get(index);
+            InstrumentationState state = getStateFor(index, parameters.getInstrumentationState());
+            result = result.thenCompose(lastResult -> instrumentation.instrumentExecutionResult(lastResult, parameters.withNewState(state)));
+        }
+        return result;
     }
 
     @Override
     public ServiceExecution instrumentServiceExecution(ServiceExecution serviceExecution, NadelInstrumentationServiceExecutionParameters parameters) {
-        for (NadelInstrumentation instrumentation : instrumentations) {
-            InstrumentationState state = getStateFor(instrumentation, parameters.getInstrumentationState());
-            serviceExecution = instrumentation.instrumentServiceExecution(serviceExecution, parameters.withNewState(state));
+        for (int index : instrumentServiceExecution) {
+            InstrumentationState state = getStateFor(index, parameters.getInstrumentationState());
+            serviceExecution = instrumentations.get(index).instrumentServiceExecution(serviceExecution, parameters.withNewState(state));
         }
         return serviceExecution;
     }
 
     private static class ChainedInstrumentationState implements InstrumentationState {
-        private final Map<NadelInstrumentation, InstrumentationState> instrumentationStates;
-
-
-        private ChainedInstrumentationState(List<NadelInstrumentation> instrumentations, NadelInstrumentationCreateStateParameters parameters) {
-            instrumentationStates = new LinkedHashMap<>(instrumentations.size());
-            instrumentations.forEach(i -> instrumentationStates.put(i, i.createState(parameters)));
-        }
+        // indexed like the instrumentations of the chain
+        private final InstrumentationState[] states;
 
-        private InstrumentationState getState(NadelInstrumentation instrumentation) {
-            return instrumentationStates.get(instrumentation);
+        private ChainedInstrumentationState(InstrumentationState[] states) {
+            this.states = states;
         }
     }
 
     private static class ChainedInstrumentationContext<T> implements InstrumentationContext<T> {
 
-        private final List<InstrumentationContext<T>> contexts;
+        private final InstrumentationContext<T>[] contexts;
 
-        ChainedInstrumentationContext(List<InstrumentationContext<T>> contexts) {
-            this.contexts = Collections.unmodifiableList(contexts);
+        ChainedInstrumentationContext(InstrumentationContext<T>[] contexts) {
+            this.contexts = contexts;
         }
 
         @Override
         public void onDispatched(CompletableFuture<T> result) {
-            contexts.forEach(context -> context.onDispatched(result));
+            for (InstrumentationContext<T> context : contexts) {
+                context.onDispatched(result);
+            }
         }
 
         @Override
         public void onCompleted(T result, Throwable t) {
-            contexts.forEach(context -> context.onCompleted(result, t));
+            for (InstrumentationContext<T> context : contexts) {
+                context.onCompleted(result, t);
+            }
         }
     }
 }
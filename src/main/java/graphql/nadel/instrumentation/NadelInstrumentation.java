@@ -6,13 +6,18 @@ import graphql.execution.ExecutionStepInfo;
 import graphql.execution.instrumentation.DocumentAndVariables;
 import graphql.execution.instrumentation.InstrumentationContext;
 import graphql.execution.instrumentation.InstrumentationState;
+import graphql.execution.preparsed.PreparsedDocumentEntry;
 import graphql.execution.nextgen.result.ExecutionResultNode;
 import graphql.language.Document;
 import graphql.nadel.ServiceExecution;
 import graphql.nadel.instrumentation.parameters.NadelInstrumentationCreateStateParameters;
 import graphql.nadel.instrumentation.parameters.NadelInstrumentationExecuteOperationParameters;
 import graphql.nadel.instrumentation.parameters.NadelInstrumentationFetchFieldParameters;
+import graphql.nadel.instrumentation.parameters.NadelInstrumentationHydrationParameters;
+import graphql.nadel.instrumentation.parameters.NadelInstrumentationPreparsedDocumentParameters;
 import graphql.nadel.instrumentation.parameters.NadelInstrumentationQueryExecutionParameters;
+import graphql.nadel.instrumentation.parameters.NadelInstrumentationQueryTransformParameters;
+import graphql.nadel.instrumentation.parameters.NadelInstrumentationResultConversionParameters;
 import graphql.nadel.instrumentation.parameters.NadelInstrumentationServiceExecutionParameters;
 import graphql.nadel.instrumentation.parameters.NadelNadelInstrumentationQueryValidationParameters;
 import graphql.validation.ValidationError;
@@ -58,6 +63,18 @@ public interface NadelInstrumentation {
         return noOp();
     }
 
+    /**
+     * This is called just before the parsed and validated document is looked up via the
+     * {@link graphql.execution.preparsed.PreparsedDocumentProvider}.  On a cache hit parsing and validation are skipped.
+     *
+     * @param parameters the parameters to this step
+     *
+     * @return a non null {@link InstrumentationContext} object that will be called back when the step ends
+     */
+    default InstrumentationContext<PreparsedDocumentEntry> beginPreparsedDocument(NadelInstrumentationPreparsedDocumentParameters parameters) {
+        return noOp();
+    }
+
     /**
      * This is called just before a query is parsed.
      *
@@ -102,6 +119,80 @@ public interface NadelInstrumentation {
         return noOp();
     }
 
+    /**
+     * Tracking the fields of a request means walking every node of its result, so Nadel only does it if the
+     * instrumentation implements {@link #beginFieldFetch(NadelInstrumentationFetchFieldParameters)} and this returns
+     * true for the request.
+     *
+     * @param instrumentationState the state created for the request
+     *
+     * @return false if beginFieldFetch does not need to be called for the request
+     */
+    default boolean isFieldFetchInstrumented(InstrumentationState instrumentationState) {
+        return true;
+    }
+
+
+    /**
+     * This is called just before the overall query is transformed into the query for one service call, which
+     * includes the calls made for hydration.
+     *
+     * @param parameters the parameters to this step
+     *
+     * @return a non null {@link InstrumentationContext} object that will be called back with the transformed document when the step ends
+     */
+    default InstrumentationContext<Document> beginQueryTransform(NadelInstrumentationQueryTransformParameters parameters) {
+        return noOp();
+    }
+
+    /**
+     * This is called just before the raw result of a service call is converted into result nodes.
+     *
+     * @param parameters the parameters to this step
+     *
+     * @return a non null {@link InstrumentationContext} object that will be called back when the step ends
+     */
+    default InstrumentationContext<ExecutionResultNode> beginServiceResultConversion(NadelInstrumentationResultConversionParameters parameters) {
+        return noOp();
+    }
+
+    /**
+     * This is called just before the result nodes of a service call are converted into result nodes of the overall schema.
+     *
+     * @param parameters the parameters to this step
+     *
+     * @return a non null {@link InstrumentationContext} object that will be called back when the step ends, with a
+     * null result for batched hydration calls since they convert into one node per hydrated field
+     */
+    default InstrumentationContext<ExecutionResultNode> beginOverallResultConversion(NadelInstrumentationResultConversionParameters parameters) {
+        return noOp();
+    }
+
+    /**
+     * This is called just before the fields Nadel added to the service queries for its own use are removed from a result.
+     * It is called once for all the result nodes of a batched hydration, which have no single result node, so the
+     * context is then completed with null.
+     *
+     * @param parameters the parameters to this step
+     *
+     * @return a non null {@link InstrumentationContext} object that will be called back when the step ends
+     */
+    default InstrumentationContext<ExecutionResultNode> beginArtificialFieldRemoval(NadelInstrumentationResultConversionParameters parameters) {
+        return noOp();
+    }
+
+    /**
+     * This is called just before the fields of one hydration level are resolved.  The step ends when all service calls
+     * of that level have completed and their results are in the result tree, before the next level starts.
+     *
+     * @param parameters the parameters to this step
+     *
+     * @return a non null {@link InstrumentationContext} object that will be called back when the step ends
+     */
+    default InstrumentationContext<ExecutionResultNode> beginHydration(NadelInstrumentationHydrationParameters parameters) {
+        return noOp();
+    }
+
 
     /**
      * This is called to instrument a {@link graphql.ExecutionInput} before it is used to parse, validate
@@ -19,18 +19,45 @@ import graphql.validation.ValidationError;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
 
+import static graphql.execution.instrumentation.SimpleInstrumentationContext.noOp;
 import static graphql.execution.instrumentation.SimpleInstrumentationContext.whenCompleted;
+import static java.util.Objects.requireNonNull;
 
+/**
+ * Traces requests in the Apollo tracing format.  By default every request is traced and the trace is added to the
+ * "tracing" extension of the response.  A {@link TracingSampler} can limit tracing to some requests, the others then
+ * get no tracing state and no tracing cost, and a {@link TracingSink} can receive the traces instead of the response.
+ */
 public class TracingInstrumentation implements NadelInstrumentation {
 
+    private final TracingSampler sampler;
+    private final TracingSink sink;
+
+    public TracingInstrumentation() {
+        this(TracingSampler.always());
+    }
+
+    public TracingInstrumentation(TracingSampler sampler) {
+        this.sampler = requireNonNull(sampler);
+        this.sink = null;
+    }
+
+    public TracingInstrumentation(TracingSampler sampler, TracingSink sink) {
+        this.sampler = requireNonNull(sampler);
+        this.sink = requireNonNull(sink);
+    }
+
     @Override
     public InstrumentationState createState(NadelInstrumentationCreateStateParameters parameters) {
-        return new TracingSupport(false);
+        return sampler.isSampled(parameters) ? new TracingSupport(false) : null;
     }
 
     @Override
     public InstrumentationContext<Document> beginParse(NadelInstrumentationQueryExecutionParameters parameters) {
         TracingSupport tracingSupport = parameters.getInstrumentationState();
+        if (tracingSupport == null) {
+            return noOp();
+        }
         TracingSupport.TracingContext ctx = tracingSupport.beginParse();
         return whenCompleted((result, t) -> ctx.onEnd());
     }
@@ -38,6 +65,9 @@ public class TracingInstrumentation implements NadelInstrumentation {
     @Override
     public InstrumentationContext<List<ValidationError>> beginValidation(NadelNadelInstrumentationQueryValidationParameters parameters) {
         TracingSupport tracingSupport = parameters.getInstrumentationState();
+        if (tracingSupport == null) {
+            return noOp();
+        }
         TracingSupport.TracingContext ctx = tracingSupport.beginValidation();
         return whenCompleted((result, t) -> ctx.onEnd());
     }
@@ -45,6 +75,9 @@ public class TracingInstrumentation implements NadelInstrumentation {
     @Override
     public InstrumentationContext<ExecutionResultNode> beginFieldFetch(NadelInstrumentationFetchFieldParameters parameters) {
         TracingSupport tracingSupport = parameters.getInstrumentationState();
+        if (tracingSupport == null) {
+            return noOp();
+        }
         ExecutionStepInfo executionStepInfo = parameters.getExecutionStepInfo();
         DataFetchingEnvironment environment = DataFetchingEnvironmentImpl.newDataFetchingEnvironment(parameters.getExecutionContext()).executionStepInfo(executionStepInfo).build();
         //
@@ -55,9 +88,21 @@ public class TracingInstrumentation implements NadelInstrumentation {
         return whenCompleted((result, t) -> ctx.onEnd());
     }
 
+    @Override
+    public boolean isFieldFetchInstrumented(InstrumentationState instrumentationState) {
+        return instrumentationState != null;
+    }
+
     @Override
     public CompletableFuture<ExecutionResult> instrumentExecutionResult(ExecutionResult executionResult, NadelInstrumentationQueryExecutionParameters parameters) {
         TracingSupport tracingSupport = parameters.getInstrumentationState();
+        if (tracingSupport == null) {
+            return CompletableFuture.completedFuture(executionResult);
+        }
+        if (sink != null) {
+            sink.traceCompleted(parameters, tracingSupport.snapshotTracingData());
+            return CompletableFuture.completedFuture(executionResult);
+        }
         ExecutionResult newResult = ExecutionResultImpl.newExecutionResult().from(executionResult)
                 .addExtension("tracing", tracingSupport.snapshotTracingData())
                 .build();
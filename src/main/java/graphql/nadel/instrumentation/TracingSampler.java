@@ -0,0 +1,74 @@
+package graphql.nadel.instrumentation;
+
+import graphql.ExecutionInput;
+import graphql.PublicSpi;
+import graphql.nadel.instrumentation.parameters.NadelInstrumentationCreateStateParameters;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Predicate;
+
+import static graphql.Assert.assertTrue;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Decides which requests the {@link TracingInstrumentation} traces.  Requests that are not sampled get no tracing
+ * state and their fields are not tracked.
+ */
+@PublicSpi
+@FunctionalInterface
+public interface TracingSampler {
+
+    /**
+     * @param parameters the parameters the instrumentation state of the request is created with
+     *
+     * @return true if the request is traced
+     */
+    boolean isSampled(NadelInstrumentationCreateStateParameters parameters);
+
+    /**
+     * @param predicate tests the execution input of a request, for example for a header the caller put into the context
+     *
+     * @return a sampler that traces the requests matching the predicate and samples the others with this sampler
+     */
+    default TracingSampler forcedBy(Predicate<ExecutionInput> predicate) {
+        requireNonNull(predicate);
+        return parameters -> predicate.test(parameters.getExecutionInput()) || isSampled(parameters);
+    }
+
+    /**
+     * @return a sampler that traces every request
+     */
+    static TracingSampler always() {
+        return parameters -> true;
+    }
+
+    /**
+     * @param rate the fraction of requests to trace, between 0 and 1
+     *
+     * @return a sampler that traces requests at random at a fixed rate
+     */
+    static TracingSampler rate(double rate) {
+        assertTrue(rate >= 0 && rate <= 1, "A sampling rate must be between 0 and 1 but was %s", rate);
+        return parameters -> rate > 0 && ThreadLocalRandom.current().nextDouble() < rate;
+    }
+
+    /**
+     * @param ratesByOperationName the fraction of requests to trace by the operation name of the request
+     * @param defaultRate          the fraction of requests to trace if their operation has no rate or no name
+     *
+     * @return a sampler that traces requests at random at a rate that depends on their operation
+     */
+    static TracingSampler rateByOperationName(Map<String, Double> ratesByOperationName, double defaultRate) {
+        Map<String, Double> rates = new LinkedHashMap<>(ratesByOperationName);
+        rates.forEach((operationName, rate) -> assertTrue(rate != null && rate >= 0 && rate <= 1,
+                "The sampling rate of operation '%s' must be between 0 and 1 but was %s", operationName, rate));
+        assertTrue(defaultRate >= 0 && defaultRate <= 1, "A sampling rate must be between 0 and 1 but was %s", defaultRate);
+        return parameters -> {
+            String operationName = parameters.getExecutionInput().getOperationName();
+            double rate = operationName == null ? defaultRate : rates.getOrDefault(operationName, defaultRate);
+            return rate > 0 && ThreadLocalRandom.current().nextDouble() < rate;
+        };
+    }
+}
@@ -0,0 +1,22 @@
+package graphql.nadel.instrumentation;
+
+import graphql.PublicSpi;
+import graphql.nadel.instrumentation.parameters.NadelInstrumentationQueryExecutionParameters;
+
+/**
+ * Receives the traces of the {@link TracingInstrumentation} instead of the "tracing" extension of the response, for
+ * example to log them or to send them to a tracing backend.
+ */
+@PublicSpi
+@FunctionalInterface
+public interface TracingSink {
+
+    /**
+     * Called once a traced request has completed.  This is called on the thread that completed the request and so
+     * should not block.
+     *
+     * @param parameters  the parameters of the traced request
+     * @param tracingData the trace in the Apollo tracing format
+     */
+    void traceCompleted(NadelInstrumentationQueryExecutionParameters parameters, Object tracingData);
+}
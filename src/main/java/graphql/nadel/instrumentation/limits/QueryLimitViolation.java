@@ -0,0 +1,41 @@
+package graphql.nadel.instrumentation.limits;
+
+import graphql.ErrorClassification;
+import graphql.GraphQLError;
+import graphql.GraphqlErrorBuilder;
+import graphql.PublicApi;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static java.lang.String.format;
+
+/**
+ * The limits of {@link QueryLimits} a query can exceed, used as the classification of the errors of rejected queries
+ */
+@PublicApi
+public enum QueryLimitViolation implements ErrorClassification {
+    MaxDepthExceeded("depth"),
+    MaxAliasesExceeded("number of aliases"),
+    MaxFieldsExceeded("number of fields"),
+    MaxHydrationDepthExceeded("hydration depth");
+
+    private final String description;
+
+    QueryLimitViolation(String description) {
+        this.description = description;
+    }
+
+    GraphQLError toGraphQLError(String operationName, long actual, long limit) {
+        String operation = operationName == null ? "The operation" : format("The operation '%s'", operationName);
+        Map<String, Object> extensions = new LinkedHashMap<>();
+        extensions.put("classification", name());
+        extensions.put("actual", actual);
+        extensions.put("limit", limit);
+        return GraphqlErrorBuilder.newError()
+                .message(format("%s has a %s of %d which is more than the maximum of %d", operation, description, actual, limit))
+                .errorType(this)
+                .extensions(extensions)
+                .build();
+    }
+}
@@ -0,0 +1,89 @@
+package graphql.nadel.instrumentation.limits;
+
+import graphql.PublicApi;
+
+import static graphql.Assert.assertTrue;
+
+/**
+ * The structural limits enforced by {@link QueryLimitsInstrumentation}.  Every limit applies to each operation of a
+ * document with its fragments spread, and none is enforced by default.
+ */
+@PublicApi
+public class QueryLimits {
+
+    private final int maxDepth;
+    private final long maxAliases;
+    private final long maxFields;
+    private final int maxHydrationDepth;
+
+    private QueryLimits(Builder builder) {
+        this.maxDepth = builder.maxDepth;
+        this.maxAliases = builder.maxAliases;
+        this.maxFields = builder.maxFields;
+        this.maxHydrationDepth = builder.maxHydrationDepth;
+    }
+
+    /**
+     * @return the maximum nesting of fields, where top level fields have a depth of one
+     */
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    public long getMaxAliases() {
+        return maxAliases;
+    }
+
+    public long getMaxFields() {
+        return maxFields;
+    }
+
+    /**
+     * @return the maximum number of hydrated fields nested in each other
+     */
+    public int getMaxHydrationDepth() {
+        return maxHydrationDepth;
+    }
+
+    public static Builder newQueryLimits() {
+        return new Builder();
+    }
+
+    public static class Builder {
+        private int maxDepth = Integer.MAX_VALUE;
+        private long maxAliases = Long.MAX_VALUE;
+        private long maxFields = Long.MAX_VALUE;
+        private int maxHydrationDepth = Integer.MAX_VALUE;
+
+        private Builder() {
+        }
+
+        public Builder maxDepth(int maxDepth) {
+            assertTrue(maxDepth > 0, "maxDepth must be greater than zero");
+            this.maxDepth = maxDepth;
+            return this;
+        }
+
+        public Builder maxAliases(long maxAliases) {
+            assertTrue(maxAliases >= 0, "maxAliases must not be negative");
+            this.maxAliases = maxAliases;
+            return this;
+        }
+
+        public Builder maxFields(long maxFields) {
+            assertTrue(maxFields > 0, "maxFields must be greater than zero");
+            this.maxFields = maxFields;
+            return this;
+        }
+
+        public Builder maxHydrationDepth(int maxHydrationDepth) {
+            assertTrue(maxHydrationDepth >= 0, "maxHydrationDepth must not be negative");
+            this.maxHydrationDepth = maxHydrationDepth;
+            return this;
+        }
+
+        public QueryLimits build() {
+            return new QueryLimits(this);
+        }
+    }
+}
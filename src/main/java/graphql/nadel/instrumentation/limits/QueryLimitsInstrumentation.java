@@ -0,0 +1,201 @@
+package graphql.nadel.instrumentation.limits;
+
+import graphql.GraphQLError;
+import graphql.PublicApi;
+import graphql.execution.AbortExecutionException;
+import graphql.execution.instrumentation.InstrumentationContext;
+import graphql.language.Document;
+import graphql.language.Field;
+import graphql.language.FragmentDefinition;
+import graphql.language.FragmentSpread;
+import graphql.language.InlineFragment;
+import graphql.language.OperationDefinition;
+import graphql.language.Selection;
+import graphql.language.SelectionSet;
+import graphql.nadel.dsl.ExtendedFieldDefinition;
+import graphql.nadel.instrumentation.NadelInstrumentation;
+import graphql.nadel.instrumentation.parameters.NadelNadelInstrumentationQueryValidationParameters;
+import graphql.schema.GraphQLFieldDefinition;
+import graphql.schema.GraphQLFieldsContainer;
+import graphql.schema.GraphQLSchema;
+import graphql.schema.GraphQLType;
+import graphql.validation.ValidationError;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import static graphql.execution.instrumentation.SimpleInstrumentationContext.noOp;
+import static graphql.schema.GraphQLTypeUtil.unwrapAll;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Rejects queries that exceed the {@link QueryLimits} before they are validated, so that abusive queries never reach
+ * validation or execution.  The work is linear in the size of the document: every fragment is measured once no matter
+ * how often it is spread.
+ *
+ * A rejected query gets one error per exceeded limit, classified by {@link QueryLimitViolation}, and every violation
+ * is counted, see {@link #getViolationCount(QueryLimitViolation)}.  Since rejected documents are not cached, every
+ * request of such a query is measured and counted again.
+ */
+@PublicApi
+public class QueryLimitsInstrumentation implements NadelInstrumentation {
+
+    private final QueryLimits limits;
+    private final Map<QueryLimitViolation, LongAdder> violationCounts = new EnumMap<>(QueryLimitViolation.class);
+
+    public QueryLimitsInstrumentation(QueryLimits limits) {
+        this.limits = requireNonNull(limits);
+        for (QueryLimitViolation violation : QueryLimitViolation.values()) {
+            violationCounts.put(violation, new LongAdder());
+        }
+    }
+
+    /**
+     * @param violation a limit
+     *
+     * @return how many operations exceeded the limit so far
+     */
+    public long getViolationCount(QueryLimitViolation violation) {
+        return violationCounts.get(violation).sum();
+    }
+
+    @Override
+    public InstrumentationContext<List<ValidationError>> beginValidation(NadelNadelInstrumentationQueryValidationParameters parameters) {
+        Document document = parameters.getDocument();
+        DocumentMeasurer measurer = new DocumentMeasurer(document, parameters.getSchema());
+        List<GraphQLError> errors = new ArrayList<>();
+        for (OperationDefinition operationDefinition : document.getDefinitionsOfType(OperationDefinition.class)) {
+            GraphQLType rootType = rootType(parameters.getSchema(), operationDefinition.getOperation());
+            Measure measure = measurer.measure(operationDefinition.getSelectionSet(), rootType);
+            String operationName = operationDefinition.getName();
+            check(errors, operationName, QueryLimitViolation.MaxDepthExceeded, measure.depth, limits.getMaxDepth());
+            check(errors, operationName, QueryLimitViolation.MaxAliasesExceeded, measure.aliases, limits.getMaxAliases());
+            check(errors, operationName, QueryLimitViolation.MaxFieldsExceeded, measure.fields, limits.getMaxFields());
+            check(errors, operationName, QueryLimitViolation.MaxHydrationDepthExceeded, measure.hydrationDepth, limits.getMaxHydrationDepth());
+        }
+        if (!errors.isEmpty()) {
+            throw new AbortExecutionException(errors);
+        }
+        return noOp();
+    }
+
+    private void check(List<GraphQLError> errors, String operationName, QueryLimitViolation violation, long actual, long limit) {
+        if (actual > limit) {
+            violationCounts.get(violation).increment();
+            errors.add(violation.toGraphQLError(operationName, actual, limit));
+        }
+    }
+
+    private static GraphQLType rootType(GraphQLSchema schema, OperationDefinition.Operation operation) {
+        if (operation == OperationDefinition.Operation.MUTATION) {
+            return schema.getMutationType();
+        }
+        if (operation == OperationDefinition.Operation.SUBSCRIPTION) {
+            return schema.getSubscriptionType();
+        }
+        return schema.getQueryType();
+    }
+
+    private static boolean isHydrated(GraphQLFieldDefinition fieldDefinition) {
+        if (!(fieldDefinition.getDefinition() instanceof ExtendedFieldDefinition)) {
+            return false;
+        }
+        ExtendedFieldDefinition definition = (ExtendedFieldDefinition) fieldDefinition.getDefinition();
+        return definition.getFieldTransformation() != null && definition.getFieldTransformation().getUnderlyingServiceHydration() != null;
+    }
+
+    /**
+     * The size of a selection set with all its fragments spread.  Counts saturate rather than overflow, since a few
+     * nested fragments spread many times can describe more fields than a long can count.
+     */
+    private static class Measure {
+        static final Measure EMPTY = new Measure(0, 0, 0, 0);
+
+        final int depth;
+        final long fields;
+        final long aliases;
+        final int hydrationDepth;
+
+        Measure(int depth, long fields, long aliases, int hydrationDepth) {
+            this.depth = depth;
+            this.fields = fields;
+            this.aliases = aliases;
+            this.hydrationDepth = hydrationDepth;
+        }
+
+        Measure plus(Measure other) {
+            return new Measure(Math.max(depth, other.depth), saturatedAdd(fields, other.fields), saturatedAdd(aliases, other.aliases), Math.max(hydrationDepth, other.hydrationDepth));
+        }
+
+        private static long saturatedAdd(long a, long b) {
+            long sum = a + b;
+            return sum < 0 ? Long.MAX_VALUE : sum;
+        }
+    }
+
+    private static class DocumentMeasurer {
+        private final GraphQLSchema schema;
+        private final Map<String, FragmentDefinition> fragments = new HashMap<>();
+        private final Map<String, Measure> fragmentMeasures = new HashMap<>();
+
+        DocumentMeasurer(Document document, GraphQLSchema schema) {
+            this.schema = schema;
+            for (FragmentDefinition fragmentDefinition : document.getDefinitionsOfType(FragmentDefinition.class)) {
+                fragments.put(fragmentDefinition.getName(), fragmentDefinition);
+            }
+        }
+
+        Measure measure(SelectionSet selectionSet, GraphQLType parentType) {
+            if (selectionSet == null) {
+                return Measure.EMPTY;
+            }
+            Measure measure = Measure.EMPTY;
+            for (Selection<?> selection : selectionSet.getSelections()) {
+                if (selection instanceof Field) {
+                    measure = measure.plus(measureField((Field) selection, parentType));
+                } else if (selection instanceof InlineFragment) {
+                    InlineFragment inlineFragment = (InlineFragment) selection;
+                    GraphQLType type = inlineFragment.getTypeCondition() == null ? parentType : schema.getType(inlineFragment.getTypeCondition().getName());
+                    measure = measure.plus(measure(inlineFragment.getSelectionSet(), type));
+                } else if (selection instanceof FragmentSpread) {
+                    measure = measure.plus(measureFragment(((FragmentSpread) selection).getName()));
+                }
+            }
+            return measure;
+        }
+
+        private Measure measureField(Field field, GraphQLType parentType) {
+            GraphQLFieldDefinition fieldDefinition = null;
+            if (parentType instanceof GraphQLFieldsContainer) {
+                fieldDefinition = ((GraphQLFieldsContainer) parentType).getFieldDefinition(field.getName());
+            }
+            // unknown fields are still counted, validation reports them afterwards
+            GraphQLType fieldType = fieldDefinition == null ? null : unwrapAll(fieldDefinition.getType());
+            Measure children = measure(field.getSelectionSet(), fieldType);
+            int hydration = fieldDefinition != null && isHydrated(fieldDefinition) ? 1 : 0;
+            return new Measure(children.depth + 1,
+                    Measure.saturatedAdd(children.fields, 1),
+                    Measure.saturatedAdd(children.aliases, field.getAlias() != null ? 1 : 0),
+                    children.hydrationDepth + hydration);
+        }
+
+        private Measure measureFragment(String fragmentName) {
+            if (fragmentMeasures.containsKey(fragmentName)) {
+                return fragmentMeasures.get(fragmentName);
+            }
+            FragmentDefinition fragmentDefinition = fragments.get(fragmentName);
+            if (fragmentDefinition == null) {
+                return Measure.EMPTY;
+            }
+            // fragment cycles are only rejected by validation, so a fragment spread inside itself counts as empty
+            fragmentMeasures.put(fragmentName, Measure.EMPTY);
+            Measure measure = measure(fragmentDefinition.getSelectionSet(), schema.getType(fragmentDefinition.getTypeCondition().getName()));
+            fragmentMeasures.put(fragmentName, measure);
+            return measure;
+        }
+    }
+}
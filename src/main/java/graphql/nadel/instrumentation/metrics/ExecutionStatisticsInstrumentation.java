@@ -0,0 +1,100 @@
+package graphql.nadel.instrumentation.metrics;
+
+import graphql.ExecutionResult;
+import graphql.ExecutionResultImpl;
+import graphql.PublicApi;
+import graphql.execution.instrumentation.InstrumentationContext;
+import graphql.execution.instrumentation.InstrumentationState;
+import graphql.execution.nextgen.result.ExecutionResultNode;
+import graphql.nadel.instrumentation.TracingSampler;
+import graphql.nadel.instrumentation.parameters.NadelInstrumentationCreateStateParameters;
+import graphql.nadel.instrumentation.parameters.NadelInstrumentationQueryExecutionParameters;
+import graphql.nadel.instrumentation.parameters.NadelInstrumentationResultConversionParameters;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Adds statistics about the execution of a request to the "nadel" extension of its result, for example:
+ *
+ * <pre>
+ * "nadel": {
+ *     "serviceCalls": {"Issues": 1, "Users": 2},
+ *     "hydrations": [{"level": 1, "inputCount": 30, "calls": 2, "services": ["Users"]}],
+ *     "nodesConverted": 245,
+ *     "phaseNanos": {"PARSE": 81234, "VALIDATE": 190311, ...}
+ * }
+ * </pre>
+ *
+ * Phase times are totals, so the times of phases that run concurrently, like service calls, can add up to more than
+ * the duration of the request.  A {@link TracingSampler} can limit the statistics to some requests, the others then
+ * get no state and pass through every step of this instrumentation without any work.
+ */
+@PublicApi
+public class ExecutionStatisticsInstrumentation extends RequestStatisticsInstrumentation {
+
+    public static final String EXTENSION_KEY = "nadel";
+
+    private final TracingSampler sampler;
+
+    public ExecutionStatisticsInstrumentation() {
+        this(TracingSampler.always());
+    }
+
+    public ExecutionStatisticsInstrumentation(TracingSampler sampler) {
+        this.sampler = requireNonNull(sampler);
+    }
+
+    @Override
+    public InstrumentationState createState(NadelInstrumentationCreateStateParameters parameters) {
+        return sampler.isSampled(parameters) ? new RequestStatistics() : null;
+    }
+
+    @Override
+    public InstrumentationContext<ExecutionResultNode> beginOverallResultConversion(NadelInstrumentationResultConversionParameters parameters) {
+        RequestStatistics statistics = parameters.getInstrumentationState();
+        if (statistics != null) {
+            // counting walks the whole result, so only requests that report it pay for it
+            statistics.nodesConverted(parameters.getNodeCount());
+        }
+        return super.beginOverallResultConversion(parameters);
+    }
+
+    @Override
+    public CompletableFuture<ExecutionResult> instrumentExecutionResult(ExecutionResult executionResult, NadelInstrumentationQueryExecutionParameters parameters) {
+        RequestStatistics statistics = parameters.getInstrumentationState();
+        if (statistics == null) {
+            return CompletableFuture.completedFuture(executionResult);
+        }
+        ExecutionResult newResult = ExecutionResultImpl.newExecutionResult().from(executionResult)
+                .addExtension(EXTENSION_KEY, toExtension(statistics))
+                .build();
+        return CompletableFuture.completedFuture(newResult);
+    }
+
+    private static Map<String, Object> toExtension(RequestStatistics statistics) {
+        List<Map<String, Object>> hydrations = new ArrayList<>();
+        for (RequestStatistics.HydrationLevel hydrationLevel : statistics.getHydrationLevels()) {
+            Map<String, Object> hydration = new LinkedHashMap<>();
+            hydration.put("level", hydrationLevel.level);
+            hydration.put("inputCount", hydrationLevel.inputCount);
+            hydration.put("calls", hydrationLevel.calls.get());
+            hydration.put("services", new ArrayList<>(hydrationLevel.serviceNames));
+            hydrations.add(hydration);
+        }
+        Map<String, Long> phaseNanos = new LinkedHashMap<>();
+        statistics.getPhaseNanos().forEach((phase, nanos) -> phaseNanos.put(phase.name(), nanos));
+
+        Map<String, Object> extension = new LinkedHashMap<>();
+        extension.put("serviceCalls", statistics.getServiceCalls());
+        extension.put("hydrations", hydrations);
+        extension.put("nodesConverted", statistics.getConvertedNodes());
+        extension.put("phaseNanos", phaseNanos);
+        return extension;
+    }
+}
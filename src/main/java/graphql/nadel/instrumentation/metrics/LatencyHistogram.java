@@ -0,0 +1,168 @@
+package graphql.nadel.instrumentation.metrics;
+
+import graphql.PublicApi;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import static graphql.Assert.assertTrue;
+
+/**
+ * A lock free histogram of durations in nanoseconds.
+ *
+ * Like a HDR histogram it counts values in log-linear buckets: every power of two range is split into 32 buckets, so
+ * a percentile is reported with a relative error of at most about 3% no matter how large the values are, and
+ * recording a value is a couple of atomic increments.  Reads are not atomic with respect to concurrent writes, so a
+ * percentile read while values are recorded may or may not include them.
+ *
+ * The buckets cover every long value and take 1888 longs, about 15 KB per histogram.
+ */
+@PublicApi
+public class LatencyHistogram {
+
+    /**
+     * 32 buckets per power of two up to the largest long
+     */
+    static final Buckets PRECISE = new Buckets(5, Long.SIZE - 2);
+    /**
+     * 8 buckets per power of two, so a relative error of at most about 12%, up to 2^37 nanoseconds (about 137
+     * seconds) with 280 longs, about 2 KB per histogram.  Longer values are counted in the last bucket.
+     */
+    static final Buckets COARSE = new Buckets(3, 36);
+
+    private final Buckets buckets;
+    private final AtomicLongArray counts;
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    public LatencyHistogram() {
+        this(PRECISE);
+    }
+
+    LatencyHistogram(Buckets buckets) {
+        this.buckets = buckets;
+        this.counts = new AtomicLongArray(buckets.count);
+    }
+
+    /**
+     * @param nanos the duration to record, negative durations are recorded as zero
+     */
+    public void record(long nanos) {
+        long value = Math.max(nanos, 0);
+        counts.incrementAndGet(buckets.bucketIndex(value));
+        count.increment();
+        sum.add(value);
+        max.accumulate(value);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getTotal(TimeUnit timeUnit) {
+        return timeUnit.convert(sum.sum(), TimeUnit.NANOSECONDS);
+    }
+
+    public long getMax(TimeUnit timeUnit) {
+        return timeUnit.convert(max.get(), TimeUnit.NANOSECONDS);
+    }
+
+    public double getMean(TimeUnit timeUnit) {
+        long n = count.sum();
+        return n == 0 ? 0 : (double) sum.sum() / n / TimeUnit.NANOSECONDS.convert(1, timeUnit);
+    }
+
+    /**
+     * @param percentile a percentile between 0 and 100
+     * @param timeUnit   the unit to return the value in
+     *
+     * @return the value below which the given percentage of the recorded values fall or 0 if nothing was recorded
+     */
+    public long getValueAtPercentile(double percentile, TimeUnit timeUnit) {
+        long[] snapshot = new long[buckets.count];
+        addCountsTo(snapshot);
+        return buckets.valueAtPercentile(snapshot, max.get(), percentile, timeUnit);
+    }
+
+    /**
+     * Adds the bucket counts of this histogram to the given counts, so that histograms can be merged
+     */
+    void addCountsTo(long[] bucketCounts) {
+        for (int i = 0; i < counts.length(); i++) {
+            bucketCounts[i] += counts.get(i);
+        }
+    }
+
+    long getMaxNanos() {
+        return max.get();
+    }
+
+    /**
+     * The log-linear layout of the buckets of a histogram: values below twice the number of sub buckets have a bucket
+     * each, every power of two range above is split into the sub buckets up to the max exponent.
+     */
+    static final class Buckets {
+        private final int subBucketBits;
+        private final int subBucketCount;
+        private final int linearLimit;
+        private final int linearLimitExponent;
+        private final int maxExponent;
+        final int count;
+
+        Buckets(int subBucketBits, int maxExponent) {
+            this.subBucketBits = subBucketBits;
+            this.subBucketCount = 1 << subBucketBits;
+            this.linearLimit = subBucketCount << 1;
+            this.linearLimitExponent = subBucketBits + 1;
+            this.maxExponent = maxExponent;
+            this.count = linearLimit + (maxExponent - linearLimitExponent + 1) * subBucketCount;
+        }
+
+        long valueAtPercentile(long[] bucketCounts, long maxNanos, double percentile, TimeUnit timeUnit) {
+            assertTrue(percentile >= 0 && percentile <= 100, "percentile must be between 0 and 100");
+            long total = 0;
+            for (long bucketCount : bucketCounts) {
+                total += bucketCount;
+            }
+            if (total == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+            long seen = 0;
+            for (int i = 0; i < count; i++) {
+                seen += bucketCounts[i];
+                // the last bucket is open ended, so the max is the best guess for it
+                if (seen >= rank && i < count - 1) {
+                    return timeUnit.convert(Math.min(highestValueInBucket(i), maxNanos), TimeUnit.NANOSECONDS);
+                }
+            }
+            return timeUnit.convert(maxNanos, TimeUnit.NANOSECONDS);
+        }
+
+        int bucketIndex(long value) {
+            if (value < linearLimit) {
+                return (int) value;
+            }
+            int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+            if (exponent > maxExponent) {
+                return count - 1;
+            }
+            int shift = exponent - subBucketBits;
+            int subBucket = (int) (value >>> shift) - subBucketCount;
+            return linearLimit + (exponent - linearLimitExponent) * subBucketCount + subBucket;
+        }
+
+        long highestValueInBucket(int index) {
+            if (index < linearLimit) {
+                return index;
+            }
+            int exponent = (index - linearLimit) / subBucketCount + linearLimitExponent;
+            long subBucket = (index - linearLimit) % subBucketCount + subBucketCount;
+            int shift = exponent - subBucketBits;
+            return ((subBucket + 1) << shift) - 1;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package graphql.nadel.instrumentation.metrics;
+
+import graphql.PublicSpi;
+
+/**
+ * Publishes the metrics of a {@link MetricsRegistry} to a monitoring system, see {@link MetricsRegistry#exportTo(MetricsExporter)}.
+ *
+ * The metrics are cumulative since the registry was created, so an exporter that reports deltas has to keep the
+ * previously exported values itself.
+ */
+@PublicSpi
+public interface MetricsExporter {
+
+    /**
+     * Called once per export for every service that has been called
+     *
+     * @param serviceMetrics the calls made to the service
+     */
+    void exportServiceMetrics(ServiceMetrics serviceMetrics);
+
+    /**
+     * Called once per export for every phase that has been timed
+     *
+     * @param phase    the phase
+     * @param timings  the durations of the phase
+     */
+    void exportPhaseTimings(Phase phase, LatencyHistogram timings);
+}
@@ -0,0 +1,71 @@
+package graphql.nadel.instrumentation.metrics;
+
+import graphql.PublicApi;
+import graphql.execution.instrumentation.InstrumentationContext;
+import graphql.execution.instrumentation.InstrumentationState;
+import graphql.nadel.ServiceExecution;
+import graphql.nadel.ServiceExecutionResult;
+import graphql.nadel.instrumentation.parameters.NadelInstrumentationServiceExecutionParameters;
+
+import java.util.concurrent.CompletableFuture;
+
+import static graphql.execution.instrumentation.SimpleInstrumentationContext.whenCompleted;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Records the latency, the number of in flight calls and the errors of every service call, and the time spent in
+ * each {@link Phase} of a request, into a {@link MetricsRegistry}.
+ *
+ * Everything is timed with {@link System#nanoTime()} and recorded without locks, so this can stay on in production.
+ * Combine it with other instrumentations using a {@link graphql.nadel.instrumentation.ChainedNadelInstrumentation}.
+ */
+@PublicApi
+public class MetricsNadelInstrumentation extends PhaseTimingInstrumentation {
+
+    private final MetricsRegistry metricsRegistry;
+
+    public MetricsNadelInstrumentation(MetricsRegistry metricsRegistry) {
+        this.metricsRegistry = requireNonNull(metricsRegistry);
+    }
+
+    public MetricsRegistry getMetricsRegistry() {
+        return metricsRegistry;
+    }
+
+    @Override
+    public ServiceExecution instrumentServiceExecution(ServiceExecution serviceExecution, NadelInstrumentationServiceExecutionParameters parameters) {
+        ServiceMetrics serviceMetrics = metricsRegistry.getServiceMetrics(parameters.getService().getName());
+        return serviceExecutionParameters -> {
+            long startTime = System.nanoTime();
+            serviceMetrics.callStarted();
+            CompletableFuture<ServiceExecutionResult> result;
+            try {
+                result = serviceExecution.execute(serviceExecutionParameters);
+            } catch (RuntimeException e) {
+                recordServiceCall(serviceMetrics, startTime, true);
+                throw e;
+            }
+            if (result == null) {
+                recordServiceCall(serviceMetrics, startTime, true);
+                return null;
+            }
+            return result.whenComplete((serviceExecutionResult, throwable) -> {
+                boolean failed = throwable != null || serviceExecutionResult == null || !serviceExecutionResult.getErrors().isEmpty();
+                recordServiceCall(serviceMetrics, startTime, failed);
+            });
+        };
+    }
+
+    private void recordServiceCall(ServiceMetrics serviceMetrics, long startTime, boolean failed) {
+        long elapsedTime = System.nanoTime() - startTime;
+        serviceMetrics.callCompleted(elapsedTime, failed);
+        metricsRegistry.getPhaseTimings(Phase.SERVICE).record(elapsedTime);
+    }
+
+    @Override
+    <T> InstrumentationContext<T> timePhase(InstrumentationState instrumentationState, Phase phase) {
+        long startTime = System.nanoTime();
+        LatencyHistogram timings = metricsRegistry.getPhaseTimings(phase);
+        return whenCompleted((result, throwable) -> timings.record(System.nanoTime() - startTime));
+    }
+}
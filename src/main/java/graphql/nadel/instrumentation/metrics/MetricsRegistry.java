@@ -0,0 +1,57 @@
+package graphql.nadel.instrumentation.metrics;
+
+import graphql.PublicApi;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Holds the metrics recorded by a {@link MetricsNadelInstrumentation} in memory.  Read them directly, for example in
+ * tests, or publish them periodically with {@link #exportTo(MetricsExporter)}.
+ */
+@PublicApi
+public class MetricsRegistry {
+
+    private final Map<String, ServiceMetrics> serviceMetrics = new ConcurrentHashMap<>();
+    private final Map<Phase, LatencyHistogram> phaseTimings = new EnumMap<>(Phase.class);
+
+    public MetricsRegistry() {
+        for (Phase phase : Phase.values()) {
+            phaseTimings.put(phase, new LatencyHistogram());
+        }
+    }
+
+    /**
+     * @param serviceName the name of a service
+     *
+     * @return the metrics of the service, which are created on first use
+     */
+    public ServiceMetrics getServiceMetrics(String serviceName) {
+        return serviceMetrics.computeIfAbsent(serviceName, ServiceMetrics::new);
+    }
+
+    /**
+     * @return the metrics of all services called so far by service name
+     */
+    public Map<String, ServiceMetrics> getAllServiceMetrics() {
+        return Collections.unmodifiableMap(new LinkedHashMap<>(serviceMetrics));
+    }
+
+    public LatencyHistogram getPhaseTimings(Phase phase) {
+        return phaseTimings.get(phase);
+    }
+
+    public void exportTo(MetricsExporter exporter) {
+        for (ServiceMetrics metrics : serviceMetrics.values()) {
+            exporter.exportServiceMetrics(metrics);
+        }
+        for (Map.Entry<Phase, LatencyHistogram> entry : phaseTimings.entrySet()) {
+            if (entry.getValue().getCount() > 0) {
+                exporter.exportPhaseTimings(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package graphql.nadel.instrumentation.metrics;
+
+import graphql.PublicApi;
+
+/**
+ * The phases of a request that {@link MetricsNadelInstrumentation} times
+ */
+@PublicApi
+public enum Phase {
+    /**
+     * Parsing the query document
+     */
+    PARSE,
+    /**
+     * Validating the query document against the overall schema
+     */
+    VALIDATE,
+    /**
+     * Executing the operation, from the first service call to the merged overall result
+     */
+    EXECUTE,
+    /**
+     * Transforming the overall query into the query of one service call
+     */
+    PLAN,
+    /**
+     * One call to an underlying service, as seen by Nadel
+     */
+    SERVICE,
+    /**
+     * One conversion of a service result towards the overall result, which is either turning the raw service result
+     * into result nodes, converting those into the overall schema or removing the fields Nadel added to the query
+     */
+    CONVERT,
+    /**
+     * Resolving one level of hydrated fields, including its service calls
+     */
+    HYDRATE
+}
@@ -0,0 +1,73 @@
+package graphql.nadel.instrumentation.metrics;
+
+import graphql.ExecutionResult;
+import graphql.execution.instrumentation.InstrumentationContext;
+import graphql.execution.instrumentation.InstrumentationState;
+import graphql.execution.nextgen.result.ExecutionResultNode;
+import graphql.language.Document;
+import graphql.nadel.instrumentation.NadelInstrumentation;
+import graphql.nadel.instrumentation.parameters.NadelInstrumentationExecuteOperationParameters;
+import graphql.nadel.instrumentation.parameters.NadelInstrumentationHydrationParameters;
+import graphql.nadel.instrumentation.parameters.NadelInstrumentationQueryExecutionParameters;
+import graphql.nadel.instrumentation.parameters.NadelInstrumentationQueryTransformParameters;
+import graphql.nadel.instrumentation.parameters.NadelInstrumentationResultConversionParameters;
+import graphql.nadel.instrumentation.parameters.NadelNadelInstrumentationQueryValidationParameters;
+import graphql.validation.ValidationError;
+
+import java.util.List;
+
+/**
+ * Maps the instrumentation methods onto the {@link Phase}s they time and leaves it to subclasses where the times go.
+ * {@link Phase#SERVICE} has no method of its own, subclasses time it around the service execution.
+ */
+abstract class PhaseTimingInstrumentation implements NadelInstrumentation {
+
+    /**
+     * @param instrumentationState the state of the request
+     * @param phase                the phase that begins
+     * @param <T>                  the result type of the phase
+     *
+     * @return the context that is completed once the phase has ended
+     */
+    abstract <T> InstrumentationContext<T> timePhase(InstrumentationState instrumentationState, Phase phase);
+
+    @Override
+    public InstrumentationContext<Document> beginParse(NadelInstrumentationQueryExecutionParameters parameters) {
+        return timePhase(parameters.getInstrumentationState(), Phase.PARSE);
+    }
+
+    @Override
+    public InstrumentationContext<List<ValidationError>> beginValidation(NadelNadelInstrumentationQueryValidationParameters parameters) {
+        return timePhase(parameters.getInstrumentationState(), Phase.VALIDATE);
+    }
+
+    @Override
+    public InstrumentationContext<ExecutionResult> beginExecute(NadelInstrumentationExecuteOperationParameters parameters) {
+        return timePhase(parameters.getInstrumentationState(), Phase.EXECUTE);
+    }
+
+    @Override
+    public InstrumentationContext<Document> beginQueryTransform(NadelInstrumentationQueryTransformParameters parameters) {
+        return timePhase(parameters.getInstrumentationState(), Phase.PLAN);
+    }
+
+    @Override
+    public InstrumentationContext<ExecutionResultNode> beginServiceResultConversion(NadelInstrumentationResultConversionParameters parameters) {
+        return timePhase(parameters.getInstrumentationState(), Phase.CONVERT);
+    }
+
+    @Override
+    public InstrumentationContext<ExecutionResultNode> beginOverallResultConversion(NadelInstrumentationResultConversionParameters parameters) {
+        return timePhase(parameters.getInstrumentationState(), Phase.CONVERT);
+    }
+
+    @Override
+    public InstrumentationContext<ExecutionResultNode> beginArtificialFieldRemoval(NadelInstrumentationResultConversionParameters parameters) {
+        return timePhase(parameters.getInstrumentationState(), Phase.CONVERT);
+    }
+
+    @Override
+    public InstrumentationContext<ExecutionResultNode> beginHydration(NadelInstrumentationHydrationParameters parameters) {
+        return timePhase(parameters.getInstrumentationState(), Phase.HYDRATE);
+    }
+}
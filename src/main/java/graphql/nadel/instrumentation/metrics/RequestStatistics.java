@@ -0,0 +1,105 @@
+package graphql.nadel.instrumentation.metrics;
+
+import graphql.execution.instrumentation.InstrumentationState;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * What {@link RequestStatisticsInstrumentation} collects about one request.  Service calls and conversions of a
+ * request can run on several threads at once, so everything is recorded without locks.
+ */
+class RequestStatistics implements InstrumentationState {
+
+    private final Map<String, AtomicInteger> serviceCalls = new ConcurrentHashMap<>();
+    private final AtomicLongArray phaseNanos = new AtomicLongArray(Phase.values().length);
+    private final Map<Integer, HydrationLevel> hydrationLevels = new ConcurrentSkipListMap<>();
+    private final LongAdder convertedNodes = new LongAdder();
+    private volatile String operationName;
+
+    /**
+     * @param serviceName    the called service
+     * @param hydrationLevel the level of hydration the call resolves or 0 if it is not a hydration call
+     */
+    void serviceCalled(String serviceName, int hydrationLevel) {
+        serviceCalls.computeIfAbsent(serviceName, name -> new AtomicInteger()).incrementAndGet();
+        HydrationLevel level = hydrationLevels.get(hydrationLevel);
+        if (level != null) {
+            level.calls.incrementAndGet();
+        }
+    }
+
+    void hydrationStarted(int level, int inputCount, Set<String> serviceNames) {
+        hydrationLevels.put(level, new HydrationLevel(level, inputCount, serviceNames));
+    }
+
+    void addPhaseTime(Phase phase, long nanos) {
+        phaseNanos.addAndGet(phase.ordinal(), nanos);
+    }
+
+    void nodesConverted(int nodeCount) {
+        convertedNodes.add(nodeCount);
+    }
+
+    void setOperationName(String operationName) {
+        this.operationName = operationName;
+    }
+
+    /**
+     * @return the operation name of the executed operation or null if the request did not get to execution or the
+     * operation has no name
+     */
+    String getOperationName() {
+        return operationName;
+    }
+
+    Map<String, Integer> getServiceCalls() {
+        Map<String, Integer> result = new LinkedHashMap<>();
+        serviceCalls.forEach((serviceName, calls) -> result.put(serviceName, calls.get()));
+        return result;
+    }
+
+    /**
+     * @return the time spent in every phase the request went through
+     */
+    Map<Phase, Long> getPhaseNanos() {
+        Map<Phase, Long> result = new EnumMap<>(Phase.class);
+        for (Phase phase : Phase.values()) {
+            long nanos = phaseNanos.get(phase.ordinal());
+            if (nanos > 0) {
+                result.put(phase, nanos);
+            }
+        }
+        return result;
+    }
+
+    List<HydrationLevel> getHydrationLevels() {
+        return new ArrayList<>(hydrationLevels.values());
+    }
+
+    long getConvertedNodes() {
+        return convertedNodes.sum();
+    }
+
+    static class HydrationLevel {
+        final int level;
+        final int inputCount;
+        final Set<String> serviceNames;
+        final AtomicInteger calls = new AtomicInteger();
+
+        HydrationLevel(int level, int inputCount, Set<String> serviceNames) {
+            this.level = level;
+            this.inputCount = inputCount;
+            this.serviceNames = serviceNames;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package graphql.nadel.instrumentation.metrics;
+
+import graphql.ExecutionResult;
+import graphql.execution.instrumentation.InstrumentationContext;
+import graphql.execution.instrumentation.InstrumentationState;
+import graphql.execution.nextgen.result.ExecutionResultNode;
+import graphql.language.OperationDefinition;
+import graphql.nadel.ServiceExecution;
+import graphql.nadel.ServiceExecutionResult;
+import graphql.nadel.instrumentation.parameters.NadelInstrumentationExecuteOperationParameters;
+import graphql.nadel.instrumentation.parameters.NadelInstrumentationHydrationParameters;
+import graphql.nadel.instrumentation.parameters.NadelInstrumentationServiceExecutionParameters;
+
+import java.util.concurrent.CompletableFuture;
+
+import static graphql.execution.instrumentation.SimpleInstrumentationContext.noOp;
+import static graphql.execution.instrumentation.SimpleInstrumentationContext.whenCompleted;
+
+/**
+ * Collects the {@link RequestStatistics} of every request that has them as its instrumentation state.  Requests
+ * without state are passed through untouched.
+ */
+abstract class RequestStatisticsInstrumentation extends PhaseTimingInstrumentation {
+
+    private static final InstrumentationContext<Object> NO_OP = noOp();
+
+    @Override
+    public InstrumentationContext<ExecutionResult> beginExecute(NadelInstrumentationExecuteOperationParameters parameters) {
+        RequestStatistics statistics = parameters.getInstrumentationState();
+        if (statistics != null) {
+            // the operation name of the document, which requests with a single operation do not have to repeat
+            OperationDefinition operationDefinition = parameters.getExecutionContext().getOperationDefinition();
+            statistics.setOperationName(operationDefinition.getName());
+        }
+        return super.beginExecute(parameters);
+    }
+
+    @Override
+    public InstrumentationContext<ExecutionResultNode> beginHydration(NadelInstrumentationHydrationParameters parameters) {
+        RequestStatistics statistics = parameters.getInstrumentationState();
+        if (statistics != null) {
+            statistics.hydrationStarted(parameters.getLevel(), parameters.getHydrationInputCount(), parameters.getServiceNames());
+        }
+        return super.beginHydration(parameters);
+    }
+
+    @Override
+    public ServiceExecution instrumentServiceExecution(ServiceExecution serviceExecution, NadelInstrumentationServiceExecutionParameters parameters) {
+        RequestStatistics statistics = parameters.getInstrumentationState();
+        if (statistics == null) {
+            return serviceExecution;
+        }
+        String serviceName = parameters.getService().getName();
+        return serviceExecutionParameters -> {
+            long startTime = System.nanoTime();
+            statistics.serviceCalled(serviceName, serviceExecutionParameters.getHydrationLevel());
+            CompletableFuture<ServiceExecutionResult> result;
+            try {
+                result = serviceExecution.execute(serviceExecutionParameters);
+            } catch (RuntimeException e) {
+                statistics.addPhaseTime(Phase.SERVICE, System.nanoTime() - startTime);
+                throw e;
+            }
+            if (result == null) {
+                statistics.addPhaseTime(Phase.SERVICE, System.nanoTime() - startTime);
+                return null;
+            }
+            return result.whenComplete((serviceExecutionResult, throwable) -> statistics.addPhaseTime(Phase.SERVICE, System.nanoTime() - startTime));
+        };
+    }
+
+    @Override
+    <T> InstrumentationContext<T> timePhase(InstrumentationState instrumentationState, Phase phase) {
+        RequestStatistics statistics = (RequestStatistics) instrumentationState;
+        if (statistics == null) {
+            //noinspection unchecked
+            return (InstrumentationContext<T>) NO_OP;
+        }
+        long startTime = System.nanoTime();
+        return whenCompleted((result, throwable) -> statistics.addPhaseTime(phase, System.nanoTime() - startTime));
+    }
+}
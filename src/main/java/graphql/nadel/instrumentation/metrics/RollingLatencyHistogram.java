@@ -0,0 +1,113 @@
+package graphql.nadel.instrumentation.metrics;
+
+import graphql.PublicApi;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.LongSupplier;
+
+import static graphql.Assert.assertTrue;
+
+/**
+ * A {@link LatencyHistogram} over a sliding time window.  The window is split into a fixed number of slices with a
+ * histogram each, and a slice is replaced by an empty one once it has fallen out of the window, so the memory used
+ * is bounded and recording a value stays lock free.  Percentiles are read over the slices that are still in the window.
+ *
+ * Slices count in coarser buckets than a {@link LatencyHistogram}: 8 per power of two, so percentiles are within
+ * about 12%, and values above about 137 seconds are reported as the max.  A slice takes about 2.3 KB and is only
+ * allocated once a value is recorded in it, so a histogram takes at most the slice count times that, about 14 KB with
+ * 6 slices, and every slice that rolls over allocates a new one.
+ */
+@PublicApi
+public class RollingLatencyHistogram {
+
+    private final long sliceNanos;
+    private final LongSupplier nanoTime;
+    private final AtomicReferenceArray<Slice> slices;
+
+    /**
+     * @param window     the length of the window
+     * @param sliceCount the number of slices the window is split into
+     * @param timeUnit   the unit of the window length
+     */
+    public RollingLatencyHistogram(long window, int sliceCount, TimeUnit timeUnit) {
+        this(window, sliceCount, timeUnit, System::nanoTime);
+    }
+
+    RollingLatencyHistogram(long window, int sliceCount, TimeUnit timeUnit, LongSupplier nanoTime) {
+        assertTrue(sliceCount > 0, "sliceCount must be greater than zero");
+        assertTrue(timeUnit.toNanos(window) >= sliceCount, "window must be at least one nanosecond per slice");
+        this.sliceNanos = timeUnit.toNanos(window) / sliceCount;
+        this.nanoTime = nanoTime;
+        this.slices = new AtomicReferenceArray<>(sliceCount);
+    }
+
+    /**
+     * @param nanos the duration to record, negative durations are recorded as zero
+     */
+    public void record(long nanos) {
+        long sliceNumber = Math.floorDiv(nanoTime.getAsLong(), sliceNanos);
+        int index = (int) Math.floorMod(sliceNumber, (long) slices.length());
+        Slice slice = slices.get(index);
+        while (slice == null || slice.sliceNumber < sliceNumber) {
+            Slice newSlice = new Slice(sliceNumber);
+            if (slices.compareAndSet(index, slice, newSlice)) {
+                slice = newSlice;
+            } else {
+                slice = slices.get(index);
+            }
+        }
+        // a slice newer than ours means this thread was descheduled for a whole window, the value is then dropped
+        if (slice.sliceNumber == sliceNumber) {
+            slice.histogram.record(nanos);
+        }
+    }
+
+    /**
+     * @return the number of values recorded in the window
+     */
+    public long getCount() {
+        long count = 0;
+        long oldestSliceNumber = oldestSliceNumber();
+        for (int i = 0; i < slices.length(); i++) {
+            Slice slice = slices.get(i);
+            if (slice != null && slice.sliceNumber >= oldestSliceNumber) {
+                count += slice.histogram.getCount();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @param percentile a percentile between 0 and 100
+     * @param timeUnit   the unit to return the value in
+     *
+     * @return the value below which the given percentage of the values recorded in the window fall or 0 if nothing was recorded
+     */
+    public long getValueAtPercentile(double percentile, TimeUnit timeUnit) {
+        long[] bucketCounts = new long[LatencyHistogram.COARSE.count];
+        long maxNanos = 0;
+        long oldestSliceNumber = oldestSliceNumber();
+        for (int i = 0; i < slices.length(); i++) {
+            Slice slice = slices.get(i);
+            if (slice != null && slice.sliceNumber >= oldestSliceNumber) {
+                slice.histogram.addCountsTo(bucketCounts);
+                maxNanos = Math.max(maxNanos, slice.histogram.getMaxNanos());
+            }
+        }
+        return LatencyHistogram.COARSE.valueAtPercentile(bucketCounts, maxNanos, percentile, timeUnit);
+    }
+
+    private long oldestSliceNumber() {
+        return Math.floorDiv(nanoTime.getAsLong(), sliceNanos) - slices.length() + 1;
+    }
+
+    private static class Slice {
+        private final long sliceNumber;
+        private final LatencyHistogram histogram = new LatencyHistogram(LatencyHistogram.COARSE);
+
+        Slice(long sliceNumber) {
+            this.sliceNumber = sliceNumber;
+        }
+    }
+}
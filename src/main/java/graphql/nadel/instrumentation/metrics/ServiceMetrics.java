@@ -0,0 +1,67 @@
+package graphql.nadel.instrumentation.metrics;
+
+import graphql.PublicApi;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The calls made to one underlying service
+ */
+@PublicApi
+public class ServiceMetrics {
+
+    private final String serviceName;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder errorCount = new LongAdder();
+    private final AtomicLong inFlightCount = new AtomicLong();
+
+    ServiceMetrics(String serviceName) {
+        this.serviceName = serviceName;
+    }
+
+    void callStarted() {
+        inFlightCount.incrementAndGet();
+    }
+
+    void callCompleted(long nanos, boolean failed) {
+        inFlightCount.decrementAndGet();
+        latency.record(nanos);
+        if (failed) {
+            errorCount.increment();
+        }
+    }
+
+    public String getServiceName() {
+        return serviceName;
+    }
+
+    /**
+     * @return the latencies of completed calls, which also gives the number of calls
+     */
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    /**
+     * @return the number of calls that failed or returned errors
+     */
+    public long getErrorCount() {
+        return errorCount.sum();
+    }
+
+    /**
+     * @return the number of calls that have started but not yet completed
+     */
+    public long getInFlightCount() {
+        return inFlightCount.get();
+    }
+
+    /**
+     * @return the fraction of completed calls that failed or returned errors
+     */
+    public double getErrorRate() {
+        long callCount = latency.getCount();
+        return callCount == 0 ? 0 : (double) getErrorCount() / callCount;
+    }
+}
@@ -0,0 +1,204 @@
+package graphql.nadel.instrumentation.metrics;
+
+import graphql.ExecutionResult;
+import graphql.PublicApi;
+import graphql.execution.instrumentation.InstrumentationContext;
+import graphql.execution.instrumentation.InstrumentationState;
+import graphql.nadel.instrumentation.parameters.NadelInstrumentationCreateStateParameters;
+import graphql.nadel.instrumentation.parameters.NadelInstrumentationQueryExecutionParameters;
+import graphql.nadel.util.DigestUtil;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import static graphql.Assert.assertTrue;
+import static graphql.execution.instrumentation.SimpleInstrumentationContext.whenCompleted;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Keeps rolling latency percentiles of every operation and captures a {@link SlowQueryRecord} of every request that
+ * takes longer than the SLO of its operation into a {@link SlowQueryLog}, to diagnose tail latency without logging
+ * every request.
+ *
+ * The latencies of at most {@link Builder#maxOperations(int)} operation names are kept apart, requests of any further
+ * operation are recorded under {@link #OTHER_OPERATIONS}.  Requests without an operation name are recorded under
+ * {@link #ANONYMOUS_OPERATION}.
+ *
+ * Every operation takes up to the window slices times about 2.3 KB for its {@link RollingLatencyHistogram}, so with
+ * the defaults of 6 slices and 250 operations the latencies take at most about 3.5 MB.
+ */
+@PublicApi
+public class SloNadelInstrumentation extends RequestStatisticsInstrumentation {
+
+    public static final String ANONYMOUS_OPERATION = "(anonymous)";
+    public static final String OTHER_OPERATIONS = "(other)";
+
+    private final long defaultSloNanos;
+    private final Map<String, Long> operationSloNanos;
+    private final long windowNanos;
+    private final int windowSlices;
+    private final int maxOperations;
+    private final SlowQueryLog slowQueryLog;
+    private final Map<String, RollingLatencyHistogram> operationLatencies = new ConcurrentHashMap<>();
+    private final RollingLatencyHistogram otherOperationsLatency;
+
+    private SloNadelInstrumentation(Builder builder) {
+        this.defaultSloNanos = builder.defaultSloNanos;
+        this.operationSloNanos = new HashMap<>(builder.operationSloNanos);
+        this.windowNanos = builder.windowNanos;
+        this.windowSlices = builder.windowSlices;
+        this.maxOperations = builder.maxOperations;
+        this.slowQueryLog = builder.slowQueryLog;
+        this.otherOperationsLatency = new RollingLatencyHistogram(windowNanos, windowSlices, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @return the rolling latencies by operation name
+     */
+    public Map<String, RollingLatencyHistogram> getOperationLatencies() {
+        Map<String, RollingLatencyHistogram> latencies = new LinkedHashMap<>(operationLatencies);
+        latencies.put(OTHER_OPERATIONS, otherOperationsLatency);
+        return Collections.unmodifiableMap(latencies);
+    }
+
+    /**
+     * @param operationName the name of an operation, {@link #ANONYMOUS_OPERATION} or {@link #OTHER_OPERATIONS}
+     *
+     * @return the rolling latency of the operation or null if no request of it was recorded
+     */
+    public RollingLatencyHistogram getOperationLatency(String operationName) {
+        return OTHER_OPERATIONS.equals(operationName) ? otherOperationsLatency : operationLatencies.get(operationName);
+    }
+
+    public SlowQueryLog getSlowQueryLog() {
+        return slowQueryLog;
+    }
+
+    @Override
+    public InstrumentationState createState(NadelInstrumentationCreateStateParameters parameters) {
+        return new RequestStatistics();
+    }
+
+    @Override
+    public InstrumentationContext<ExecutionResult> beginQueryExecution(NadelInstrumentationQueryExecutionParameters parameters) {
+        RequestStatistics statistics = parameters.getInstrumentationState();
+        long startTime = System.nanoTime();
+        return whenCompleted((result, throwable) -> requestCompleted(parameters, statistics, System.nanoTime() - startTime));
+    }
+
+    private void requestCompleted(NadelInstrumentationQueryExecutionParameters parameters, RequestStatistics statistics, long durationNanos) {
+        String operationName = statistics.getOperationName() != null ? statistics.getOperationName() : parameters.getOperation();
+        latencyOf(operationName == null ? ANONYMOUS_OPERATION : operationName).record(durationNanos);
+
+        long sloNanos = operationName == null ? defaultSloNanos : operationSloNanos.getOrDefault(operationName, defaultSloNanos);
+        if (durationNanos <= sloNanos) {
+            return;
+        }
+        // only slow requests pay for hashing the query and copying what was collected
+        String query = parameters.getQuery();
+        List<Integer> hydrationInputCounts = new ArrayList<>();
+        for (RequestStatistics.HydrationLevel hydrationLevel : statistics.getHydrationLevels()) {
+            hydrationInputCounts.add(hydrationLevel.inputCount);
+        }
+        slowQueryLog.add(new SlowQueryRecord(operationName,
+                query == null ? null : DigestUtil.sha256Hex(query),
+                System.currentTimeMillis(),
+                durationNanos,
+                sloNanos,
+                statistics.getServiceCalls(),
+                statistics.getPhaseNanos(),
+                hydrationInputCounts));
+    }
+
+    private RollingLatencyHistogram latencyOf(String operationName) {
+        RollingLatencyHistogram latency = operationLatencies.get(operationName);
+        if (latency != null) {
+            return latency;
+        }
+        // the bound is checked without a lock, so a few more operations than the maximum may be kept under contention
+        if (operationLatencies.size() >= maxOperations) {
+            return otherOperationsLatency;
+        }
+        return operationLatencies.computeIfAbsent(operationName, name -> new RollingLatencyHistogram(windowNanos, windowSlices, TimeUnit.NANOSECONDS));
+    }
+
+    public static Builder newSloNadelInstrumentation() {
+        return new Builder();
+    }
+
+    public static class Builder {
+        private long defaultSloNanos = TimeUnit.SECONDS.toNanos(1);
+        private final Map<String, Long> operationSloNanos = new HashMap<>();
+        private long windowNanos = TimeUnit.MINUTES.toNanos(1);
+        private int windowSlices = 6;
+        private int maxOperations = 250;
+        private SlowQueryLog slowQueryLog;
+
+        private Builder() {
+        }
+
+        /**
+         * @param slo      the SLO of operations that have none of their own, one second by default
+         * @param timeUnit the unit of the SLO
+         *
+         * @return this builder
+         */
+        public Builder defaultSlo(long slo, TimeUnit timeUnit) {
+            this.defaultSloNanos = timeUnit.toNanos(slo);
+            return this;
+        }
+
+        public Builder operationSlo(String operationName, long slo, TimeUnit timeUnit) {
+            this.operationSloNanos.put(requireNonNull(operationName), timeUnit.toNanos(slo));
+            return this;
+        }
+
+        /**
+         * @param window   how far back the percentiles reach, one minute by default
+         * @param slices   how many steps the window moves forward in, 6 by default
+         * @param timeUnit the unit of the window
+         *
+         * @return this builder
+         */
+        public Builder window(long window, int slices, TimeUnit timeUnit) {
+            assertTrue(slices > 0 && timeUnit.toNanos(window) >= slices, "the window must be at least one nanosecond per slice");
+            this.windowNanos = timeUnit.toNanos(window);
+            this.windowSlices = slices;
+            return this;
+        }
+
+        /**
+         * @param maxOperations how many operation names to keep latencies of apart, 250 by default
+         *
+         * @return this builder
+         */
+        public Builder maxOperations(int maxOperations) {
+            assertTrue(maxOperations >= 0, "maxOperations must not be negative");
+            this.maxOperations = maxOperations;
+            return this;
+        }
+
+        /**
+         * @param slowQueryLog the log to capture slow requests into, by default a log of the latest 100 slow requests
+         *
+         * @return this builder
+         */
+        public Builder slowQueryLog(SlowQueryLog slowQueryLog) {
+            this.slowQueryLog = requireNonNull(slowQueryLog);
+            return this;
+        }
+
+        public SloNadelInstrumentation build() {
+            if (slowQueryLog == null) {
+                slowQueryLog = new SlowQueryLog(100);
+            }
+            return new SloNadelInstrumentation(this);
+        }
+    }
+}
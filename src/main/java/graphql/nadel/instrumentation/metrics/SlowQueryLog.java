@@ -0,0 +1,65 @@
+package graphql.nadel.instrumentation.metrics;
+
+import graphql.PublicApi;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static graphql.Assert.assertTrue;
+
+/**
+ * A lock free ring buffer of the latest {@link SlowQueryRecord}s.  Once it is full every new record replaces the oldest.
+ */
+@PublicApi
+public class SlowQueryLog {
+
+    private final AtomicReferenceArray<Entry> entries;
+    private final AtomicLong written = new AtomicLong();
+
+    public SlowQueryLog(int capacity) {
+        assertTrue(capacity > 0, "capacity must be greater than zero");
+        this.entries = new AtomicReferenceArray<>(capacity);
+    }
+
+    public void add(SlowQueryRecord record) {
+        long position = written.getAndIncrement();
+        entries.set((int) (position % entries.length()), new Entry(position, record));
+    }
+
+    /**
+     * @return the number of records added since the log was created, including the ones that were replaced since
+     */
+    public long getTotalCount() {
+        return written.get();
+    }
+
+    /**
+     * @return the records in the log from the oldest to the latest
+     */
+    public List<SlowQueryRecord> dump() {
+        long end = written.get();
+        long start = Math.max(0, end - entries.length());
+        List<SlowQueryRecord> result = new ArrayList<>();
+        for (long position = start; position < end; position++) {
+            Entry entry = entries.get((int) (position % entries.length()));
+            // a slot still holds the record of an earlier lap while its writer has not set it yet, or already holds
+            // a later one if writers lapped this dump, either way it is skipped
+            if (entry != null && entry.position == position) {
+                result.add(entry.record);
+            }
+        }
+        return result;
+    }
+
+    private static class Entry {
+        private final long position;
+        private final SlowQueryRecord record;
+
+        Entry(long position, SlowQueryRecord record) {
+            this.position = position;
+            this.record = record;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package graphql.nadel.instrumentation.metrics;
+
+import graphql.PublicApi;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A compact record of one request that took longer than the SLO of its operation, captured by
+ * {@link SloNadelInstrumentation}.  It holds a hash of the query rather than the query itself, and no variables.
+ */
+@PublicApi
+public class SlowQueryRecord {
+
+    private final String operationName;
+    private final String queryHash;
+    private final long timestampMillis;
+    private final long durationNanos;
+    private final long sloNanos;
+    private final Map<String, Integer> serviceCalls;
+    private final Map<Phase, Long> phaseNanos;
+    private final List<Integer> hydrationInputCounts;
+
+    SlowQueryRecord(String operationName,
+                    String queryHash,
+                    long timestampMillis,
+                    long durationNanos,
+                    long sloNanos,
+                    Map<String, Integer> serviceCalls,
+                    Map<Phase, Long> phaseNanos,
+                    List<Integer> hydrationInputCounts) {
+        this.operationName = operationName;
+        this.queryHash = queryHash;
+        this.timestampMillis = timestampMillis;
+        this.durationNanos = durationNanos;
+        this.sloNanos = sloNanos;
+        this.serviceCalls = Collections.unmodifiableMap(new LinkedHashMap<>(serviceCalls));
+        Map<Phase, Long> phaseNanosCopy = new EnumMap<>(Phase.class);
+        phaseNanosCopy.putAll(phaseNanos);
+        this.phaseNanos = Collections.unmodifiableMap(phaseNanosCopy);
+        this.hydrationInputCounts = Collections.unmodifiableList(hydrationInputCounts);
+    }
+
+    /**
+     * @return the operation name of the request or null if it had none
+     */
+    public String getOperationName() {
+        return operationName;
+    }
+
+    /**
+     * @return the hex encoded SHA-256 hash of the query, the same hash that persisted queries are identified by
+     */
+    public String getQueryHash() {
+        return queryHash;
+    }
+
+    /**
+     * @return when the request completed in milliseconds since the epoch
+     */
+    public long getTimestampMillis() {
+        return timestampMillis;
+    }
+
+    public long getDuration(TimeUnit timeUnit) {
+        return timeUnit.convert(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public long getSlo(TimeUnit timeUnit) {
+        return timeUnit.convert(sloNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @return the number of calls made to every service, including hydration calls
+     */
+    public Map<String, Integer> getServiceCalls() {
+        return serviceCalls;
+    }
+
+    /**
+     * @return the total time spent in every phase of the request in nanoseconds.  Phases that run concurrently, like
+     * service calls, can add up to more than the duration of the request
+     */
+    public Map<Phase, Long> getPhaseNanos() {
+        return phaseNanos;
+    }
+
+    /**
+     * @return the number of hydration inputs of every hydration level, in the order the levels completed
+     */
+    public List<Integer> getHydrationInputCounts() {
+        return hydrationInputCounts;
+    }
+
+    @Override
+    public String toString() {
+        return "SlowQueryRecord{" +
+                "operationName='" + operationName + '\'' +
+                ", queryHash='" + queryHash + '\'' +
+                ", timestampMillis=" + timestampMillis +
+                ", durationNanos=" + durationNanos +
+                ", sloNanos=" + sloNanos +
+                ", serviceCalls=" + serviceCalls +
+                ", phaseNanos=" + phaseNanos +
+                ", hydrationInputCounts=" + hydrationInputCounts +
+                '}';
+    }
+}
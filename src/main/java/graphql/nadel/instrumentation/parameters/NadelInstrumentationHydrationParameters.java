@@ -0,0 +1,68 @@
+package graphql.nadel.instrumentation.parameters;
+
+
+import graphql.execution.ExecutionContext;
+import graphql.execution.instrumentation.InstrumentationState;
+
+import java.util.Set;
+
+/**
+ * Parameters sent to {@link graphql.nadel.instrumentation.NadelInstrumentation} methods
+ */
+@SuppressWarnings("TypeParameterUnusedInFormals")
+public class NadelInstrumentationHydrationParameters {
+    private final ExecutionContext executionContext;
+    private final int level;
+    private final int hydrationInputCount;
+    private final Set<String> serviceNames;
+    private final InstrumentationState instrumentationState;
+
+    public NadelInstrumentationHydrationParameters(ExecutionContext executionContext, int level, int hydrationInputCount, Set<String> serviceNames, InstrumentationState instrumentationState) {
+        this.executionContext = executionContext;
+        this.level = level;
+        this.hydrationInputCount = hydrationInputCount;
+        this.serviceNames = serviceNames;
+        this.instrumentationState = instrumentationState;
+    }
+
+    /**
+     * Returns a cloned parameters object with the new state
+     *
+     * @param instrumentationState the new state for this parameters object
+     *
+     * @return a new parameters object with the new state
+     */
+    public NadelInstrumentationHydrationParameters withNewState(InstrumentationState instrumentationState) {
+        return new NadelInstrumentationHydrationParameters(executionContext, level, hydrationInputCount, serviceNames, instrumentationState);
+    }
+
+    public ExecutionContext getExecutionContext() {
+        return executionContext;
+    }
+
+    /**
+     * @return the hydration level, 1 for fields hydrated from the top level results, 2 for fields hydrated from those and so on
+     */
+    public int getLevel() {
+        return level;
+    }
+
+    /**
+     * @return the number of fields hydrated at this level
+     */
+    public int getHydrationInputCount() {
+        return hydrationInputCount;
+    }
+
+    /**
+     * @return the names of the services called at this level
+     */
+    public Set<String> getServiceNames() {
+        return serviceNames;
+    }
+
+    public <T extends InstrumentationState> T getInstrumentationState() {
+        //noinspection unchecked
+        return (T) instrumentationState;
+    }
+}
@@ -0,0 +1,41 @@
+package graphql.nadel.instrumentation.parameters;
+
+import graphql.ExecutionInput;
+import graphql.execution.instrumentation.InstrumentationState;
+import graphql.nadel.preparsed.DocumentCacheStatistics;
+import graphql.schema.GraphQLSchema;
+
+import java.util.function.Supplier;
+
+/**
+ * Parameters sent to {@link graphql.nadel.instrumentation.NadelInstrumentation} methods
+ */
+public class NadelInstrumentationPreparsedDocumentParameters extends NadelInstrumentationQueryExecutionParameters {
+    private final Supplier<DocumentCacheStatistics> documentCacheStatistics;
+
+    public NadelInstrumentationPreparsedDocumentParameters(ExecutionInput executionInput, GraphQLSchema schema, InstrumentationState instrumentationState, Supplier<DocumentCacheStatistics> documentCacheStatistics) {
+        super(executionInput, schema, instrumentationState);
+        this.documentCacheStatistics = documentCacheStatistics;
+    }
+
+    /**
+     * Returns a cloned parameters object with the new state
+     *
+     * @param instrumentationState the new state for this parameters object
+     *
+     * @return a new parameters object with the new state
+     */
+    @Override
+    public NadelInstrumentationPreparsedDocumentParameters withNewState(InstrumentationState instrumentationState) {
+        return new NadelInstrumentationPreparsedDocumentParameters(
+                this.getExecutionInput(), getSchema(), instrumentationState, documentCacheStatistics);
+    }
+
+    /**
+     * @return a snapshot of the statistics of the document cache taken when this is called or null if the
+     * {@link graphql.execution.preparsed.PreparsedDocumentProvider} in use does not keep statistics
+     */
+    public DocumentCacheStatistics getDocumentCacheStatistics() {
+        return documentCacheStatistics.get();
+    }
+}
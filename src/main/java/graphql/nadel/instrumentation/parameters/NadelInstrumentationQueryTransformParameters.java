@@ -0,0 +1,55 @@
+package graphql.nadel.instrumentation.parameters;
+
+
+import graphql.execution.ExecutionContext;
+import graphql.execution.instrumentation.InstrumentationState;
+import graphql.nadel.Service;
+
+/**
+ * Parameters sent to {@link graphql.nadel.instrumentation.NadelInstrumentation} methods
+ */
+@SuppressWarnings("TypeParameterUnusedInFormals")
+public class NadelInstrumentationQueryTransformParameters {
+    private final ExecutionContext executionContext;
+    private final Service service;
+    private final boolean hydrationCall;
+    private final InstrumentationState instrumentationState;
+
+    public NadelInstrumentationQueryTransformParameters(ExecutionContext executionContext, Service service, boolean hydrationCall, InstrumentationState instrumentationState) {
+        this.executionContext = executionContext;
+        this.service = service;
+        this.hydrationCall = hydrationCall;
+        this.instrumentationState = instrumentationState;
+    }
+
+    /**
+     * Returns a cloned parameters object with the new state
+     *
+     * @param instrumentationState the new state for this parameters object
+     *
+     * @return a new parameters object with the new state
+     */
+    public NadelInstrumentationQueryTransformParameters withNewState(InstrumentationState instrumentationState) {
+        return new NadelInstrumentationQueryTransformParameters(executionContext, service, hydrationCall, instrumentationState);
+    }
+
+    public ExecutionContext getExecutionContext() {
+        return executionContext;
+    }
+
+    /**
+     * @return the service the query is transformed for
+     */
+    public Service getService() {
+        return service;
+    }
+
+    public boolean isHydrationCall() {
+        return hydrationCall;
+    }
+
+    public <T extends InstrumentationState> T getInstrumentationState() {
+        //noinspection unchecked
+        return (T) instrumentationState;
+    }
+}
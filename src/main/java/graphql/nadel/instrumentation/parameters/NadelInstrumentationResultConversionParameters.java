@@ -0,0 +1,109 @@
+package graphql.nadel.instrumentation.parameters;
+
+
+import graphql.execution.ExecutionContext;
+import graphql.execution.instrumentation.InstrumentationState;
+import graphql.execution.nextgen.result.ExecutionResultNode;
+import graphql.nadel.Service;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Parameters sent to {@link graphql.nadel.instrumentation.NadelInstrumentation} methods
+ */
+@SuppressWarnings("TypeParameterUnusedInFormals")
+public class NadelInstrumentationResultConversionParameters {
+    private final ExecutionContext executionContext;
+    private final Service service;
+    private final ExecutionResultNode resultNode;
+    private final boolean hydrationCall;
+    private final InstrumentationState instrumentationState;
+    private final NodeCount nodeCount;
+
+    public NadelInstrumentationResultConversionParameters(ExecutionContext executionContext, Service service, ExecutionResultNode resultNode, boolean hydrationCall, InstrumentationState instrumentationState) {
+        this(executionContext, service, resultNode, hydrationCall, instrumentationState, new NodeCount());
+    }
+
+    private NadelInstrumentationResultConversionParameters(ExecutionContext executionContext, Service service, ExecutionResultNode resultNode, boolean hydrationCall, InstrumentationState instrumentationState, NodeCount nodeCount) {
+        this.executionContext = executionContext;
+        this.service = service;
+        this.resultNode = resultNode;
+        this.hydrationCall = hydrationCall;
+        this.instrumentationState = instrumentationState;
+        this.nodeCount = nodeCount;
+    }
+
+    /**
+     * Returns a cloned parameters object with the new state
+     *
+     * @param instrumentationState the new state for this parameters object
+     *
+     * @return a new parameters object with the new state
+     */
+    public NadelInstrumentationResultConversionParameters withNewState(InstrumentationState instrumentationState) {
+        // chained instrumentations share the count, so the nodes are counted at most once
+        return new NadelInstrumentationResultConversionParameters(executionContext, service, resultNode, hydrationCall, instrumentationState, nodeCount);
+    }
+
+    public ExecutionContext getExecutionContext() {
+        return executionContext;
+    }
+
+    /**
+     * @return the service the result came from or null if the result is the merged result of several services
+     */
+    public Service getService() {
+        return service;
+    }
+
+    /**
+     * @return the result nodes to convert or null if the raw result of a service is converted into result nodes, or if
+     * artificial fields are removed from the several result nodes of a batched hydration
+     */
+    public ExecutionResultNode getResultNode() {
+        return resultNode;
+    }
+
+    /**
+     * The nodes are only counted when this is first called, so it costs nothing if no instrumentation needs it.
+     *
+     * @return the number of result nodes to convert or 0 if the raw result of a service is converted into result nodes
+     */
+    public int getNodeCount() {
+        if (nodeCount.value < 0) {
+            nodeCount.value = countNodes(resultNode);
+        }
+        return nodeCount.value;
+    }
+
+    public boolean isHydrationCall() {
+        return hydrationCall;
+    }
+
+    public <T extends InstrumentationState> T getInstrumentationState() {
+        //noinspection unchecked
+        return (T) instrumentationState;
+    }
+
+    private static int countNodes(ExecutionResultNode root) {
+        if (root == null) {
+            return 0;
+        }
+        int count = 0;
+        Deque<ExecutionResultNode> stack = new ArrayDeque<>();
+        stack.push(root);
+        while (!stack.isEmpty()) {
+            ExecutionResultNode node = stack.pop();
+            count++;
+            for (ExecutionResultNode child : node.getChildren()) {
+                stack.push(child);
+            }
+        }
+        return count;
+    }
+
+    private static class NodeCount {
+        private int value = -1;
+    }
+}
@@ -31,6 +31,10 @@ public class NadelInstrumentationServiceExecutionParameters {
         return new NadelInstrumentationServiceExecutionParameters(service, executionContext, instrumentationState);
     }
 
+    public Service getService() {
+        return service;
+    }
+
     public ExecutionContext getExecutionContext() {
         return executionContext;
     }
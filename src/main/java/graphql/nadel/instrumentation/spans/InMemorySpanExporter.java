@@ -0,0 +1,32 @@
+package graphql.nadel.instrumentation.spans;
+
+import graphql.PublicApi;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Keeps exported spans in memory, which is mostly useful in tests
+ */
+@PublicApi
+public class InMemorySpanExporter implements SpanExporter {
+
+    private final ConcurrentLinkedQueue<Span> spans = new ConcurrentLinkedQueue<>();
+
+    @Override
+    public void export(List<Span> spans) {
+        this.spans.addAll(spans);
+    }
+
+    /**
+     * @return all the spans exported so far
+     */
+    public List<Span> getSpans() {
+        return new ArrayList<>(spans);
+    }
+
+    public void reset() {
+        spans.clear();
+    }
+}
@@ -0,0 +1,102 @@
+package graphql.nadel.instrumentation.spans;
+
+import graphql.PublicApi;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A finished span of a traced Nadel request.  The spans of one request form a tree: the request span is the root, the
+ * service calls of the top level fields and the hydration levels are its children and the service calls made for a
+ * hydration level are children of that level.
+ */
+@PublicApi
+public class Span {
+
+    private final String traceId;
+    private final String spanId;
+    private final String parentSpanId;
+    private final SpanKind kind;
+    private final String name;
+    private final long startTimeMillis;
+    private final long durationNanos;
+    private final Map<String, Object> attributes;
+    private final Throwable error;
+
+    Span(String traceId, String spanId, String parentSpanId, SpanKind kind, String name, long startTimeMillis, long durationNanos, Map<String, Object> attributes, Throwable error) {
+        this.traceId = traceId;
+        this.spanId = spanId;
+        this.parentSpanId = parentSpanId;
+        this.kind = kind;
+        this.name = name;
+        this.startTimeMillis = startTimeMillis;
+        this.durationNanos = durationNanos;
+        this.attributes = Collections.unmodifiableMap(new LinkedHashMap<>(attributes));
+        this.error = error;
+    }
+
+    public String getTraceId() {
+        return traceId;
+    }
+
+    public String getSpanId() {
+        return spanId;
+    }
+
+    /**
+     * @return the id of the parent span or null for the request span
+     */
+    public String getParentSpanId() {
+        return parentSpanId;
+    }
+
+    public SpanKind getKind() {
+        return kind;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return the wall clock time the span started at in milliseconds since the epoch
+     */
+    public long getStartTimeMillis() {
+        return startTimeMillis;
+    }
+
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    /**
+     * @return the attributes of the span, such as the service name of a service call or the batch size of a hydration level
+     */
+    public Map<String, Object> getAttributes() {
+        return attributes;
+    }
+
+    /**
+     * @return the exception the span ended with or null if it ended normally
+     */
+    public Throwable getError() {
+        return error;
+    }
+
+    public TraceContext getTraceContext() {
+        return new TraceContext(traceId, spanId);
+    }
+
+    @Override
+    public String toString() {
+        return "Span{" +
+                "kind=" + kind +
+                ", name='" + name + '\'' +
+                ", spanId='" + spanId + '\'' +
+                ", parentSpanId='" + parentSpanId + '\'' +
+                ", durationNanos=" + durationNanos +
+                ", attributes=" + attributes +
+                '}';
+    }
+}
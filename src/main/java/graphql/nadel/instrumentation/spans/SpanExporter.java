@@ -0,0 +1,21 @@
+package graphql.nadel.instrumentation.spans;
+
+import graphql.PublicSpi;
+
+import java.util.List;
+
+/**
+ * Receives the spans recorded by the {@link SpanNadelInstrumentation}, for example to send them to a tracing backend.
+ */
+@PublicSpi
+@FunctionalInterface
+public interface SpanExporter {
+
+    /**
+     * Called once per traced request when the request has completed.  This is called on the thread that completed the
+     * request and so should not block.
+     *
+     * @param spans the spans of the request, ordered by the time they ended
+     */
+    void export(List<Span> spans);
+}
@@ -0,0 +1,19 @@
+package graphql.nadel.instrumentation.spans;
+
+import graphql.PublicApi;
+
+@PublicApi
+public enum SpanKind {
+    /**
+     * The execution of a whole Nadel request
+     */
+    REQUEST,
+    /**
+     * One level of hydration, the parent of the service calls made for it
+     */
+    HYDRATION,
+    /**
+     * One call to an underlying service
+     */
+    SERVICE_CALL
+}
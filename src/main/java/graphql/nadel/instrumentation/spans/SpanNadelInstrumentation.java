@@ -0,0 +1,207 @@
+package graphql.nadel.instrumentation.spans;
+
+import graphql.ExecutionResult;
+import graphql.PublicApi;
+import graphql.execution.instrumentation.InstrumentationContext;
+import graphql.execution.instrumentation.InstrumentationState;
+import graphql.execution.nextgen.result.ExecutionResultNode;
+import graphql.nadel.ServiceExecution;
+import graphql.nadel.ServiceExecutionParameters;
+import graphql.nadel.ServiceExecutionResult;
+import graphql.nadel.instrumentation.NadelInstrumentation;
+import graphql.nadel.instrumentation.TracingSampler;
+import graphql.nadel.instrumentation.parameters.NadelInstrumentationCreateStateParameters;
+import graphql.nadel.instrumentation.parameters.NadelInstrumentationHydrationParameters;
+import graphql.nadel.instrumentation.parameters.NadelInstrumentationQueryExecutionParameters;
+import graphql.nadel.instrumentation.parameters.NadelInstrumentationServiceExecutionParameters;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static graphql.execution.instrumentation.SimpleInstrumentationContext.noOp;
+import static graphql.execution.instrumentation.SimpleInstrumentationContext.whenCompleted;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Records a tree of {@link Span}s for every sampled request: one span for the request, one for every service call
+ * and one for every level of hydration, with the service calls of a level as its children.  The spans of a request
+ * are given to the {@link SpanExporter} once the request has completed.
+ *
+ * Every service call gets the {@link TraceContext} of its span in {@link ServiceExecutionParameters#getTraceContext()},
+ * so that a {@link ServiceExecution} can propagate it to its service.
+ */
+@PublicApi
+public class SpanNadelInstrumentation implements NadelInstrumentation {
+
+    private final SpanExporter spanExporter;
+    private final TracingSampler sampler;
+
+    public SpanNadelInstrumentation(SpanExporter spanExporter) {
+        this(spanExporter, TracingSampler.always());
+    }
+
+    public SpanNadelInstrumentation(SpanExporter spanExporter, TracingSampler sampler) {
+        this.spanExporter = requireNonNull(spanExporter);
+        this.sampler = requireNonNull(sampler);
+    }
+
+    @Override
+    public InstrumentationState createState(NadelInstrumentationCreateStateParameters parameters) {
+        return sampler.isSampled(parameters) ? new SpanState() : null;
+    }
+
+    @Override
+    public InstrumentationContext<ExecutionResult> beginQueryExecution(NadelInstrumentationQueryExecutionParameters parameters) {
+        SpanState state = parameters.getInstrumentationState();
+        if (state == null) {
+            return noOp();
+        }
+        String operationName = parameters.getOperation();
+        OpenSpan requestSpan = state.startRequestSpan(operationName == null ? "request" : operationName);
+        if (operationName != null) {
+            requestSpan.attribute("operationName", operationName);
+        }
+        return whenCompleted((result, throwable) -> requestSpan.end(throwable));
+    }
+
+    @Override
+    public InstrumentationContext<ExecutionResultNode> beginHydration(NadelInstrumentationHydrationParameters parameters) {
+        SpanState state = parameters.getInstrumentationState();
+        if (state == null) {
+            return noOp();
+        }
+        OpenSpan hydrationSpan = state.startSpan(state.requestSpan, SpanKind.HYDRATION, "hydration level " + parameters.getLevel());
+        hydrationSpan.attribute("level", parameters.getLevel());
+        hydrationSpan.attribute("batchSize", parameters.getHydrationInputCount());
+        hydrationSpan.attribute("services", new ArrayList<>(parameters.getServiceNames()));
+        state.hydrationSpans.put(parameters.getLevel(), hydrationSpan);
+        return whenCompleted((result, throwable) -> hydrationSpan.end(throwable));
+    }
+
+    @Override
+    public ServiceExecution instrumentServiceExecution(ServiceExecution serviceExecution, NadelInstrumentationServiceExecutionParameters parameters) {
+        SpanState state = parameters.getInstrumentationState();
+        if (state == null) {
+            return serviceExecution;
+        }
+        String serviceName = parameters.getService().getName();
+        return serviceExecutionParameters -> {
+            OpenSpan hydrationSpan = state.hydrationSpans.get(serviceExecutionParameters.getHydrationLevel());
+            OpenSpan parent = hydrationSpan != null ? hydrationSpan : state.requestSpan;
+            OpenSpan serviceSpan = state.startSpan(parent, SpanKind.SERVICE_CALL, serviceName);
+            serviceSpan.attribute("service", serviceName);
+            serviceSpan.attribute("hydrationCall", serviceExecutionParameters.isHydrationCall());
+
+            ServiceExecutionParameters tracedParameters = ServiceExecutionParameters.newServiceExecutionParameters()
+                    .from(serviceExecutionParameters)
+                    .traceContext(serviceSpan.getTraceContext())
+                    .build();
+            CompletableFuture<ServiceExecutionResult> result;
+            try {
+                result = serviceExecution.execute(tracedParameters);
+            } catch (RuntimeException e) {
+                serviceSpan.end(e);
+                throw e;
+            }
+            if (result == null) {
+                serviceSpan.end(null);
+                return null;
+            }
+            return result.whenComplete((serviceExecutionResult, throwable) -> {
+                if (serviceExecutionResult != null) {
+                    serviceSpan.attribute("resultNodeCount", countValues(serviceExecutionResult.getData()));
+                    serviceSpan.attribute("errorCount", serviceExecutionResult.getErrors().size());
+                }
+                serviceSpan.end(throwable);
+            });
+        };
+    }
+
+    @Override
+    public CompletableFuture<ExecutionResult> instrumentExecutionResult(ExecutionResult executionResult, NadelInstrumentationQueryExecutionParameters parameters) {
+        SpanState state = parameters.getInstrumentationState();
+        if (state != null) {
+            spanExporter.export(new ArrayList<>(state.finishedSpans));
+        }
+        return CompletableFuture.completedFuture(executionResult);
+    }
+
+    private static int countValues(Object value) {
+        int count = 1;
+        if (value instanceof Map) {
+            for (Object child : ((Map<?, ?>) value).values()) {
+                count += countValues(child);
+            }
+        } else if (value instanceof List) {
+            for (Object child : (List<?>) value) {
+                count += countValues(child);
+            }
+        }
+        return count;
+    }
+
+    private static String randomHex(int longs) {
+        StringBuilder sb = new StringBuilder(longs * 16);
+        for (int i = 0; i < longs; i++) {
+            String hex = Long.toHexString(ThreadLocalRandom.current().nextLong());
+            for (int pad = hex.length(); pad < 16; pad++) {
+                sb.append('0');
+            }
+            sb.append(hex);
+        }
+        return sb.toString();
+    }
+
+    private static class SpanState implements InstrumentationState {
+        private final String traceId = randomHex(2);
+        private final ConcurrentLinkedQueue<Span> finishedSpans = new ConcurrentLinkedQueue<>();
+        private final Map<Integer, OpenSpan> hydrationSpans = new ConcurrentHashMap<>();
+        private volatile OpenSpan requestSpan;
+
+        OpenSpan startRequestSpan(String name) {
+            requestSpan = new OpenSpan(this, null, SpanKind.REQUEST, name);
+            return requestSpan;
+        }
+
+        OpenSpan startSpan(OpenSpan parent, SpanKind kind, String name) {
+            return new OpenSpan(this, parent == null ? null : parent.spanId, kind, name);
+        }
+    }
+
+    private static class OpenSpan {
+        private final SpanState state;
+        private final String spanId = randomHex(1);
+        private final String parentSpanId;
+        private final SpanKind kind;
+        private final String name;
+        private final long startTimeMillis = System.currentTimeMillis();
+        private final long startTime = System.nanoTime();
+        private final Map<String, Object> attributes = new LinkedHashMap<>();
+
+        OpenSpan(SpanState state, String parentSpanId, SpanKind kind, String name) {
+            this.state = state;
+            this.parentSpanId = parentSpanId;
+            this.kind = kind;
+            this.name = name;
+        }
+
+        TraceContext getTraceContext() {
+            return new TraceContext(state.traceId, spanId);
+        }
+
+        synchronized void attribute(String name, Object value) {
+            attributes.put(name, value);
+        }
+
+        synchronized void end(Throwable throwable) {
+            long durationNanos = System.nanoTime() - startTime;
+            state.finishedSpans.add(new Span(state.traceId, spanId, parentSpanId, kind, name, startTimeMillis, durationNanos, attributes, throwable));
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package graphql.nadel.instrumentation.spans;
+
+import graphql.PublicApi;
+
+import java.util.Objects;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * The ids of a span that a service call should propagate to the service, so that the spans the service records join
+ * the trace of the Nadel request.
+ */
+@PublicApi
+public class TraceContext {
+
+    private final String traceId;
+    private final String spanId;
+
+    public TraceContext(String traceId, String spanId) {
+        this.traceId = requireNonNull(traceId);
+        this.spanId = requireNonNull(spanId);
+    }
+
+    /**
+     * @return the id of the trace as 32 lower case hex digits
+     */
+    public String getTraceId() {
+        return traceId;
+    }
+
+    /**
+     * @return the id of the span as 16 lower case hex digits
+     */
+    public String getSpanId() {
+        return spanId;
+    }
+
+    /**
+     * @return the value of a W3C "traceparent" header for this context
+     */
+    public String toTraceparent() {
+        return "00-" + traceId + "-" + spanId + "-01";
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        TraceContext that = (TraceContext) o;
+        return traceId.equals(that.traceId) && spanId.equals(that.spanId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(traceId, spanId);
+    }
+
+    @Override
+    public String toString() {
+        return "TraceContext{" +
+                "traceId='" + traceId + '\'' +
+                ", spanId='" + spanId + '\'' +
+                '}';
+    }
+}
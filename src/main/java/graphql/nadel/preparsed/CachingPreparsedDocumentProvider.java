@@ -0,0 +1,77 @@
+package graphql.nadel.preparsed;
+
+import graphql.ExecutionInput;
+import graphql.PublicApi;
+import graphql.execution.preparsed.PreparsedDocumentEntry;
+import graphql.nadel.util.BoundedConcurrentCache;
+
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * The default {@link graphql.execution.preparsed.PreparsedDocumentProvider} used by Nadel.  It keeps a bounded number of
+ * parsed and validated documents keyed by query text and schema fingerprint so repeated queries skip parsing and validation.
+ *
+ * Note that on a cache hit {@link graphql.nadel.instrumentation.NadelInstrumentation#beginParse},
+ * {@link graphql.nadel.instrumentation.NadelInstrumentation#instrumentDocumentAndVariables} and
+ * {@link graphql.nadel.instrumentation.NadelInstrumentation#beginValidation} are not called, in the same way as with any
+ * other caching {@link graphql.execution.preparsed.PreparsedDocumentProvider}.
+ */
+@PublicApi
+public class CachingPreparsedDocumentProvider implements SchemaAwarePreparsedDocumentProvider {
+
+    public static final int DEFAULT_MAX_SIZE = 1000;
+
+    private final BoundedConcurrentCache<DocumentKey, PreparsedDocumentEntry> cache;
+
+    public CachingPreparsedDocumentProvider() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    public CachingPreparsedDocumentProvider(int maxSize) {
+        this.cache = new BoundedConcurrentCache<>(maxSize);
+    }
+
+    @Override
+    public PreparsedDocumentEntry getDocument(String schemaFingerprint, ExecutionInput executionInput, Function<ExecutionInput, PreparsedDocumentEntry> parseAndValidateFunction) {
+        DocumentKey documentKey = new DocumentKey(schemaFingerprint, executionInput.getQuery());
+        return cache.computeIfAbsent(documentKey, key -> parseAndValidateFunction.apply(executionInput));
+    }
+
+    public DocumentCacheStatistics getStatistics() {
+        return new DocumentCacheStatistics(cache.getHitCount(), cache.getMissCount(), cache.getEvictionCount(), cache.size(), cache.getMaxSize());
+    }
+
+    public void clear() {
+        cache.clear();
+    }
+
+    private static class DocumentKey {
+        private final String schemaFingerprint;
+        private final String query;
+        private final int hashCode;
+
+        private DocumentKey(String schemaFingerprint, String query) {
+            this.schemaFingerprint = schemaFingerprint;
+            this.query = query;
+            this.hashCode = Objects.hash(schemaFingerprint, query);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            DocumentKey that = (DocumentKey) o;
+            return Objects.equals(schemaFingerprint, that.schemaFingerprint) && Objects.equals(query, that.query);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+}
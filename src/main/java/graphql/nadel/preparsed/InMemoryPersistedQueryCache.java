@@ -0,0 +1,51 @@
+package graphql.nadel.preparsed;
+
+import graphql.PublicApi;
+import graphql.nadel.util.BoundedConcurrentCache;
+
+import java.util.function.Supplier;
+
+/**
+ * A {@link PersistedQueryCache} that keeps at most a fixed number of persisted queries in memory, evicting the least
+ * recently used ones first.  Hash only requests, the common case of automatic persisted queries, never take a lock.
+ *
+ * Failed parses and validations are never registered, so a client cannot fill the cache with invalid queries.
+ */
+@PublicApi
+public class InMemoryPersistedQueryCache implements PersistedQueryCache {
+
+    public static final int DEFAULT_MAX_SIZE = 1000;
+
+    private final BoundedConcurrentCache<String, PersistedQuery> persistedQueries;
+
+    public InMemoryPersistedQueryCache() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    public InMemoryPersistedQueryCache(int maxSize) {
+        this.persistedQueries = new BoundedConcurrentCache<>(maxSize);
+    }
+
+    @Override
+    public PersistedQuery get(String persistedQueryKey) {
+        return persistedQueries.get(persistedQueryKey);
+    }
+
+    @Override
+    public PersistedQuery computeIfAbsent(String persistedQueryKey, Supplier<PersistedQuery> computeFunction) {
+        PersistedQuery persistedQuery = persistedQueries.get(persistedQueryKey);
+        if (persistedQuery != null) {
+            return persistedQuery;
+        }
+        // parsing and validation happens outside of any lock - if two requests race then the first one wins which is fine
+        PersistedQuery computed = computeFunction.get();
+        if (computed.getDocumentEntry().hasErrors()) {
+            return computed;
+        }
+        return persistedQueries.computeIfAbsent(persistedQueryKey, key -> computed);
+    }
+
+    public int size() {
+        return persistedQueries.size();
+    }
+}
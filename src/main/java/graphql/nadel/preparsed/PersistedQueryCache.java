@@ -0,0 +1,57 @@
+package graphql.nadel.preparsed;
+
+import graphql.PublicSpi;
+import graphql.execution.preparsed.PreparsedDocumentEntry;
+
+import java.util.function.Supplier;
+
+/**
+ * A store of parsed and validated documents keyed by the hash of an automatic persisted query.  The key passed in
+ * is made of the schema fingerprint (see {@link graphql.nadel.Nadel#getSchemaFingerprint()}) and the query hash, so one
+ * cache can be shared by Nadel instances serving different schemas.
+ *
+ * Implementations must be thread safe since many requests may try to register the same persisted query at the same time.
+ */
+@PublicSpi
+public interface PersistedQueryCache {
+
+    /**
+     * Called to get the document for a persisted query hash
+     *
+     * @param persistedQueryKey the schema fingerprint and hash of the persisted query
+     *
+     * @return the previously registered entry or null if there is none
+     */
+    PersistedQuery get(String persistedQueryKey);
+
+    /**
+     * Called to get the document for a persisted query hash, computing and registering it if it is not present
+     *
+     * @param persistedQueryKey the schema fingerprint and hash of the persisted query
+     * @param computeFunction   called to parse and validate the query if the hash is not yet known
+     *
+     * @return the registered entry or the freshly computed one
+     */
+    PersistedQuery computeIfAbsent(String persistedQueryKey, Supplier<PersistedQuery> computeFunction);
+
+    /**
+     * A query text and the {@link graphql.execution.preparsed.PreparsedDocumentEntry} that was produced for it
+     */
+    class PersistedQuery {
+        private final String query;
+        private final PreparsedDocumentEntry documentEntry;
+
+        public PersistedQuery(String query, PreparsedDocumentEntry documentEntry) {
+            this.query = query;
+            this.documentEntry = documentEntry;
+        }
+
+        public String getQuery() {
+            return query;
+        }
+
+        public PreparsedDocumentEntry getDocumentEntry() {
+            return documentEntry;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package graphql.nadel.preparsed;
+
+import graphql.ErrorClassification;
+import graphql.GraphQLError;
+import graphql.GraphqlErrorBuilder;
+import graphql.PublicApi;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The errors returned for automatic persisted queries.  The messages follow the Apollo protocol so that
+ * clients know to retry with the full query text.
+ */
+@PublicApi
+public enum PersistedQueryError implements ErrorClassification {
+    /**
+     * The hash is not known and no query text was sent to register it with
+     */
+    PersistedQueryNotFound,
+    /**
+     * The query text that was sent does not match its hash
+     */
+    PersistedQueryIdInvalid;
+
+    public GraphQLError toGraphQLError(String persistedQueryHash) {
+        Map<String, Object> extensions = new LinkedHashMap<>();
+        extensions.put("persistedQueryId", persistedQueryHash);
+        extensions.put("classification", name());
+        return GraphqlErrorBuilder.newError()
+                .message(name())
+                .errorType(this)
+                .extensions(extensions)
+                .build();
+    }
+}
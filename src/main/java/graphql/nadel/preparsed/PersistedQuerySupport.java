@@ -0,0 +1,75 @@
+package graphql.nadel.preparsed;
+
+import graphql.ExecutionInput;
+import graphql.Internal;
+import graphql.execution.preparsed.PreparsedDocumentEntry;
+import graphql.nadel.util.DigestUtil;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+import static graphql.nadel.preparsed.PersistedQueryError.PersistedQueryIdInvalid;
+import static graphql.nadel.preparsed.PersistedQueryError.PersistedQueryNotFound;
+
+/**
+ * Implements automatic persisted queries (APQ) on top of a {@link PersistedQueryCache}.
+ *
+ * A request that only carries a hash is served straight from the cache and skips parsing and validation.  If the hash
+ * is unknown a {@link PersistedQueryError#PersistedQueryNotFound} error is returned and the client is expected to
+ * send the hash again together with the query text, which is then parsed, validated and registered.
+ */
+@Internal
+public class PersistedQuerySupport {
+
+    private final PersistedQueryCache persistedQueryCache;
+    private final String schemaFingerprint;
+
+    /**
+     * @param persistedQueryCache the cache of persisted queries
+     * @param schemaFingerprint   the fingerprint of the overall schema, which is part of every cache key so a shared
+     *                            cache never serves a document validated against another schema
+     */
+    public PersistedQuerySupport(PersistedQueryCache persistedQueryCache, String schemaFingerprint) {
+        this.persistedQueryCache = persistedQueryCache;
+        this.schemaFingerprint = schemaFingerprint;
+    }
+
+    /**
+     * Looks up or registers the document for a persisted query.
+     *
+     * @param executionInputRef  the current execution input, updated with the persisted query text on a cache hit
+     * @param persistedQueryHash the SHA-256 hex hash of the query text
+     * @param computeFunction    called to parse and validate the query text on a cache miss
+     *
+     * @return the document entry to execute or an entry holding the APQ error
+     */
+    public PreparsedDocumentEntry getDocument(AtomicReference<ExecutionInput> executionInputRef,
+                                              String persistedQueryHash,
+                                              Function<ExecutionInput, PreparsedDocumentEntry> computeFunction) {
+        ExecutionInput executionInput = executionInputRef.get();
+        String query = executionInput.getQuery();
+        if (query == null || query.isEmpty()) {
+            PersistedQueryCache.PersistedQuery persistedQuery = persistedQueryCache.get(cacheKey(persistedQueryHash));
+            if (persistedQuery == null) {
+                return new PreparsedDocumentEntry(PersistedQueryNotFound.toGraphQLError(persistedQueryHash));
+            }
+            executionInputRef.set(executionInput.transform(builder -> builder.query(persistedQuery.getQuery())));
+            return persistedQuery.getDocumentEntry();
+        }
+
+        if (!persistedQueryHash.equalsIgnoreCase(sha256Hex(query))) {
+            return new PreparsedDocumentEntry(PersistedQueryIdInvalid.toGraphQLError(persistedQueryHash));
+        }
+        PersistedQueryCache.PersistedQuery persistedQuery = persistedQueryCache.computeIfAbsent(cacheKey(persistedQueryHash),
+                () -> new PersistedQueryCache.PersistedQuery(query, computeFunction.apply(executionInput)));
+        return persistedQuery.getDocumentEntry();
+    }
+
+    private String cacheKey(String persistedQueryHash) {
+        return schemaFingerprint + ":" + persistedQueryHash.toLowerCase();
+    }
+
+    static String sha256Hex(String query) {
+        return DigestUtil.sha256Hex(query);
+    }
+}
@@ -0,0 +1,35 @@
+package graphql.nadel.preparsed;
+
+import graphql.ExecutionInput;
+import graphql.PublicSpi;
+import graphql.execution.preparsed.PreparsedDocumentEntry;
+import graphql.execution.preparsed.PreparsedDocumentProvider;
+
+import java.util.function.Function;
+
+/**
+ * A {@link graphql.execution.preparsed.PreparsedDocumentProvider} that is told which overall schema a document is
+ * validated against.  A validated document must only be reused for the same schema fingerprint, which allows one provider
+ * to be shared between several Nadel instances or to persist documents across deploys.
+ *
+ * @see graphql.nadel.Nadel#getSchemaFingerprint()
+ */
+@PublicSpi
+public interface SchemaAwarePreparsedDocumentProvider extends PreparsedDocumentProvider {
+
+    /**
+     * Called to get a parsed and validated document for the given execution input
+     *
+     * @param schemaFingerprint         identifies the overall schema the document is validated against
+     * @param executionInput            the execution input
+     * @param parseAndValidateFunction  called to parse and validate the query if there is no cached document
+     *
+     * @return the document entry, which may hold parse or validation errors
+     */
+    PreparsedDocumentEntry getDocument(String schemaFingerprint, ExecutionInput executionInput, Function<ExecutionInput, PreparsedDocumentEntry> parseAndValidateFunction);
+
+    @Override
+    default PreparsedDocumentEntry getDocument(ExecutionInput executionInput, Function<ExecutionInput, PreparsedDocumentEntry> parseAndValidateFunction) {
+        return getDocument(null, executionInput, parseAndValidateFunction);
+    }
+}
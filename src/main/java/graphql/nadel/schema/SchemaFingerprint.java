@@ -0,0 +1,103 @@
+package graphql.nadel.schema;
+
+import graphql.Internal;
+import graphql.language.AstPrinter;
+import graphql.language.SDLDefinition;
+import graphql.nadel.util.DigestUtil;
+import graphql.schema.GraphQLSchema;
+import graphql.schema.idl.ScalarInfo;
+import graphql.schema.idl.SchemaPrinter;
+import graphql.schema.idl.TypeDefinitionRegistry;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Computes a stable fingerprint of a Nadel schema from the NSDL text, the underlying type definitions of every
+ * service and the printed overall schema, which also covers changes made by a {@link SchemaTransformationHook}.
+ * The same inputs give the same fingerprint in any JVM, so it can be used to key caches of validated documents that
+ * are shared between Nadel instances or kept across deploys.
+ *
+ * Underlying definitions are compared independent of their declaration order.  The NSDL is taken as is, so a change
+ * to its whitespace or comments gives a new fingerprint, which only costs a cache miss.
+ */
+@Internal
+public class SchemaFingerprint {
+
+    private static final SchemaPrinter SCHEMA_PRINTER = new SchemaPrinter(SchemaPrinter.Options.defaultOptions()
+            .includeScalarTypes(true)
+            .includeExtendedScalarTypes(true)
+            .includeSchemaDefinition(true)
+            .includeDirectives(true));
+
+    /**
+     * @param nsdl                            the NSDL text
+     * @param underlyingFingerprintsByService the {@link #fingerprint(TypeDefinitionRegistry)} of every service by name
+     * @param overallSchema                   the overall schema
+     *
+     * @return the fingerprint of the whole Nadel schema
+     */
+    public static String fingerprint(String nsdl, Map<String, String> underlyingFingerprintsByService, GraphQLSchema overallSchema) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(nsdl).append('\n');
+        sb.append(SCHEMA_PRINTER.print(overallSchema)).append('\n');
+        new TreeMap<>(underlyingFingerprintsByService).forEach((serviceName, underlyingFingerprint) ->
+                sb.append("# service ").append(serviceName).append(' ').append(underlyingFingerprint).append('\n'));
+        return DigestUtil.sha256Hex(sb.toString());
+    }
+
+    /**
+     * @param typeDefinitions the underlying type definitions of a service
+     *
+     * @return the fingerprint of the type definitions, independent of their declaration order
+     */
+    public static String fingerprint(TypeDefinitionRegistry typeDefinitions) {
+        StringBuilder sb = new StringBuilder();
+        for (String definition : printDefinitions(typeDefinitions)) {
+            sb.append(definition).append('\n');
+        }
+        return DigestUtil.sha256Hex(sb.toString());
+    }
+
+    private static List<String> printDefinitions(TypeDefinitionRegistry typeDefinitions) {
+        return allDefinitions(typeDefinitions).stream()
+                .map(AstPrinter::printAstCompact)
+                .sorted()
+                .collect(toList());
+    }
+
+    /**
+     * @param typeDefinitions the type definitions
+     *
+     * @return every definition that was added to the registry, which is enough to build an equal registry again
+     */
+    static List<SDLDefinition> allDefinitions(TypeDefinitionRegistry typeDefinitions) {
+        List<SDLDefinition> definitions = new ArrayList<>();
+        definitions.addAll(typeDefinitions.types().values());
+        typeDefinitions.scalars().forEach((name, scalar) -> {
+            // the registry always reports the standard scalars, we only want the ones that were added to it
+            if (ScalarInfo.STANDARD_SCALAR_DEFINITIONS.get(name) != scalar) {
+                definitions.add(scalar);
+            }
+        });
+        definitions.addAll(typeDefinitions.getDirectiveDefinitions().values());
+        typeDefinitions.schemaDefinition().ifPresent(definitions::add);
+        definitions.addAll(typeDefinitions.getSchemaExtensionDefinitions());
+        addAll(definitions, typeDefinitions.objectTypeExtensions().values());
+        addAll(definitions, typeDefinitions.interfaceTypeExtensions().values());
+        addAll(definitions, typeDefinitions.unionTypeExtensions().values());
+        addAll(definitions, typeDefinitions.enumTypeExtensions().values());
+        addAll(definitions, typeDefinitions.scalarTypeExtensions().values());
+        addAll(definitions, typeDefinitions.inputObjectTypeExtensions().values());
+        return definitions;
+    }
+
+    private static void addAll(List<SDLDefinition> definitions, Collection<? extends List<? extends SDLDefinition>> extensions) {
+        extensions.forEach(definitions::addAll);
+    }
+}
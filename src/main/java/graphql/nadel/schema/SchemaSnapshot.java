@@ -0,0 +1,189 @@
+package graphql.nadel.schema;
+
+import graphql.GraphQLError;
+import graphql.PublicApi;
+import graphql.language.SDLDefinition;
+import graphql.nadel.dsl.StitchingDsl;
+import graphql.nadel.util.DigestUtil;
+import graphql.schema.idl.TypeDefinitionRegistry;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A snapshot of everything Nadel parses at start up: the NSDL, the parsed {@link StitchingDsl}, the underlying type
+ * definitions of every service and their fingerprints.  A snapshot written by one process can be read by another and
+ * given to {@link graphql.nadel.Nadel.Builder#schemaSnapshot(SchemaSnapshot)}, which then skips parsing the NSDL and
+ * asking the {@link graphql.nadel.ServiceExecutionFactory} for underlying type definitions.
+ *
+ * The binary form is a gzipped serialized form of the AST with a format version and a SHA-256 checksum.  Reading a
+ * snapshot of another format version or with a wrong checksum fails with an {@link IOException}, in which case the
+ * Nadel should be built from source as usual.  Only write and read snapshots of the same graphql-java and Nadel version.
+ *
+ * Only parsed inputs are kept in a snapshot.  Whatever Nadel derives from them, like the overall schema, the underlying
+ * schemas and the indexes over the overall schema, is built again from the snapshot.  Nadel then recomputes the schema
+ * fingerprint and, if it does not match the fingerprint of the snapshot, falls back to building from the NSDL and the
+ * type definitions of the {@link graphql.nadel.ServiceExecutionFactory}.
+ */
+@PublicApi
+public class SchemaSnapshot {
+
+    private static final int MAGIC = 0x4E534E50;
+    private static final int FORMAT_VERSION = 1;
+    private static final int MAX_PAYLOAD_LENGTH = 256 * 1024 * 1024;
+    private static final List<String> ALLOWED_PACKAGES = Arrays.asList("graphql.language.", "graphql.nadel.dsl.", "java.lang.", "java.math.", "java.util.");
+
+    private final String schemaFingerprint;
+    private final String nsdl;
+    private final StitchingDsl stitchingDsl;
+    private final Map<String, TypeDefinitionRegistry> underlyingTypeDefinitions;
+    private final Map<String, String> underlyingFingerprints;
+
+    public SchemaSnapshot(String schemaFingerprint,
+                          String nsdl,
+                          StitchingDsl stitchingDsl,
+                          Map<String, TypeDefinitionRegistry> underlyingTypeDefinitions,
+                          Map<String, String> underlyingFingerprints) {
+        this.schemaFingerprint = requireNonNull(schemaFingerprint);
+        this.nsdl = requireNonNull(nsdl);
+        this.stitchingDsl = requireNonNull(stitchingDsl);
+        this.underlyingTypeDefinitions = Collections.unmodifiableMap(new LinkedHashMap<>(underlyingTypeDefinitions));
+        this.underlyingFingerprints = Collections.unmodifiableMap(new LinkedHashMap<>(underlyingFingerprints));
+    }
+
+    /**
+     * @return the fingerprint of the Nadel schema this snapshot was taken from
+     */
+    public String getSchemaFingerprint() {
+        return schemaFingerprint;
+    }
+
+    public String getNsdl() {
+        return nsdl;
+    }
+
+    public StitchingDsl getStitchingDsl() {
+        return stitchingDsl;
+    }
+
+    public Map<String, TypeDefinitionRegistry> getUnderlyingTypeDefinitions() {
+        return underlyingTypeDefinitions;
+    }
+
+    public Map<String, String> getUnderlyingFingerprints() {
+        return underlyingFingerprints;
+    }
+
+    public void writeTo(OutputStream outputStream) throws IOException {
+        ByteArrayOutputStream payloadBytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(new GZIPOutputStream(payloadBytes))) {
+            out.writeObject(schemaFingerprint);
+            out.writeObject(nsdl);
+            out.writeObject(stitchingDsl);
+            Map<String, ArrayList<SDLDefinition>> definitionsByService = new LinkedHashMap<>();
+            underlyingTypeDefinitions.forEach((serviceName, typeDefinitions) ->
+                    definitionsByService.put(serviceName, new ArrayList<>(SchemaFingerprint.allDefinitions(typeDefinitions))));
+            out.writeObject(definitionsByService);
+            out.writeObject(new LinkedHashMap<>(underlyingFingerprints));
+        }
+        byte[] payload = payloadBytes.toByteArray();
+
+        DataOutputStream out = new DataOutputStream(outputStream);
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT_VERSION);
+        out.writeInt(payload.length);
+        out.write(payload);
+        out.write(DigestUtil.sha256(payload));
+        out.flush();
+    }
+
+    @SuppressWarnings("unchecked")
+    public static SchemaSnapshot readFrom(InputStream inputStream) throws IOException {
+        DataInputStream in = new DataInputStream(inputStream);
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a Nadel schema snapshot");
+        }
+        int formatVersion = in.readInt();
+        if (formatVersion != FORMAT_VERSION) {
+            throw new IOException("Unsupported schema snapshot format version " + formatVersion);
+        }
+        int payloadLength = in.readInt();
+        if (payloadLength < 0 || payloadLength > MAX_PAYLOAD_LENGTH) {
+            throw new IOException("Invalid schema snapshot length " + payloadLength);
+        }
+        byte[] payload = new byte[payloadLength];
+        in.readFully(payload);
+        byte[] checksum = new byte[32];
+        in.readFully(checksum);
+        if (!Arrays.equals(checksum, DigestUtil.sha256(payload))) {
+            throw new IOException("The schema snapshot checksum does not match its contents");
+        }
+
+        try (ObjectInputStream objectIn = new AllowListObjectInputStream(new GZIPInputStream(new ByteArrayInputStream(payload)))) {
+            String schemaFingerprint = (String) objectIn.readObject();
+            String nsdl = (String) objectIn.readObject();
+            StitchingDsl stitchingDsl = (StitchingDsl) objectIn.readObject();
+            Map<String, List<SDLDefinition>> definitionsByService = (Map<String, List<SDLDefinition>>) objectIn.readObject();
+            Map<String, String> underlyingFingerprints = (Map<String, String>) objectIn.readObject();
+
+            Map<String, TypeDefinitionRegistry> underlyingTypeDefinitions = new LinkedHashMap<>();
+            for (Map.Entry<String, List<SDLDefinition>> entry : definitionsByService.entrySet()) {
+                TypeDefinitionRegistry typeDefinitions = new TypeDefinitionRegistry();
+                Optional<GraphQLError> error = typeDefinitions.addAll(entry.getValue());
+                if (error.isPresent()) {
+                    throw new IOException("The schema snapshot of service '" + entry.getKey() + "' is invalid : " + error.get().getMessage());
+                }
+                underlyingTypeDefinitions.put(entry.getKey(), typeDefinitions);
+            }
+            return new SchemaSnapshot(schemaFingerprint, nsdl, stitchingDsl, underlyingTypeDefinitions, underlyingFingerprints);
+        } catch (ClassNotFoundException | ClassCastException e) {
+            throw new IOException("The schema snapshot can not be read", e);
+        }
+    }
+
+    /**
+     * Snapshots only ever hold AST nodes and plain java values so nothing else is allowed to be deserialized
+     */
+    private static class AllowListObjectInputStream extends ObjectInputStream {
+
+        AllowListObjectInputStream(InputStream in) throws IOException {
+            super(in);
+        }
+
+        @Override
+        protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+            String className = desc.getName();
+            while (className.startsWith("[")) {
+                className = className.substring(1);
+            }
+            if (className.length() == 1 || className.startsWith("L") && isAllowed(className.substring(1)) || isAllowed(className)) {
+                return super.resolveClass(desc);
+            }
+            throw new InvalidClassException(desc.getName(), "is not allowed in a schema snapshot");
+        }
+
+        private static boolean isAllowed(String className) {
+            return ALLOWED_PACKAGES.stream().anyMatch(className::startsWith);
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package graphql.nadel.util;
+
+import graphql.Internal;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import static graphql.Assert.assertTrue;
+
+/**
+ * A thread safe cache that holds at most a fixed number of entries.
+ *
+ * Eviction uses the CLOCK (second chance) approximation of LRU: entries are queued in insertion order and an entry
+ * that has been read since it was last looked at by the evictor gets re-queued once instead of being evicted.
+ * Reads never take a lock, they only set a flag on the entry.
+ *
+ * The queue holds the entries themselves, so an entry that was removed or replaced is recognised as stale by identity
+ * and skipped.  Stale entries are dropped from the queue once it is more than twice as long as the cache may be large,
+ * which keeps the queue bounded when entries are removed and added again.
+ *
+ * @param <K> the type of keys
+ * @param <V> the type of values
+ */
+@Internal
+public class BoundedConcurrentCache<K, V> {
+
+    private final int maxSize;
+    private final ConcurrentHashMap<K, Entry<K, V>> entries;
+    private final ConcurrentLinkedQueue<Entry<K, V>> clock = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger clockLength = new AtomicInteger();
+    private final AtomicInteger size = new AtomicInteger();
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+
+    public BoundedConcurrentCache(int maxSize) {
+        assertTrue(maxSize > 0, "maxSize must be greater than zero");
+        this.maxSize = maxSize;
+        this.entries = new ConcurrentHashMap<>(Math.min(maxSize, 1024));
+    }
+
+    public V get(K key) {
+        Entry<K, V> entry = entries.get(key);
+        if (entry == null) {
+            missCount.increment();
+            return null;
+        }
+        entry.referenced = true;
+        hitCount.increment();
+        return entry.value;
+    }
+
+    /**
+     * Returns the cached value or computes and caches it.  The value is computed outside of any lock so two threads
+     * racing on the same missing key may both compute it, in which case the first one to finish wins.
+     *
+     * @param key             the key
+     * @param computeFunction called to create the value if it is missing
+     *
+     * @return the cached or computed value
+     */
+    public V computeIfAbsent(K key, Function<K, V> computeFunction) {
+        V value = get(key);
+        if (value != null) {
+            return value;
+        }
+        value = computeFunction.apply(key);
+        if (value == null) {
+            return null;
+        }
+        Entry<K, V> entry = new Entry<>(key, value);
+        Entry<K, V> existing = entries.putIfAbsent(key, entry);
+        if (existing != null) {
+            return existing.value;
+        }
+        clock.add(entry);
+        if (clockLength.incrementAndGet() > 2 * maxSize) {
+            dropStaleEntries();
+        }
+        if (size.incrementAndGet() > maxSize) {
+            evict();
+        }
+        return value;
+    }
+
+    public void remove(K key) {
+        if (entries.remove(key) != null) {
+            size.decrementAndGet();
+        }
+    }
+
+    /**
+     * Removes the entry for the key only if it still holds the given value
+     *
+     * @param key   the key
+     * @param value the value expected for the key
+     */
+    public void remove(K key, V value) {
+        Entry<K, V> entry = entries.get(key);
+        if (entry != null && entry.value == value && entries.remove(key, entry)) {
+            size.decrementAndGet();
+        }
+    }
+
+    public void clear() {
+        entries.clear();
+        clock.clear();
+        clockLength.set(0);
+        size.set(0);
+    }
+
+    private void evict() {
+        // every entry gets at most one second chance so this always terminates
+        int secondChances = size.get();
+        while (size.get() > maxSize) {
+            Entry<K, V> entry = clock.poll();
+            if (entry == null) {
+                return;
+            }
+            clockLength.decrementAndGet();
+            if (!isCurrent(entry)) {
+                // removed or replaced since it was queued
+                continue;
+            }
+            if (entry.referenced && secondChances-- > 0) {
+                entry.referenced = false;
+                clock.add(entry);
+                clockLength.incrementAndGet();
+                continue;
+            }
+            if (entries.remove(entry.key, entry)) {
+                size.decrementAndGet();
+                evictionCount.increment();
+            }
+        }
+    }
+
+    private void dropStaleEntries() {
+        Iterator<Entry<K, V>> iterator = clock.iterator();
+        while (iterator.hasNext()) {
+            if (!isCurrent(iterator.next())) {
+                iterator.remove();
+                clockLength.decrementAndGet();
+            }
+        }
+    }
+
+    private boolean isCurrent(Entry<K, V> entry) {
+        return entries.get(entry.key) == entry;
+    }
+
+    /**
+     * @return the number of entries in the eviction queue, including stale ones that have not been dropped yet
+     */
+    int getQueueLength() {
+        return clockLength.get();
+    }
+
+    public int size() {
+        return size.get();
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictionCount.sum();
+    }
+
+    private static class Entry<K, V> {
+        private final K key;
+        private final V value;
+        private volatile boolean referenced;
+
+        private Entry(K key, V value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package graphql.nadel.util;
+
+import graphql.Internal;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+@Internal
+public class DigestUtil {
+
+    /**
+     * @param value the value to hash
+     *
+     * @return the lower case hex SHA-256 digest of the UTF-8 bytes of the value
+     */
+    public static String sha256Hex(String value) {
+        byte[] digest = sha256(value.getBytes(StandardCharsets.UTF_8));
+        StringBuilder sb = new StringBuilder(digest.length * 2);
+        for (byte b : digest) {
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16));
+            sb.append(Character.forDigit(b & 0xF, 16));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * @param bytes the bytes to hash
+     *
+     * @return the SHA-256 digest of the bytes
+     */
+    public static byte[] sha256(byte[] bytes) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(bytes);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -7,6 +7,7 @@ import java.util.Map;
 import java.util.function.BinaryOperator;
 import java.util.function.Function;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
 import java.util.stream.Collector;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -47,4 +48,28 @@ public class FpKit {
     public static <T> List<T> filter(List<T> list, Predicate<T> filter) {
         return list.stream().filter(filter).collect(Collectors.toList());
     }
+
+    /**
+     * Memoizes the value of the supplier for use on one thread, it is not safe to share the result across threads
+     *
+     * @param delegate the supplier to call at most once
+     * @param <T>      the type of value
+     *
+     * @return a supplier that calls the delegate on first use only
+     */
+    public static <T> Supplier<T> intraThreadMemoize(Supplier<T> delegate) {
+        return new Supplier<T>() {
+            private boolean computed;
+            private T value;
+
+            @Override
+            public T get() {
+                if (!computed) {
+                    value = delegate.get();
+                    computed = true;
+                }
+                return value;
+            }
+        };
+    }
 }
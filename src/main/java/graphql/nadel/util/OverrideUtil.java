@@ -0,0 +1,44 @@
+package graphql.nadel.util;
+
+import graphql.Internal;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Internal
+public class OverrideUtil {
+
+    private static final ClassValue<Map<List<Object>, Boolean>> OVERRIDES = new ClassValue<Map<List<Object>, Boolean>>() {
+        @Override
+        protected Map<List<Object>, Boolean> computeValue(Class<?> implementationClass) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    /**
+     * Tells whether a class has its own implementation of a default method of an interface, so that callers can skip
+     * work that is only needed for it.  The answer is worked out once per class and method.
+     *
+     * @param interfaceClass      the interface that declares the default method
+     * @param implementationClass the class implementing the interface
+     * @param methodName          the name of the method
+     * @param parameterTypes      the parameter types of the method
+     *
+     * @return true if the method is implemented by the class or one of its super classes rather than the interface
+     */
+    public static boolean overridesDefault(Class<?> interfaceClass, Class<?> implementationClass, String methodName, Class<?>... parameterTypes) {
+        List<Object> key = Arrays.asList(interfaceClass, methodName, Arrays.asList(parameterTypes));
+        return OVERRIDES.get(implementationClass).computeIfAbsent(key, k -> {
+            try {
+                Method method = implementationClass.getMethod(methodName, parameterTypes);
+                return method.getDeclaringClass() != interfaceClass;
+            } catch (NoSuchMethodException e) {
+                // can not tell, so assume it is implemented
+                return true;
+            }
+        });
+    }
+}
@@ -1,9 +1,12 @@
 package graphql.nadel
 
 import graphql.parser.InvalidSyntaxException
+import graphql.parser.MultiSourceReader
 import org.antlr.v4.runtime.misc.ParseCancellationException
 import spock.lang.Specification
 
+import java.util.concurrent.Executors
+
 import static graphql.nadel.testutils.TestUtil.astAsMap
 import static graphql.nadel.testutils.TestUtil.expectedJson
 
@@ -253,6 +256,148 @@ class NSDLParserTest extends Specification {
         then:
         astAsMap(stitchingDSL).size() > 0
     }
-}
 
+    def "parsing service blocks in parallel gives the same result as one pass"() {
+        given:
+        def dsl = """
+        common {
+            # common comment
+            type Common {
+                value: String
+            }
+        }
+        service Foo {
+            type Query {
+                foo: Foo
+            }
+            # foo comment
+            type Foo {
+                id: ID
+                name: String => renamed from title
+                bar: Bar => hydrated from Bar.barById(id: \$source.barId) object identified by id, batch size 10
+            }
+        }
+        service Bar {
+            type Query {
+                barById(id: ID): Bar
+            }
+            type Bar => renamed from UnderlyingBar {
+                id: ID
+                serviceName: String
+            }
+        }
+       """
+        def executor = Executors.newFixedThreadPool(2)
+
+        when:
+        def onePass = new NSDLParser().parseDSL(dsl)
+        def parallel = new NSDLParser(executor).parseDSL(dsl)
 
+        then:
+        astAsMap(parallel) == astAsMap(onePass)
+        parallel.serviceDefinitions.collect { it.name } == ["Foo", "Bar"]
+        def onePassFoo = onePass.serviceDefinitions[0].typeDefinitions[1]
+        def parallelFoo = parallel.serviceDefinitions[0].typeDefinitions[1]
+        parallelFoo.sourceLocation.line == onePassFoo.sourceLocation.line
+        parallelFoo.sourceLocation.column == onePassFoo.sourceLocation.column
+        parallelFoo.comments.collect { it.content } == [" foo comment"]
+        parallel.commonDefinition.typeDefinitions[0].comments.collect { it.content } == [" common comment"]
+
+        cleanup:
+        executor.shutdown()
+    }
+
+    def "parsing in parallel keeps the source names of a multi source reader"() {
+        given:
+        def reader = MultiSourceReader.newMultiSourceReader()
+                .string("service Foo {\n type Query {\n foo: String\n }\n}\n", "foo.nsdl")
+                .string("service Bar {\n type Query {\n bar: String\n }\n}\n", "bar.nsdl")
+                .build()
+        def executor = Executors.newFixedThreadPool(2)
+
+        when:
+        def stitchingDsl = new NSDLParser(executor).parseDSL(reader)
+
+        then:
+        def barQuery = stitchingDsl.serviceDefinitions[1].typeDefinitions[0]
+        barQuery.sourceLocation.sourceName == "bar.nsdl"
+        barQuery.sourceLocation.line == 2
+
+        cleanup:
+        executor.shutdown()
+    }
+
+    def "parsing in parallel reports syntax errors like one pass"() {
+        given:
+        def dsl = """
+        service Foo {
+            type Query {
+                hello: String => renamed from detail.subDetail.hello
+            }
+        }
+        service Bar {
+            type Query {
+                bar: String
+            }
+        }
+       """
+        def executor = Executors.newFixedThreadPool(2)
+
+        when:
+        new NSDLParser(executor).parseDSL(dsl)
+
+        then:
+        def e = thrown(InvalidSyntaxException)
+        e.location.line == 4
+
+        cleanup:
+        executor.shutdown()
+    }
+
+    def "parsing in parallel rejects unconsumed tokens"() {
+        given:
+        def dsl = """
+        service Foo {
+        }
+        someFoo
+       """
+        def executor = Executors.newFixedThreadPool(2)
+
+        when:
+        new NSDLParser(executor).parseDSL(dsl)
+
+        then:
+        thrown(ParseCancellationException)
+
+        cleanup:
+        executor.shutdown()
+    }
+
+    def "parsing in parallel rejects a document without services like one pass"() {
+        given:
+        def dsl = """
+        common {
+            type Common {
+                value: String
+            }
+        }
+       """
+        def executor = Executors.newFixedThreadPool(2)
+
+        when:
+        new NSDLParser().parseDSL(dsl)
+
+        then:
+        def onePassError = thrown(Exception)
+
+        when:
+        new NSDLParser(executor).parseDSL(dsl)
+
+        then:
+        def parallelError = thrown(Exception)
+        parallelError.class == onePassError.class
+
+        cleanup:
+        executor.shutdown()
+    }
+}
@@ -0,0 +1,110 @@
+package graphql.nadel
+
+import graphql.nadel.testutils.TestUtil
+import graphql.schema.idl.WiringFactory
+import spock.lang.Specification
+
+import static graphql.nadel.Nadel.newNadel
+import static graphql.nadel.NadelExecutionInput.newNadelExecutionInput
+import static graphql.nadel.testutils.TestUtil.typeDefinitions
+import static java.util.concurrent.CompletableFuture.completedFuture
+
+class NadelIncrementalBuildTest extends Specification {
+
+    def nsdl = '''
+         service Foo {
+            type Query {
+                foo: String
+            }
+         }
+         service Bar {
+            type Query {
+                bar: String
+            }
+         }
+        '''
+
+    def fooUnderlying = 'type Query { foo: String }'
+    def barUnderlying = 'type Query { bar: String }'
+
+    Nadel.Builder nadelBuilder(String nsdl, String fooUnderlying, String barUnderlying, ServiceExecution serviceExecution = null) {
+        newNadel()
+                .dsl(nsdl)
+                .serviceExecutionFactory(TestUtil.serviceFactory([
+                        Foo: new Tuple2(serviceExecution, typeDefinitions(fooUnderlying)),
+                        Bar: new Tuple2(serviceExecution, typeDefinitions(barUnderlying)),
+                ]))
+    }
+
+    static Service service(Nadel nadel, String name) {
+        nadel.services.find { it.name == name }
+    }
+
+    def "only the changed underlying schema is rebuilt"() {
+        given:
+        def previous = nadelBuilder(nsdl, fooUnderlying, barUnderlying).build()
+
+        when:
+        def nadel = nadelBuilder(nsdl, fooUnderlying, 'type Query { bar: String other: Int }')
+                .previous(previous)
+                .build()
+
+        then:
+        service(nadel, "Foo").is(service(previous, "Foo"))
+        !service(nadel, "Bar").underlyingSchema.is(service(previous, "Bar").underlyingSchema)
+        service(nadel, "Bar").underlyingSchema.queryType.getFieldDefinition("other") != null
+        service(nadel, "Bar").definitionRegistry.is(service(previous, "Bar").definitionRegistry)
+    }
+
+    def "underlying schemas are reused when only the nsdl changes"() {
+        given:
+        def previous = nadelBuilder(nsdl, fooUnderlying, barUnderlying).build()
+        def changedNsdl = nsdl.replace("bar: String", "bar: String @deprecated")
+
+        when:
+        def nadel = nadelBuilder(changedNsdl, fooUnderlying, barUnderlying)
+                .previous(previous)
+                .build()
+
+        then:
+        service(nadel, "Foo").underlyingSchema.is(service(previous, "Foo").underlyingSchema)
+        service(nadel, "Bar").underlyingSchema.is(service(previous, "Bar").underlyingSchema)
+        !service(nadel, "Bar").definitionRegistry.is(service(previous, "Bar").definitionRegistry)
+        nadel.overallSchema.queryType.getFieldDefinition("bar").isDeprecated()
+        nadel.schemaFingerprint != previous.schemaFingerprint
+    }
+
+    def "underlying schemas are rebuilt when the underlying wiring factory changes"() {
+        given:
+        def previous = nadelBuilder(nsdl, fooUnderlying, barUnderlying)
+                .underlyingWiringFactory(new WiringFactory() {})
+                .build()
+
+        when:
+        def nadel = nadelBuilder(nsdl, fooUnderlying, barUnderlying)
+                .underlyingWiringFactory(new WiringFactory() {})
+                .previous(previous)
+                .build()
+
+        then:
+        !service(nadel, "Foo").underlyingSchema.is(service(previous, "Foo").underlyingSchema)
+        nadel.schemaFingerprint == previous.schemaFingerprint
+    }
+
+    def "incrementally built nadel executes queries"() {
+        given:
+        def serviceExecution = Mock(ServiceExecution)
+        def previous = nadelBuilder(nsdl, fooUnderlying, barUnderlying, serviceExecution).build()
+        def nadel = nadelBuilder(nsdl, fooUnderlying, 'type Query { bar: String other: Int }', serviceExecution)
+                .previous(previous)
+                .build()
+
+        when:
+        def result = nadel.execute(newNadelExecutionInput().query("{ foo bar }")).join()
+
+        then:
+        2 * serviceExecution.execute(_) >> completedFuture(new ServiceExecutionResult([foo: "foo", bar: "bar"]))
+        result.errors.isEmpty()
+        result.data == [foo: "foo", bar: "bar"]
+    }
+}
@@ -1,16 +1,21 @@
 package graphql.nadel
 
+import graphql.ExecutionInput
 import graphql.ExecutionResult
 import graphql.ExecutionResultImpl
 import graphql.execution.AbortExecutionException
 import graphql.execution.instrumentation.InstrumentationContext
 import graphql.execution.instrumentation.InstrumentationState
+import graphql.execution.nextgen.result.ExecutionResultNode
 import graphql.language.Document
 import graphql.nadel.instrumentation.ChainedNadelInstrumentation
 import graphql.nadel.instrumentation.NadelInstrumentation
 import graphql.nadel.instrumentation.parameters.NadelInstrumentationCreateStateParameters
 import graphql.nadel.instrumentation.parameters.NadelInstrumentationExecuteOperationParameters
+import graphql.nadel.instrumentation.parameters.NadelInstrumentationHydrationParameters
 import graphql.nadel.instrumentation.parameters.NadelInstrumentationQueryExecutionParameters
+import graphql.nadel.instrumentation.parameters.NadelInstrumentationQueryTransformParameters
+import graphql.nadel.instrumentation.parameters.NadelInstrumentationResultConversionParameters
 import graphql.nadel.instrumentation.parameters.NadelNadelInstrumentationQueryValidationParameters
 import graphql.nadel.testutils.TestUtil
 import graphql.validation.ValidationError
@@ -19,6 +24,7 @@ import spock.lang.Specification
 import java.util.concurrent.CompletableFuture
 
 import static graphql.execution.instrumentation.SimpleInstrumentationContext.noOp
+import static graphql.execution.instrumentation.SimpleInstrumentationContext.whenCompleted
 import static graphql.nadel.Nadel.newNadel
 import static graphql.nadel.NadelExecutionInput.newNadelExecutionInput
 import static graphql.nadel.testutils.TestUtil.typeDefinitions
@@ -215,6 +221,41 @@ class NadelInstrumentationTest extends Specification {
     }
 
 
+    def "chained instrumentation only calls the instrumentations that implement a step"() {
+        given:
+        def parseContext = noOp()
+        def states = []
+        NadelInstrumentation parsing = new NadelInstrumentation() {
+            @Override
+            InstrumentationState createState(NadelInstrumentationCreateStateParameters parameters) {
+                return new TestState()
+            }
+
+            @Override
+            InstrumentationContext<Document> beginParse(NadelInstrumentationQueryExecutionParameters parameters) {
+                states.add(parameters.instrumentationState)
+                parseContext
+            }
+        }
+        NadelInstrumentation validating = new NadelInstrumentation() {
+            @Override
+            InstrumentationContext<List<ValidationError>> beginValidation(NadelNadelInstrumentationQueryValidationParameters parameters) {
+                noOp()
+            }
+        }
+        def chainedInstrumentation = new ChainedNadelInstrumentation([new NadelInstrumentation() {}, parsing, validating])
+        def state = chainedInstrumentation.createState(new NadelInstrumentationCreateStateParameters(null, null))
+        def parameters = new NadelInstrumentationQueryExecutionParameters(ExecutionInput.newExecutionInput().query("{ hello }").build(), null, state)
+
+        expect:
+        chainedInstrumentation.beginParse(parameters).is(parseContext)
+        states.size() == 1
+        states[0] instanceof TestState
+        // a step no instrumentation implements gets the same no op context every time
+        chainedInstrumentation.beginExecute(Mock(NadelInstrumentationExecuteOperationParameters))
+                .is(chainedInstrumentation.beginExecute(Mock(NadelInstrumentationExecuteOperationParameters)))
+    }
+
     def "abort execution within instrumentation will still call enhancing instrumentation methods"() {
 
         given:
@@ -310,6 +351,149 @@ class NadelInstrumentationTest extends Specification {
         er.data == "enhanced beginValidation"
     }
 
+    def "query transformation, result conversion and hydration are instrumented"() {
+        given:
+        def nsdl = '''
+         service Foo {
+            type Query {
+                foo: Foo
+            }
+            type Foo {
+                name: String
+                bar: Bar => hydrated from Bar.barById(id: $source.barId)
+            }
+         }
+         service Bar {
+            type Query {
+                bar: Bar
+            }
+            type Bar {
+                name: String
+            }
+         }
+        '''
+        ServiceExecution fooExecution = { params -> completedFuture(new ServiceExecutionResult([foo: [name: "foo", barId: "bar1"]])) }
+        ServiceExecution barExecution = { params -> completedFuture(new ServiceExecutionResult([barById: [name: "bar"]])) }
+        def serviceFactory = TestUtil.serviceFactory([
+                Foo: new Tuple2(fooExecution, typeDefinitions("type Query { foo: Foo } type Foo { name: String barId: ID }")),
+                Bar: new Tuple2(barExecution, typeDefinitions("type Query { bar: Bar barById(id: ID): Bar } type Bar { name: String }")),
+        ])
+
+        def steps = []
+        NadelInstrumentation instrumentation = new NadelInstrumentation() {
+            @Override
+            InstrumentationContext<Document> beginQueryTransform(NadelInstrumentationQueryTransformParameters parameters) {
+                steps.add("transform " + parameters.service.name + " " + parameters.hydrationCall)
+                whenCompleted({ document, throwable -> assert document != null })
+            }
+
+            @Override
+            InstrumentationContext<ExecutionResultNode> beginServiceResultConversion(NadelInstrumentationResultConversionParameters parameters) {
+                steps.add("service conversion " + parameters.service.name)
+                noOp()
+            }
+
+            @Override
+            InstrumentationContext<ExecutionResultNode> beginOverallResultConversion(NadelInstrumentationResultConversionParameters parameters) {
+                steps.add("overall conversion " + parameters.hydrationCall + " " + parameters.nodeCount)
+                noOp()
+            }
+
+            @Override
+            InstrumentationContext<ExecutionResultNode> beginArtificialFieldRemoval(NadelInstrumentationResultConversionParameters parameters) {
+                steps.add("artificial field removal")
+                noOp()
+            }
+
+            @Override
+            InstrumentationContext<ExecutionResultNode> beginHydration(NadelInstrumentationHydrationParameters parameters) {
+                steps.add("hydration " + parameters.level + " " + parameters.hydrationInputCount + " " + parameters.serviceNames)
+                noOp()
+            }
+        }
+
+        Nadel nadel = newNadel()
+                .dsl(nsdl)
+                .serviceExecutionFactory(serviceFactory)
+                .instrumentation(instrumentation)
+                .build()
+
+        when:
+        def result = nadel.execute(newNadelExecutionInput().query("{ foo { name bar { name } } }")).join()
+
+        then:
+        result.errors.isEmpty()
+        result.data == [foo: [name: "foo", bar: [name: "bar"]]]
+        steps.contains("transform Foo false")
+        steps.contains("transform Bar true")
+        steps.contains("service conversion Foo")
+        steps.contains("service conversion Bar")
+        steps.contains("hydration 1 1 [Bar]")
+        steps.findAll { it.startsWith("hydration") }.size() == 1
+        steps.findAll { it.startsWith("overall conversion true") }.size() == 1
+        steps.any { it.startsWith("overall conversion false") }
+        steps.contains("artificial field removal")
+    }
+
+    def "artificial fields are removed from a batched hydration in one step"() {
+        given:
+        def nsdl = '''
+         service Foo {
+            type Query {
+                foos: [Foo]
+            }
+            type Foo {
+                name: String
+                bar: Bar => hydrated from Bar.barsByIds(ids: $source.barId) object identified by id, batch size 10
+            }
+         }
+         service Bar {
+            type Query {
+                barsByIds(ids: [ID]): [Bar]
+            }
+            type Bar {
+                id: ID
+                name: String
+            }
+         }
+        '''
+        ServiceExecution fooExecution = { params ->
+            completedFuture(new ServiceExecutionResult([foos: [[name: "a", barId: "1"], [name: "b", barId: "2"], [name: "c", barId: "3"]]]))
+        }
+        ServiceExecution barExecution = { params ->
+            def idAlias = params.query.definitions[0].selectionSet.selections[0].selectionSet.selections.find { it.name == "id" }.alias
+            completedFuture(new ServiceExecutionResult([barsByIds: ["1", "2", "3"].collect { [name: "bar" + it, (idAlias): it] }]))
+        }
+        def serviceFactory = TestUtil.serviceFactory([
+                Foo: new Tuple2(fooExecution, typeDefinitions("type Query { foos: [Foo] } type Foo { name: String barId: ID }")),
+                Bar: new Tuple2(barExecution, typeDefinitions("type Query { barsByIds(ids: [ID]): [Bar] } type Bar { id: ID name: String }")),
+        ])
+
+        def removals = []
+        NadelInstrumentation instrumentation = new NadelInstrumentation() {
+            @Override
+            InstrumentationContext<ExecutionResultNode> beginArtificialFieldRemoval(NadelInstrumentationResultConversionParameters parameters) {
+                removals.add(parameters.hydrationCall ? "hydration " + (parameters.resultNode == null ? "batch" : "node") : "top level")
+                noOp()
+            }
+        }
+
+        Nadel nadel = newNadel()
+                .dsl(nsdl)
+                .serviceExecutionFactory(serviceFactory)
+                .instrumentation(instrumentation)
+                .build()
+
+        when:
+        def result = nadel.execute(newNadelExecutionInput().query("{ foos { name bar { name } } }")).join()
+
+        then:
+        result.errors.isEmpty()
+        result.data == [foos: [[name: "a", bar: [name: "bar1"]], [name: "b", bar: [name: "bar2"]], [name: "c", bar: [name: "bar3"]]]]
+        removals.count("hydration batch") == 1
+        removals.count("hydration node") == 0
+    }
+
     private Nadel mkNadelWith(NadelInstrumentation instrumentation) {
         newNadel()
                 .dsl(simpleNDSL)
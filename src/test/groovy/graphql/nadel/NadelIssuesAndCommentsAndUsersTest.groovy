@@ -139,11 +139,11 @@ class NadelIssuesAndCommentsAndUsersTest extends Specification {
                 "/issues[1]/reporter/displayName",
                 "/issues[1]/summary",
         ]
-//        def dispatched = instrumentation.dispatched.keySet().sort()
-//        dispatched == expectedList
-//
-//        def completed = instrumentation.completed.keySet().sort()
-//        completed == expectedList
+        def dispatched = instrumentation.dispatched.keySet().sort()
+        dispatched == expectedList
+
+        def completed = instrumentation.completed.keySet().sort()
+        completed == expectedList
     }
 
     def "BUG FIX - underscore typename and tracing can worked as expected"() {
@@ -0,0 +1,118 @@
+package graphql.nadel
+
+import graphql.nadel.schema.ServiceSchemaProblem
+import graphql.nadel.testutils.TestUtil
+import graphql.schema.idl.TypeDefinitionRegistry
+import spock.lang.Specification
+
+import java.util.concurrent.Callable
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+
+import static graphql.nadel.Nadel.newNadel
+import static graphql.nadel.NadelExecutionInput.newNadelExecutionInput
+import static graphql.nadel.testutils.TestUtil.typeDefinitions
+import static java.util.concurrent.CompletableFuture.completedFuture
+
+class NadelLazyUnderlyingSchemaTest extends Specification {
+
+    def nsdl = '''
+         service Foo {
+            type Query {
+                foo: String
+            }
+         }
+         service Bar {
+            type Query {
+                bar: String
+            }
+         }
+        '''
+
+    def fooExecution = { params -> completedFuture(new ServiceExecutionResult([foo: "foo"])) } as ServiceExecution
+    def barExecution = { params -> completedFuture(new ServiceExecutionResult([bar: "bar"])) } as ServiceExecution
+
+    Nadel.Builder nadelBuilder(String barUnderlying = "type Query { bar: String }") {
+        newNadel()
+                .dsl(nsdl)
+                .serviceExecutionFactory(TestUtil.serviceFactory([
+                        Foo: new Tuple2<ServiceExecution, TypeDefinitionRegistry>(fooExecution, typeDefinitions("type Query { foo: String }")),
+                        Bar: new Tuple2<ServiceExecution, TypeDefinitionRegistry>(barExecution, typeDefinitions(barUnderlying)),
+                ]))
+    }
+
+    def "underlying schemas are built at start up by default"() {
+        when:
+        def nadel = nadelBuilder().build()
+
+        then:
+        nadel.services.every { it.underlyingSchemaBuilt }
+    }
+
+    def "underlying schemas are only built when a query needs them"() {
+        given:
+        def nadel = nadelBuilder().lazyUnderlyingSchemas(true).build()
+
+        expect:
+        nadel.services.every { !it.underlyingSchemaBuilt }
+        nadel.overallSchema.queryType.getFieldDefinition("bar") != null
+
+        when:
+        def result = nadel.execute(newNadelExecutionInput().query("{ foo }")).join()
+
+        then:
+        result.errors.isEmpty()
+        result.data == [foo: "foo"]
+        nadel.getService("Foo").underlyingSchemaBuilt
+        !nadel.getService("Bar").underlyingSchemaBuilt
+    }
+
+    def "a lazy underlying schema is built once when asked for concurrently"() {
+        given:
+        def service = nadelBuilder().lazyUnderlyingSchemas(true).build().getService("Bar")
+        def threadPool = Executors.newFixedThreadPool(8)
+        def start = new CountDownLatch(1)
+
+        when:
+        def futures = (1..8).collect {
+            threadPool.submit({ start.await(); service.underlyingSchema } as Callable)
+        }
+        start.countDown()
+        def schemas = futures.collect { it.get() }
+        threadPool.shutdown()
+
+        then:
+        schemas.every { it.is(schemas[0]) }
+        schemas[0].queryType.getFieldDefinition("bar") != null
+    }
+
+    def "problems in a lazy underlying schema are reported on first use"() {
+        given:
+        def nadel = nadelBuilder("type Query { bar: Unknown }").lazyUnderlyingSchemas(true).build()
+
+        when:
+        nadel.getService("Bar").underlyingSchema
+
+        then:
+        def problem = thrown(ServiceSchemaProblem)
+        problem.serviceName == "Bar"
+    }
+
+    def "unused lazy underlying schemas are not built by an incremental rebuild"() {
+        given:
+        def previous = nadelBuilder().lazyUnderlyingSchemas(true).build()
+
+        when:
+        def nadel = nadelBuilder().lazyUnderlyingSchemas(true).previous(previous).build()
+
+        then:
+        nadel.services.every { !it.underlyingSchemaBuilt }
+
+        when:
+        def result = nadel.execute(newNadelExecutionInput().query("{ bar }")).join()
+
+        then:
+        result.data == [bar: "bar"]
+        previous.getService("Bar").underlyingSchemaBuilt
+    }
+}
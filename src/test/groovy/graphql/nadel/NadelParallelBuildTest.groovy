@@ -0,0 +1,76 @@
+package graphql.nadel
+
+import graphql.nadel.schema.ServiceSchemaProblem
+import graphql.nadel.testutils.TestUtil
+import spock.lang.Specification
+
+import java.util.concurrent.Executors
+
+import static graphql.nadel.Nadel.newNadel
+import static graphql.nadel.testutils.TestUtil.typeDefinitions
+
+class NadelParallelBuildTest extends Specification {
+
+    def executor = Executors.newFixedThreadPool(4)
+
+    def cleanup() {
+        executor.shutdown()
+    }
+
+    static String nsdl(int serviceCount) {
+        (1..serviceCount).collect { """
+         service Service$it {
+            type Query {
+                field$it: String
+            }
+         }
+        """ }.join("\n")
+    }
+
+    static ServiceExecutionFactory serviceFactory(Map<String, String> underlyingByService) {
+        TestUtil.serviceFactory(underlyingByService.collectEntries { name, sdl ->
+            [(name): new Tuple2<ServiceExecution, graphql.schema.idl.TypeDefinitionRegistry>(null, typeDefinitions(sdl))]
+        })
+    }
+
+    def "services are built in parallel and kept in declaration order"() {
+        given:
+        def underlying = (1..10).collectEntries { [("Service$it".toString()): "type Query { field$it: String }".toString()] }
+
+        when:
+        def nadel = newNadel()
+                .dsl(nsdl(10))
+                .serviceExecutionFactory(serviceFactory(underlying))
+                .schemaBuildExecutor(executor)
+                .build()
+
+        then:
+        nadel.services.collect { it.name } == (1..10).collect { "Service$it".toString() }
+        nadel.overallSchema.queryType.fieldDefinitions.size() == 10
+        nadel.schemaFingerprint == newNadel()
+                .dsl(nsdl(10))
+                .serviceExecutionFactory(serviceFactory(underlying))
+                .build()
+                .schemaFingerprint
+    }
+
+    def "schema problems are reported in declaration order"() {
+        given:
+        def underlying = (1..5).collectEntries { [("Service$it".toString()): "type Query { field$it: String }".toString()] }
+        underlying["Service2"] = "type Query { field2: Unknown2 }"
+        underlying["Service4"] = "type Query { field4: Unknown4 }"
+
+        when:
+        newNadel()
+                .dsl(nsdl(5))
+                .serviceExecutionFactory(serviceFactory(underlying))
+                .schemaBuildExecutor(executor)
+                .build()
+
+        then:
+        def problem = thrown(ServiceSchemaProblem)
+        problem.serviceName == "Service2"
+        problem.suppressed.size() == 1
+        (problem.suppressed[0] as ServiceSchemaProblem).serviceName == "Service4"
+    }
+}
@@ -0,0 +1,128 @@
+package graphql.nadel
+
+import graphql.execution.instrumentation.InstrumentationContext
+import graphql.language.Document
+import graphql.nadel.instrumentation.NadelInstrumentation
+import graphql.nadel.instrumentation.parameters.NadelInstrumentationQueryExecutionParameters
+import graphql.nadel.testutils.TestUtil
+import spock.lang.Specification
+
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.CompletionException
+
+import static graphql.execution.instrumentation.SimpleInstrumentationContext.noOp
+import static graphql.nadel.Nadel.newNadel
+import static graphql.nadel.NadelExecutionInput.newNadelExecutionInput
+import static graphql.nadel.testutils.TestUtil.typeDefinitions
+import static java.util.concurrent.CompletableFuture.completedFuture
+
+class ReloadableNadelTest extends Specification {
+
+    def nsdl = '''
+         service MyService {
+            type Query{
+                hello: World
+            }
+            type World {
+                id: ID
+                name: String
+            }
+         }
+        '''
+
+    def underlying = '''
+            type Query{
+                hello: World
+            }
+            type World {
+                id: ID
+                name: String
+            }
+        '''
+
+    def parseCount = 0
+
+    def instrumentation = new NadelInstrumentation() {
+        @Override
+        InstrumentationContext<Document> beginParse(NadelInstrumentationQueryExecutionParameters parameters) {
+            parseCount++
+            return noOp()
+        }
+    }
+
+    Nadel.Builder nadelBuilder(String nsdl, String underlying, ServiceExecution serviceExecution) {
+        newNadel()
+                .dsl(nsdl)
+                .serviceExecutionFactory(TestUtil.serviceFactory(serviceExecution, typeDefinitions(underlying)))
+                .instrumentation(instrumentation)
+    }
+
+    def "reload swaps in the new schema for new requests"() {
+        given:
+        def serviceExecution = Mock(ServiceExecution)
+        def reloadable = new ReloadableNadel(nadelBuilder(nsdl, underlying, serviceExecution).build(), { it.run() })
+        def newNsdl = nsdl.replace("name: String", "name: String description: String")
+        def newUnderlying = underlying.replace("name: String", "name: String description: String")
+        def oldNadel = reloadable.nadel
+
+        when:
+        def newNadel = reloadable.reload(nadelBuilder(newNsdl, newUnderlying, serviceExecution)).join()
+        def result = reloadable.execute(newNadelExecutionInput().query("{ hello { description } }")).join()
+
+        then:
+        1 * serviceExecution.execute(_) >> completedFuture(new ServiceExecutionResult([hello: [description: "world"]]))
+        reloadable.nadel.is(newNadel)
+        !reloadable.nadel.is(oldNadel)
+        result.errors.isEmpty()
+        result.data == [hello: [description: "world"]]
+    }
+
+    def "in flight requests finish on the old schema"() {
+        given:
+        def serviceResult = new CompletableFuture<ServiceExecutionResult>()
+        def serviceExecution = Mock(ServiceExecution)
+        def reloadable = new ReloadableNadel(nadelBuilder(nsdl, underlying, serviceExecution).build(), { it.run() })
+        def newNsdl = nsdl.replace("name: String", "title: String")
+        def newUnderlying = underlying.replace("name: String", "title: String")
+
+        when:
+        def inFlight = reloadable.execute(newNadelExecutionInput().query("{ hello { name } }"))
+        reloadable.reload(nadelBuilder(newNsdl, newUnderlying, serviceExecution)).join()
+        serviceResult.complete(new ServiceExecutionResult([hello: [name: "earth"]]))
+        def afterReload = reloadable.execute(newNadelExecutionInput().query("{ hello { name } }")).join()
+
+        then:
+        1 * serviceExecution.execute(_) >> serviceResult
+        inFlight.join().data == [hello: [name: "earth"]]
+        afterReload.errors.size() == 1
+    }
+
+    def "failed reload keeps the current schema"() {
+        given:
+        def serviceExecution = Mock(ServiceExecution)
+        def reloadable = new ReloadableNadel(nadelBuilder(nsdl, underlying, serviceExecution).build(), { it.run() })
+        def oldNadel = reloadable.nadel
+
+        when:
+        reloadable.reload(nadelBuilder("service X { not valid", underlying, serviceExecution)).join()
+
+        then:
+        thrown(CompletionException)
+        reloadable.nadel.is(oldNadel)
+    }
+
+    def "document cache is carried over when the schema does not change"() {
+        given:
+        def serviceExecution = Mock(ServiceExecution)
+        def reloadable = new ReloadableNadel(nadelBuilder(nsdl, underlying, serviceExecution).build(), { it.run() })
+
+        when:
+        reloadable.execute(newNadelExecutionInput().query("{ hello { name } }")).join()
+        reloadable.reload(nadelBuilder(nsdl, underlying, serviceExecution)).join()
+        reloadable.execute(newNadelExecutionInput().query("{ hello { name } }")).join()
+
+        then:
+        2 * serviceExecution.execute(_) >> completedFuture(new ServiceExecutionResult([hello: [name: "earth"]]))
+        parseCount == 1
+    }
+}
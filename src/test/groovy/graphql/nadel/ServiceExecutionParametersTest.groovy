@@ -27,6 +27,7 @@ class ServiceExecutionParametersTest extends Specification {
                 .executionId(executionId)
                 .cacheControl(cacheControl)
                 .hydrationCall(true)
+                .hydrationLevel(2)
                 .build()
 
         then:
@@ -36,5 +37,6 @@ class ServiceExecutionParametersTest extends Specification {
         parameters.executionId == executionId
         parameters.cacheControl == cacheControl
         parameters.hydrationCall
+        parameters.hydrationLevel == 2
     }
 }
@@ -0,0 +1,174 @@
+package graphql.nadel.cost
+
+import graphql.language.OperationDefinition
+import graphql.nadel.Nadel
+import graphql.nadel.ServiceExecution
+import graphql.nadel.ServiceExecutionResult
+import graphql.nadel.engine.TransformationIndex
+import graphql.nadel.testutils.TestUtil
+import spock.lang.Specification
+
+import static graphql.nadel.Nadel.newNadel
+import static graphql.nadel.NadelExecutionInput.newNadelExecutionInput
+import static graphql.nadel.cost.QueryCostLimits.newQueryCostLimits
+import static graphql.nadel.testutils.TestUtil.typeDefinitions
+import static java.util.concurrent.CompletableFuture.completedFuture
+
+class QueryCostCalculatorTest extends Specification {
+
+    def nsdl = '''
+         service Issues {
+            type Query {
+                issues(first: Int): [Issue]
+            }
+            type Issue {
+                id: ID
+                author: User => hydrated from Users.usersByIds(ids: $source.authorId) object identified by id, batch size 3
+                reporter: User => hydrated from Users.userById(id: $source.reporterId)
+                comments(first: Int): [Comment]
+            }
+            type Comment {
+                id: ID
+                author: User => hydrated from Users.usersByIds(ids: $source.authorId) object identified by id, batch size 3
+            }
+         }
+         service Users {
+            type Query {
+                usersByIds(ids: [ID]): [User]
+                userById(id: ID): User
+            }
+            type User {
+                id: ID
+                name: String
+            }
+         }
+        '''
+
+    def issuesSchema = typeDefinitions('''
+            type Query {
+                issues(first: Int): [Issue]
+            }
+            type Issue {
+                id: ID
+                authorId: ID
+                reporterId: ID
+                comments(first: Int): [Comment]
+            }
+            type Comment {
+                id: ID
+                authorId: ID
+            }
+        ''')
+
+    def usersSchema = typeDefinitions('''
+            type Query {
+                usersByIds(ids: [ID]): [User]
+                userById(id: ID): User
+            }
+            type User {
+                id: ID
+                name: String
+            }
+        ''')
+
+    ServiceExecution issuesExecution = Mock(ServiceExecution)
+    ServiceExecution usersExecution = Mock(ServiceExecution)
+
+    Nadel buildNadel(QueryCostLimits limits) {
+        def serviceFactory = TestUtil.serviceFactory([
+                Issues: new Tuple2(issuesExecution, issuesSchema),
+                Users : new Tuple2(usersExecution, usersSchema),
+        ])
+        newNadel()
+                .dsl(nsdl)
+                .serviceExecutionFactory(serviceFactory)
+                .queryCostLimits(limits)
+                .build()
+    }
+
+    def estimatedServiceCalls(String query) {
+        // a limit of one call always fails, the error then carries the whole estimate
+        def nadel = buildNadel(newQueryCostLimits().maxServiceCalls(1).build())
+        def result = nadel.execute(newNadelExecutionInput().query(query)).join()
+        return result.errors[0].extensions["estimatedServiceCalls"]
+    }
+
+    def "batched hydrations are counted per batch"() {
+        expect:
+        estimatedServiceCalls("query { issues(first: 7) { author { name } } first: issues { id } }") == [Issues: 2L, Users: 3L]
+    }
+
+    def "hydrations that are not batched are counted per element"() {
+        expect:
+        estimatedServiceCalls("query { issues { reporter { name } } }") == [Issues: 1L, Users: 10L]
+    }
+
+    def "nested lists multiply and fragments are followed"() {
+        expect:
+        estimatedServiceCalls('''
+            query { issues(first: 2) { ...IssueFields } }
+            fragment IssueFields on Issue { comments(first: 5) { ... on Comment { author { name } } } reporter { id } }
+        ''') == [Issues: 1L, Users: 6L]
+    }
+
+    def "fragments spread many times are only followed once per multiplier"() {
+        given:
+        def nadel = buildNadel(newQueryCostLimits().build())
+        def calculator = new QueryCostCalculator(nadel.services, nadel.overallSchema, new TransformationIndex(nadel.overallSchema), newQueryCostLimits().build())
+        // every fragment spreads the next one twice, so following every spread would take 2^40 steps
+        def fragments = (0..<40).collect { "fragment F$it on Issue { ...F${it + 1} ...F${it + 1} }" }
+        fragments.add("fragment F40 on Issue { reporter { id } }")
+        def document = TestUtil.parseQuery("query { issues(first: 1) { ...F0 } } " + fragments.join(" "))
+
+        when:
+        def cost = calculator.calculate(document, document.getDefinitionsOfType(OperationDefinition.class)[0])
+
+        then:
+        cost.serviceCalls == [Issues: 1L, Users: 1L << 40]
+    }
+
+    def "queries above the limits are rejected before any service is called"() {
+        given:
+        def nadel = buildNadel(newQueryCostLimits().maxCallsPerService(5).build())
+
+        when:
+        def result = nadel.execute(newNadelExecutionInput().query("query { issues(first: 6) { reporter { name } } }")).join()
+
+        then:
+        0 * issuesExecution.execute(_)
+        0 * usersExecution.execute(_)
+        result.data == null
+        result.errors.size() == 1
+        result.errors[0].errorType == QueryCostError.TooManyCallsToService
+        result.errors[0].message == "The query would make an estimated 6 calls to service 'Users' which is more than the maximum of 5"
+    }
+
+    def "queries within the limits are executed"() {
+        given:
+        def nadel = buildNadel(newQueryCostLimits().maxServiceCalls(3).maxCallsPerService(2).build())
+
+        when:
+        def result = nadel.execute(newNadelExecutionInput().query("query { issues(first: 3) { id } }")).join()
+
+        then:
+        1 * issuesExecution.execute(_) >> completedFuture(new ServiceExecutionResult([issues: [[id: "1"]]]))
+        result.errors.isEmpty()
+        result.data == [issues: [[id: "1"]]]
+    }
+
+    def "every operation of a document is checked"() {
+        given:
+        def nadel = buildNadel(newQueryCostLimits().maxCallsPerService(5).build())
+        def query = '''
+            query Cheap { issues(first: 1) { id } }
+            query Expensive { issues { reporter { name } } }
+        '''
+
+        when:
+        def result = nadel.execute(newNadelExecutionInput().query(query).operationName("Cheap")).join()
+
+        then:
+        0 * issuesExecution.execute(_)
+        result.errors[0].errorType == QueryCostError.TooManyCallsToService
+    }
+}
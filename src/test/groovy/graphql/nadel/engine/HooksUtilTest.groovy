@@ -0,0 +1,34 @@
+package graphql.nadel.engine
+
+import graphql.nadel.hooks.NewVariableValue
+import graphql.nadel.hooks.ServiceExecutionHooks
+import spock.lang.Specification
+
+class HooksUtilTest extends Specification {
+
+    static class VisitingHooks implements ServiceExecutionHooks {
+        @Override
+        NewVariableValue visitArgumentValueInQuery(HooksVisitArgumentValueEnvironment env) {
+            return null
+        }
+    }
+
+    static class SubclassOfVisitingHooks extends VisitingHooks {
+    }
+
+    def "detects whether argument values are visited"() {
+        expect:
+        !HooksUtil.visitsArgumentValues(null)
+        !HooksUtil.visitsArgumentValues(new ServiceExecutionHooks() {})
+        HooksUtil.visitsArgumentValues(new VisitingHooks())
+        HooksUtil.visitsArgumentValues(new SubclassOfVisitingHooks())
+    }
+
+    def "mocked hooks visit argument values"() {
+        when:
+        def hooks = Mock(ServiceExecutionHooks)
+
+        then:
+        HooksUtil.visitsArgumentValues(hooks)
+    }
+}
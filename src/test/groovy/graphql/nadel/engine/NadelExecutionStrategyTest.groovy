@@ -944,12 +944,14 @@ class NadelExecutionStrategyTest extends Specification {
         1 * service1Execution.execute({ ServiceExecutionParameters sep ->
             printAstCompact(sep.query) == expectedQuery1
             !sep.hydrationCall
+            sep.hydrationLevel == 0
         }) >> completedFuture(response1)
 
         then:
         1 * service2Execution.execute({ ServiceExecutionParameters sep ->
             printAstCompact(sep.query) == expectedQuery2
             sep.hydrationCall
+            sep.hydrationLevel == 1
         }) >> completedFuture(response2)
 
         resultData(response) == [foo: [bar: [[name: "Bar1"], [name: "Bar2"], [name: "Bar3"]]]]
@@ -8,6 +8,7 @@ import graphql.language.AstPrinter
 import graphql.language.Document
 import graphql.nadel.Operation
 import graphql.nadel.Service
+import graphql.nadel.hooks.NewVariableValue
 import graphql.nadel.hooks.ServiceExecutionHooks
 import graphql.nadel.testutils.TestUtil
 import graphql.schema.GraphQLSchema
@@ -258,6 +259,44 @@ class OverallQueryTransformerTest extends Specification {
     }
 
 
+    def "fragments are transformed once per service and request"() {
+        def query = TestUtil.parseQuery('''
+            {
+                first: foo(id: "1") { ...FooFragment }
+                second: foo(id: "2") { ...FooFragment }
+            }
+            fragment FooFragment on Foo { barId qux }
+            ''')
+
+        FieldSubSelection fieldSubSelection
+        ExecutionContext executionContext
+        (executionContext, fieldSubSelection) = TestUtil.executionData(schema, query)
+
+        def argumentVisits = 0
+        def hooks = new ServiceExecutionHooks() {
+            @Override
+            NewVariableValue visitArgumentValueInQuery(HooksVisitArgumentValueEnvironment env) {
+                argumentVisits++
+                return null
+            }
+        }
+        def transformer = new OverallQueryTransformer()
+
+        when:
+        def results = fieldSubSelection.getSubFields().values().collect { mergedField ->
+            transformer.transformMergedFields(executionContext, underlyingSchemaExampleService, null, Operation.QUERY, [mergedField], hooks, null, null)
+        }
+
+        then:
+        results.size() == 2
+        results[0].transformedFragments["FooFragment"].is(results[1].transformedFragments["FooFragment"])
+        AstPrinter.printAstCompact(results[1].transformedFragments["FooFragment"]) == 'fragment FooFragment on Foo {bazId qux}'
+        results[1].transformationByResultField.keySet() == results[0].transformationByResultField.keySet()
+        results[1].transformationByResultField.size() == 1
+        // only the id arguments of the two top level fields are visited
+        argumentVisits == 2
+    }
+
     private static Document doTransform(GraphQLSchema overallSchema,
                                         GraphQLSchema underlyingSchema,
                                         Document query,
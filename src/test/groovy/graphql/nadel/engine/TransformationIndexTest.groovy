@@ -0,0 +1,71 @@
+package graphql.nadel.engine
+
+import graphql.nadel.engine.transformation.FieldRenameTransformation
+import graphql.nadel.engine.transformation.HydrationTransformation
+import graphql.nadel.testutils.TestUtil
+import spock.lang.Specification
+
+class TransformationIndexTest extends Specification {
+
+    def schema = TestUtil.schemaFromNdsl('''
+        service example {
+            type Query {
+                hello: String => renamed from helloWorld
+                foo: Foo
+                node: Node
+                pet: Pet
+            }
+            interface Node => renamed from UnderlyingNode {
+                id: ID
+            }
+            type Foo implements Node => renamed from UnderlyingFoo {
+                id: ID
+                other: Other => hydrated from AnotherService.topLevel(id: $source.otherId)
+            }
+            type Bar implements Node {
+                id: ID
+            }
+            type Cat => renamed from UnderlyingCat {
+                name: String
+            }
+            type Dog {
+                name: String
+            }
+            union Pet = Cat | Dog
+        }
+        service AnotherService {
+            type Query {
+                topLevel(id: ID): Other
+            }
+            type Other {
+                id: ID
+            }
+        }
+    ''')
+
+    def index = new TransformationIndex(schema)
+
+    def "creates a new transformation for every field occurrence"() {
+        when:
+        def hello = schema.queryType.getFieldDefinition("hello")
+        def first = index.createTransformation(hello)
+        def second = index.createTransformation(hello)
+
+        then:
+        first instanceof FieldRenameTransformation
+        second instanceof FieldRenameTransformation
+        !first.is(second)
+        (first as FieldRenameTransformation).definition.inputPath == ["helloWorld"]
+        index.createTransformation(schema.getObjectType("Foo").getFieldDefinition("other")) instanceof HydrationTransformation
+        index.createTransformation(schema.queryType.getFieldDefinition("foo")) == null
+    }
+
+    def "indexes type renames including those of possible types"() {
+        expect:
+        index.getTypeMappingDefinition("Foo").underlyingName == "UnderlyingFoo"
+        index.getTypeMappingDefinition("Bar") == null
+        index.getPossibleTypeMappingDefinitions("Node").collect { it.underlyingName } as Set == ["UnderlyingNode", "UnderlyingFoo"] as Set
+        index.getPossibleTypeMappingDefinitions("Pet").collect { it.underlyingName } == ["UnderlyingCat"]
+        index.getPossibleTypeMappingDefinitions("Dog") == []
+    }
+}
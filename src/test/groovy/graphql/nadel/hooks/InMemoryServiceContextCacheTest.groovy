@@ -0,0 +1,171 @@
+package graphql.nadel.hooks
+
+import graphql.nadel.Nadel
+import graphql.nadel.ServiceExecution
+import graphql.nadel.ServiceExecutionParameters
+import graphql.nadel.ServiceExecutionResult
+import graphql.nadel.testutils.TestUtil
+import spock.lang.Specification
+
+import java.time.Duration
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.function.LongSupplier
+
+import static graphql.nadel.Nadel.newNadel
+import static graphql.nadel.NadelExecutionInput.newNadelExecutionInput
+import static graphql.nadel.testutils.TestUtil.typeDefinitions
+import static java.util.concurrent.CompletableFuture.completedFuture
+
+class InMemoryServiceContextCacheTest extends Specification {
+
+    def nsdl = '''
+         service MyService {
+            type Query {
+                hello: String
+                bye: String
+            }
+         }
+        '''
+
+    def underlyingSchema = typeDefinitions('''
+            type Query {
+                hello: String
+                bye: String
+            }
+        ''')
+
+    def "service contexts expire after their time to live"() {
+        given:
+        long now = 0
+        def cache = new InMemoryServiceContextCache(Duration.ofSeconds(10), 10, { now } as LongSupplier)
+        def createCount = 0
+        def create = { key -> completedFuture("context-" + (++createCount)) }
+
+        when:
+        def first = cache.computeIfAbsent("key", create).join()
+        now = Duration.ofSeconds(5).toNanos()
+        def second = cache.computeIfAbsent("key", create).join()
+        now = Duration.ofSeconds(11).toNanos()
+        def third = cache.computeIfAbsent("key", create).join()
+
+        then:
+        first == "context-1"
+        second == "context-1"
+        third == "context-2"
+        createCount == 2
+    }
+
+    def "pending service contexts are shared and failed ones are not kept"() {
+        given:
+        def cache = new InMemoryServiceContextCache(Duration.ofMinutes(1))
+        def pending = new CompletableFuture<Object>()
+        def createCount = 0
+
+        when:
+        def first = cache.computeIfAbsent("key", { key -> createCount++; pending })
+        def second = cache.computeIfAbsent("key", { key -> createCount++; completedFuture("other") })
+        pending.completeExceptionally(new RuntimeException("lookup failed"))
+        def third = cache.computeIfAbsent("key", { key -> createCount++; completedFuture("retried") })
+
+        then:
+        createCount == 2
+        first.isCompletedExceptionally()
+        second.isCompletedExceptionally()
+        third.join() == "retried"
+        cache.size() == 1
+    }
+
+    def "overlapping requests create a service context once"() {
+        given:
+        def cache = new InMemoryServiceContextCache(Duration.ofMinutes(1))
+        def createCount = new AtomicInteger()
+        def creating = new CountDownLatch(1)
+        def release = new CountDownLatch(1)
+        def create = { key ->
+            createCount.incrementAndGet()
+            creating.countDown()
+            release.await(10, TimeUnit.SECONDS)
+            completedFuture("context")
+        }
+
+        when:
+        def first = CompletableFuture.supplyAsync({ cache.computeIfAbsent("key", create).join() })
+        creating.await(10, TimeUnit.SECONDS)
+        def second = cache.computeIfAbsent("key", create)
+        release.countDown()
+
+        then:
+        first.join() == "context"
+        second.join() == "context"
+        createCount.get() == 1
+    }
+
+    def "service contexts are shared by top level fields and across requests"() {
+        given:
+        def createCount = 0
+        def serviceContexts = []
+        def hooks = new ServiceExecutionHooks() {
+            @Override
+            Object getServiceContextCacheKey(CreateServiceContextParams params) {
+                return "tenant-1"
+            }
+
+            @Override
+            CompletableFuture<Object> createServiceContext(CreateServiceContextParams params) {
+                return completedFuture("context-" + (++createCount))
+            }
+        }
+        ServiceExecution serviceExecution = { ServiceExecutionParameters params ->
+            serviceContexts.add(params.serviceContext)
+            completedFuture(new ServiceExecutionResult([hello: "hello", bye: "bye"]))
+        }
+        Nadel nadel = newNadel()
+                .dsl(nsdl)
+                .serviceExecutionFactory(TestUtil.serviceFactory(serviceExecution, underlyingSchema))
+                .serviceExecutionHooks(hooks)
+                .serviceContextCache(new InMemoryServiceContextCache(Duration.ofMinutes(1)))
+                .build()
+
+        when:
+        nadel.execute(newNadelExecutionInput().query("{ hello bye }")).join()
+        nadel.execute(newNadelExecutionInput().query("{ hello }")).join()
+
+        then:
+        createCount == 1
+        serviceContexts == ["context-1", "context-1", "context-1"]
+    }
+
+    def "service contexts are only shared within a request by default"() {
+        given:
+        def createCount = 0
+        def hooks = new ServiceExecutionHooks() {
+            @Override
+            Object getServiceContextCacheKey(CreateServiceContextParams params) {
+                return "tenant-1"
+            }
+
+            @Override
+            CompletableFuture<Object> createServiceContext(CreateServiceContextParams params) {
+                return completedFuture("context-" + (++createCount))
+            }
+        }
+        ServiceExecution serviceExecution = { ServiceExecutionParameters params ->
+            completedFuture(new ServiceExecutionResult([hello: "hello", bye: "bye"]))
+        }
+        Nadel nadel = newNadel()
+                .dsl(nsdl)
+                .serviceExecutionFactory(TestUtil.serviceFactory(serviceExecution, underlyingSchema))
+                .serviceExecutionHooks(hooks)
+                .build()
+
+        when:
+        nadel.execute(newNadelExecutionInput().query("{ hello bye }")).join()
+        nadel.execute(newNadelExecutionInput().query("{ hello bye }")).join()
+
+        then:
+        createCount == 2
+    }
+}
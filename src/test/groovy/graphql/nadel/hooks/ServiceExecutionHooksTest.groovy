@@ -213,6 +213,128 @@ class ServiceExecutionHooksTest extends Specification {
         } as ServiceExecutionParameters) >> completedFuture(new ServiceExecutionResult(null))
     }
 
+    def "argument values are resolved asynchronously and once per service call"() {
+        given:
+        def underlyingSchema = TestUtil.schema("""
+        type Query {
+            foo(id: String): String
+            bar(id: String, limit: Int): String
+        }
+        """)
+
+        def overallSchema = TestUtil.schema("""
+        type Query {
+            foo(id: String): String
+            bar(id: String, limit: Int): String
+        }
+        """)
+        def queries = []
+        ServiceExecution serviceExecution = { params ->
+            queries.add(printAstCompact(params.query))
+            completedFuture(new ServiceExecutionResult([:]))
+        }
+        def service = new Service("service", underlyingSchema, serviceExecution, serviceDefinition, definitionRegistry)
+        def fieldInfos = new FieldInfos(overallSchema.getQueryType().getFieldDefinitions().collectEntries {
+            [(it): new FieldInfo(FieldInfo.FieldKind.TOPLEVEL, service, it)]
+        })
+
+        def pendingCalls = []
+        def serviceExecutionHooks = new ServiceExecutionHooks() {
+            @Override
+            CompletableFuture<ArgumentValuesResult> resolveArgumentValuesInQuery(ResolveArgumentValuesParams params) {
+                def result = new CompletableFuture<ArgumentValuesResult>()
+                pendingCalls.add([params, result])
+                return result
+            }
+        }
+        NadelExecutionStrategy nadelExecutionStrategy = new NadelExecutionStrategy([service], fieldInfos, overallSchema, instrumentation, serviceExecutionHooks)
+
+        def query = '{foo(id: "fooId") bar(id: "barId", limit: 10)}'
+        def executionData = createExecutionData(query, overallSchema)
+
+        when:
+        def response = nadelExecutionStrategy.execute(executionData.executionContext, executionData.fieldSubSelection)
+
+        then:
+        pendingCalls.size() == 2
+        queries.isEmpty()
+        !response.isDone()
+
+        when:
+        pendingCalls.each { call ->
+            ResolveArgumentValuesParams params = call[0]
+            def resultBuilder = ArgumentValuesResult.newResult()
+            params.argumentValues
+                    .findAll { it.underlyingArgument.name == "id" }
+                    .each { resultBuilder.replaceValue(it, StringValue.newStringValue(it.value.value + "-translated").build()) }
+            call[1].complete(resultBuilder.build())
+        }
+        response.join()
+
+        then:
+        pendingCalls.collect { call -> call[0].argumentValues.collect { it.underlyingArgument.name } } == [["id"], ["id", "limit"]]
+        queries == ['query nadel_2_service {foo(id:"fooId-translated")}',
+                    'query nadel_2_service {bar(id:"barId-translated",limit:10)}']
+    }
+
+    def "fragments are transformed again for top level fields with different service contexts"() {
+        given:
+        def underlyingSchema = TestUtil.schema("""
+        type Query {
+            foo: Foo
+            bar: Foo
+        }
+        type Foo {
+            name(id: String): String
+        }
+        """)
+
+        def overallSchema = TestUtil.schema("""
+        type Query {
+            foo: Foo
+            bar: Foo
+        }
+        type Foo {
+            name(id: String): String
+        }
+        """)
+        def queries = []
+        ServiceExecution serviceExecution = { params ->
+            queries.add(printAstCompact(params.query))
+            completedFuture(new ServiceExecutionResult([:]))
+        }
+        def service = new Service("service", underlyingSchema, serviceExecution, serviceDefinition, definitionRegistry)
+        def fieldInfos = new FieldInfos(overallSchema.getQueryType().getFieldDefinitions().collectEntries {
+            [(it): new FieldInfo(FieldInfo.FieldKind.TOPLEVEL, service, it)]
+        })
+
+        def serviceExecutionHooks = new ServiceExecutionHooks() {
+            @Override
+            CompletableFuture<Object> createServiceContext(CreateServiceContextParams params) {
+                return completedFuture("context-" + params.executionStepInfo.fieldDefinition.name)
+            }
+
+            @Override
+            NewVariableValue visitArgumentValueInQuery(HooksVisitArgumentValueEnvironment env) {
+                if (env.getUnderlyingInputValueDefinition().getName() == "id") {
+                    TreeTransformerUtil.changeNode(env.getTraverserContext(), StringValue.newStringValue(env.serviceContext as String).build())
+                }
+                return null
+            }
+        }
+        NadelExecutionStrategy nadelExecutionStrategy = new NadelExecutionStrategy([service], fieldInfos, overallSchema, instrumentation, serviceExecutionHooks)
+
+        def query = '{foo { ...F } bar { ...F }} fragment F on Foo { name(id: "id") }'
+        def executionData = createExecutionData(query, overallSchema)
+
+        when:
+        nadelExecutionStrategy.execute(executionData.executionContext, executionData.fieldSubSelection).join()
+
+        then:
+        queries.sort() == ['query nadel_2_service {bar {...F}} fragment F on Foo {name(id:"context-bar")}',
+                           'query nadel_2_service {foo {...F}} fragment F on Foo {name(id:"context-foo")}']
+    }
+
     def "service result can be modified"() {
         given:
         def underlyingSchema = TestUtil.schema("""
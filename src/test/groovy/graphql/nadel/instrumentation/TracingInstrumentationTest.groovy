@@ -0,0 +1,113 @@
+package graphql.nadel.instrumentation
+
+import graphql.AssertException
+import graphql.ExecutionInput
+import graphql.nadel.Nadel
+import graphql.nadel.ServiceExecution
+import graphql.nadel.ServiceExecutionResult
+import graphql.nadel.instrumentation.parameters.NadelInstrumentationCreateStateParameters
+import graphql.nadel.testutils.TestUtil
+import spock.lang.Specification
+
+import static graphql.nadel.Nadel.newNadel
+import static graphql.nadel.NadelExecutionInput.newNadelExecutionInput
+import static graphql.nadel.engine.InstrumentationUtil.instrumentsFieldFetches
+import static graphql.nadel.testutils.TestUtil.typeDefinitions
+import static java.util.concurrent.CompletableFuture.completedFuture
+
+class TracingInstrumentationTest extends Specification {
+
+    def nsdl = '''
+         service Foo {
+            type Query {
+                foo: Foo
+            }
+            type Foo {
+                name: String
+            }
+         }
+        '''
+
+    Nadel mkNadel(TracingInstrumentation instrumentation) {
+        ServiceExecution serviceExecution = { params -> completedFuture(new ServiceExecutionResult([foo: [name: "foo"]])) }
+        newNadel()
+                .dsl(nsdl)
+                .serviceExecutionFactory(TestUtil.serviceFactory(serviceExecution, typeDefinitions("type Query { foo: Foo } type Foo { name: String }")))
+                .instrumentation(instrumentation)
+                .build()
+    }
+
+    def "every request is traced by default"() {
+        given:
+        def nadel = mkNadel(new TracingInstrumentation())
+
+        when:
+        def result = nadel.execute(newNadelExecutionInput().query("{ foo { name } }")).join()
+
+        then:
+        result.data == [foo: [name: "foo"]]
+        def resolvers = result.extensions["tracing"]["execution"]["resolvers"]
+        resolvers.collect { it["path"] } as Set == [["foo"], ["foo", "name"]] as Set
+    }
+
+    def "requests that are not sampled are not traced"() {
+        given:
+        def instrumentation = new TracingInstrumentation(TracingSampler.rate(0))
+        def nadel = mkNadel(instrumentation)
+
+        when:
+        def result = nadel.execute(newNadelExecutionInput().query("{ foo { name } }")).join()
+
+        then:
+        result.data == [foo: [name: "foo"]]
+        result.extensions == null
+        !instrumentsFieldFetches(instrumentation, null)
+    }
+
+    def "forced requests are traced into the sink"() {
+        given:
+        def traces = []
+        def sampler = TracingSampler.rate(0).forcedBy({ ExecutionInput input -> input.context == "trace me" })
+        def nadel = mkNadel(new TracingInstrumentation(sampler, { parameters, tracingData -> traces.add(tracingData) }))
+
+        when:
+        def forced = nadel.execute(newNadelExecutionInput().query("{ foo { name } }").context("trace me")).join()
+        def notForced = nadel.execute(newNadelExecutionInput().query("{ foo { name } }").context("other")).join()
+
+        then:
+        forced.data == [foo: [name: "foo"]]
+        forced.extensions == null
+        notForced.extensions == null
+        traces.size() == 1
+        traces[0]["execution"]["resolvers"].size() == 2
+    }
+
+    def "requests are sampled by operation name"() {
+        given:
+        def sampler = TracingSampler.rateByOperationName([Traced: 1d, NotTraced: 0d], 0d)
+
+        expect:
+        sampler.isSampled(createStateParameters("Traced"))
+        !sampler.isSampled(createStateParameters("NotTraced"))
+        !sampler.isSampled(createStateParameters("Other"))
+        !sampler.isSampled(createStateParameters(null))
+    }
+
+    def "sampling rates must be between 0 and 1"() {
+        when:
+        TracingSampler.rate(1.5d)
+
+        then:
+        thrown(AssertException)
+
+        when:
+        TracingSampler.rateByOperationName([Op: -1d], 0d)
+
+        then:
+        thrown(AssertException)
+    }
+
+    private static NadelInstrumentationCreateStateParameters createStateParameters(String operationName) {
+        new NadelInstrumentationCreateStateParameters(null, ExecutionInput.newExecutionInput().query("{ foo }").operationName(operationName).build())
+    }
+}
@@ -0,0 +1,137 @@
+package graphql.nadel.instrumentation.limits
+
+import graphql.nadel.Nadel
+import graphql.nadel.ServiceExecution
+import graphql.nadel.ServiceExecutionResult
+import graphql.nadel.testutils.TestUtil
+import spock.lang.Specification
+
+import static graphql.nadel.Nadel.newNadel
+import static graphql.nadel.NadelExecutionInput.newNadelExecutionInput
+import static graphql.nadel.instrumentation.limits.QueryLimits.newQueryLimits
+import static graphql.nadel.testutils.TestUtil.typeDefinitions
+import static java.util.concurrent.CompletableFuture.completedFuture
+
+class QueryLimitsInstrumentationTest extends Specification {
+
+    def nsdl = '''
+         service Issues {
+            type Query {
+                issue: Issue
+            }
+            type Issue {
+                id: ID
+                parent: Issue
+                author: User => hydrated from Users.userById(id: $source.authorId)
+            }
+         }
+         service Users {
+            type Query {
+                userById(id: ID): User
+            }
+            type User {
+                id: ID
+                manager: User => hydrated from Users.userById(id: $source.managerId)
+            }
+         }
+        '''
+
+    def issuesSchema = typeDefinitions('''
+            type Query {
+                issue: Issue
+            }
+            type Issue {
+                id: ID
+                parent: Issue
+                authorId: ID
+            }
+        ''')
+
+    def usersSchema = typeDefinitions('''
+            type Query {
+                userById(id: ID): User
+            }
+            type User {
+                id: ID
+                managerId: ID
+            }
+        ''')
+
+    ServiceExecution issuesExecution = Mock(ServiceExecution)
+    ServiceExecution usersExecution = Mock(ServiceExecution)
+
+    Nadel buildNadel(QueryLimitsInstrumentation instrumentation) {
+        def serviceFactory = TestUtil.serviceFactory([
+                Issues: new Tuple2(issuesExecution, issuesSchema),
+                Users : new Tuple2(usersExecution, usersSchema),
+        ])
+        newNadel()
+                .dsl(nsdl)
+                .serviceExecutionFactory(serviceFactory)
+                .instrumentation(instrumentation)
+                .build()
+    }
+
+    def "queries within the limits are executed"() {
+        given:
+        def instrumentation = new QueryLimitsInstrumentation(newQueryLimits().maxDepth(3).maxFields(4).maxAliases(1).build())
+        def nadel = buildNadel(instrumentation)
+
+        when:
+        def result = nadel.execute(newNadelExecutionInput().query("query { issue { key: id parent { id } } }")).join()
+
+        then:
+        1 * issuesExecution.execute(_) >> completedFuture(new ServiceExecutionResult([issue: [key: "1", parent: [id: "2"]]]))
+        result.errors.isEmpty()
+        QueryLimitViolation.values().every { instrumentation.getViolationCount(it) == 0 }
+    }
+
+    def "queries above the limits are rejected with one error per limit"() {
+        given:
+        def instrumentation = new QueryLimitsInstrumentation(newQueryLimits().maxDepth(2).maxAliases(1).build())
+        def nadel = buildNadel(instrumentation)
+
+        when:
+        def result = nadel.execute(newNadelExecutionInput().query("query Deep { issue { a: id b: id parent { id } } }")).join()
+
+        then:
+        0 * issuesExecution.execute(_)
+        result.data == null
+        result.errors.collect { it.errorType } == [QueryLimitViolation.MaxDepthExceeded, QueryLimitViolation.MaxAliasesExceeded]
+        result.errors[0].message == "The operation 'Deep' has a depth of 3 which is more than the maximum of 2"
+        result.errors[1].extensions == [classification: "MaxAliasesExceeded", actual: 2L, limit: 1L]
+        instrumentation.getViolationCount(QueryLimitViolation.MaxDepthExceeded) == 1
+        instrumentation.getViolationCount(QueryLimitViolation.MaxAliasesExceeded) == 1
+        instrumentation.getViolationCount(QueryLimitViolation.MaxFieldsExceeded) == 0
+    }
+
+    def "nested hydrations are limited"() {
+        given:
+        def instrumentation = new QueryLimitsInstrumentation(newQueryLimits().maxHydrationDepth(1).build())
+        def nadel = buildNadel(instrumentation)
+
+        when:
+        def result = nadel.execute(newNadelExecutionInput().query("query { issue { author { manager { id } } } }")).join()
+
+        then:
+        0 * issuesExecution.execute(_)
+        result.errors.collect { it.errorType } == [QueryLimitViolation.MaxHydrationDepthExceeded]
+    }
+
+    def "fragments are counted every time they are spread but measured once"() {
+        given:
+        def instrumentation = new QueryLimitsInstrumentation(newQueryLimits().maxFields(1000).build())
+        def nadel = buildNadel(instrumentation)
+        // every level spreads the previous one twice, so the query has 2^20 fields
+        def fragments = (1..20).collect { "fragment F$it on Issue { parent { ...F${it - 1} } id: parent { ...F${it - 1} } }" }.join("\n")
+        def query = "query { issue { ...F20 } }\nfragment F0 on Issue { id }\n" + fragments
+
+        when:
+        def result = nadel.execute(newNadelExecutionInput().query(query)).join()
+
+        then:
+        0 * issuesExecution.execute(_)
+        result.errors.collect { it.errorType } == [QueryLimitViolation.MaxFieldsExceeded]
+        result.errors[0].extensions["actual"] > 1_000_000L
+    }
+}
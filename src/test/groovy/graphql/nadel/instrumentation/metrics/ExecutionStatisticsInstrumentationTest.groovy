@@ -0,0 +1,82 @@
+package graphql.nadel.instrumentation.metrics
+
+import graphql.nadel.Nadel
+import graphql.nadel.ServiceExecution
+import graphql.nadel.ServiceExecutionParameters
+import graphql.nadel.ServiceExecutionResult
+import graphql.nadel.instrumentation.TracingSampler
+import graphql.nadel.testutils.TestUtil
+import spock.lang.Specification
+
+import static graphql.nadel.Nadel.newNadel
+import static graphql.nadel.NadelExecutionInput.newNadelExecutionInput
+import static graphql.nadel.testutils.TestUtil.typeDefinitions
+import static java.util.concurrent.CompletableFuture.completedFuture
+
+class ExecutionStatisticsInstrumentationTest extends Specification {
+
+    def nsdl = '''
+         service Foo {
+            type Query {
+                foos: [Foo]
+            }
+            type Foo {
+                id: ID
+                bar: Bar => hydrated from Bar.barById(id: $source.barId)
+            }
+         }
+         service Bar {
+            type Query {
+                barById(id: ID): Bar
+            }
+            type Bar {
+                name: String
+            }
+         }
+        '''
+
+    Nadel buildNadel(ExecutionStatisticsInstrumentation instrumentation) {
+        ServiceExecution fooExecution = { ServiceExecutionParameters params ->
+            completedFuture(new ServiceExecutionResult([foos: [[id: "1", barId: "b1"], [id: "2", barId: "b2"]]]))
+        }
+        ServiceExecution barExecution = { ServiceExecutionParameters params -> completedFuture(new ServiceExecutionResult([barById: [name: "bar"]])) }
+        def serviceFactory = TestUtil.serviceFactory([
+                Foo: new Tuple2(fooExecution, typeDefinitions("type Query { foos: [Foo] } type Foo { id: ID barId: ID }")),
+                Bar: new Tuple2(barExecution, typeDefinitions("type Query { barById(id: ID): Bar } type Bar { name: String }")),
+        ])
+        newNadel()
+                .dsl(nsdl)
+                .serviceExecutionFactory(serviceFactory)
+                .instrumentation(instrumentation)
+                .build()
+    }
+
+    def "execution statistics are added to the result extensions"() {
+        given:
+        def nadel = buildNadel(new ExecutionStatisticsInstrumentation())
+
+        when:
+        def result = nadel.execute(newNadelExecutionInput().query("{ foos { id bar { name } } }")).join()
+
+        then:
+        result.errors.isEmpty()
+        def statistics = result.extensions["nadel"]
+        statistics["serviceCalls"] == [Foo: 1, Bar: 2]
+        statistics["hydrations"] == [[level: 1, inputCount: 2, calls: 2, services: ["Bar"]]]
+        statistics["nodesConverted"] > 0
+        (statistics["phaseNanos"] as Map).keySet().containsAll(["PARSE", "VALIDATE", "EXECUTE", "PLAN", "SERVICE", "CONVERT", "HYDRATE"])
+    }
+
+    def "requests that are not sampled get no statistics"() {
+        given:
+        def nadel = buildNadel(new ExecutionStatisticsInstrumentation({ false } as TracingSampler))
+
+        when:
+        def result = nadel.execute(newNadelExecutionInput().query("{ foos { id bar { name } } }")).join()
+
+        then:
+        result.errors.isEmpty()
+        result.extensions == null
+        result.data == [foos: [[id: "1", bar: [name: "bar"]], [id: "2", bar: [name: "bar"]]]]
+    }
+}
@@ -0,0 +1,72 @@
+package graphql.nadel.instrumentation.metrics
+
+import spock.lang.Specification
+
+import java.util.concurrent.TimeUnit
+
+class LatencyHistogramTest extends Specification {
+
+    def "percentiles are within the bucket precision"() {
+        given:
+        def histogram = new LatencyHistogram()
+
+        when:
+        (1..1000).each { histogram.record(TimeUnit.MICROSECONDS.toNanos(it)) }
+
+        then:
+        histogram.getCount() == 1000
+        histogram.getMax(TimeUnit.MICROSECONDS) == 1000
+        Math.abs(histogram.getValueAtPercentile(50, TimeUnit.MICROSECONDS) - 500) <= 500 * 0.04
+        Math.abs(histogram.getValueAtPercentile(99, TimeUnit.MICROSECONDS) - 990) <= 990 * 0.04
+        histogram.getValueAtPercentile(100, TimeUnit.MICROSECONDS) == 1000
+        histogram.getMean(TimeUnit.MICROSECONDS) == 500.5d
+        histogram.getTotal(TimeUnit.MICROSECONDS) == 500500
+    }
+
+    def "every value falls into a bucket that contains it"() {
+        expect:
+        def buckets = LatencyHistogram.PRECISE
+        buckets.highestValueInBucket(buckets.bucketIndex(value)) >= value
+        buckets.bucketIndex(value) == 0 || buckets.highestValueInBucket(buckets.bucketIndex(value) - 1) < value
+
+        where:
+        value << [0L, 1L, 63L, 64L, 65L, 1000L, 123_456_789L, Long.MAX_VALUE]
+    }
+
+    def "coarse buckets contain every value up to their max exponent and count longer values in the last bucket"() {
+        given:
+        def buckets = LatencyHistogram.COARSE
+
+        expect:
+        buckets.count == 280
+        buckets.highestValueInBucket(buckets.count - 1) == (1L << 37) - 1
+        buckets.bucketIndex(value) < buckets.count
+        buckets.highestValueInBucket(buckets.bucketIndex(value)) >= Math.min(value, (1L << 37) - 1)
+        buckets.bucketIndex(value) == 0 || buckets.highestValueInBucket(buckets.bucketIndex(value) - 1) < value
+
+        where:
+        value << [0L, 1L, 15L, 16L, 17L, 1000L, 123_456_789L, (1L << 37) - 1, 1L << 37, Long.MAX_VALUE]
+    }
+
+    def "a coarse histogram reports values above its range as the max"() {
+        given:
+        def histogram = new LatencyHistogram(LatencyHistogram.COARSE)
+
+        when:
+        histogram.record(TimeUnit.MILLISECONDS.toNanos(100))
+        histogram.record(TimeUnit.MINUTES.toNanos(5))
+
+        then:
+        Math.abs(histogram.getValueAtPercentile(50, TimeUnit.MILLISECONDS) - 100) <= 100 * 0.13
+        histogram.getValueAtPercentile(100, TimeUnit.MINUTES) == 5
+    }
+
+    def "an empty histogram reports zero"() {
+        given:
+        def histogram = new LatencyHistogram()
+
+        expect:
+        histogram.getValueAtPercentile(99, TimeUnit.NANOSECONDS) == 0
+        histogram.getMean(TimeUnit.NANOSECONDS) == 0
+    }
+}
@@ -0,0 +1,89 @@
+package graphql.nadel.instrumentation.metrics
+
+import graphql.nadel.Nadel
+import graphql.nadel.ServiceExecution
+import graphql.nadel.ServiceExecutionParameters
+import graphql.nadel.ServiceExecutionResult
+import graphql.nadel.testutils.TestUtil
+import spock.lang.Specification
+
+import java.util.concurrent.CompletableFuture
+
+import static graphql.nadel.Nadel.newNadel
+import static graphql.nadel.NadelExecutionInput.newNadelExecutionInput
+import static graphql.nadel.testutils.TestUtil.typeDefinitions
+import static java.util.concurrent.CompletableFuture.completedFuture
+
+class MetricsNadelInstrumentationTest extends Specification {
+
+    def nsdl = '''
+         service Foo {
+            type Query {
+                foo: String
+            }
+         }
+         service Bar {
+            type Query {
+                bar: String
+            }
+         }
+        '''
+
+    def "service calls and phases are recorded"() {
+        given:
+        def metricsRegistry = new MetricsRegistry()
+        def pendingBar = new CompletableFuture<ServiceExecutionResult>()
+        ServiceExecution fooExecution = { ServiceExecutionParameters params -> completedFuture(new ServiceExecutionResult([foo: "foo"])) }
+        ServiceExecution barExecution = { ServiceExecutionParameters params -> pendingBar }
+        def serviceFactory = TestUtil.serviceFactory([
+                Foo: new Tuple2(fooExecution, typeDefinitions("type Query { foo: String }")),
+                Bar: new Tuple2(barExecution, typeDefinitions("type Query { bar: String }")),
+        ])
+        Nadel nadel = newNadel()
+                .dsl(nsdl)
+                .serviceExecutionFactory(serviceFactory)
+                .instrumentation(new MetricsNadelInstrumentation(metricsRegistry))
+                .build()
+
+        when:
+        def result = nadel.execute(newNadelExecutionInput().query("{ foo bar }"))
+
+        then:
+        metricsRegistry.getServiceMetrics("Foo").getInFlightCount() == 0
+        metricsRegistry.getServiceMetrics("Bar").getInFlightCount() == 1
+
+        when:
+        pendingBar.complete(new ServiceExecutionResult(null, [[message: "bar failed"]]))
+        result.join()
+        def exported = []
+        metricsRegistry.exportTo(new MetricsExporter() {
+            @Override
+            void exportServiceMetrics(ServiceMetrics serviceMetrics) {
+                exported.add(serviceMetrics.getServiceName())
+            }
+
+            @Override
+            void exportPhaseTimings(Phase phase, LatencyHistogram timings) {
+                exported.add(phase)
+            }
+        })
+
+        then:
+        def fooMetrics = metricsRegistry.getServiceMetrics("Foo")
+        fooMetrics.getLatency().getCount() == 1
+        fooMetrics.getErrorRate() == 0d
+        def barMetrics = metricsRegistry.getServiceMetrics("Bar")
+        barMetrics.getLatency().getCount() == 1
+        barMetrics.getInFlightCount() == 0
+        barMetrics.getErrorCount() == 1
+        barMetrics.getErrorRate() == 1d
+        metricsRegistry.getPhaseTimings(Phase.PARSE).getCount() == 1
+        metricsRegistry.getPhaseTimings(Phase.VALIDATE).getCount() == 1
+        metricsRegistry.getPhaseTimings(Phase.EXECUTE).getCount() == 1
+        metricsRegistry.getPhaseTimings(Phase.SERVICE).getCount() == 2
+        metricsRegistry.getPhaseTimings(Phase.PLAN).getCount() == 2
+        metricsRegistry.getPhaseTimings(Phase.CONVERT).getCount() > 0
+        metricsRegistry.getPhaseTimings(Phase.HYDRATE).getCount() == 0
+        exported as Set == ["Foo", "Bar", Phase.PARSE, Phase.VALIDATE, Phase.EXECUTE, Phase.PLAN, Phase.SERVICE, Phase.CONVERT] as Set
+    }
+}
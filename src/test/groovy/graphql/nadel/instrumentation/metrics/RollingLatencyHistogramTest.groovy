@@ -0,0 +1,54 @@
+package graphql.nadel.instrumentation.metrics
+
+import spock.lang.Specification
+
+import java.util.concurrent.TimeUnit
+import java.util.function.LongSupplier
+
+class RollingLatencyHistogramTest extends Specification {
+
+    def "values fall out of the window slice by slice"() {
+        given:
+        long now = 0
+        def histogram = new RollingLatencyHistogram(60, 6, TimeUnit.SECONDS, { now } as LongSupplier)
+
+        when:
+        histogram.record(TimeUnit.MILLISECONDS.toNanos(500))
+        now = TimeUnit.SECONDS.toNanos(30)
+        histogram.record(TimeUnit.MILLISECONDS.toNanos(100))
+
+        then:
+        histogram.getCount() == 2
+        histogram.getValueAtPercentile(100, TimeUnit.MILLISECONDS) == 500
+
+        when:
+        now = TimeUnit.SECONDS.toNanos(65)
+
+        then:
+        histogram.getCount() == 1
+        histogram.getValueAtPercentile(100, TimeUnit.MILLISECONDS) == 100
+
+        when:
+        now = TimeUnit.SECONDS.toNanos(95)
+        histogram.record(TimeUnit.MILLISECONDS.toNanos(7))
+
+        then:
+        histogram.getCount() == 1
+        histogram.getValueAtPercentile(50, TimeUnit.MILLISECONDS) == 7
+    }
+
+    def "a slice is reused once the window has moved past it"() {
+        given:
+        long now = 0
+        def histogram = new RollingLatencyHistogram(2, 2, TimeUnit.SECONDS, { now } as LongSupplier)
+
+        when:
+        histogram.record(1000)
+        now = TimeUnit.SECONDS.toNanos(2)
+        histogram.record(2000)
+
+        then:
+        histogram.getCount() == 1
+        histogram.getValueAtPercentile(100, TimeUnit.NANOSECONDS) == 2000
+    }
+}
@@ -0,0 +1,144 @@
+package graphql.nadel.instrumentation.metrics
+
+import graphql.nadel.Nadel
+import graphql.nadel.ServiceExecution
+import graphql.nadel.ServiceExecutionParameters
+import graphql.nadel.ServiceExecutionResult
+import graphql.nadel.instrumentation.parameters.NadelInstrumentationResultConversionParameters
+import graphql.nadel.testutils.TestUtil
+import graphql.nadel.util.DigestUtil
+import spock.lang.Specification
+
+import java.util.concurrent.TimeUnit
+
+import static graphql.nadel.Nadel.newNadel
+import static graphql.nadel.NadelExecutionInput.newNadelExecutionInput
+import static graphql.nadel.instrumentation.metrics.SloNadelInstrumentation.newSloNadelInstrumentation
+import static graphql.nadel.testutils.TestUtil.typeDefinitions
+import static java.util.concurrent.CompletableFuture.completedFuture
+
+class SloNadelInstrumentationTest extends Specification {
+
+    def nsdl = '''
+         service Foo {
+            type Query {
+                foo: Foo
+            }
+            type Foo {
+                id: ID
+                bar: Bar => hydrated from Bar.barById(id: $source.barId)
+            }
+         }
+         service Bar {
+            type Query {
+                barById(id: ID): Bar
+            }
+            type Bar {
+                name: String
+            }
+         }
+        '''
+
+    Nadel buildNadel(SloNadelInstrumentation instrumentation) {
+        ServiceExecution fooExecution = { ServiceExecutionParameters params ->
+            Thread.sleep(20)
+            completedFuture(new ServiceExecutionResult([foo: [id: "1", barId: "b"]]))
+        }
+        ServiceExecution barExecution = { ServiceExecutionParameters params -> completedFuture(new ServiceExecutionResult([barById: [name: "bar"]])) }
+        def serviceFactory = TestUtil.serviceFactory([
+                Foo: new Tuple2(fooExecution, typeDefinitions("type Query { foo: Foo } type Foo { id: ID barId: ID }")),
+                Bar: new Tuple2(barExecution, typeDefinitions("type Query { barById(id: ID): Bar } type Bar { name: String }")),
+        ])
+        newNadel()
+                .dsl(nsdl)
+                .serviceExecutionFactory(serviceFactory)
+                .instrumentation(instrumentation)
+                .build()
+    }
+
+    def "requests slower than their SLO are captured"() {
+        given:
+        def instrumentation = newSloNadelInstrumentation()
+                .defaultSlo(1, TimeUnit.MINUTES)
+                .operationSlo("Slow", 1, TimeUnit.MILLISECONDS)
+                .build()
+        def nadel = buildNadel(instrumentation)
+        def slowQuery = "query Slow { foo { id bar { name } } }"
+
+        when:
+        nadel.execute(newNadelExecutionInput().query("query Fast { foo { id } }")).join()
+        nadel.execute(newNadelExecutionInput().query(slowQuery)).join()
+
+        then:
+        instrumentation.getOperationLatency("Fast").getCount() == 1
+        instrumentation.getOperationLatency("Slow").getCount() == 1
+        instrumentation.getOperationLatency("Slow").getValueAtPercentile(50, TimeUnit.MILLISECONDS) >= 20
+
+        def records = instrumentation.getSlowQueryLog().dump()
+        records.size() == 1
+        def record = records[0]
+        record.operationName == "Slow"
+        record.queryHash == DigestUtil.sha256Hex(slowQuery)
+        record.getDuration(TimeUnit.MILLISECONDS) >= 20
+        record.getSlo(TimeUnit.MILLISECONDS) == 1
+        record.serviceCalls == [Foo: 1, Bar: 1]
+        record.hydrationInputCounts == [1]
+        record.phaseNanos[Phase.SERVICE] >= TimeUnit.MILLISECONDS.toNanos(20)
+        record.phaseNanos.containsKey(Phase.PARSE)
+        record.phaseNanos.containsKey(Phase.HYDRATE)
+    }
+
+    def "operations above the maximum are recorded together"() {
+        given:
+        def instrumentation = newSloNadelInstrumentation().maxOperations(1).build()
+        def nadel = buildNadel(instrumentation)
+
+        when:
+        nadel.execute(newNadelExecutionInput().query("query A { foo { id } }")).join()
+        nadel.execute(newNadelExecutionInput().query("query B { foo { id } }")).join()
+        nadel.execute(newNadelExecutionInput().query("{ foo { id } }")).join()
+
+        then:
+        instrumentation.getOperationLatencies().keySet() == ["A", SloNadelInstrumentation.OTHER_OPERATIONS] as Set
+        instrumentation.getOperationLatency(SloNadelInstrumentation.OTHER_OPERATIONS).getCount() == 2
+        instrumentation.getSlowQueryLog().dump().isEmpty()
+    }
+
+    def "the slow query log keeps the latest records"() {
+        given:
+        def log = new SlowQueryLog(2)
+        def records = (1..3).collect { new SlowQueryRecord("op$it", null, 0, 0, 0, [:], [:], []) }
+
+        when:
+        records.each { log.add(it) }
+
+        then:
+        log.dump()*.operationName == ["op2", "op3"]
+        log.getTotalCount() == 3
+    }
+
+    def "the slow query log skips a slot whose record is not written yet"() {
+        given:
+        def log = new SlowQueryLog(2)
+        (1..2).each { log.add(new SlowQueryRecord("op$it", null, 0, 0, 0, [:], [:], [])) }
+
+        when: "a writer has taken the next position but not set its record yet"
+        log.written.getAndIncrement()
+
+        then:
+        log.dump()*.operationName == ["op2"]
+    }
+
+    def "result nodes are not counted"() {
+        given:
+        def instrumentation = newSloNadelInstrumentation().build()
+        def parameters = Mock(NadelInstrumentationResultConversionParameters)
+
+        when:
+        instrumentation.beginOverallResultConversion(parameters)
+
+        then:
+        1 * parameters.getInstrumentationState() >> new RequestStatistics()
+        0 * parameters.getNodeCount()
+    }
+}
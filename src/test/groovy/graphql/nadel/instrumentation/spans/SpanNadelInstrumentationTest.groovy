@@ -0,0 +1,108 @@
+package graphql.nadel.instrumentation.spans
+
+import graphql.nadel.Nadel
+import graphql.nadel.ServiceExecution
+import graphql.nadel.ServiceExecutionParameters
+import graphql.nadel.ServiceExecutionResult
+import graphql.nadel.instrumentation.TracingSampler
+import graphql.nadel.testutils.TestUtil
+import spock.lang.Specification
+
+import static graphql.nadel.Nadel.newNadel
+import static graphql.nadel.NadelExecutionInput.newNadelExecutionInput
+import static graphql.nadel.testutils.TestUtil.typeDefinitions
+import static java.util.concurrent.CompletableFuture.completedFuture
+
+class SpanNadelInstrumentationTest extends Specification {
+
+    def nsdl = '''
+         service Foo {
+            type Query {
+                foo: Foo
+            }
+            type Foo {
+                name: String
+                bar: Bar => hydrated from Bar.barById(id: $source.barId)
+            }
+         }
+         service Bar {
+            type Query {
+                bar: Bar
+            }
+            type Bar {
+                name: String
+            }
+         }
+        '''
+
+    def traceContexts = [:]
+
+    Nadel mkNadel(SpanNadelInstrumentation instrumentation) {
+        ServiceExecution fooExecution = { ServiceExecutionParameters params ->
+            traceContexts["Foo"] = params.traceContext
+            completedFuture(new ServiceExecutionResult([foo: [name: "foo", barId: "bar1"]]))
+        }
+        ServiceExecution barExecution = { ServiceExecutionParameters params ->
+            traceContexts["Bar"] = params.traceContext
+            completedFuture(new ServiceExecutionResult([barById: [name: "bar"]]))
+        }
+        def serviceFactory = TestUtil.serviceFactory([
+                Foo: new Tuple2(fooExecution, typeDefinitions("type Query { foo: Foo } type Foo { name: String barId: ID }")),
+                Bar: new Tuple2(barExecution, typeDefinitions("type Query { bar: Bar barById(id: ID): Bar } type Bar { name: String }")),
+        ])
+        newNadel()
+                .dsl(nsdl)
+                .serviceExecutionFactory(serviceFactory)
+                .instrumentation(instrumentation)
+                .build()
+    }
+
+    def "records a span tree of service calls and hydrations"() {
+        given:
+        def exporter = new InMemorySpanExporter()
+        def nadel = mkNadel(new SpanNadelInstrumentation(exporter))
+
+        when:
+        def result = nadel.execute(newNadelExecutionInput().query("query Q { foo { name bar { name } } }").operationName("Q")).join()
+
+        then:
+        result.data == [foo: [name: "foo", bar: [name: "bar"]]]
+        def spans = exporter.getSpans()
+        spans.size() == 4
+        spans.every { it.traceId == spans[0].traceId && it.durationNanos >= 0 }
+
+        def request = spans.find { it.kind == SpanKind.REQUEST }
+        request.name == "Q"
+        request.parentSpanId == null
+
+        def foo = spans.find { it.kind == SpanKind.SERVICE_CALL && it.name == "Foo" }
+        foo.parentSpanId == request.spanId
+        foo.attributes == [service: "Foo", hydrationCall: false, resultNodeCount: 4, errorCount: 0]
+
+        def hydration = spans.find { it.kind == SpanKind.HYDRATION }
+        hydration.parentSpanId == request.spanId
+        hydration.attributes == [level: 1, batchSize: 1, services: ["Bar"]]
+
+        def bar = spans.find { it.kind == SpanKind.SERVICE_CALL && it.name == "Bar" }
+        bar.parentSpanId == hydration.spanId
+        bar.attributes["hydrationCall"] == true
+
+        traceContexts["Foo"] == foo.traceContext
+        traceContexts["Bar"] == bar.traceContext
+        bar.traceContext.toTraceparent() ==~ /00-[0-9a-f]{32}-[0-9a-f]{16}-01/
+    }
+
+    def "requests that are not sampled record no spans"() {
+        given:
+        def exporter = new InMemorySpanExporter()
+        def nadel = mkNadel(new SpanNadelInstrumentation(exporter, TracingSampler.rate(0)))
+
+        when:
+        def result = nadel.execute(newNadelExecutionInput().query("{ foo { name bar { name } } }")).join()
+
+        then:
+        result.data == [foo: [name: "foo", bar: [name: "bar"]]]
+        exporter.getSpans().isEmpty()
+        traceContexts == [Foo: null, Bar: null]
+    }
+}
@@ -0,0 +1,153 @@
+package graphql.nadel.preparsed
+
+import graphql.ExecutionInput
+import graphql.execution.instrumentation.InstrumentationContext
+import graphql.execution.preparsed.PreparsedDocumentEntry
+import graphql.language.Document
+import graphql.nadel.Nadel
+import graphql.nadel.ServiceExecution
+import graphql.nadel.ServiceExecutionResult
+import graphql.nadel.instrumentation.NadelInstrumentation
+import graphql.nadel.instrumentation.parameters.NadelInstrumentationPreparsedDocumentParameters
+import graphql.nadel.instrumentation.parameters.NadelNadelInstrumentationQueryValidationParameters
+import graphql.nadel.instrumentation.parameters.NadelInstrumentationQueryExecutionParameters
+import graphql.nadel.testutils.TestUtil
+import graphql.validation.ValidationError
+import spock.lang.Specification
+
+import static graphql.execution.instrumentation.SimpleInstrumentationContext.noOp
+import static graphql.nadel.Nadel.newNadel
+import static graphql.nadel.NadelExecutionInput.newNadelExecutionInput
+import static graphql.nadel.testutils.TestUtil.typeDefinitions
+import static java.util.concurrent.CompletableFuture.completedFuture
+
+class CachingPreparsedDocumentProviderTest extends Specification {
+
+    def simpleNDSL = '''
+         service MyService {
+            type Query{
+                hello: World
+            }
+            type World {
+                id: ID
+                name: String
+            }
+         }
+        '''
+
+    def simpleUnderlyingSchema = typeDefinitions('''
+            type Query{
+                hello: World
+            }
+            type World {
+                id: ID
+                name: String
+            }
+        ''')
+
+    def data = [hello: [name: "earth"]]
+
+    static PreparsedDocumentEntry entry() {
+        new PreparsedDocumentEntry(Document.newDocument().build())
+    }
+
+    static ExecutionInput input(String query) {
+        ExecutionInput.newExecutionInput().query(query).build()
+    }
+
+    def "repeated queries are parsed and validated once by default"() {
+        given:
+        def parseCount = 0
+        def validateCount = 0
+        DocumentCacheStatistics statistics = null
+        def instrumentation = new NadelInstrumentation() {
+            @Override
+            InstrumentationContext<Document> beginParse(NadelInstrumentationQueryExecutionParameters parameters) {
+                parseCount++
+                return noOp()
+            }
+
+            @Override
+            InstrumentationContext<List<ValidationError>> beginValidation(NadelNadelInstrumentationQueryValidationParameters parameters) {
+                validateCount++
+                return noOp()
+            }
+
+            @Override
+            InstrumentationContext<PreparsedDocumentEntry> beginPreparsedDocument(NadelInstrumentationPreparsedDocumentParameters parameters) {
+                statistics = parameters.getDocumentCacheStatistics()
+                return noOp()
+            }
+        }
+        def serviceExecution = Mock(ServiceExecution)
+        Nadel nadel = newNadel()
+                .dsl(simpleNDSL)
+                .serviceExecutionFactory(TestUtil.serviceFactory(serviceExecution, simpleUnderlyingSchema))
+                .instrumentation(instrumentation)
+                .build()
+
+        when:
+        def result1 = nadel.execute(newNadelExecutionInput().query("{ hello { name } }")).join()
+        def result2 = nadel.execute(newNadelExecutionInput().query("{ hello { name } }")).join()
+
+        then:
+        2 * serviceExecution.execute(_) >> completedFuture(new ServiceExecutionResult(data))
+        result1.data == data
+        result2.data == data
+        parseCount == 1
+        validateCount == 1
+        statistics.hitCount == 0
+        statistics.missCount == 1
+        statistics.size == 1
+    }
+
+    def "documents are not shared between schema fingerprints"() {
+        given:
+        def provider = new CachingPreparsedDocumentProvider()
+        def computeCount = 0
+        def compute = { ExecutionInput ei -> computeCount++; entry() }
+
+        when:
+        provider.getDocument("schemaA", input("{ hello }"), compute)
+        provider.getDocument("schemaA", input("{ hello }"), compute)
+        provider.getDocument("schemaB", input("{ hello }"), compute)
+
+        then:
+        computeCount == 2
+        provider.getStatistics().hitCount == 1
+        provider.getStatistics().missCount == 2
+    }
+
+    def "cache is bounded and counts evictions"() {
+        given:
+        def provider = new CachingPreparsedDocumentProvider(2)
+        def compute = { ExecutionInput ei -> entry() }
+
+        when:
+        provider.getDocument(input("{ a }"), compute)
+        provider.getDocument(input("{ b }"), compute)
+        provider.getDocument(input("{ c }"), compute)
+        def statistics = provider.getStatistics()
+
+        then:
+        statistics.size == 2
+        statistics.maxSize == 2
+        statistics.evictionCount == 1
+        statistics.missCount == 3
+    }
+
+    def "clear empties the cache"() {
+        given:
+        def provider = new CachingPreparsedDocumentProvider()
+        def computeCount = 0
+        def compute = { ExecutionInput ei -> computeCount++; entry() }
+
+        when:
+        provider.getDocument(input("{ a }"), compute)
+        provider.clear()
+        provider.getDocument(input("{ a }"), compute)
+
+        then:
+        computeCount == 2
+    }
+}
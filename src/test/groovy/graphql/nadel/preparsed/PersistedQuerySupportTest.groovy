@@ -0,0 +1,165 @@
+package graphql.nadel.preparsed
+
+import graphql.nadel.Nadel
+import graphql.nadel.ServiceExecution
+import graphql.nadel.ServiceExecutionResult
+import graphql.nadel.instrumentation.NadelInstrumentation
+import graphql.nadel.instrumentation.parameters.NadelInstrumentationQueryExecutionParameters
+import graphql.nadel.testutils.TestUtil
+import graphql.execution.instrumentation.InstrumentationContext
+import graphql.language.Document
+import spock.lang.Specification
+
+import static graphql.execution.instrumentation.SimpleInstrumentationContext.noOp
+import static graphql.nadel.Nadel.newNadel
+import static graphql.nadel.NadelExecutionInput.newNadelExecutionInput
+import static graphql.nadel.testutils.TestUtil.typeDefinitions
+import static java.util.concurrent.CompletableFuture.completedFuture
+
+class PersistedQuerySupportTest extends Specification {
+
+    def simpleNDSL = '''
+         service MyService {
+            type Query{
+                hello: World
+            }
+            type World {
+                id: ID
+                name: String
+            }
+         }
+        '''
+
+    def simpleUnderlyingSchema = typeDefinitions('''
+            type Query{
+                hello: World
+            }
+            type World {
+                id: ID
+                name: String
+            }
+        ''')
+
+    def query = "query OpName { hello { name } }"
+    def hash = PersistedQuerySupport.sha256Hex(query)
+    def data = [hello: [name: "earth"]]
+
+    def parseCount = 0
+
+    Nadel buildNadel(ServiceExecution serviceExecution) {
+        def instrumentation = new NadelInstrumentation() {
+            @Override
+            InstrumentationContext<Document> beginParse(NadelInstrumentationQueryExecutionParameters parameters) {
+                parseCount++
+                return noOp()
+            }
+        }
+        newNadel()
+                .dsl(simpleNDSL)
+                .serviceExecutionFactory(TestUtil.serviceFactory(serviceExecution, simpleUnderlyingSchema))
+                .instrumentation(instrumentation)
+                .build()
+    }
+
+    def "hash only request for an unknown query returns PersistedQueryNotFound"() {
+        given:
+        def serviceExecution = Mock(ServiceExecution)
+        def nadel = buildNadel(serviceExecution)
+
+        when:
+        def result = nadel.execute(newNadelExecutionInput().persistedQueryHash(hash)).join()
+
+        then:
+        0 * serviceExecution.execute(_)
+        result.errors.size() == 1
+        result.errors[0].message == "PersistedQueryNotFound"
+        result.errors[0].extensions["persistedQueryId"] == hash
+        parseCount == 0
+    }
+
+    def "query is registered on miss and then served by hash without parsing"() {
+        given:
+        def serviceExecution = Mock(ServiceExecution)
+        def nadel = buildNadel(serviceExecution)
+
+        when:
+        def registerResult = nadel.execute(newNadelExecutionInput().query(query).persistedQueryHash(hash)).join()
+        def hashOnlyResult = nadel.execute(newNadelExecutionInput().persistedQueryHash(hash)).join()
+
+        then:
+        2 * serviceExecution.execute(_) >> completedFuture(new ServiceExecutionResult(data))
+        registerResult.data == data
+        hashOnlyResult.data == data
+        hashOnlyResult.errors.isEmpty()
+        parseCount == 1
+    }
+
+    def "query that does not match its hash is rejected"() {
+        given:
+        def serviceExecution = Mock(ServiceExecution)
+        def nadel = buildNadel(serviceExecution)
+
+        when:
+        def result = nadel.execute(newNadelExecutionInput().query("{ hello { id } }").persistedQueryHash(hash)).join()
+
+        then:
+        0 * serviceExecution.execute(_)
+        result.errors[0].message == "PersistedQueryIdInvalid"
+    }
+
+    def "invalid queries are not registered"() {
+        given:
+        def cache = new InMemoryPersistedQueryCache(10)
+        def invalidQuery = "{ hello { unknownField } }"
+        def invalidHash = PersistedQuerySupport.sha256Hex(invalidQuery)
+        def nadel = newNadel()
+                .dsl(simpleNDSL)
+                .serviceExecutionFactory(TestUtil.serviceFactory(Mock(ServiceExecution), simpleUnderlyingSchema))
+                .persistedQueryCache(cache)
+                .build()
+
+        when:
+        def result = nadel.execute(newNadelExecutionInput().query(invalidQuery).persistedQueryHash(invalidHash)).join()
+
+        then:
+        !result.errors.isEmpty()
+        cache.size() == 0
+    }
+
+    def "registered queries are not cached by the preparsed document provider as well"() {
+        given:
+        def documentProvider = new CachingPreparsedDocumentProvider()
+        def cache = new InMemoryPersistedQueryCache(10)
+        def nadel = newNadel()
+                .dsl(simpleNDSL)
+                .serviceExecutionFactory(TestUtil.serviceFactory(Mock(ServiceExecution), simpleUnderlyingSchema))
+                .preparsedDocumentProvider(documentProvider)
+                .persistedQueryCache(cache)
+                .build()
+
+        when:
+        nadel.execute(newNadelExecutionInput().query(query).persistedQueryHash(hash)).join()
+
+        then:
+        cache.size() == 1
+        documentProvider.statistics.size == 0
+    }
+
+    def "in memory cache is bounded"() {
+        given:
+        def cache = new InMemoryPersistedQueryCache(2)
+        def entry = { String q -> new PersistedQueryCache.PersistedQuery(q, new graphql.execution.preparsed.PreparsedDocumentEntry(Document.newDocument().build())) }
+
+        when:
+        cache.computeIfAbsent("a", { entry("a") })
+        cache.computeIfAbsent("b", { entry("b") })
+        cache.get("a")
+        cache.computeIfAbsent("c", { entry("c") })
+
+        then:
+        cache.size() == 2
+        cache.get("a") != null
+        cache.get("b") == null
+        cache.get("c") != null
+    }
+}
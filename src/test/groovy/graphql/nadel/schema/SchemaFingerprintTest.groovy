@@ -0,0 +1,109 @@
+package graphql.nadel.schema
+
+import graphql.nadel.Nadel
+import graphql.nadel.ServiceExecution
+import graphql.nadel.ServiceExecutionResult
+import graphql.nadel.preparsed.CachingPreparsedDocumentProvider
+import graphql.nadel.testutils.TestUtil
+import spock.lang.Specification
+
+import static graphql.nadel.Nadel.newNadel
+import static graphql.nadel.NadelExecutionInput.newNadelExecutionInput
+import static graphql.nadel.testutils.TestUtil.typeDefinitions
+import static java.util.concurrent.CompletableFuture.completedFuture
+
+class SchemaFingerprintTest extends Specification {
+
+    def nsdl = '''
+         service MyService {
+            type Query{
+                hello: World
+            }
+            type World {
+                id: ID
+                name: String
+            }
+         }
+        '''
+
+    def underlying = '''
+            type Query{
+                hello: World
+            }
+            type World {
+                id: ID
+                name: String
+            }
+        '''
+
+    def reorderedUnderlying = '''
+            type World {
+                id: ID
+                name: String
+            }
+            type Query{
+                hello: World
+            }
+        '''
+
+    Nadel buildNadel(String nsdl, String underlying, ServiceExecution serviceExecution = null, CachingPreparsedDocumentProvider provider = new CachingPreparsedDocumentProvider()) {
+        newNadel()
+                .dsl(nsdl)
+                .serviceExecutionFactory(TestUtil.serviceFactory(serviceExecution, typeDefinitions(underlying)))
+                .preparsedDocumentProvider(provider)
+                .build()
+    }
+
+    def "same inputs give the same fingerprint"() {
+        when:
+        def fingerprint1 = buildNadel(nsdl, underlying).schemaFingerprint
+        def fingerprint2 = buildNadel(nsdl, underlying).schemaFingerprint
+
+        then:
+        fingerprint1 == fingerprint2
+    }
+
+    def "order of underlying definitions does not change the fingerprint"() {
+        when:
+        def fingerprint1 = buildNadel(nsdl, underlying).schemaFingerprint
+        def fingerprint2 = buildNadel(nsdl, reorderedUnderlying).schemaFingerprint
+
+        then:
+        fingerprint1 == fingerprint2
+    }
+
+    def "changes to the nsdl or underlying schema change the fingerprint"() {
+        given:
+        def changedNsdl = nsdl.replace("name: String", "name: String description: String")
+        def changedUnderlying = underlying.replace("name: String", "name: String description: String")
+
+        when:
+        def fingerprint = buildNadel(nsdl, underlying).schemaFingerprint
+        def changedFingerprint = buildNadel(changedNsdl, changedUnderlying).schemaFingerprint
+        def changedUnderlyingFingerprint = buildNadel(nsdl, changedUnderlying).schemaFingerprint
+
+        then:
+        changedFingerprint != fingerprint
+        changedUnderlyingFingerprint != fingerprint
+    }
+
+    def "shared document provider is keyed by schema fingerprint"() {
+        given:
+        def provider = new CachingPreparsedDocumentProvider()
+        def serviceExecution = Mock(ServiceExecution)
+        def nadel1 = buildNadel(nsdl, underlying, serviceExecution, provider)
+        def nadel2 = buildNadel(nsdl, underlying, serviceExecution, provider)
+        def nadel3 = buildNadel(nsdl.replace("name: String", "name: Int"), underlying.replace("name: String", "name: Int"), serviceExecution, provider)
+        def query = "{ hello { name } }"
+
+        when:
+        nadel1.execute(newNadelExecutionInput().query(query)).join()
+        nadel2.execute(newNadelExecutionInput().query(query)).join()
+        nadel3.execute(newNadelExecutionInput().query(query)).join()
+
+        then:
+        3 * serviceExecution.execute(_) >> completedFuture(new ServiceExecutionResult([hello: null]))
+        provider.statistics.hitCount == 1
+        provider.statistics.missCount == 2
+    }
+}
@@ -0,0 +1,206 @@
+package graphql.nadel.schema
+
+import graphql.nadel.Nadel
+import graphql.nadel.ServiceExecution
+import graphql.nadel.ServiceExecutionFactory
+import graphql.nadel.ServiceExecutionResult
+import graphql.schema.idl.TypeDefinitionRegistry
+import spock.lang.Specification
+
+import static graphql.nadel.Nadel.newNadel
+import static graphql.nadel.NadelExecutionInput.newNadelExecutionInput
+import static graphql.nadel.testutils.TestUtil.typeDefinitions
+import static java.util.concurrent.CompletableFuture.completedFuture
+
+class SchemaSnapshotTest extends Specification {
+
+    def nsdl = '''
+         common {
+            type Common {
+                value: String
+            }
+         }
+         service Foo {
+            type Query{
+                foo: Foo
+            }
+            type Foo {
+                name: String
+                renamed: String => renamed from originalName
+                bar: Bar => hydrated from Bar.barById(id: $source.barId) object identified by barId, batch size 2
+            }
+         }
+         service Bar {
+            type Query{
+                bar: Bar
+            }
+            type Bar {
+                barId: ID
+                name: String
+            }
+         }
+        '''
+
+    def fooUnderlying = '''
+            scalar Custom
+            type Query{
+                foo: Foo
+            }
+            type Foo {
+                name: String
+                originalName: String
+                barId: ID
+                custom: Custom
+            }
+            extend type Foo {
+                other: String
+            }
+        '''
+
+    def barUnderlying = '''
+            type Query{
+                bar: Bar
+                barById(id: ID): Bar
+            }
+            type Bar {
+                barId: ID
+                name: String
+            }
+        '''
+
+    def underlyingRequests = []
+
+    ServiceExecutionFactory serviceFactory(ServiceExecution serviceExecution) {
+        new ServiceExecutionFactory() {
+            @Override
+            ServiceExecution getServiceExecution(String serviceName) {
+                serviceExecution
+            }
+
+            @Override
+            TypeDefinitionRegistry getUnderlyingTypeDefinitions(String serviceName) {
+                underlyingRequests.add(serviceName)
+                typeDefinitions(serviceName == "Foo" ? fooUnderlying : barUnderlying)
+            }
+        }
+    }
+
+    static SchemaSnapshot roundTrip(SchemaSnapshot snapshot) {
+        def out = new ByteArrayOutputStream()
+        snapshot.writeTo(out)
+        SchemaSnapshot.readFrom(new ByteArrayInputStream(out.toByteArray()))
+    }
+
+    def "nadel built from a snapshot does not parse or load underlying definitions"() {
+        given:
+        def serviceExecution = Mock(ServiceExecution)
+        Nadel original = newNadel().dsl(nsdl).serviceExecutionFactory(serviceFactory(serviceExecution)).build()
+        def snapshot = roundTrip(original.createSchemaSnapshot())
+        underlyingRequests.clear()
+
+        when:
+        Nadel nadel = newNadel().schemaSnapshot(snapshot).serviceExecutionFactory(serviceFactory(serviceExecution)).build()
+        def result = nadel.execute(newNadelExecutionInput().query("{ foo { renamed } }")).join()
+
+        then:
+        1 * serviceExecution.execute(_) >> completedFuture(new ServiceExecutionResult([foo: [originalName: "x"]]))
+        underlyingRequests.isEmpty()
+        nadel.schemaFingerprint == original.schemaFingerprint
+        snapshot.schemaFingerprint == original.schemaFingerprint
+        result.errors.isEmpty()
+        result.data == [foo: [renamed: "x"]]
+    }
+
+    def "snapshot is used when the nsdl is the same"() {
+        given:
+        def snapshot = roundTrip(newNadel().dsl(nsdl).serviceExecutionFactory(serviceFactory(null)).build().createSchemaSnapshot())
+        underlyingRequests.clear()
+
+        when:
+        Nadel nadel = newNadel().dsl(nsdl).schemaSnapshot(snapshot).serviceExecutionFactory(serviceFactory(null)).build()
+
+        then:
+        underlyingRequests.isEmpty()
+        nadel.schemaFingerprint == snapshot.schemaFingerprint
+    }
+
+    def "snapshot of a different nsdl is ignored"() {
+        given:
+        def snapshot = roundTrip(newNadel().dsl(nsdl).serviceExecutionFactory(serviceFactory(null)).build().createSchemaSnapshot())
+        def changedNsdl = nsdl.replace("name: String", "name: String @deprecated")
+        underlyingRequests.clear()
+
+        when:
+        Nadel nadel = newNadel().dsl(changedNsdl).schemaSnapshot(snapshot).serviceExecutionFactory(serviceFactory(null)).build()
+
+        then:
+        underlyingRequests == ["Foo", "Bar"]
+        nadel.schemaFingerprint != snapshot.schemaFingerprint
+        nadel.overallSchema.getObjectType("Foo").getFieldDefinition("name").isDeprecated()
+    }
+
+    def "corrupt snapshots are rejected"() {
+        given:
+        def out = new ByteArrayOutputStream()
+        newNadel().dsl(nsdl).serviceExecutionFactory(serviceFactory(null)).build().createSchemaSnapshot().writeTo(out)
+        def bytes = out.toByteArray()
+        bytes[bytes.length - 40] ^= 0xFF
+
+        when:
+        SchemaSnapshot.readFrom(new ByteArrayInputStream(bytes))
+
+        then:
+        def e = thrown(IOException)
+        e.message.contains("checksum")
+    }
+
+    def "nadel is built from source if the snapshot fingerprint does not match"() {
+        given:
+        def serviceExecution = Mock(ServiceExecution)
+        Nadel original = newNadel().dsl(nsdl).serviceExecutionFactory(serviceFactory(serviceExecution)).build()
+        def snapshot = original.createSchemaSnapshot()
+        def tampered = new SchemaSnapshot("not-the-fingerprint", snapshot.nsdl, snapshot.stitchingDsl,
+                snapshot.underlyingTypeDefinitions, snapshot.underlyingFingerprints)
+        underlyingRequests.clear()
+
+        when:
+        Nadel nadel = newNadel().schemaSnapshot(tampered).serviceExecutionFactory(serviceFactory(serviceExecution)).build()
+
+        then:
+        underlyingRequests == ["Foo", "Bar"]
+        nadel.schemaFingerprint == original.schemaFingerprint
+    }
+
+    def "reading a snapshot with an invalid length fails"() {
+        given:
+        def out = new ByteArrayOutputStream()
+        roundTrip(newNadel().dsl(nsdl).serviceExecutionFactory(serviceFactory(Mock(ServiceExecution))).build().createSchemaSnapshot())
+                .writeTo(out)
+        def bytes = out.toByteArray()
+        // the length follows the magic number and the format version
+        bytes[8] = (byte) length
+
+        when:
+        SchemaSnapshot.readFrom(new ByteArrayInputStream(bytes))
+
+        then:
+        def e = thrown(IOException)
+        e.message.startsWith("Invalid schema snapshot length")
+
+        where:
+        length << [0x80, 0x7F]
+    }
+
+    def "a snapshot can not be taken once the underlying type definitions changed"() {
+        given:
+        Nadel nadel = newNadel().dsl(nsdl).serviceExecutionFactory(serviceFactory(Mock(ServiceExecution))).build()
+        barUnderlying = barUnderlying.replace("name: String", "name: String\n otherName: String")
+
+        when:
+        nadel.createSchemaSnapshot()
+
+        then:
+        def e = thrown(IllegalStateException)
+        e.message.contains("'Bar'")
+    }
+}
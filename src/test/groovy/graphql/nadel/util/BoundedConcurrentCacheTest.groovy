@@ -0,0 +1,56 @@
+package graphql.nadel.util
+
+import spock.lang.Specification
+
+class BoundedConcurrentCacheTest extends Specification {
+
+    def "holds at most the maximum number of entries"() {
+        given:
+        def cache = new BoundedConcurrentCache<String, String>(2)
+
+        when:
+        ["a", "b", "c"].each { key -> cache.computeIfAbsent(key, { it.toUpperCase() }) }
+
+        then:
+        cache.size() == 2
+        cache.getEvictionCount() == 1
+        cache.get("a") == null
+        cache.get("c") == "C"
+    }
+
+    def "an entry that was removed and added again is not evicted as if it were old"() {
+        given:
+        def cache = new BoundedConcurrentCache<String, String>(2)
+        cache.computeIfAbsent("a", { "a1" })
+        cache.computeIfAbsent("b", { "b" })
+
+        when:
+        cache.remove("a")
+        cache.computeIfAbsent("a", { "a2" })
+        cache.computeIfAbsent("c", { "c" })
+
+        then:
+        cache.size() == 2
+        cache.get("a") == "a2"
+        cache.get("b") == null
+    }
+
+    def "the eviction queue stays bounded when entries are removed and added again"() {
+        given:
+        def cache = new BoundedConcurrentCache<String, String>(10)
+        (1..5).each { i -> cache.computeIfAbsent("key$i", { "value" }) }
+
+        when:
+        10_000.times { i ->
+            def key = "key${i % 5 + 1}"
+            def value = cache.get(key)
+            cache.remove(key, value)
+            cache.computeIfAbsent(key, { "value$i" })
+        }
+
+        then:
+        cache.size() == 5
+        cache.getQueueLength() <= 2 * 10 + 1
+        cache.getEvictionCount() == 0
+    }
+}
@@ -0,0 +1,25 @@
+package graphql.nadel.util
+
+import spock.lang.Specification
+
+import java.util.function.Supplier
+
+class FpKitTest extends Specification {
+
+    def "intra thread memoize calls the delegate once and only when asked"() {
+        def calls = 0
+        Supplier<String> memoized = FpKit.intraThreadMemoize({ calls++; null } as Supplier<String>)
+
+        expect:
+        calls == 0
+
+        when:
+        def first = memoized.get()
+        def second = memoized.get()
+
+        then:
+        first == null
+        second == null
+        calls == 1
+    }
+}
@@ -0,0 +1,118 @@
+package benchmark;
+
+
+import graphql.ExecutionResult;
+import graphql.nadel.Nadel;
+import graphql.nadel.NadelExecutionInput;
+import graphql.nadel.ServiceExecution;
+import graphql.nadel.ServiceExecutionFactory;
+import graphql.nadel.ServiceExecutionResult;
+import graphql.nadel.engine.HooksVisitArgumentValueEnvironment;
+import graphql.nadel.hooks.NewVariableValue;
+import graphql.nadel.hooks.ServiceExecutionHooks;
+import graphql.schema.idl.SchemaParser;
+import graphql.schema.idl.TypeDefinitionRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares executing a query with many arguments when the hooks do not visit argument values, in which case the query
+ * transformer skips them, with hooks that do.
+ *
+ * See http://hg.openjdk.java.net/code-tools/jmh/file/tip/jmh-samples/src/main/java/org/openjdk/jmh/samples/ for more samples
+ * on what you can do with JMH
+ */
+public class ArgumentHeavyQueryBenchmark {
+
+    static final int FIELD_COUNT = 100;
+
+    static String schema = "" +
+            "type Query {\n" +
+            "    search(text: String, first: Int, after: String, filter: Filter, tags: [String]): String\n" +
+            "}\n" +
+            "input Filter {\n" +
+            "    status: String\n" +
+            "    owners: [String]\n" +
+            "    created: Range\n" +
+            "}\n" +
+            "input Range {\n" +
+            "    from: String\n" +
+            "    to: String\n" +
+            "}\n";
+
+    static String query = createQuery();
+    static Nadel defaultHooksNadel = createNadel(new ServiceExecutionHooks() {
+    });
+    static Nadel visitingHooksNadel = createNadel(new ServiceExecutionHooks() {
+        @Override
+        public NewVariableValue visitArgumentValueInQuery(HooksVisitArgumentValueEnvironment env) {
+            return null;
+        }
+    });
+
+    @Benchmark
+    @Warmup(iterations = 2, time = 5, batchSize = 1)
+    @Measurement(iterations = 3, time = 10)
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public ExecutionResult benchMarkDefaultHooks() {
+        return execute(defaultHooksNadel);
+    }
+
+    @Benchmark
+    @Warmup(iterations = 2, time = 5, batchSize = 1)
+    @Measurement(iterations = 3, time = 10)
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public ExecutionResult benchMarkVisitingHooks() {
+        return execute(visitingHooksNadel);
+    }
+
+    static ExecutionResult execute(Nadel nadel) {
+        return nadel.execute(NadelExecutionInput.newNadelExecutionInput().query(query).build()).join();
+    }
+
+    static Nadel createNadel(ServiceExecutionHooks hooks) {
+        TypeDefinitionRegistry typeDefinitions = new SchemaParser().parse(schema);
+        Map<String, Object> data = new LinkedHashMap<>();
+        for (int i = 0; i < FIELD_COUNT; i++) {
+            data.put("search" + i, "result" + i);
+        }
+        ServiceExecution serviceExecution = params -> CompletableFuture.completedFuture(new ServiceExecutionResult(data));
+        ServiceExecutionFactory serviceExecutionFactory = new ServiceExecutionFactory() {
+            @Override
+            public ServiceExecution getServiceExecution(String serviceName) {
+                return serviceExecution;
+            }
+
+            @Override
+            public TypeDefinitionRegistry getUnderlyingTypeDefinitions(String serviceName) {
+                return typeDefinitions;
+            }
+        };
+        return Nadel.newNadel()
+                .dsl("service search {" + schema + "}")
+                .serviceExecutionFactory(serviceExecutionFactory)
+                .serviceExecutionHooks(hooks)
+                .build();
+    }
+
+    static String createQuery() {
+        StringBuilder sb = new StringBuilder("{\n");
+        for (int i = 0; i < FIELD_COUNT; i++) {
+            sb.append("    search").append(i).append(": search(text: \"query ").append(i).append("\", first: 50, after: \"cursor\"")
+                    .append(", filter: {status: \"open\", owners: [\"a\", \"b\", \"c\"], created: {from: \"2020-01-01\", to: \"2020-12-31\"}}")
+                    .append(", tags: [\"x\", \"y\", \"z\"])\n");
+        }
+        return sb.append("}").toString();
+    }
+}
@@ -0,0 +1,102 @@
+package benchmark;
+
+import graphql.execution.instrumentation.InstrumentationContext;
+import graphql.execution.instrumentation.InstrumentationState;
+import graphql.execution.nextgen.result.ExecutionResultNode;
+import graphql.language.Document;
+import graphql.nadel.instrumentation.ChainedNadelInstrumentation;
+import graphql.nadel.instrumentation.NadelInstrumentation;
+import graphql.nadel.instrumentation.parameters.NadelInstrumentationCreateStateParameters;
+import graphql.nadel.instrumentation.parameters.NadelInstrumentationFetchFieldParameters;
+import graphql.nadel.instrumentation.parameters.NadelInstrumentationQueryExecutionParameters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static graphql.execution.instrumentation.SimpleInstrumentationContext.noOp;
+import static graphql.execution.instrumentation.SimpleInstrumentationContext.whenCompleted;
+
+/**
+ * Measures the per field cost of chains of 1, 3 and 10 instrumentations where only one instrumentation instruments
+ * field fetches and the others instrument other steps, which is the common case for chained instrumentations.
+ *
+ * See http://hg.openjdk.java.net/code-tools/jmh/file/tip/jmh-samples/src/main/java/org/openjdk/jmh/samples/ for more samples
+ * on what you can do with JMH
+ */
+public class ChainedInstrumentationBenchmark {
+
+    static final LongAdder completedFields = new LongAdder();
+
+    static NadelInstrumentation oneInstrumentation = createChain(1);
+    static NadelInstrumentation threeInstrumentations = createChain(3);
+    static NadelInstrumentation tenInstrumentations = createChain(10);
+
+    static NadelInstrumentationFetchFieldParameters oneParameters = fieldParameters(oneInstrumentation);
+    static NadelInstrumentationFetchFieldParameters threeParameters = fieldParameters(threeInstrumentations);
+    static NadelInstrumentationFetchFieldParameters tenParameters = fieldParameters(tenInstrumentations);
+
+    @Benchmark
+    @Warmup(iterations = 2, time = 5, batchSize = 1)
+    @Measurement(iterations = 3, time = 10)
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public void benchMarkOneInstrumentation() {
+        fetchField(oneInstrumentation, oneParameters);
+    }
+
+    @Benchmark
+    @Warmup(iterations = 2, time = 5, batchSize = 1)
+    @Measurement(iterations = 3, time = 10)
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public void benchMarkThreeInstrumentations() {
+        fetchField(threeInstrumentations, threeParameters);
+    }
+
+    @Benchmark
+    @Warmup(iterations = 2, time = 5, batchSize = 1)
+    @Measurement(iterations = 3, time = 10)
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public void benchMarkTenInstrumentations() {
+        fetchField(tenInstrumentations, tenParameters);
+    }
+
+    private static void fetchField(NadelInstrumentation instrumentation, NadelInstrumentationFetchFieldParameters parameters) {
+        InstrumentationContext<ExecutionResultNode> ctx = instrumentation.beginFieldFetch(parameters);
+        ctx.onDispatched(null);
+        ctx.onCompleted(null, null);
+    }
+
+    static NadelInstrumentation createChain(int size) {
+        List<NadelInstrumentation> instrumentations = new ArrayList<>();
+        instrumentations.add(new NadelInstrumentation() {
+            @Override
+            public InstrumentationContext<ExecutionResultNode> beginFieldFetch(NadelInstrumentationFetchFieldParameters parameters) {
+                return whenCompleted((result, throwable) -> completedFields.increment());
+            }
+        });
+        while (instrumentations.size() < size) {
+            instrumentations.add(new NadelInstrumentation() {
+                @Override
+                public InstrumentationContext<Document> beginParse(NadelInstrumentationQueryExecutionParameters parameters) {
+                    return noOp();
+                }
+            });
+        }
+        return new ChainedNadelInstrumentation(instrumentations);
+    }
+
+    static NadelInstrumentationFetchFieldParameters fieldParameters(NadelInstrumentation instrumentation) {
+        InstrumentationState state = instrumentation.createState(new NadelInstrumentationCreateStateParameters(null, null));
+        return new NadelInstrumentationFetchFieldParameters(null, null, state);
+    }
+}
@@ -0,0 +1,71 @@
+package benchmark;
+
+
+import graphql.nadel.NSDLParser;
+import graphql.nadel.dsl.StitchingDsl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares parsing a large NSDL in one pass with parsing its service blocks in parallel.
+ *
+ * See http://hg.openjdk.java.net/code-tools/jmh/file/tip/jmh-samples/src/main/java/org/openjdk/jmh/samples/ for more samples
+ * on what you can do with JMH
+ */
+public class NSDLParserBenchmark {
+
+    static final int SERVICE_COUNT = 50;
+    static final int TYPES_PER_SERVICE = 40;
+
+    static String nsdl = createNsdl();
+    static NSDLParser onePassParser = new NSDLParser();
+    static NSDLParser parallelParser = new NSDLParser(ForkJoinPool.commonPool());
+
+    @Benchmark
+    @Warmup(iterations = 2, time = 5, batchSize = 1)
+    @Measurement(iterations = 3, time = 10)
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public StitchingDsl benchMarkOnePass() {
+        return onePassParser.parseDSL(nsdl);
+    }
+
+    @Benchmark
+    @Warmup(iterations = 2, time = 5, batchSize = 1)
+    @Measurement(iterations = 3, time = 10)
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public StitchingDsl benchMarkParallel() {
+        return parallelParser.parseDSL(nsdl);
+    }
+
+    static String createNsdl() {
+        StringBuilder sb = new StringBuilder();
+        for (int s = 0; s < SERVICE_COUNT; s++) {
+            sb.append("service Service").append(s).append(" {\n");
+            sb.append("    type Query {\n");
+            sb.append("        root").append(s).append("(id: ID!): Type").append(s).append("_0\n");
+            sb.append("    }\n");
+            for (int t = 0; t < TYPES_PER_SERVICE; t++) {
+                sb.append("    # type ").append(t).append(" of service ").append(s).append("\n");
+                sb.append("    type Type").append(s).append('_').append(t).append(" => renamed from UnderlyingType").append(t).append(" {\n");
+                sb.append("        id: ID!\n");
+                sb.append("        name: String => renamed from title\n");
+                sb.append("        tags(first: Int = 10, after: String): [String] @deprecated(reason: \"unused\")\n");
+                sb.append("        next: Type").append(s).append('_').append((t + 1) % TYPES_PER_SERVICE)
+                        .append(" => hydrated from Service").append(s).append(".root").append(s)
+                        .append("(id: $source.nextId) object identified by id, batch size 50\n");
+                sb.append("    }\n");
+            }
+            sb.append("}\n");
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,113 @@
+package benchmark;
+
+
+import com.google.common.base.Charsets;
+import com.google.common.io.Resources;
+import graphql.execution.preparsed.NoOpPreparsedDocumentProvider;
+import graphql.execution.preparsed.PreparsedDocumentProvider;
+import graphql.nadel.Nadel;
+import graphql.nadel.NadelExecutionInput;
+import graphql.nadel.ServiceExecution;
+import graphql.nadel.ServiceExecutionFactory;
+import graphql.nadel.ServiceExecutionResult;
+import graphql.nadel.preparsed.CachingPreparsedDocumentProvider;
+import graphql.schema.idl.SchemaParser;
+import graphql.schema.idl.TypeDefinitionRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares executing the same query repeatedly with and without the default document cache.  The underlying
+ * service returns no data so the time is dominated by parsing, validation and query transformation.
+ *
+ * See http://hg.openjdk.java.net/code-tools/jmh/file/tip/jmh-samples/src/main/java/org/openjdk/jmh/samples/ for more samples
+ * on what you can do with JMH
+ */
+public class PreparsedDocumentBenchmark {
+
+    static Nadel uncachedNadel;
+    static Nadel cachedNadel;
+    static String query;
+
+    static {
+        init();
+    }
+
+    @Benchmark
+    @Warmup(iterations = 2, time = 5, batchSize = 1)
+    @Measurement(iterations = 3, time = 10)
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void benchMarkUncached() {
+        executeQuery(uncachedNadel);
+    }
+
+    @Benchmark
+    @Warmup(iterations = 2, time = 5, batchSize = 1)
+    @Measurement(iterations = 3, time = 10)
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void benchMarkCached() {
+        executeQuery(cachedNadel);
+    }
+
+    private static void executeQuery(Nadel nadel) {
+        NadelExecutionInput nadelExecutionInput = NadelExecutionInput.newNadelExecutionInput()
+                .forkJoinPool(ForkJoinPool.commonPool())
+                .query(query)
+                .build();
+        nadel.execute(nadelExecutionInput).join();
+    }
+
+    static void init() {
+        String schemaString = readFromClasspath("large_response_benchmark_schema.graphqls");
+        TypeDefinitionRegistry typeDefinitionRegistry = new SchemaParser().parse(schemaString);
+
+        ServiceExecutionResult serviceExecutionResult = new ServiceExecutionResult(Collections.emptyMap());
+        ServiceExecution serviceExecution = serviceExecutionParameters -> CompletableFuture.completedFuture(serviceExecutionResult);
+        ServiceExecutionFactory serviceExecutionFactory = new ServiceExecutionFactory() {
+            @Override
+            public ServiceExecution getServiceExecution(String serviceName) {
+                return serviceExecution;
+            }
+
+            @Override
+            public TypeDefinitionRegistry getUnderlyingTypeDefinitions(String serviceName) {
+                return typeDefinitionRegistry;
+            }
+        };
+        String nsdl = "service activity{" + schemaString + "}";
+        uncachedNadel = buildNadel(nsdl, serviceExecutionFactory, NoOpPreparsedDocumentProvider.INSTANCE);
+        cachedNadel = buildNadel(nsdl, serviceExecutionFactory, new CachingPreparsedDocumentProvider());
+
+        query = readFromClasspath("large_response_benchmark_query.graphql");
+    }
+
+    private static Nadel buildNadel(String nsdl, ServiceExecutionFactory serviceExecutionFactory, PreparsedDocumentProvider preparsedDocumentProvider) {
+        return Nadel.newNadel()
+                .dsl(nsdl)
+                .serviceExecutionFactory(serviceExecutionFactory)
+                .preparsedDocumentProvider(preparsedDocumentProvider)
+                .build();
+    }
+
+    private static String readFromClasspath(String file) {
+        try {
+            URL url = Resources.getResource(file);
+            return Resources.toString(url, Charsets.UTF_8);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}